@@ -34,10 +34,51 @@ public final class Configuration {
     public static final String MERGER_PROPERTIES = PREFIX + "mergerProperties";
     public static final String URL = PREFIX + "url";
     public static final String CRAWL_DEPTH = PREFIX + "crawlDepth";
+    public static final String CRAWL_MEMORY_THRESHOLD = PREFIX
+            + "crawlMemoryThreshold";
+    public static final String CRAWL_CACHE_DIR = PREFIX + "crawlCacheDir";
+    public static final String CRAWL_CACHE_TTL = PREFIX + "crawlCacheTtl";
+    public static final String CRAWL_CACHE_REFRESH = PREFIX
+            + "crawlCacheRefresh";
+    public static final String SINGLE_PASS = PREFIX + "singlePass";
+    public static final String ANALYSIS_ORDER = PREFIX + "analysisOrder";
+    public static final String RESUME = PREFIX + "resume";
+    public static final String MAX_DURATION = PREFIX + "maxDuration";
+    public static final String HOST_RATE = PREFIX + "hostRate";
+    public static final String HOST_CONCURRENCY = PREFIX + "hostConcurrency";
+    public static final String MEASUREMENTS = PREFIX + "measurements";
+    public static final String MEASUREMENT_PRECISION = PREFIX
+            + "measurementPrecision";
+    public static final String BROWSER_MEMORY_RESERVE = PREFIX
+            + "browserMemoryReserve";
+    public static final String MAX_LOAD_PER_CPU = PREFIX + "maxLoadPerCpu";
+    public static final String PROFILE_INTERVAL = PREFIX + "profileInterval";
+    public static final String BROWSER_SLOTS = PREFIX + "browserSlots";
+    public static final String RENDER_SLOTS = PREFIX + "renderSlots";
+    public static final String DISK_WRITERS = PREFIX + "diskWriters";
+    public static final String RENDER_BUFFER = PREFIX + "renderBuffer";
+    public static final String RECORD_HAR = PREFIX + "recordHar";
+    public static final String ARCHIVE_MODE = PREFIX + "archiveMode";
+    public static final String ARCHIVE_FILE = PREFIX + "archiveFile";
+    public static final String STORE_RESULTS = PREFIX + "storeResults";
+    public static final String RENDERER = PREFIX + "renderer";
+    public static final String REPORT_FORMAT = PREFIX + "reportFormat";
+    public static final String EXPORT_FORMAT = PREFIX + "exportFormat";
+    public static final String SINK_BUFFER = PREFIX + "sinkBuffer";
+    public static final String RECORD_HISTORY = PREFIX + "recordHistory";
+    public static final String HISTORY_DIR = PREFIX + "historyDir";
+    public static final String TREND_RUNS = PREFIX + "trendRuns";
+    public static final String AGGREGATE = PREFIX + "aggregate";
+    public static final String RULESETS = PREFIX + "rulesets";
+    public static final String RESCORE_BUFFER = PREFIX + "rescoreBuffer";
     public static final String SKIP_URLS = PREFIX + "skipUrls";
+    public static final String WATCH_DIRS = PREFIX + "watchDirs";
+    public static final String WATCH_INTERVAL = PREFIX + "watchInterval";
     public static final String OUTPUT_DIR = PREFIX + "outputDir";
     public static final String ANALYZER_SERVICE = PREFIX + "analyzerService";
     public static final String REPORT_SERVICE = PREFIX + "reportService";
+    public static final String WRITER_SERVICE = PREFIX + "writerService";
+    public static final String RESCORE_SERVICE = PREFIX + "rescoreService";
 
     private Configuration() {
 
@@ -0,0 +1,111 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import ch.ledcom.maven.sitespeed.daemon.DaemonClient;
+import ch.ledcom.maven.sitespeed.daemon.DaemonClient.DaemonException;
+import ch.ledcom.maven.sitespeed.daemon.DaemonHandler;
+import ch.ledcom.maven.sitespeed.daemon.DaemonServer;
+import ch.ledcom.maven.sitespeed.daemon.MojoParameters;
+
+/**
+ * Start a sitespeed daemon, in the foreground, or stop the running one.
+ * 
+ * The sitespeed goal runs in the daemon when called with
+ * <code>-DsiteSpeed.daemon=true</code>, and keeps the warm JVM, the extracted
+ * YSlow script and the parsed templates from one invocation to the next.
+ * 
+ * @author gehel
+ */
+@Mojo(name = "daemon", requiresProject = false)
+public class SiteSpeedDaemonMojo extends AbstractMojo {
+
+    private static final String PROPERTY_PREFIX = "siteSpeed";
+
+    /** The file where the daemon publishes how to reach it. */
+    @Parameter(property = PROPERTY_PREFIX + ".daemonFile", required = false, defaultValue = "${user.home}/.sitespeed/daemon.properties")
+    private File daemonFile;
+
+    /**
+     * The daemon stops after this many minutes without client, 0 to never
+     * stop.
+     */
+    @Parameter(property = PROPERTY_PREFIX + ".daemonIdleTimeout", required = false, defaultValue = "120")
+    private int daemonIdleTimeout;
+
+    /** Stop the running daemon instead of starting one. */
+    @Parameter(property = PROPERTY_PREFIX + ".stop", required = false, defaultValue = "false")
+    private boolean stop;
+
+    /**
+     * Main Mojo method.
+     * 
+     * @throws MojoExecutionException
+     *             in case of execution error
+     * @throws MojoFailureException
+     *             in case of execution failure
+     */
+    @Override
+    public final void execute() throws MojoExecutionException,
+            MojoFailureException {
+        getLog().info("daemonFile=[" + daemonFile + "]");
+        getLog().info("daemonIdleTimeout=[" + daemonIdleTimeout + "]");
+        getLog().info("stop=[" + stop + "]");
+
+        DaemonClient running = DaemonClient.find(daemonFile);
+        try {
+            if (stop) {
+                if (running == null) {
+                    getLog().info("No sitespeed daemon running");
+                } else {
+                    running.stop(getLog());
+                }
+                return;
+            }
+            if (running != null) {
+                throw new MojoExecutionException(
+                        "A sitespeed daemon is already running, see ["
+                                + daemonFile + "]");
+            }
+            new DaemonServer(daemonFile,
+                    TimeUnit.MINUTES.toMillis(daemonIdleTimeout),
+                    new DaemonHandler() {
+                        @Override
+                        public void run(Properties parameters, Log log)
+                                throws Exception {
+                            SiteSpeedMojo mojo = new SiteSpeedMojo();
+                            MojoParameters.read(parameters, mojo);
+                            mojo.setLog(log);
+                            mojo.run();
+                        }
+                    }, getLog()).serve();
+        } catch (IOException e) {
+            throw new MojoExecutionException("Sitespeed daemon failed.", e);
+        } catch (DaemonException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+    }
+}
@@ -15,8 +15,23 @@ package ch.ledcom.maven.sitespeed;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URI;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
 
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -24,10 +39,30 @@ import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 
+import ch.ledcom.maven.sitespeed.aggregate.ReactorResources;
+import ch.ledcom.maven.sitespeed.aggregate.ReactorSummary;
+import ch.ledcom.maven.sitespeed.aggregate.RunSummary;
+import ch.ledcom.maven.sitespeed.analyzer.DeviceProfile;
+import ch.ledcom.maven.sitespeed.archive.ArchiveMode;
+import ch.ledcom.maven.sitespeed.bundle.JsonBundle;
+import ch.ledcom.maven.sitespeed.crawler.AnalysisOrder;
+import ch.ledcom.maven.sitespeed.crawler.SharedCrawl;
+import ch.ledcom.maven.sitespeed.daemon.DaemonClient;
+import ch.ledcom.maven.sitespeed.daemon.DaemonClient.DaemonException;
+import ch.ledcom.maven.sitespeed.daemon.MojoParameters;
+import ch.ledcom.maven.sitespeed.guice.SharedModule;
+import ch.ledcom.maven.sitespeed.guice.SharedResources;
 import ch.ledcom.maven.sitespeed.guice.SiteSpeedModule;
+import ch.ledcom.maven.sitespeed.report.Renderer;
+import ch.ledcom.maven.sitespeed.report.ReportFormat;
+import ch.ledcom.maven.sitespeed.sink.ExportFormat;
 
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
+import com.google.inject.Module;
+import com.google.inject.util.Modules;
 import com.soulgalore.crawler.guice.CrawlModule;
 
 /**
@@ -38,23 +73,164 @@ import com.soulgalore.crawler.guice.CrawlModule;
  * 
  * @author gehel
  */
-@Mojo(name = "sitespeed")
+@Mojo(name = "sitespeed", threadSafe = true)
 public class SiteSpeedMojo extends AbstractMojo {
 
     private static final String PROPERTY_PREFIX = "siteSpeed";
 
+    /** Results waiting for rendering may use 1/4 of maxHeap. */
+    private static final int RESULT_BUFFER_SHARE = 4;
+
     /** Path to the PhantomJS binary. */
     @Parameter(property = Configuration.PHANTOM_JS, required = true)
     private File phantomJSPath;
 
     /** The start url for the test. */
-    @Parameter(property = Configuration.URL, required = true)
+    @Parameter(property = Configuration.URL, required = false)
     private URL url;
 
+    /**
+     * More start urls, each site is crawled and analyzed like the one of
+     * <code>url</code>, its reports written in a directory named after its
+     * host.
+     */
+    @Parameter
+    private URL[] urls;
+
+    /**
+     * The devices each page is analyzed as, see {@link DeviceProfile}. The
+     * reports of each profile are written in a directory named after it. When
+     * not set, pages are analyzed once with <code>userAgent</code> and
+     * <code>viewport</code>, which are also the defaults of the profiles.
+     */
+    @Parameter
+    private DeviceProfile[] profiles;
+
     /** Crawl depth, default is 1. */
     @Parameter(property = Configuration.CRAWL_DEPTH, required = false, defaultValue = "1")
     private int crawlDepth;
 
+    /**
+     * Number of URLs kept in memory by the crawler before spilling its state
+     * to disk.
+     */
+    @Parameter(property = Configuration.CRAWL_MEMORY_THRESHOLD, required = false, defaultValue = "100000")
+    private int crawlMemoryThreshold;
+
+    /** Directory where crawl snapshots are kept between builds. */
+    @Parameter(property = PROPERTY_PREFIX + ".crawlCacheDir", required = false, defaultValue = "${user.home}/.sitespeed/crawl-cache")
+    private File crawlCacheDir;
+
+    /**
+     * How long, in minutes, a crawl snapshot can be reused instead of crawling
+     * the site again. Default is 0, crawl snapshots are not used.
+     */
+    @Parameter(property = PROPERTY_PREFIX + ".crawlCacheTtl", required = false, defaultValue = "0")
+    private int crawlCacheTtl;
+
+    /**
+     * Refresh the crawl snapshot in the background when it is reused. The
+     * refresh crawls the whole site again while the pages are analyzed, and
+     * the run waits for it to complete before finishing, so a run can take
+     * longer than the crawl it saves. Snapshots of single pass crawls are not
+     * refreshed, as the crawler alone cannot find the links harvested from
+     * the rendered pages.
+     */
+    @Parameter(property = PROPERTY_PREFIX + ".crawlCacheRefresh", required = false, defaultValue = "false")
+    private boolean crawlCacheRefresh;
+
+    /**
+     * Crawl and analyze in a single pass: links are harvested from the pages
+     * rendered by PhantomJS instead of being downloaded a second time by the
+     * crawler. This also finds links added by JavaScript.
+     */
+    @Parameter(property = PROPERTY_PREFIX + ".singlePass", required = false, defaultValue = "false")
+    private boolean singlePass;
+
+    /**
+     * Order in which pages are analyzed: CRAWL (as soon as discovered),
+     * INBOUND_LINKS or PAGERANK (most important pages first, once the whole
+     * site has been crawled).
+     *
+     * INBOUND_LINKS and PAGERANK keep the link graph of the whole site on the
+     * heap until the crawl completes: the URL of every page and about 8 bytes
+     * per link. The CRAWL order only keeps what the crawl frontier does not
+     * spill to disk (see crawlMemoryThreshold). Give Maven enough heap for
+     * very large sites, or use CRAWL.
+     */
+    @Parameter(property = PROPERTY_PREFIX + ".analysisOrder", required = false, defaultValue = "CRAWL")
+    private AnalysisOrder analysisOrder;
+
+    /**
+     * Resume an interrupted run: pages already recorded in the journal of the
+     * output directory are not analyzed again. Not supported in single pass
+     * mode, as links are only harvested from analyzed pages, nor with the JSON
+     * report format, as the bundle of the interrupted run is replaced.
+     */
+    @Parameter(property = PROPERTY_PREFIX + ".resume", required = false, defaultValue = "false")
+    private boolean resume;
+
+    /**
+     * Maximum duration of the analysis, in minutes. Pages that cannot complete
+     * in time, based on the previous run, are skipped. With the CRAWL
+     * analysisOrder, pages are also analyzed longest first within a window of
+     * a few hundred pages; with an importance order, the most important pages
+     * are still analyzed first. Default is 0, no limit.
+     */
+    @Parameter(property = PROPERTY_PREFIX + ".maxDuration", required = false, defaultValue = "0")
+    private int maxDuration;
+
+    /**
+     * Maximum number of pages analyzed per minute on the same host. Default is
+     * 0, no limit.
+     */
+    @Parameter(property = PROPERTY_PREFIX + ".hostRate", required = false, defaultValue = "0")
+    private int hostRate;
+
+    /**
+     * Maximum number of pages of the same host analyzed concurrently. Default
+     * is 0, no limit.
+     */
+    @Parameter(property = PROPERTY_PREFIX + ".hostConcurrency", required = false, defaultValue = "0")
+    private int hostConcurrency;
+
+    /**
+     * Maximum number of times each page is analyzed. The reported results are
+     * the median over all analyses. Default is 1.
+     */
+    @Parameter(property = PROPERTY_PREFIX + ".measurements", required = false, defaultValue = "1")
+    private int measurements;
+
+    /**
+     * Stop analyzing a page again once the 95% confidence interval of its
+     * load time is within this percentage of the mean.
+     */
+    @Parameter(property = PROPERTY_PREFIX + ".measurementPrecision", required = false, defaultValue = "5")
+    private int measurementPrecision;
+
+    /**
+     * Memory, in MB, that browsers must leave free on the machine. New
+     * browsers are only started when there is enough memory left. 0 disables
+     * this check.
+     */
+    @Parameter(property = PROPERTY_PREFIX + ".browserMemoryReserve", required = false, defaultValue = "256")
+    private int browserMemoryReserve;
+
+    /**
+     * New browsers are only started while the system load per processor is
+     * below this value. 0 disables this check.
+     */
+    @Parameter(property = PROPERTY_PREFIX + ".maxLoadPerCpu", required = false, defaultValue = "2")
+    private double maxLoadPerCpu;
+
+    /**
+     * Interval between two samples of the CPU time and memory used by each
+     * browser, in milliseconds. Only available on systems with /proc. 0
+     * disables profiling.
+     */
+    @Parameter(property = PROPERTY_PREFIX + ".profileInterval", required = false, defaultValue = "100")
+    private long profileInterval;
+
     /** Skip urls that contains this in the path. */
     @Parameter(property = Configuration.SKIP_URLS, required = false, defaultValue = "")
     private String skipUrls;
@@ -63,7 +239,49 @@ public class SiteSpeedMojo extends AbstractMojo {
     @Parameter(property = PROPERTY_PREFIX + ".nbProcesses", required = false, defaultValue = "5")
     private int nbProcesses;
 
-    /** The memory heap size for the java applications. */
+    /**
+     * How pages are processed: SINGLE_THREADED (one page at a time) or
+     * PIPELINE (up to nbProcesses browsers, renderSlots reports being
+     * rendered and diskWriters reports being written concurrently).
+     */
+    @Parameter(property = PROPERTY_PREFIX + ".orchestrator", required = false, defaultValue = "SINGLE_THREADED")
+    private OrchestratorMode orchestrator;
+
+    /** Number of reports rendered concurrently in PIPELINE mode. */
+    @Parameter(property = PROPERTY_PREFIX + ".renderSlots", required = false, defaultValue = "2")
+    private int renderSlots;
+
+    /** Number of reports written to disk concurrently in PIPELINE mode. */
+    @Parameter(property = PROPERTY_PREFIX + ".diskWriters", required = false, defaultValue = "1")
+    private int diskWriters;
+
+    /**
+     * Number of pages waiting for or under analysis in PIPELINE mode. The
+     * crawl pauses when this buffer is full.
+     */
+    @Parameter(property = PROPERTY_PREFIX + ".analysisBuffer", required = false, defaultValue = "10")
+    private int analysisBuffer;
+
+    /** Number of analyzed pages waiting for rendering in PIPELINE mode. */
+    @Parameter(property = PROPERTY_PREFIX + ".renderBuffer", required = false, defaultValue = "4")
+    private int renderBuffer;
+
+    /** Number of rendered reports waiting to be written in PIPELINE mode. */
+    @Parameter(property = PROPERTY_PREFIX + ".writeBuffer", required = false, defaultValue = "4")
+    private int writeBuffer;
+
+    /**
+     * Number of page results waiting for each result sink, such as the
+     * metrics export. The run slows down when a sink falls this far behind.
+     */
+    @Parameter(property = PROPERTY_PREFIX + ".sinkBuffer", required = false, defaultValue = "16")
+    private int sinkBuffer;
+
+    /**
+     * The memory heap size for the java applications, in MB. In PIPELINE
+     * mode, a quarter of it is used to buffer analyzed pages waiting for
+     * rendering, further pages are spilled to disk.
+     */
     @Parameter(property = PROPERTY_PREFIX + ".maxHeap", required = false, defaultValue = "1024")
     private int maxHeap;
 
@@ -87,6 +305,107 @@ public class SiteSpeedMojo extends AbstractMojo {
     @Parameter(property = PROPERTY_PREFIX + ".proxyType", required = false, defaultValue = "http")
     private String proxyType;
 
+    /**
+     * Record the requests of each analyzed page in a HAR file, through a
+     * local proxy. The proxy above is then used by the recording proxy.
+     *
+     * The recording proxy closes the connection after each request, so the
+     * browser cannot use keep-alive, and only sees HTTPS requests as CONNECT
+     * tunnels, without their individual requests. Load times and other
+     * timings measured with recordHar are therefore not comparable to those
+     * of runs without it, which the page report also points out.
+     */
+    @Parameter(property = PROPERTY_PREFIX + ".recordHar", required = false, defaultValue = "false")
+    private boolean recordHar;
+
+    /**
+     * OFF, RECORD (store every response received by PhantomJS in
+     * archiveFile) or REPLAY (serve responses from archiveFile, without
+     * network). HTTPS responses cannot be archived. The crawler does not go
+     * through the archive: use singlePass or the crawl cache for runs without
+     * any network.
+     */
+    @Parameter(property = PROPERTY_PREFIX + ".archiveMode", required = false, defaultValue = "OFF")
+    private ArchiveMode archiveMode;
+
+    /**
+     * The response archive, see archiveMode. With several urls or profiles,
+     * each run has its own archive, in a sub directory per site and per
+     * profile next to this file.
+     */
+    @Parameter(property = PROPERTY_PREFIX + ".archiveFile", required = false, defaultValue = "${project.build.directory}/sitespeed.archive")
+    private File archiveFile;
+
+    /**
+     * Keep the analysis result of each page in the output directory, so that
+     * reports can be generated again by the report goal, without a browser.
+     */
+    @Parameter(property = PROPERTY_PREFIX + ".storeResults", required = false, defaultValue = "true")
+    private boolean storeResults;
+
+    /**
+     * VELOCITY renders the reports through the Velocity templates, JAVA
+     * through compiled code that renders the default page template several
+     * times faster.
+     */
+    @Parameter(property = PROPERTY_PREFIX + ".renderer", required = false, defaultValue = "VELOCITY")
+    private Renderer renderer;
+
+    /**
+     * HTML writes one report per page. JSON writes compressed data files and
+     * a single viewer page, <code>viewer.html</code>, which must be served
+     * over HTTP. Better suited to sites with tens of thousands of pages.
+     */
+    @Parameter(property = PROPERTY_PREFIX + ".reportFormat", required = false, defaultValue = "HTML")
+    private ReportFormat reportFormat;
+
+    /**
+     * Export the scores and metrics of all pages to a single file, for
+     * dashboards: NONE, JSONL (one JSON object per line) or CSV.
+     */
+    @Parameter(property = PROPERTY_PREFIX + ".exportFormat", required = false, defaultValue = "NONE")
+    private ExportFormat exportFormat;
+
+    /**
+     * Add the metrics of each page to the history, to follow them across
+     * builds with the trend goal.
+     */
+    @Parameter(property = PROPERTY_PREFIX + ".recordHistory", required = false, defaultValue = "false")
+    private boolean recordHistory;
+
+    /**
+     * The history directory, kept outside of the build directory so that it
+     * survives mvn clean.
+     */
+    @Parameter(property = PROPERTY_PREFIX + ".historyDir", required = false, defaultValue = "${project.basedir}/sitespeed-history")
+    private File historyDir;
+
+    /**
+     * Share one analyzer pool and rendering pipeline with the other modules
+     * of the reactor running in aggregate mode, which keeps parallel builds
+     * (<code>mvn -T</code>) from starting browsers for each module, and add
+     * the results of this module to the summary of the reactor.
+     *
+     * The analyzer pool is only used by the PIPELINE orchestrator. With the
+     * SINGLE_THREADED orchestrator, each module analyzes one page at a time
+     * in its own thread, and only the host throttle and the browser admission
+     * are shared. Aggregate mode is not supported by the daemon.
+     */
+    @Parameter(property = PROPERTY_PREFIX + ".aggregate", required = false, defaultValue = "false")
+    private boolean aggregate;
+
+    /** The directory of the summary of the reactor, in aggregate mode. */
+    @Parameter(property = PROPERTY_PREFIX + ".aggregateDir", required = false, defaultValue = "${session.executionRootDirectory}/target/sitespeed-summary")
+    private File aggregateDir;
+
+    /** The name of this module in the summary of the reactor. */
+    @Parameter(defaultValue = "${project.artifactId}", readonly = true)
+    private String moduleName;
+
+    /** Identifies the build in the summary of the reactor. */
+    @Parameter(defaultValue = "${session.request.startTime}", readonly = true)
+    private transient Date buildStart;
+
     /** The user agent. */
     @Parameter(property = PROPERTY_PREFIX + ".userAgent", required = false, defaultValue = "Mozilla/6.0")
     private String userAgent;
@@ -103,6 +422,17 @@ public class SiteSpeedMojo extends AbstractMojo {
     @Parameter(property = PROPERTY_PREFIX + ".verifyUrl", required = false, defaultValue = "false")
     private boolean verifyUrl;
 
+    /**
+     * Run in the sitespeed daemon started with the daemon goal, if one is
+     * running, to skip the startup of the plugin. Runs in process otherwise.
+     */
+    @Parameter(property = PROPERTY_PREFIX + ".daemon", required = false, defaultValue = "false")
+    private boolean daemon;
+
+    /** The file where the daemon publishes how to reach it. */
+    @Parameter(property = PROPERTY_PREFIX + ".daemonFile", required = false, defaultValue = "${user.home}/.sitespeed/daemon.properties")
+    private File daemonFile;
+
     /**
      * Main Mojo method.
      * 
@@ -112,56 +442,388 @@ public class SiteSpeedMojo extends AbstractMojo {
      *             in case of execution failure
      */
     @Override
-    public final void execute() throws MojoExecutionException,
+    public void execute() throws MojoExecutionException,
             MojoFailureException {
+        if (daemon && (urls != null || profiles != null || aggregate)) {
+            getLog().warn("urls, profiles and aggregate are not supported by "
+                    + "the sitespeed daemon, running in process");
+        } else if (daemon) {
+            DaemonClient client = DaemonClient.find(daemonFile);
+            if (client != null) {
+                getLog().info("Running in the sitespeed daemon");
+                try {
+                    client.run(MojoParameters.write(this), getLog());
+                } catch (IOException e) {
+                    throw new MojoExecutionException(
+                            "Could not run in the sitespeed daemon.", e);
+                } catch (DaemonException e) {
+                    throw new MojoExecutionException(e.getMessage(), e);
+                }
+                return;
+            }
+            getLog().info("No sitespeed daemon running, running in process");
+        }
+        run();
+    }
+
+    /**
+     * Run sitespeed in this JVM, also called by the daemon.
+     */
+    void run() throws MojoExecutionException {
         logParameters();
 
-        Properties mergerProperties = new Properties();
+        if (archiveMode == ArchiveMode.REPLAY && !singlePass
+                && crawlCacheTtl == 0) {
+            getLog().warn("The crawler does not replay from the archive, "
+                    + "pages will still be crawled on the live site");
+        }
+        if (resume && singlePass) {
+            getLog().warn("resume is not supported in single pass mode, "
+                    + "all pages will be analyzed");
+        } else if (resume && reportFormat == ReportFormat.JSON) {
+            getLog().warn("resume is not supported with the JSON report "
+                    + "format, all pages will be analyzed");
+        }
+        if (aggregate && orchestrator != OrchestratorMode.PIPELINE) {
+            getLog().warn("The analyzer pool is only shared with the other "
+                    + "modules by the PIPELINE orchestrator, this module "
+                    + "analyzes one page at a time");
+        }
+
+        List<URL> sites = sites();
         try {
-            mergerProperties.load(this.getClass().getClassLoader()
-                    .getResourceAsStream("merger.properties"));
-
-            Injector injector = Guice.createInjector( //
-                    new SiteSpeedModule( //
-                            phantomJSPath, //
-                            verifyUrl, //
-                            crawlDepth, //
-                            "", //
-                            "", //
-                            proxy, //
-                            proxyType, //
-                            "", //
-                            ruleset, //
-                            "/report/velocity/page.vm", //
-                            userAgent, //
-                            viewport, //
-                            url, //
-                            mergerProperties, //
-                            outputDir, //
-                            getLog()), //
-                    new CrawlModule());
-//            SiteSpeedOrchestrator orchestrator = injector
-//                    .getInstance(SiteSpeedOrchestrator.class);
-            SiteSpeedSingleThreadedOrchestrator orchestrator = injector
-                    .getInstance(SiteSpeedSingleThreadedOrchestrator.class);
-            orchestrator.siteSpeed();
+            if (sites.size() == 1 && profiles == null && !aggregate) {
+                siteSpeed(createInjector());
+            } else {
+                siteSpeed(sites, profiles());
+            }
         } catch (IOException e) {
             throw new MojoExecutionException("Could not execute sitespeed.", e);
         }
     }
 
-    private void logParameters() {
+    private void siteSpeed(Injector injector) throws IOException {
+        if (orchestrator == OrchestratorMode.PIPELINE) {
+            injector.getInstance(SiteSpeedOrchestrator.class).siteSpeed();
+        } else {
+            injector.getInstance(SiteSpeedSingleThreadedOrchestrator.class)
+                    .siteSpeed();
+        }
+    }
+
+    /**
+     * Analyze every site with every profile. All runs share one analyzer
+     * pool, and the runs of a site share its crawl. With the pipeline
+     * orchestrator, runs are executed concurrently so that the pool is kept
+     * busy, otherwise one after the other. In aggregate mode, the pool is
+     * also shared with the other modules of the reactor.
+     */
+    private void siteSpeed(List<URL> sites, List<DeviceProfile> profiles)
+            throws IOException, MojoExecutionException {
+        Injector shared = createInjector(sites.get(0), profiles.get(0),
+                outputDir, historyDir, archiveFile);
+        SharedResources resources = aggregate ? ReactorResources
+                .acquire(shared) : SharedResources.create(shared);
+        try {
+            siteSpeed(sites, profiles, resources);
+        } finally {
+            if (aggregate) {
+                ReactorResources.release();
+            } else {
+                resources.close();
+            }
+        }
+    }
+
+    private void siteSpeed(List<URL> sites, List<DeviceProfile> profiles,
+            SharedResources resources) throws IOException,
+            MojoExecutionException {
+        List<String> siteNames = directoryNames(sites);
+        List<Callable<Void>> runs = new ArrayList<Callable<Void>>();
+        for (int i = 0; i < sites.size(); i++) {
+            SharedCrawl crawl = new SharedCrawl(profiles.size());
+            for (DeviceProfile profile : profiles) {
+                String siteName = sites.size() > 1 ? siteNames.get(i) : null;
+                String profileName = this.profiles != null ? profile.getName()
+                        : null;
+                File runOutputDir = runDirectory(outputDir, siteName,
+                        profileName);
+                File runHistoryDir = runDirectory(historyDir, siteName,
+                        profileName);
+                File runArchiveFile = runFile(archiveFile, siteName,
+                        profileName);
+                getLog().info("Analyzing [" + sites.get(i) + "] as ["
+                        + profile + "] to [" + runOutputDir + "]");
+                final Injector injector = createInjector(sites.get(i),
+                        profile, runOutputDir, runHistoryDir, runArchiveFile,
+                        new SharedModule(resources, crawl));
+                final String run = this.profiles == null ? sites.get(i)
+                        .toExternalForm() : sites.get(i).toExternalForm()
+                        + " (" + profile.getName() + ")";
+                final File reportDir = runOutputDir;
+                runs.add(new Callable<Void>() {
+                    @Override
+                    public Void call() throws IOException {
+                        siteSpeed(injector);
+                        if (aggregate) {
+                            RunSummary summary = injector
+                                    .getInstance(RunSummary.class);
+                            ReactorSummary.add(aggregateDir,
+                                    buildStart == null ? 0 : buildStart
+                                            .getTime(), moduleName, run,
+                                    report(reportDir, summary), summary);
+                        }
+                        return null;
+                    }
+                });
+            }
+        }
+
+        int concurrentRuns = orchestrator == OrchestratorMode.PIPELINE ? runs
+                .size() : 1;
+        ExecutorService runService = Executors
+                .newFixedThreadPool(concurrentRuns);
+        try {
+            for (Future<Void> run : runService.invokeAll(runs)) {
+                run.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+            throw new MojoExecutionException("Could not execute sitespeed.",
+                    e.getCause());
+        } finally {
+            runService.shutdownNow();
+        }
+    }
+
+    /**
+     * The report of a run linked from the summary of the reactor.
+     */
+    private File report(File runOutputDir, RunSummary summary) {
+        if (reportFormat == ReportFormat.JSON) {
+            return new File(runOutputDir, JsonBundle.VIEWER);
+        }
+        URI firstPage = summary.firstPage();
+        return firstPage == null ? runOutputDir : new File(runOutputDir,
+                SiteSpeedOrchestrator.reportFileName(firstPage));
+    }
+
+    private List<URL> sites() throws MojoExecutionException {
+        List<URL> sites = new ArrayList<URL>();
+        if (url != null) {
+            sites.add(url);
+        }
+        if (urls != null) {
+            sites.addAll(Arrays.asList(urls));
+        }
+        if (sites.isEmpty()) {
+            throw new MojoExecutionException(
+                    "At least one start url is needed, set url or urls");
+        }
+        return sites;
+    }
+
+    private List<DeviceProfile> profiles() throws MojoExecutionException {
+        if (profiles == null || profiles.length == 0) {
+            return ImmutableList.of(new DeviceProfile("default", userAgent,
+                    viewport));
+        }
+        List<DeviceProfile> configured = new ArrayList<DeviceProfile>();
+        Set<String> names = new HashSet<String>();
+        for (DeviceProfile profile : profiles) {
+            try {
+                profile.validate();
+            } catch (IllegalArgumentException e) {
+                throw new MojoExecutionException(e.getMessage(), e);
+            }
+            if (!names.add(profile.getName())) {
+                throw new MojoExecutionException("Duplicate profile ["
+                        + profile.getName() + "]");
+            }
+            configured.add(new DeviceProfile(profile.getName(), profile
+                    .getUserAgent() != null ? profile.getUserAgent()
+                    : userAgent, profile.getViewport() != null ? profile
+                    .getViewport() : viewport));
+        }
+        return configured;
+    }
+
+    /**
+     * The directory of each site, named after its host and port. Sites on the
+     * same host are numbered.
+     */
+    private static List<String> directoryNames(List<URL> sites) {
+        List<String> names = new ArrayList<String>();
+        Set<String> used = new HashSet<String>();
+        for (URL site : sites) {
+            String name = site.getPort() == -1 ? site.getHost() : site
+                    .getHost() + "-" + site.getPort();
+            String unique = name;
+            for (int i = 2; !used.add(unique); i++) {
+                unique = name + "-" + i;
+            }
+            names.add(unique);
+        }
+        return names;
+    }
+
+    /**
+     * Create the injector configured by the parameters of this Mojo, with the
+     * modules specific to a goal. Only the first site and profile are used.
+     */
+    Injector createInjector(Module... modules) throws IOException,
+            MojoExecutionException {
+        if (sites().size() > 1 || profiles().size() > 1) {
+            getLog().warn("Only the first url and profile are used");
+        }
+        return createInjector(sites().get(0), profiles().get(0), outputDir,
+                historyDir, archiveFile, modules);
+    }
+
+    /**
+     * The directory of a run, with a sub directory per site and per profile
+     * when there are several.
+     */
+    static File runDirectory(File directory, @Nullable String siteName,
+            @Nullable String profileName) {
+        File runDirectory = directory;
+        if (siteName != null) {
+            runDirectory = new File(runDirectory, siteName);
+        }
+        if (profileName != null) {
+            runDirectory = new File(runDirectory, profileName);
+        }
+        return runDirectory;
+    }
+
+    /**
+     * A file of a run, such as the response archive, in the run directory
+     * (see {@link #runDirectory(File, String, String)}) next to the file, so
+     * that runs never share it.
+     */
+    static File runFile(File file, @Nullable String siteName,
+            @Nullable String profileName) {
+        return new File(runDirectory(file.getAbsoluteFile().getParentFile(),
+                siteName, profileName), file.getName());
+    }
+
+    /**
+     * Create the injector of the run of a site with a profile, with modules
+     * overriding the configuration of this Mojo.
+     */
+    private Injector createInjector(URL site, DeviceProfile profile,
+            File runOutputDir, File runHistoryDir, File runArchiveFile,
+            Module... overrides)
+            throws IOException {
+        Properties mergerProperties = new Properties();
+        mergerProperties.load(this.getClass().getClassLoader()
+                .getResourceAsStream("merger.properties"));
+
+        return Guice.createInjector(Modules.override( //
+                SiteSpeedModule.builder() //
+                        .setPhantomJS(phantomJSPath) //
+                        .setVerifyUrl(verifyUrl) //
+                        .setLevel(crawlDepth) //
+                        .setFollowPath("") //
+                        .setNoFollowPath("") //
+                        .setProxyHost(proxy) //
+                        .setProxyType(proxyType) //
+                        .setRequestHeaders("") //
+                        .setRuleset(ruleset) //
+                        .setTemplate("/report/velocity/page.vm") //
+                        .setUserAgent(profile.getUserAgent()) //
+                        .setViewPort(profile.getViewport()) //
+                        .setStartUrl(site) //
+                        .setMergerProperties(mergerProperties) //
+                        .setOutputDir(runOutputDir) //
+                        .setCrawlMemoryThreshold(crawlMemoryThreshold) //
+                        .setCrawlCacheDir(crawlCacheDir) //
+                        .setCrawlCacheTtl(TimeUnit.MINUTES.toMillis(crawlCacheTtl)) //
+                        .setCrawlCacheRefresh(crawlCacheRefresh) //
+                        .setSinglePass(singlePass) //
+                        .setAnalysisOrder(analysisOrder) //
+                        .setResume(resume && !singlePass
+                                && reportFormat != ReportFormat.JSON) //
+                        .setMaxDuration(TimeUnit.MINUTES.toMillis(maxDuration)) //
+                        .setHostRate(hostRate) //
+                        .setHostConcurrency(hostConcurrency) //
+                        .setMeasurements(measurements) //
+                        .setMeasurementPrecision(measurementPrecision / 100.0) //
+                        .setBrowserMemoryReserve(browserMemoryReserve * 1024L * 1024L) //
+                        .setMaxLoadPerCpu(maxLoadPerCpu) //
+                        .setProfileInterval(profileInterval) //
+                        .setBrowserSlots(nbProcesses) //
+                        .setRenderSlots(renderSlots) //
+                        .setDiskWriters(diskWriters) //
+                        .setAnalysisBuffer(analysisBuffer) //
+                        .setRenderBuffer(renderBuffer) //
+                        .setWriteBuffer(writeBuffer) //
+                        .setResultBufferBudget(maxHeap * 1024L * 1024L / RESULT_BUFFER_SHARE) //
+                        .setRecordHar(recordHar) //
+                        .setArchiveMode(archiveMode) //
+                        .setArchiveFile(runArchiveFile) //
+                        .setStoreResults(storeResults) //
+                        .setRenderer(renderer) //
+                        .setReportFormat(reportFormat) //
+                        .setExportFormat(exportFormat) //
+                        .setSinkBuffer(sinkBuffer) //
+                        .setRecordHistory(recordHistory) //
+                        .setHistoryDir(runHistoryDir) //
+                        .setAggregate(aggregate) //
+                        .setLog(getLog()) //
+                        .build(), //
+                new CrawlModule()).with(overrides));
+    }
+
+    void logParameters() {
         getLog().info("phantomJSPath=[" + phantomJSPath + "]");
-        getLog().info("url=[" + url.toExternalForm() + "]");
+        getLog().info("url=[" + url + "]");
+        getLog().info("urls=[" + Arrays.toString(urls) + "]");
+        getLog().info("profiles=[" + Arrays.toString(profiles) + "]");
         getLog().info("crawlDepth=[" + crawlDepth + "]");
+        getLog().info("crawlMemoryThreshold=[" + crawlMemoryThreshold + "]");
+        getLog().info("crawlCacheDir=[" + crawlCacheDir + "]");
+        getLog().info("crawlCacheTtl=[" + crawlCacheTtl + "]");
+        getLog().info("crawlCacheRefresh=[" + crawlCacheRefresh + "]");
+        getLog().info("singlePass=[" + singlePass + "]");
+        getLog().info("analysisOrder=[" + analysisOrder + "]");
+        getLog().info("resume=[" + resume + "]");
+        getLog().info("maxDuration=[" + maxDuration + "]");
+        getLog().info("hostRate=[" + hostRate + "]");
+        getLog().info("hostConcurrency=[" + hostConcurrency + "]");
+        getLog().info("measurements=[" + measurements + "]");
+        getLog().info("measurementPrecision=[" + measurementPrecision + "]");
+        getLog().info("browserMemoryReserve=[" + browserMemoryReserve + "]");
+        getLog().info("maxLoadPerCpu=[" + maxLoadPerCpu + "]");
+        getLog().info("profileInterval=[" + profileInterval + "]");
         getLog().info("skipUrls=[" + skipUrls + "]");
         getLog().info("nbProcesses=[" + nbProcesses + "]");
+        getLog().info("orchestrator=[" + orchestrator + "]");
+        getLog().info("renderSlots=[" + renderSlots + "]");
+        getLog().info("diskWriters=[" + diskWriters + "]");
+        getLog().info("analysisBuffer=[" + analysisBuffer + "]");
+        getLog().info("renderBuffer=[" + renderBuffer + "]");
+        getLog().info("writeBuffer=[" + writeBuffer + "]");
+        getLog().info("sinkBuffer=[" + sinkBuffer + "]");
         getLog().info("maxHeap=[" + maxHeap + "]");
         getLog().info("outputFormat=[" + outputFormat + "]");
         getLog().info("outputDir=[" + outputDir + "]");
         getLog().info("zip=[" + zip + "]");
         getLog().info("proxy=[" + proxy + "]");
         getLog().info("proxyType=[" + proxyType + "]");
+        getLog().info("recordHar=[" + recordHar + "]");
+        getLog().info("archiveMode=[" + archiveMode + "]");
+        getLog().info("archiveFile=[" + archiveFile + "]");
+        getLog().info("storeResults=[" + storeResults + "]");
+        getLog().info("renderer=[" + renderer + "]");
+        getLog().info("reportFormat=[" + reportFormat + "]");
+        getLog().info("exportFormat=[" + exportFormat + "]");
+        getLog().info("recordHistory=[" + recordHistory + "]");
+        getLog().info("historyDir=[" + historyDir + "]");
+        getLog().info("aggregate=[" + aggregate + "]");
+        getLog().info("aggregateDir=[" + aggregateDir + "]");
         getLog().info("userAgent=[" + userAgent + "]");
         getLog().info("viewport=[" + viewport + "]");
         getLog().info("ruleset=[" + ruleset + "]");
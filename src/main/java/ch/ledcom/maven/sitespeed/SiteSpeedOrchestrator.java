@@ -13,56 +13,145 @@
  */
 package ch.ledcom.maven.sitespeed;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.Writer;
+import java.io.StringWriter;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.maven.plugin.logging.Log;
+import org.jdom2.Attribute;
 import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.JDOMException;
+import org.jdom2.input.SAXBuilder;
+import org.jdom2.output.Format;
+import org.jdom2.output.XMLOutputter;
 
+import ch.ledcom.maven.sitespeed.analyzer.HostThrottle;
+import ch.ledcom.maven.sitespeed.analyzer.MeasurementSeries;
+import ch.ledcom.maven.sitespeed.analyzer.PageLinks;
+import ch.ledcom.maven.sitespeed.analyzer.RepeatedMeasurements;
 import ch.ledcom.maven.sitespeed.analyzer.SiteSpeedAnalyzer;
+import ch.ledcom.maven.sitespeed.archive.ResponseArchive;
+import ch.ledcom.maven.sitespeed.bundle.JsonBundle;
 import ch.ledcom.maven.sitespeed.crawler.SiteSpeedCrawler;
 import ch.ledcom.maven.sitespeed.crawler.URICallback;
+import ch.ledcom.maven.sitespeed.journal.RunJournal;
+import ch.ledcom.maven.sitespeed.pipeline.Codec;
+import ch.ledcom.maven.sitespeed.pipeline.Flow;
+import ch.ledcom.maven.sitespeed.pipeline.PipelineSettings;
+import ch.ledcom.maven.sitespeed.pipeline.Source;
+import ch.ledcom.maven.sitespeed.pipeline.SpillingBuffer;
+import ch.ledcom.maven.sitespeed.pipeline.Stage;
+import ch.ledcom.maven.sitespeed.report.PageRenderer;
 import ch.ledcom.maven.sitespeed.report.ResourceFiles;
-import ch.ledcom.maven.sitespeed.report.SiteSpeedReporter;
+import ch.ledcom.maven.sitespeed.schedule.DeadlineScheduler;
+import ch.ledcom.maven.sitespeed.schedule.DeadlineScheduler.ScheduledCallback;
+import ch.ledcom.maven.sitespeed.sink.ResultSinks;
+import ch.ledcom.maven.sitespeed.store.ResultStore;
 import ch.ledcom.maven.sitespeed.utils.XmlPrettyPrinter;
 
-import com.google.common.io.Closeables;
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Closer;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
 
+/**
+ * Runs each page through a pipeline of analysis, rendering and writing.
+ *
+ * Only the scarce resources are bounded, each by its own executor: browsers
+ * (analyzer service), rendering (report service) and disk writes (writer
+ * service). Stages are connected by {@link Flow} subscriptions, each with its
+ * own buffer: a slow writer slows down rendering and a slow analysis slows
+ * down the crawl, so memory stays bounded while every stage is kept busy.
+ *
+ * Browsers are the most expensive resource, so the analysis is never slowed
+ * down by the rendering: analyzed pages waiting for rendering are kept in a
+ * {@link SpillingBuffer}, which moves them to disk once they exceed the
+ * result buffer budget.
+ *
+ * With the JSON report format, pages are added to the {@link JsonBundle}
+ * while rendering and the writing stage only journals them. Results are also
+ * sent to the {@link ResultSinks} while rendering.
+ */
 public class SiteSpeedOrchestrator {
 
+    private static final long TERMINATION_TIMEOUT_HOURS = 24;
+
     private final SiteSpeedCrawler crawler;
     private final SiteSpeedAnalyzer analyzer;
-    private final SiteSpeedReporter reporter;
+    private final HostThrottle throttle;
+    private final RepeatedMeasurements measurements;
+    private final PageRenderer reporter;
+    private final JsonBundle bundle;
+    private final ResultSinks sinks;
+    private final RunJournal journal;
+    private final ResponseArchive archive;
+    private final ResultStore results;
+    private final DeadlineScheduler scheduler;
     private final ExecutorService analyzerService;
-    private final ExecutorService reportService;
+    private final ListeningExecutorService reportService;
+    private final ListeningExecutorService writerService;
+    private final PipelineSettings pipeline;
     private final File outputDir;
 
     private final Log log;
 
+    /** Each render thread reuses its buffer, which grows to the largest page. */
+    private final ThreadLocal<StringWriter> renderBuffers = new ThreadLocal<StringWriter>() {
+        @Override
+        protected StringWriter initialValue() {
+            return new StringWriter();
+        }
+    };
+
     @Inject
     public SiteSpeedOrchestrator(
             SiteSpeedCrawler crawler,
             SiteSpeedAnalyzer analyzer,
-            SiteSpeedReporter reporter,
+            HostThrottle throttle,
+            RepeatedMeasurements measurements,
+            PageRenderer reporter, JsonBundle bundle, ResultSinks sinks,
+            RunJournal journal, ResponseArchive archive, ResultStore results,
+            DeadlineScheduler scheduler,
             @Named(Configuration.ANALYZER_SERVICE) ExecutorService analyzerService,
             @Named(Configuration.REPORT_SERVICE) ExecutorService reportService,
+            @Named(Configuration.WRITER_SERVICE) ExecutorService writerService,
+            PipelineSettings pipeline,
             @Named(Configuration.OUTPUT_DIR) File outputDir, Log log) {
         this.crawler = crawler;
         this.analyzer = analyzer;
+        this.throttle = throttle;
+        this.measurements = measurements;
         this.reporter = reporter;
+        this.bundle = bundle;
+        this.sinks = sinks;
+        this.journal = journal;
+        this.archive = archive;
+        this.results = results;
+        this.scheduler = scheduler;
         this.analyzerService = analyzerService;
-        this.reportService = reportService;
+        this.reportService = MoreExecutors.listeningDecorator(reportService);
+        this.writerService = MoreExecutors.listeningDecorator(writerService);
+        this.pipeline = pipeline;
         this.outputDir = outputDir;
         this.log = log;
     }
@@ -73,74 +162,382 @@ public class SiteSpeedOrchestrator {
             outputDir.mkdirs();
         }
 
-        // crawl site to get the list of URLs to analyze
-        crawler.crawl(new URICallback() {
-            @Override
-            public void submit(final URI uri) {
-                try {
-                    final URL url = uri.toURL();
-                    final Future<Document> documentFuture = analyzerService
-                            .submit(new Callable<Document>() {
+        Closer closer = Closer.create();
+        try {
+            closer.register(journal).open();
+            closer.register(archive).open();
+            closer.register(results).open();
+            closer.register(bundle).open();
+            closer.register(sinks).open();
+            scheduler.start();
+            final Source<URI> pages = new Source<URI>();
+            Stage<URI, AnalyzedPage> analysis = new Stage<URI, AnalyzedPage>(
+                    "analysis", pipeline.getAnalysisBuffer(),
+                    new AsyncFunction<URI, AnalyzedPage>() {
+                        @Override
+                        public ListenableFuture<AnalyzedPage> apply(URI uri)
+                                throws InterruptedException {
+                            return analyze(uri);
+                        }
+                    }, log);
+            SpillingBuffer<AnalyzedPage> analyzed = new SpillingBuffer<AnalyzedPage>(
+                    "results", pipeline.getResultBufferBudget(),
+                    new AnalyzedPageCodec(), log);
+            Stage<AnalyzedPage, RenderedPage> rendering = new Stage<AnalyzedPage, RenderedPage>(
+                    "rendering", pipeline.getRenderBuffer(),
+                    new AsyncFunction<AnalyzedPage, RenderedPage>() {
+                        @Override
+                        public ListenableFuture<RenderedPage> apply(
+                                final AnalyzedPage page) {
+                            return reportService
+                                    .submit(new Callable<RenderedPage>() {
+                                        @Override
+                                        public RenderedPage call()
+                                                throws IOException,
+                                                InterruptedException {
+                                            return render(page);
+                                        }
+                                    });
+                        }
+                    }, log);
+            Stage<RenderedPage, Void> writing = new Stage<RenderedPage, Void>(
+                    "writing", pipeline.getWriteBuffer(),
+                    new AsyncFunction<RenderedPage, Void>() {
+                        @Override
+                        public ListenableFuture<Void> apply(
+                                final RenderedPage page) {
+                            return writerService.submit(new Callable<Void>() {
                                 @Override
-                                public Document call() throws Exception {
-                                    log.info("Received URL to analyze ["
-                                            + url.toExternalForm() + "]");
-                                    return analyzer.analyze(url);
+                                public Void call() throws IOException {
+                                    write(page);
+                                    return null;
                                 }
                             });
-
-                    reportService.execute(new Runnable() {
-                        @Override
-                        public void run() {
-                            Writer out = null;
-                            boolean threw = true;
-                            try {
-                                out = createReportWriter(uri);
-                                log.info("Creating report for URL ["
-                                        + url.toExternalForm() + "]");
-                                Document doc = documentFuture.get();
-                                log.info("Document to report for URL ["
-                                        + url.toExternalForm() + "]");
-                                log.debug(XmlPrettyPrinter.prettyPrint(doc));
-                                reporter.report(doc, out);
-                                threw = false;
-                            } catch (IOException e) {
-                                e.printStackTrace();
-                            } catch (InterruptedException e) {
-                                e.printStackTrace();
-                            } catch (ExecutionException e) {
-                                e.printStackTrace();
-                            } finally {
-                                try {
-                                    Closeables.close(out, threw);
-                                } catch (IOException e) {
-                                    e.printStackTrace();
-                                }
-                            }
                         }
-                    });
-                } catch (MalformedURLException e1) {
-                    e1.printStackTrace();
+                    }, log);
+            pages.subscribe(analysis);
+            analysis.subscribe(analyzed);
+            analyzed.subscribe(rendering);
+            rendering.subscribe(writing);
+
+            ScheduledCallback scheduled = scheduler.schedule(new URICallback() {
+                @Override
+                public void submit(URI uri) {
+                    if (journal.isCompleted(uri)) {
+                        log.info("Skipping URL [" + uri
+                                + "], already analyzed by previous run");
+                        pageSkipped(uri);
+                        return;
+                    }
+                    try {
+                        // waits while the analysis stage is full
+                        pages.publish(uri);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        pageSkipped(uri);
+                    }
+                }
+            });
+            // crawl site to get the list of URLs to analyze
+            try {
+                crawler.crawl(scheduled);
+                scheduled.drain();
+            } finally {
+                pages.complete();
+            }
+            crawler.shutdown();
+
+            new ResourceFiles().export(outputDir);
+
+            awaitTermination(writing);
+        } catch (Throwable t) {
+            throw closer.rethrow(t);
+        } finally {
+            closer.close();
+        }
+    }
+
+    private ListenableFuture<AnalyzedPage> analyze(final URI uri)
+            throws InterruptedException {
+        final URL url;
+        try {
+            url = uri.toURL();
+        } catch (MalformedURLException e1) {
+            e1.printStackTrace();
+            pageSkipped(uri);
+            return Futures.immediateFuture(null);
+        }
+        final MeasurementSeries series = measurements.newSeries();
+        final SettableFuture<AnalyzedPage> result = SettableFuture.create();
+        final AtomicLong duration = new AtomicLong();
+        try {
+            for (int i = series.initialRuns(); i > 0; i--) {
+                submitRun(uri, url, series, result, duration);
+            }
+        } catch (InterruptedException e) {
+            series.stop();
+            complete(uri, series, result, duration);
+            throw e;
+        }
+        return result;
+    }
+
+    /**
+     * Submit one analysis of a page. Waits while too many analyses are
+     * queued.
+     */
+    private void submitRun(URI uri, URL url, MeasurementSeries series,
+            SettableFuture<AnalyzedPage> result, AtomicLong duration)
+            throws InterruptedException {
+        throttle.submit(uri, run(uri, url, series, result, duration),
+                analyzerService);
+    }
+
+    /**
+     * Submit another analysis of a page, from the analyzer thread that ran
+     * the previous one, without waiting.
+     */
+    private void resubmitRun(URI uri, URL url, MeasurementSeries series,
+            SettableFuture<AnalyzedPage> result, AtomicLong duration) {
+        throttle.resubmit(uri, run(uri, url, series, result, duration),
+                analyzerService);
+    }
+
+    /**
+     * One analysis of a page. Once the analysis is done, the series decides
+     * whether to analyze the page again or to complete the page.
+     */
+    private Callable<Void> run(final URI uri, final URL url,
+            final MeasurementSeries series,
+            final SettableFuture<AnalyzedPage> result,
+            final AtomicLong duration) {
+        return new Callable<Void>() {
+            @Override
+            public Void call() throws InterruptedException {
+                if (result.isDone()) {
+                    return null;
+                }
+                if (!scheduler.canStart(uri)) {
+                    log.warn("Skipping URL [" + url.toExternalForm()
+                            + "], not enough time left");
+                    series.stop();
+                    complete(uri, series, result, duration);
+                    return null;
+                }
+                boolean done = false;
+                try {
+                    log.info("Received URL to analyze ["
+                            + url.toExternalForm() + "]");
+                    long start = System.currentTimeMillis();
+                    Document doc = analyzer.analyze(url);
+                    duration.addAndGet(System.currentTimeMillis() - start);
+                    switch (series.add(doc)) {
+                    case COMPLETE:
+                        complete(uri, series, result, duration);
+                        break;
+                    case RUN_AGAIN:
+                        resubmitRun(uri, url, series, result, duration);
+                        break;
+                    default:
+                        break;
+                    }
+                    done = true;
+                } catch (IOException e) {
+                    e.printStackTrace();
+                } catch (JDOMException e) {
+                    e.printStackTrace();
+                } catch (InterruptedException e) {
+                    // the run is shutting down, keep the runs done so far
+                    series.stop();
+                    throw e;
                 } finally {
-                    crawler.shutdown();
+                    if (!done) {
+                        failed(uri, url, series, result, duration);
+                    }
                 }
+                return null;
             }
-        });
+        };
+    }
 
-        new ResourceFiles().export(outputDir);
+    /**
+     * A run of a page has failed: the series decides whether to wait for the
+     * other runs, to replace the failed run, or to complete the page with the
+     * runs done so far.
+     */
+    private void failed(URI uri, URL url, MeasurementSeries series,
+            SettableFuture<AnalyzedPage> result, AtomicLong duration) {
+        switch (series.failed()) {
+        case COMPLETE:
+            complete(uri, series, result, duration);
+            break;
+        case RUN_AGAIN:
+            resubmitRun(uri, url, series, result, duration);
+            break;
+        default:
+            break;
+        }
+    }
 
+    /**
+     * Hand the merged result of a page over to the rendering, exactly once.
+     */
+    private void complete(URI uri, MeasurementSeries series,
+            SettableFuture<AnalyzedPage> result, AtomicLong duration) {
+        Document doc = series.result();
+        if (!result.set(doc == null ? null : new AnalyzedPage(uri, doc,
+                duration.get()))) {
+            return;
+        }
         try {
-            Thread.sleep(10000);
+            crawler.linksFound(uri, PageLinks.extract(doc));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private RenderedPage render(AnalyzedPage page) throws IOException,
+            InterruptedException {
+        results.store(page.uri, page.doc);
+        sinks.publish(page.uri, page.doc);
+        log.info("Creating report for URL [" + page.uri + "]");
+        log.debug(XmlPrettyPrinter.prettyPrint(page.doc));
+        if (bundle.isEnabled()) {
+            return new RenderedPage(page.uri, bundle.add(page.uri, page.doc),
+                    null, page.duration);
+        }
+        StringWriter out = renderBuffers.get();
+        out.getBuffer().setLength(0);
+        reporter.report(page.doc, out);
+        return new RenderedPage(page.uri, reportFileName(page.uri),
+                out.toString(), page.duration);
+    }
+
+    private void write(RenderedPage page) throws IOException {
+        if (page.html != null) {
+            Files.write(page.html, new File(outputDir, page.report),
+                    Charsets.UTF_8);
+        }
+        journal.completed(page.uri, page.report, page.duration);
+    }
+
+    /**
+     * Wait for all pages to go through the pipeline, so that the journal and
+     * the reports are complete when the run ends.
+     */
+    private void awaitTermination(Stage<?, ?> lastStage) {
+        try {
+            lastStage.awaitTermination(TERMINATION_TIMEOUT_HOURS,
+                    TimeUnit.HOURS);
+            throttle.awaitIdle();
+            throttle.close();
+            analyzerService.shutdown();
+            analyzerService.awaitTermination(TERMINATION_TIMEOUT_HOURS,
+                    TimeUnit.HOURS);
+            reportService.shutdown();
+            reportService.awaitTermination(TERMINATION_TIMEOUT_HOURS,
+                    TimeUnit.HOURS);
+            writerService.shutdown();
+            writerService.awaitTermination(TERMINATION_TIMEOUT_HOURS,
+                    TimeUnit.HOURS);
         } catch (InterruptedException e) {
-            // TODO Auto-generated catch block
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void pageSkipped(URI uri) {
+        try {
+            crawler.linksFound(uri, ImmutableList.<URI> of());
+        } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
-    private Writer createReportWriter(URI uri) throws IOException {
-        String filename = uri.getHost() + uri.getPath().replace("/", ".")
-                + ".html";
-        File out = new File(outputDir, filename);
-        return new FileWriter(out);
+    static String reportFileName(URI uri) {
+        return uri.getHost() + uri.getPath().replace("/", ".") + ".html";
+    }
+
+    private static final class AnalyzedPage {
+        private final URI uri;
+        private final Document doc;
+        private final long duration;
+
+        private AnalyzedPage(URI uri, Document doc, long duration) {
+            this.uri = uri;
+            this.doc = doc;
+            this.duration = duration;
+        }
+    }
+
+    private static final class RenderedPage {
+        private final URI uri;
+        private final String report;
+        /** <code>null</code> when the page was added to the bundle. */
+        private final String html;
+        private final long duration;
+
+        private RenderedPage(URI uri, String report, String html,
+                long duration) {
+            this.uri = uri;
+            this.report = report;
+            this.html = html;
+            this.duration = duration;
+        }
+    }
+
+    /**
+     * Serializes analyzed pages for the result buffer. The heap used by a
+     * page is estimated from the number of nodes and characters of its
+     * document.
+     */
+    private static final class AnalyzedPageCodec implements
+            Codec<AnalyzedPage> {
+
+        private static final int NODE_OVERHEAD = 64;
+
+        @Override
+        public long sizeOf(AnalyzedPage page) {
+            return NODE_OVERHEAD + sizeOf(page.doc.getRootElement());
+        }
+
+        private long sizeOf(Element element) {
+            long size = NODE_OVERHEAD + 2L * element.getName().length();
+            for (Attribute attribute : element.getAttributes()) {
+                size += NODE_OVERHEAD + 2L
+                        * (attribute.getName().length() + attribute
+                                .getValue().length());
+            }
+            size += 2L * element.getText().length();
+            for (Element child : element.getChildren()) {
+                size += sizeOf(child);
+            }
+            return size;
+        }
+
+        @Override
+        public byte[] encode(AnalyzedPage page) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeUTF(page.uri.toString());
+            out.writeLong(page.duration);
+            new XMLOutputter(Format.getRawFormat()).output(page.doc, out);
+            out.flush();
+            return bytes.toByteArray();
+        }
+
+        @Override
+        public AnalyzedPage decode(byte[] bytes) throws IOException {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+                    bytes));
+            URI uri = URI.create(in.readUTF());
+            long duration = in.readLong();
+            try {
+                return new AnalyzedPage(uri, new SAXBuilder().build(in),
+                        duration);
+            } catch (JDOMException e) {
+                throw new IOException("Could not parse spilled result of ["
+                        + uri + "]", e);
+            }
+        }
     }
 }
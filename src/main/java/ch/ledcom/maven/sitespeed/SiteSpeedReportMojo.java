@@ -0,0 +1,98 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import ch.ledcom.maven.sitespeed.guice.ReportModule;
+import ch.ledcom.maven.sitespeed.report.Renderer;
+import ch.ledcom.maven.sitespeed.report.ReportFormat;
+
+import com.google.inject.Guice;
+
+/**
+ * Generate the SiteSpeed.io reports again from the results stored by the
+ * sitespeed goal, without a browser or network. Useful when working on the
+ * report templates.
+ * 
+ * @author gehel
+ */
+@Mojo(name = "report")
+public class SiteSpeedReportMojo extends AbstractMojo {
+
+    private static final String PROPERTY_PREFIX = "siteSpeed";
+
+    /** The result base directory, as used by the sitespeed goal. */
+    @Parameter(property = PROPERTY_PREFIX + ".outputDir", required = false, defaultValue = "${project.build.directory}/sitespeed-result")
+    private File outputDir;
+
+    /** Number of reports rendered concurrently. */
+    @Parameter(property = PROPERTY_PREFIX + ".renderSlots", required = false, defaultValue = "2")
+    private int renderSlots;
+
+    /** Number of stored results read ahead of the rendering. */
+    @Parameter(property = PROPERTY_PREFIX + ".renderBuffer", required = false, defaultValue = "4")
+    private int renderBuffer;
+
+    /** VELOCITY or JAVA, see the sitespeed goal. */
+    @Parameter(property = PROPERTY_PREFIX + ".renderer", required = false, defaultValue = "VELOCITY")
+    private Renderer renderer;
+
+    /** HTML or JSON, see the sitespeed goal. */
+    @Parameter(property = PROPERTY_PREFIX + ".reportFormat", required = false, defaultValue = "HTML")
+    private ReportFormat reportFormat;
+
+    /**
+     * Main Mojo method.
+     * 
+     * @throws MojoExecutionException
+     *             in case of execution error
+     * @throws MojoFailureException
+     *             in case of execution failure
+     */
+    @Override
+    public final void execute() throws MojoExecutionException,
+            MojoFailureException {
+        getLog().info("outputDir=[" + outputDir + "]");
+        getLog().info("renderSlots=[" + renderSlots + "]");
+        getLog().info("renderBuffer=[" + renderBuffer + "]");
+        getLog().info("renderer=[" + renderer + "]");
+        getLog().info("reportFormat=[" + reportFormat + "]");
+
+        Properties mergerProperties = new Properties();
+        try {
+            mergerProperties.load(this.getClass().getClassLoader()
+                    .getResourceAsStream("merger.properties"));
+            Guice.createInjector(
+                    new ReportModule("/report/velocity/page.vm",
+                            mergerProperties, outputDir, renderSlots,
+                            renderBuffer, renderer, reportFormat, getLog()))
+                    .getInstance(SiteSpeedReportOrchestrator.class).report();
+        } catch (IOException e) {
+            throw new MojoExecutionException("Could not generate reports.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException(
+                    "Interrupted while generating reports.", e);
+        }
+    }
+}
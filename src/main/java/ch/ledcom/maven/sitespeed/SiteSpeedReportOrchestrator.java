@@ -0,0 +1,143 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.plugin.logging.Log;
+
+import ch.ledcom.maven.sitespeed.bundle.JsonBundle;
+import ch.ledcom.maven.sitespeed.pipeline.Source;
+import ch.ledcom.maven.sitespeed.pipeline.Stage;
+import ch.ledcom.maven.sitespeed.report.PageRenderer;
+import ch.ledcom.maven.sitespeed.report.ResourceFiles;
+import ch.ledcom.maven.sitespeed.store.ResultStore;
+import ch.ledcom.maven.sitespeed.store.ResultStore.StoredResult;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Closeables;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+/**
+ * Generates the reports again from the results kept in the output directory
+ * by a previous run (see {@link ResultStore}), without crawling or analyzing
+ * anything.
+ *
+ * The store is read sequentially, and each result is decompressed, parsed,
+ * rendered and written by the report service, so the time taken only depends
+ * on the number of render slots. With the JSON report format, a new bundle
+ * is written from all the stored results.
+ */
+public class SiteSpeedReportOrchestrator {
+
+    private static final long TERMINATION_TIMEOUT_HOURS = 24;
+
+    private final PageRenderer reporter;
+    private final JsonBundle bundle;
+    private final ListeningExecutorService reportService;
+    private final int renderBuffer;
+    private final File outputDir;
+    private final Log log;
+
+    @Inject
+    public SiteSpeedReportOrchestrator(PageRenderer reporter,
+            JsonBundle bundle,
+            @Named(Configuration.REPORT_SERVICE) ExecutorService reportService,
+            @Named(Configuration.RENDER_BUFFER) int renderBuffer,
+            @Named(Configuration.OUTPUT_DIR) File outputDir, Log log) {
+        this.reporter = reporter;
+        this.bundle = bundle;
+        this.reportService = MoreExecutors.listeningDecorator(reportService);
+        this.renderBuffer = renderBuffer;
+        this.outputDir = outputDir;
+        this.log = log;
+    }
+
+    public void report() throws IOException, InterruptedException {
+        bundle.open();
+        final AtomicInteger rendered = new AtomicInteger();
+        Source<StoredResult> stored = new Source<StoredResult>();
+        Stage<StoredResult, Void> rendering = new Stage<StoredResult, Void>(
+                "rendering", renderBuffer,
+                new AsyncFunction<StoredResult, Void>() {
+                    @Override
+                    public ListenableFuture<Void> apply(
+                            final StoredResult result) {
+                        return reportService.submit(new Callable<Void>() {
+                            @Override
+                            public Void call() throws IOException {
+                                render(result);
+                                rendered.incrementAndGet();
+                                return null;
+                            }
+                        });
+                    }
+                }, log);
+        stored.subscribe(rendering);
+
+        ResultStore.Reader reader = ResultStore.read(outputDir);
+        try {
+            StoredResult result;
+            while ((result = reader.next()) != null) {
+                // waits while the rendering stage is full
+                stored.publish(result);
+            }
+        } finally {
+            stored.complete();
+            Closeables.close(reader, true);
+        }
+
+        new ResourceFiles().export(outputDir);
+
+        rendering.awaitTermination(TERMINATION_TIMEOUT_HOURS, TimeUnit.HOURS);
+        reportService.shutdown();
+        reportService.awaitTermination(TERMINATION_TIMEOUT_HOURS,
+                TimeUnit.HOURS);
+        bundle.close();
+        log.info("Generated " + rendered.get() + " reports from stored results");
+    }
+
+    private void render(StoredResult result) throws IOException {
+        log.info("Creating report for URL [" + result.uri() + "]");
+        if (bundle.isEnabled()) {
+            bundle.add(result.uri(), result.document());
+            return;
+        }
+        File report = new File(outputDir,
+                SiteSpeedOrchestrator.reportFileName(result.uri()));
+        Writer out = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(report), Charsets.UTF_8));
+        boolean threw = true;
+        try {
+            reporter.report(result.document(), out);
+            threw = false;
+        } finally {
+            Closeables.close(out, threw);
+        }
+    }
+}
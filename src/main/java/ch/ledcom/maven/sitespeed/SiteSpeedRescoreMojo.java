@@ -0,0 +1,94 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import ch.ledcom.maven.sitespeed.guice.RescoreModule;
+import ch.ledcom.maven.sitespeed.rules.Ruleset;
+
+import com.google.inject.Guice;
+
+/**
+ * Score the results stored by the sitespeed goal against other rulesets,
+ * without a browser or network. Useful to compare rulesets or to try a custom
+ * one.
+ * 
+ * @author gehel
+ */
+@Mojo(name = "rescore")
+public class SiteSpeedRescoreMojo extends AbstractMojo {
+
+    private static final String PROPERTY_PREFIX = "siteSpeed";
+
+    /** The result base directory, as used by the sitespeed goal. */
+    @Parameter(property = PROPERTY_PREFIX + ".outputDir", required = false, defaultValue = "${project.build.directory}/sitespeed-result")
+    private File outputDir;
+
+    /**
+     * The rulesets to score against: ydefault, yslow1, yblog,
+     * sitespeed.io-1.6 or the path of a ruleset properties file.
+     */
+    @Parameter(property = PROPERTY_PREFIX + ".rulesets", required = false, defaultValue = "ydefault,yslow1,yblog,sitespeed.io-1.6")
+    private List<String> rulesets;
+
+    /** Number of pages scored concurrently. */
+    @Parameter(property = PROPERTY_PREFIX + ".rescoreThreads", required = false, defaultValue = "4")
+    private int rescoreThreads;
+
+    /**
+     * Main Mojo method.
+     * 
+     * @throws MojoExecutionException
+     *             in case of execution error
+     * @throws MojoFailureException
+     *             in case of execution failure
+     */
+    @Override
+    public final void execute() throws MojoExecutionException,
+            MojoFailureException {
+        getLog().info("outputDir=[" + outputDir + "]");
+        getLog().info("rulesets=[" + rulesets + "]");
+        getLog().info("rescoreThreads=[" + rescoreThreads + "]");
+
+        try {
+            List<Ruleset> loaded = new ArrayList<Ruleset>();
+            for (String ruleset : rulesets) {
+                loaded.add(Ruleset.load(ruleset));
+            }
+            Guice.createInjector(
+                    new RescoreModule(outputDir, loaded, rescoreThreads,
+                            getLog()))
+                    .getInstance(SiteSpeedRescoreOrchestrator.class)
+                    .rescore();
+        } catch (IllegalArgumentException e) {
+            throw new MojoFailureException(e.getMessage(), e);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Could not score results.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException(
+                    "Interrupted while scoring results.", e);
+        }
+    }
+}
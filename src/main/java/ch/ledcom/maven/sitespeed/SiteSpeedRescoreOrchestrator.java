@@ -0,0 +1,170 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.logging.Log;
+import org.jdom2.Element;
+
+import ch.ledcom.maven.sitespeed.pipeline.Source;
+import ch.ledcom.maven.sitespeed.pipeline.Stage;
+import ch.ledcom.maven.sitespeed.rules.RuleEngine;
+import ch.ledcom.maven.sitespeed.rules.Ruleset;
+import ch.ledcom.maven.sitespeed.store.ResultStore;
+import ch.ledcom.maven.sitespeed.store.ResultStore.StoredResult;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Closeables;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+/**
+ * Scores the results kept by a previous run (see {@link ResultStore}) against
+ * other rulesets, without analyzing the pages again.
+ *
+ * The scores of each page are written to {@link #FILENAME}, one column per
+ * ruleset, and the average score of the site under each ruleset is logged.
+ */
+public class SiteSpeedRescoreOrchestrator {
+
+    public static final String FILENAME = "sitespeed-rescore.csv";
+
+    private static final long TERMINATION_TIMEOUT_HOURS = 24;
+
+    private final RuleEngine engine;
+    private final List<Ruleset> rulesets;
+    private final ListeningExecutorService rescoreService;
+    private final int rescoreBuffer;
+    private final File outputDir;
+    private final Log log;
+
+    private final long[] totals;
+    private int pages;
+
+    @Inject
+    public SiteSpeedRescoreOrchestrator(RuleEngine engine,
+            @Named(Configuration.RULESETS) List<Ruleset> rulesets,
+            @Named(Configuration.RESCORE_SERVICE) ExecutorService rescoreService,
+            @Named(Configuration.RESCORE_BUFFER) int rescoreBuffer,
+            @Named(Configuration.OUTPUT_DIR) File outputDir, Log log) {
+        this.engine = engine;
+        this.rulesets = rulesets;
+        this.rescoreService = MoreExecutors
+                .listeningDecorator(rescoreService);
+        this.rescoreBuffer = rescoreBuffer;
+        this.outputDir = outputDir;
+        this.log = log;
+        this.totals = new long[rulesets.size()];
+    }
+
+    public void rescore() throws IOException, InterruptedException {
+        final Writer out = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(new File(outputDir, FILENAME)),
+                Charsets.UTF_8));
+        boolean threw = true;
+        try {
+            out.write("url");
+            for (Ruleset ruleset : rulesets) {
+                out.write(',');
+                out.write(ruleset.id());
+            }
+            out.write('\n');
+            score(out);
+            threw = false;
+        } finally {
+            Closeables.close(out, threw);
+        }
+
+        for (int i = 0; i < rulesets.size(); i++) {
+            log.info("Average score for ruleset [" + rulesets.get(i).name()
+                    + "]: " + (pages > 0 ? totals[i] / pages : 0));
+        }
+        log.info("Scored " + pages + " pages against " + rulesets.size()
+                + " rulesets");
+    }
+
+    private void score(final Writer out) throws IOException,
+            InterruptedException {
+        Source<StoredResult> stored = new Source<StoredResult>();
+        Stage<StoredResult, Void> scoring = new Stage<StoredResult, Void>(
+                "scoring", rescoreBuffer,
+                new AsyncFunction<StoredResult, Void>() {
+                    @Override
+                    public ListenableFuture<Void> apply(
+                            final StoredResult result) {
+                        return rescoreService.submit(new Callable<Void>() {
+                            @Override
+                            public Void call() throws IOException {
+                                score(result, out);
+                                return null;
+                            }
+                        });
+                    }
+                }, log);
+        stored.subscribe(scoring);
+
+        ResultStore.Reader reader = ResultStore.read(outputDir);
+        try {
+            StoredResult result;
+            while ((result = reader.next()) != null) {
+                // waits while the scoring stage is full
+                stored.publish(result);
+            }
+        } finally {
+            stored.complete();
+            Closeables.close(reader, true);
+        }
+
+        scoring.awaitTermination(TERMINATION_TIMEOUT_HOURS, TimeUnit.HOURS);
+        rescoreService.shutdown();
+        rescoreService.awaitTermination(TERMINATION_TIMEOUT_HOURS,
+                TimeUnit.HOURS);
+    }
+
+    private void score(StoredResult result, Writer out) throws IOException {
+        Element results = result.document().getRootElement();
+        int[] scores = new int[rulesets.size()];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = engine.score(results, rulesets.get(i)).overall();
+        }
+        StringBuilder row = new StringBuilder();
+        row.append('"').append(result.uri().toString().replace("\"", "\"\""))
+                .append('"');
+        for (int score : scores) {
+            row.append(',').append(score);
+        }
+        row.append('\n');
+        synchronized (this) {
+            out.write(row.toString());
+            for (int i = 0; i < scores.length; i++) {
+                totals[i] += scores[i];
+            }
+            pages++;
+        }
+    }
+}
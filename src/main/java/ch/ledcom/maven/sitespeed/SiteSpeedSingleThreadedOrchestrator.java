@@ -13,9 +13,11 @@
  */
 package ch.ledcom.maven.sitespeed;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.net.URI;
 import java.net.URL;
@@ -24,14 +26,28 @@ import org.apache.maven.plugin.logging.Log;
 import org.jdom2.Document;
 import org.jdom2.JDOMException;
 
+import ch.ledcom.maven.sitespeed.analyzer.HostThrottle;
+import ch.ledcom.maven.sitespeed.analyzer.MeasurementSeries;
+import ch.ledcom.maven.sitespeed.analyzer.MeasurementSeries.Next;
+import ch.ledcom.maven.sitespeed.analyzer.PageLinks;
+import ch.ledcom.maven.sitespeed.analyzer.RepeatedMeasurements;
 import ch.ledcom.maven.sitespeed.analyzer.SiteSpeedAnalyzer;
+import ch.ledcom.maven.sitespeed.archive.ResponseArchive;
+import ch.ledcom.maven.sitespeed.bundle.JsonBundle;
 import ch.ledcom.maven.sitespeed.crawler.SiteSpeedCrawler;
 import ch.ledcom.maven.sitespeed.crawler.URICallback;
+import ch.ledcom.maven.sitespeed.journal.RunJournal;
+import ch.ledcom.maven.sitespeed.report.PageRenderer;
 import ch.ledcom.maven.sitespeed.report.ResourceFiles;
-import ch.ledcom.maven.sitespeed.report.SiteSpeedReporter;
+import ch.ledcom.maven.sitespeed.schedule.DeadlineScheduler;
+import ch.ledcom.maven.sitespeed.schedule.DeadlineScheduler.ScheduledCallback;
+import ch.ledcom.maven.sitespeed.sink.ResultSinks;
+import ch.ledcom.maven.sitespeed.store.ResultStore;
 import ch.ledcom.maven.sitespeed.utils.XmlPrettyPrinter;
 
+import com.google.common.base.Charsets;
 import com.google.common.io.Closeables;
+import com.google.common.io.Closer;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
 
@@ -39,19 +55,38 @@ public class SiteSpeedSingleThreadedOrchestrator {
 
     private final SiteSpeedCrawler crawler;
     private final SiteSpeedAnalyzer analyzer;
-    private final SiteSpeedReporter reporter;
+    private final HostThrottle throttle;
+    private final RepeatedMeasurements measurements;
+    private final PageRenderer reporter;
+    private final JsonBundle bundle;
+    private final ResultSinks sinks;
+    private final RunJournal journal;
+    private final ResponseArchive archive;
+    private final ResultStore results;
+    private final DeadlineScheduler scheduler;
     private final File outputDir;
 
     private final Log log;
 
     @Inject
     public SiteSpeedSingleThreadedOrchestrator(SiteSpeedCrawler crawler,
-            SiteSpeedAnalyzer analyzer, SiteSpeedReporter reporter,
-
+            SiteSpeedAnalyzer analyzer, HostThrottle throttle,
+            RepeatedMeasurements measurements, PageRenderer reporter,
+            JsonBundle bundle, ResultSinks sinks,
+            RunJournal journal, ResponseArchive archive, ResultStore results,
+            DeadlineScheduler scheduler,
             @Named(Configuration.OUTPUT_DIR) File outputDir, Log log) {
         this.crawler = crawler;
         this.analyzer = analyzer;
+        this.throttle = throttle;
+        this.measurements = measurements;
         this.reporter = reporter;
+        this.bundle = bundle;
+        this.sinks = sinks;
+        this.journal = journal;
+        this.archive = archive;
+        this.results = results;
+        this.scheduler = scheduler;
         this.outputDir = outputDir;
         this.log = log;
     }
@@ -62,56 +97,104 @@ public class SiteSpeedSingleThreadedOrchestrator {
             outputDir.mkdirs();
         }
 
-        // crawl site to get the list of URLs to analyze
-        crawler.crawl(new URICallback() {
-            @Override
-            public void submit(final URI uri) {
-                Writer out = null;
-                boolean threw = true;
-                try {
-                    final URL url = uri.toURL();
-                    log.info("Received URL to analyze [" + url.toExternalForm()
-                            + "]");
-                    Document doc = analyzer.analyze(url);
-
-                    out = createReportWriter(uri);
-                    log.info("Creating report for URL [" + url.toExternalForm()
-                            + "]");
-                    log.info("Document to report for URL ["
-                            + url.toExternalForm() + "]");
-                    log.debug(XmlPrettyPrinter.prettyPrint(doc));
-                    reporter.report(doc, out);
-                    threw = false;
-                    crawler.shutdown();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                } catch (JDOMException e) {
-                    e.printStackTrace();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                } finally {
-                    try {
-                        Closeables.close(out, threw);
-                    } catch (IOException e) {
-                        e.printStackTrace();
+        Closer closer = Closer.create();
+        try {
+            closer.register(journal).open();
+            closer.register(archive).open();
+            closer.register(results).open();
+            closer.register(bundle).open();
+            closer.register(sinks).open();
+            scheduler.start();
+            ScheduledCallback scheduled = scheduler.schedule(new URICallback() {
+                @Override
+                public void submit(URI uri) {
+                    if (journal.isCompleted(uri)) {
+                        log.info("Skipping URL [" + uri
+                                + "], already analyzed by previous run");
+                        linksFound(uri, null);
+                        return;
                     }
+                    if (!scheduler.canStart(uri)) {
+                        log.warn("Skipping URL [" + uri
+                                + "], not enough time left");
+                        linksFound(uri, null);
+                        return;
+                    }
+                    analyze(uri);
                 }
-            }
-        });
-        new ResourceFiles().export(outputDir);
+            });
+            // crawl site to get the list of URLs to analyze
+            crawler.crawl(scheduled);
+            scheduled.drain();
+            crawler.shutdown();
+            new ResourceFiles().export(outputDir);
+        } catch (Throwable t) {
+            throw closer.rethrow(t);
+        } finally {
+            closer.close();
+        }
+    }
 
+    private void analyze(URI uri) {
+        Writer out = null;
+        Document doc = null;
+        boolean threw = true;
         try {
-            Thread.sleep(10000);
+            final URL url = uri.toURL();
+            log.info("Received URL to analyze [" + url.toExternalForm() + "]");
+            MeasurementSeries series = measurements.newSeries();
+            long duration = 0;
+            Next next;
+            do {
+                throttle.acquire(uri);
+                try {
+                    long start = System.currentTimeMillis();
+                    next = series.add(analyzer.analyze(url));
+                    duration += System.currentTimeMillis() - start;
+                } finally {
+                    throttle.release(uri);
+                }
+            } while (next != Next.COMPLETE);
+            doc = series.result();
+            results.store(uri, doc);
+            sinks.publish(uri, doc);
+
+            log.info("Creating report for URL [" + url.toExternalForm() + "]");
+            log.debug(XmlPrettyPrinter.prettyPrint(doc));
+            String report;
+            if (bundle.isEnabled()) {
+                report = bundle.add(uri, doc);
+            } else {
+                report = SiteSpeedOrchestrator.reportFileName(uri);
+                out = new BufferedWriter(new OutputStreamWriter(
+                        new FileOutputStream(new File(outputDir, report)),
+                        Charsets.UTF_8));
+                reporter.report(doc, out);
+                out.close();
+            }
+            threw = false;
+            journal.completed(uri, report, duration);
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (JDOMException e) {
+            e.printStackTrace();
         } catch (InterruptedException e) {
-            // TODO Auto-generated catch block
             e.printStackTrace();
+        } finally {
+            try {
+                Closeables.close(out, threw);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            linksFound(uri, doc);
         }
     }
 
-    private Writer createReportWriter(URI uri) throws IOException {
-        String filename = uri.getHost() + uri.getPath().replace("/", ".")
-                + ".html";
-        File out = new File(outputDir, filename);
-        return new FileWriter(out);
+    private void linksFound(URI uri, Document doc) {
+        try {
+            crawler.linksFound(uri, PageLinks.extract(doc));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 }
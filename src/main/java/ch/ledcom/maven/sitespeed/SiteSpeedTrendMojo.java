@@ -0,0 +1,77 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import ch.ledcom.maven.sitespeed.guice.TrendModule;
+
+import com.google.inject.Guice;
+
+/**
+ * Render the trend of the scores, load times and weights of each page over
+ * the last runs recorded by the sitespeed goal with
+ * <code>recordHistory</code>.
+ * 
+ * @author gehel
+ */
+@Mojo(name = "trend")
+public class SiteSpeedTrendMojo extends AbstractMojo {
+
+    private static final String PROPERTY_PREFIX = "siteSpeed";
+
+    /** The history directory, as used by the sitespeed goal. */
+    @Parameter(property = PROPERTY_PREFIX + ".historyDir", required = false, defaultValue = "${project.basedir}/sitespeed-history")
+    private File historyDir;
+
+    /** Number of most recent runs shown. */
+    @Parameter(property = PROPERTY_PREFIX + ".trendRuns", required = false, defaultValue = "30")
+    private int trendRuns;
+
+    /** The directory where the trend is written. */
+    @Parameter(property = PROPERTY_PREFIX + ".outputDir", required = false, defaultValue = "${project.build.directory}/sitespeed-result")
+    private File outputDir;
+
+    /**
+     * Main Mojo method.
+     * 
+     * @throws MojoExecutionException
+     *             in case of execution error
+     * @throws MojoFailureException
+     *             in case of execution failure
+     */
+    @Override
+    public final void execute() throws MojoExecutionException,
+            MojoFailureException {
+        getLog().info("historyDir=[" + historyDir + "]");
+        getLog().info("trendRuns=[" + trendRuns + "]");
+        getLog().info("outputDir=[" + outputDir + "]");
+
+        try {
+            Guice.createInjector(
+                    new TrendModule(historyDir, trendRuns, outputDir,
+                            getLog()))
+                    .getInstance(SiteSpeedTrendOrchestrator.class).trend();
+        } catch (IOException e) {
+            throw new MojoExecutionException("Could not render the trend.", e);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.plugin.logging.Log;
+
+import ch.ledcom.maven.sitespeed.history.HistorySegment;
+import ch.ledcom.maven.sitespeed.history.HistoryStore;
+import ch.ledcom.maven.sitespeed.history.Trend;
+import ch.ledcom.maven.sitespeed.report.ResourceFiles;
+import ch.ledcom.maven.sitespeed.report.TrendRenderer;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Closeables;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+/**
+ * Renders the trend of the last runs kept in the history (see
+ * {@link HistoryStore}) to {@link #FILENAME}.
+ */
+public class SiteSpeedTrendOrchestrator {
+
+    public static final String FILENAME = "trend.html";
+
+    private final TrendRenderer renderer;
+    private final File historyDir;
+    private final int runs;
+    private final File outputDir;
+    private final Log log;
+
+    @Inject
+    public SiteSpeedTrendOrchestrator(TrendRenderer renderer,
+            @Named(Configuration.HISTORY_DIR) File historyDir,
+            @Named(Configuration.TREND_RUNS) int runs,
+            @Named(Configuration.OUTPUT_DIR) File outputDir, Log log) {
+        this.renderer = renderer;
+        this.historyDir = historyDir;
+        this.runs = runs;
+        this.outputDir = outputDir;
+        this.log = log;
+    }
+
+    public void trend() throws IOException {
+        List<File> files = HistoryStore.segments(historyDir);
+        if (files.isEmpty()) {
+            log.warn("No history found in [" + historyDir.getAbsolutePath()
+                    + "], run the sitespeed goal with recordHistory first");
+            return;
+        }
+        files = files.subList(Math.max(0, files.size() - runs), files.size());
+        List<HistorySegment> segments = new ArrayList<HistorySegment>();
+        for (File file : files) {
+            segments.add(HistorySegment.open(file));
+        }
+        Trend trend = Trend.read(segments);
+
+        if (!outputDir.exists()) {
+            outputDir.mkdirs();
+        }
+        Writer out = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(new File(outputDir, FILENAME)),
+                Charsets.UTF_8));
+        boolean threw = true;
+        try {
+            renderer.render(trend, out);
+            threw = false;
+        } finally {
+            Closeables.close(out, threw);
+        }
+        new ResourceFiles().export(outputDir);
+        log.info("Trend of " + trend.urls().size() + " pages over "
+                + trend.runs() + " runs written to [" + FILENAME + "]");
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import ch.ledcom.maven.sitespeed.guice.WatchModule;
+
+/**
+ * Keep the reports of a site up to date while it is being worked on: pages
+ * are analyzed again as soon as they change. Takes the same parameters as the
+ * sitespeed goal, and runs until interrupted.
+ * 
+ * @author gehel
+ */
+@Mojo(name = "watch")
+public class SiteSpeedWatchMojo extends SiteSpeedMojo {
+
+    private static final String PROPERTY_PREFIX = "siteSpeed";
+
+    /**
+     * The directories of web sources to watch. Default is
+     * <code>src/main/webapp</code>.
+     */
+    @Parameter
+    private File[] watchDirs;
+
+    @Parameter(defaultValue = "${project.basedir}", readonly = true)
+    private File basedir;
+
+    /**
+     * How often, in seconds, pages are checked for changes when the sources
+     * do not change. Default is 5 seconds.
+     */
+    @Parameter(property = PROPERTY_PREFIX + ".watchInterval", required = false, defaultValue = "5")
+    private int watchInterval;
+
+    /**
+     * Main Mojo method.
+     * 
+     * @throws MojoExecutionException
+     *             in case of execution error
+     * @throws MojoFailureException
+     *             in case of execution failure
+     */
+    @Override
+    public void execute() throws MojoExecutionException,
+            MojoFailureException {
+        List<File> directories = watchDirs != null ? Arrays.asList(watchDirs)
+                : Arrays.asList(new File(basedir, "src/main/webapp"));
+        logParameters();
+        getLog().info("watchDirs=[" + directories + "]");
+        getLog().info("watchInterval=[" + watchInterval + "]");
+
+        try {
+            createInjector(
+                    new WatchModule(directories,
+                            TimeUnit.SECONDS.toMillis(watchInterval)))
+                    .getInstance(SiteSpeedWatchOrchestrator.class).watch();
+        } catch (IOException e) {
+            throw new MojoExecutionException("Could not watch the site.", e);
+        }
+    }
+}
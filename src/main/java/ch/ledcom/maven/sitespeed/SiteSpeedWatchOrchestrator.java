@@ -0,0 +1,239 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.maven.plugin.logging.Log;
+import org.jdom2.Document;
+
+import ch.ledcom.maven.sitespeed.analyzer.HostThrottle;
+import ch.ledcom.maven.sitespeed.analyzer.MeasurementSeries;
+import ch.ledcom.maven.sitespeed.analyzer.MeasurementSeries.Next;
+import ch.ledcom.maven.sitespeed.analyzer.RepeatedMeasurements;
+import ch.ledcom.maven.sitespeed.analyzer.SiteSpeedAnalyzer;
+import ch.ledcom.maven.sitespeed.crawler.SiteSpeedCrawler;
+import ch.ledcom.maven.sitespeed.crawler.URICallback;
+import ch.ledcom.maven.sitespeed.history.HistorySegment;
+import ch.ledcom.maven.sitespeed.history.Metric;
+import ch.ledcom.maven.sitespeed.report.PageRenderer;
+import ch.ledcom.maven.sitespeed.report.ResourceFiles;
+import ch.ledcom.maven.sitespeed.watch.ChangeSignal;
+import ch.ledcom.maven.sitespeed.watch.PageVersions;
+import ch.ledcom.maven.sitespeed.watch.SourceWatcher;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Closeables;
+import com.google.common.io.Closer;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+/**
+ * Keeps the reports of a site up to date while it is being worked on.
+ *
+ * The site is crawled once. Then, until the goal is interrupted, every page is
+ * checked for changes (see {@link PageVersions}), either every
+ * <code>watchInterval</code> or as soon as the web sources changed (see
+ * {@link SourceWatcher}), and only the pages that changed are analyzed and
+ * rendered again. The analyzer pool, the crawl and the last version of each
+ * page are kept between checks.
+ *
+ * @author gehel
+ */
+public class SiteSpeedWatchOrchestrator {
+
+    /** Sources are only checked once they stopped changing for this long. */
+    private static final long QUIET_PERIOD_MS = 300;
+
+    private final SiteSpeedCrawler crawler;
+    private final SiteSpeedAnalyzer analyzer;
+    private final HostThrottle throttle;
+    private final RepeatedMeasurements measurements;
+    private final PageRenderer reporter;
+    private final PageVersions versions;
+    private final SourceWatcher sources;
+    private final ExecutorService analyzerService;
+    private final boolean singlePass;
+    private final long interval;
+    private final File outputDir;
+    private final Log log;
+
+    private final Map<URI, Integer> scores = new HashMap<URI, Integer>();
+
+    @Inject
+    public SiteSpeedWatchOrchestrator(SiteSpeedCrawler crawler,
+            SiteSpeedAnalyzer analyzer, HostThrottle throttle,
+            RepeatedMeasurements measurements, PageRenderer reporter,
+            PageVersions versions, SourceWatcher sources,
+            @Named(Configuration.ANALYZER_SERVICE) ExecutorService analyzerService,
+            @Named(Configuration.SINGLE_PASS) boolean singlePass,
+            @Named(Configuration.WATCH_INTERVAL) long interval,
+            @Named(Configuration.OUTPUT_DIR) File outputDir, Log log) {
+        this.crawler = crawler;
+        this.analyzer = analyzer;
+        this.throttle = throttle;
+        this.measurements = measurements;
+        this.reporter = reporter;
+        this.versions = versions;
+        this.sources = sources;
+        this.analyzerService = analyzerService;
+        this.singlePass = singlePass;
+        this.interval = interval;
+        this.outputDir = outputDir;
+        this.log = log;
+    }
+
+    /**
+     * Watch the site until interrupted.
+     */
+    public void watch() throws IOException {
+        if (!outputDir.exists()) {
+            outputDir.mkdirs();
+        }
+        if (singlePass) {
+            log.warn("The watch goal does not analyze pages while crawling, "
+                    + "only the start page is watched in single pass mode");
+        }
+
+        Closer closer = Closer.create();
+        try {
+            closer.register(throttle);
+            ChangeSignal signal = new ChangeSignal(QUIET_PERIOD_MS);
+            closer.register(sources).start(signal);
+
+            final Set<URI> pages = new LinkedHashSet<URI>();
+            crawler.crawl(new URICallback() {
+                @Override
+                public void submit(URI uri) {
+                    pages.add(uri);
+                    try {
+                        crawler.linksFound(uri, ImmutableList.<URI> of());
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                }
+            });
+            crawler.shutdown();
+            new ResourceFiles().export(outputDir);
+            log.info("Watching " + pages.size() + " pages, press Ctrl-C to stop");
+
+            while (!Thread.currentThread().isInterrupted()) {
+                List<URI> changed = new ArrayList<URI>();
+                for (URI page : pages) {
+                    if (versions.changed(page)) {
+                        changed.add(page);
+                    }
+                }
+                if (!changed.isEmpty()) {
+                    analyze(changed);
+                }
+                if (signal.await(interval)) {
+                    log.info("Sources changed, checking pages");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable t) {
+            throw closer.rethrow(t);
+        } finally {
+            analyzerService.shutdownNow();
+            closer.close();
+        }
+    }
+
+    /**
+     * Analyze and render the pages that changed, on the analyzer pool, and
+     * wait until all of them are done.
+     */
+    private void analyze(List<URI> changed) throws InterruptedException {
+        log.info(changed.size() + " pages changed");
+        Map<URI, Future<Document>> analyses = new LinkedHashMap<URI, Future<Document>>();
+        for (final URI uri : changed) {
+            analyses.put(uri, throttle.submit(uri, new Callable<Document>() {
+                @Override
+                public Document call() throws Exception {
+                    return analyzeAndRender(uri);
+                }
+            }, analyzerService));
+        }
+        for (Entry<URI, Future<Document>> analysis : analyses.entrySet()) {
+            try {
+                Document doc = analysis.getValue().get();
+                if (doc != null) {
+                    logScore(analysis.getKey(), doc);
+                }
+            } catch (ExecutionException e) {
+                log.warn("Could not analyze [" + analysis.getKey() + "]",
+                        e.getCause());
+            }
+        }
+    }
+
+    private Document analyzeAndRender(URI uri) throws Exception {
+        URL url = uri.toURL();
+        log.info("Received URL to analyze [" + url.toExternalForm() + "]");
+        MeasurementSeries series = measurements.newSeries();
+        Next next;
+        do {
+            next = series.add(analyzer.analyze(url));
+        } while (next != Next.COMPLETE);
+        Document doc = series.result();
+
+        Writer out = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(new File(outputDir,
+                        SiteSpeedOrchestrator.reportFileName(uri))),
+                Charsets.UTF_8));
+        boolean threw = true;
+        try {
+            reporter.report(doc, out);
+            threw = false;
+        } finally {
+            Closeables.close(out, threw);
+        }
+        return doc;
+    }
+
+    private void logScore(URI uri, Document doc) {
+        int score = Metric.SCORE.read(doc.getRootElement());
+        Integer previous = scores.put(uri, score);
+        if (score == HistorySegment.MISSING) {
+            log.info("Updated report of [" + uri + "]");
+        } else if (previous == null || previous == HistorySegment.MISSING) {
+            log.info("Score of [" + uri + "] is [" + score + "]");
+        } else {
+            log.info("Score of [" + uri + "] is [" + score + "], was ["
+                    + previous + "]");
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.aggregate;
+
+import ch.ledcom.maven.sitespeed.guice.SharedResources;
+
+import com.google.inject.Injector;
+
+/**
+ * The resources shared by all the modules of a reactor running the sitespeed
+ * goal in aggregate mode, possibly in parallel (<code>mvn -T</code>).
+ *
+ * Maven loads the plugin once per build, so this holder is visible to all the
+ * modules. The resources are created by the first module, with its
+ * configuration, and shut down when the last module running is done. Modules
+ * running later create them again.
+ *
+ * @author gehel
+ */
+public final class ReactorResources {
+
+    private static SharedResources resources;
+    private static int users;
+
+    private ReactorResources() {
+    }
+
+    /**
+     * Every call must be followed by {@link #release()}.
+     *
+     * @param injector
+     *            creates the resources if no other module is running
+     */
+    public static synchronized SharedResources acquire(Injector injector) {
+        if (resources == null) {
+            resources = SharedResources.create(injector);
+        }
+        users++;
+        return resources;
+    }
+
+    public static synchronized void release() {
+        users--;
+        if (users == 0) {
+            resources.close();
+            resources = null;
+        }
+    }
+}
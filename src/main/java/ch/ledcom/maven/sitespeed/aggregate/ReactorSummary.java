@@ -0,0 +1,182 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.aggregate;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ch.ledcom.maven.sitespeed.history.Metric;
+import ch.ledcom.maven.sitespeed.report.ResourceFiles;
+import ch.ledcom.maven.sitespeed.report.SummaryRenderer;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Closeables;
+
+/**
+ * The combined summary of the runs of all the modules of a reactor, written
+ * to {@link #FILENAME} in the summary directory.
+ *
+ * Modules may run in parallel and complete in any order, so the summary is
+ * written again each time a run completes, and is complete once the last one
+ * did. A run replaces the previous entry of the same module and run. The
+ * first run of a new build starts a new summary, so that a JVM reused across
+ * builds does not keep the runs of the previous ones.
+ *
+ * @author gehel
+ */
+public final class ReactorSummary {
+
+    public static final String FILENAME = "summary.html";
+
+    private static final Map<File, Summary> SUMMARIES = new HashMap<File, Summary>();
+
+    private ReactorSummary() {
+    }
+
+    /**
+     * Add a completed run to the summary, and write the summary again.
+     *
+     * @param build
+     *            identifies the build the run is part of, its start time
+     * @param run
+     *            the name of the run in its module, the site and the profile
+     * @param report
+     *            the report linked from the summary
+     */
+    public static synchronized void add(File summaryDir, long build,
+            String module, String run, File report, RunSummary summary)
+            throws IOException {
+        File key = summaryDir.getAbsoluteFile();
+        Summary current = SUMMARIES.get(key);
+        if (current == null || current.build != build) {
+            current = new Summary(build);
+            SUMMARIES.put(key, current);
+            if (!key.exists()) {
+                key.mkdirs();
+            }
+            new ResourceFiles().export(key);
+        }
+        Map<String, Entry> entries = current.entries;
+        entries.put(module + '\n' + run, new Entry(module, run, report,
+                summary));
+
+        Writer out = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(new File(key, FILENAME)), Charsets.UTF_8));
+        boolean threw = true;
+        try {
+            new SummaryRenderer().render(new ArrayList<Entry>(entries.values()),
+                    out);
+            threw = false;
+        } finally {
+            Closeables.close(out, threw);
+        }
+    }
+
+    /**
+     * A completed run.
+     */
+    public static final class Entry {
+        private final String module;
+        private final String run;
+        private final File report;
+        private final int pages;
+        private final int[] averages = new int[Metric.values().length];
+        private final int profiledPages;
+        private final long cpuTime;
+        private final long peakCpu;
+        private final long peakRss;
+
+        Entry(String module, String run, File report, RunSummary summary) {
+            this.module = module;
+            this.run = run;
+            this.report = report.getAbsoluteFile();
+            this.pages = summary.pages();
+            for (Metric metric : Metric.values()) {
+                averages[metric.ordinal()] = summary.average(metric);
+            }
+            this.profiledPages = summary.profiledPages();
+            this.cpuTime = summary.cpuTime();
+            this.peakCpu = summary.peakCpu();
+            this.peakRss = summary.peakRss();
+        }
+
+        public String module() {
+            return module;
+        }
+
+        public String run() {
+            return run;
+        }
+
+        /**
+         * The report of the run linked from the summary: the viewer of a JSON
+         * bundle, or the report of the first page of the run.
+         */
+        public File report() {
+            return report;
+        }
+
+        public int pages() {
+            return pages;
+        }
+
+        public int average(Metric metric) {
+            return averages[metric.ordinal()];
+        }
+
+        /** @see RunSummary#profiledPages() */
+        public int profiledPages() {
+            return profiledPages;
+        }
+
+        /** @see RunSummary#cpuTime() */
+        public long cpuTime() {
+            return cpuTime;
+        }
+
+        /** @see RunSummary#peakCpu() */
+        public long peakCpu() {
+            return peakCpu;
+        }
+
+        /** @see RunSummary#peakRss() */
+        public long peakRss() {
+            return peakRss;
+        }
+    }
+
+    private static final class Summary {
+        private final long build;
+        private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>();
+
+        private Summary(long build) {
+            this.build = build;
+        }
+    }
+
+    static synchronized List<Entry> entries(File summaryDir) {
+        Summary summary = SUMMARIES.get(summaryDir.getAbsoluteFile());
+        return summary == null ? new ArrayList<Entry>()
+                : new ArrayList<Entry>(summary.entries.values());
+    }
+}
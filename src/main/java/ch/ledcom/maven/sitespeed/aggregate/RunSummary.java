@@ -0,0 +1,124 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.aggregate;
+
+import static ch.ledcom.maven.sitespeed.Configuration.AGGREGATE;
+import static ch.ledcom.maven.sitespeed.history.HistorySegment.MISSING;
+
+import java.io.File;
+import java.net.URI;
+
+import javax.annotation.Nullable;
+
+import org.jdom2.Document;
+
+import ch.ledcom.maven.sitespeed.analyzer.ProfileTotals;
+import ch.ledcom.maven.sitespeed.history.Metric;
+import ch.ledcom.maven.sitespeed.sink.ResultSink;
+
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+/**
+ * Averages the metrics of the pages of a run and sums up their browser
+ * profiles, for the summary of all the
+ * runs of a reactor (see {@link ReactorSummary}).
+ *
+ * @author gehel
+ */
+public class RunSummary implements ResultSink {
+
+    private final boolean enabled;
+    private final long[] sums = new long[Metric.values().length];
+    private final int[] counts = new int[Metric.values().length];
+    private final ProfileTotals profiles = new ProfileTotals();
+    private int pages;
+    @Nullable
+    private URI firstPage;
+
+    @Inject
+    public RunSummary(@Named(AGGREGATE) boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void open(File outputDir) {
+    }
+
+    @Override
+    public synchronized void accept(URI uri, Document result) {
+        if (pages == 0) {
+            firstPage = uri;
+        }
+        pages++;
+        profiles.add(result.getRootElement());
+        for (Metric metric : Metric.values()) {
+            int value = metric.read(result.getRootElement());
+            if (value != MISSING) {
+                sums[metric.ordinal()] += value;
+                counts[metric.ordinal()]++;
+            }
+        }
+    }
+
+    public synchronized int pages() {
+        return pages;
+    }
+
+    /**
+     * @return the first page of the run, or <code>null</code> if no page was
+     *         analyzed
+     */
+    @Nullable
+    public synchronized URI firstPage() {
+        return firstPage;
+    }
+
+    /**
+     * @return the average of this metric over the pages of the run, or
+     *         {@link ch.ledcom.maven.sitespeed.history.HistorySegment#MISSING}
+     */
+    public synchronized int average(Metric metric) {
+        int count = counts[metric.ordinal()];
+        return count == 0 ? MISSING : (int) (sums[metric.ordinal()] / count);
+    }
+
+    /** Number of pages with a browser profile. */
+    public synchronized int profiledPages() {
+        return profiles.pages();
+    }
+
+    /** CPU time used by the browsers of the run, in milliseconds. */
+    public synchronized long cpuTime() {
+        return profiles.cpuTime();
+    }
+
+    /** Highest CPU usage of a browser of the run, in percent. */
+    public synchronized long peakCpu() {
+        return profiles.peakCpu();
+    }
+
+    /** Highest resident memory of a browser of the run, in bytes. */
+    public synchronized long peakRss() {
+        return profiles.peakRss();
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,211 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.analyzer;
+
+import static ch.ledcom.maven.sitespeed.Configuration.BROWSER_MEMORY_RESERVE;
+import static ch.ledcom.maven.sitespeed.Configuration.MAX_LOAD_PER_CPU;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.maven.plugin.logging.Log;
+
+import ch.ledcom.maven.sitespeed.analyzer.SystemProbe.Usage;
+
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+/**
+ * Delays the launch of new browser processes while the machine is short on
+ * memory or CPU.
+ *
+ * Before each launch, the memory available to new processes is compared with
+ * the expected size of a browser, and the system load with the number of
+ * processors. The expected size is the largest resident size of the running
+ * browsers, or of the last browser that exited, each measured through its own
+ * process. When a new browser would eat into the memory reserve or the load
+ * is too high, the launch waits until running browsers have exited or the
+ * load has dropped. A browser is always admitted when none is running, so the
+ * analysis never stalls completely.
+ *
+ * The machine is probed outside of the lock, so that browsers exiting never
+ * wait for a probe.
+ *
+ * @author gehel
+ */
+public class BrowserAdmission {
+
+    /** Assumed size of a browser until one has been measured. */
+    private static final long DEFAULT_BROWSER_RSS = 200L * 1024 * 1024;
+    private static final long POLL_INTERVAL_MS = 500;
+
+    private final long memoryReserve;
+    private final double maxLoadPerCpu;
+    private final SystemProbe probe;
+    private final Log log;
+
+    private int running;
+    /** Number of browsers admitted so far, to detect concurrent launches. */
+    private long admitted;
+    /** Last resident size of each started browser, by pid. */
+    private final Map<Integer, Long> browserRss = new HashMap<Integer, Long>();
+    private long exitedRss;
+
+    /**
+     * @param memoryReserve
+     *            memory to keep free for the rest of the machine, in bytes, 0
+     *            to disable
+     * @param maxLoadPerCpu
+     *            maximum system load per processor, 0 to disable
+     */
+    @Inject
+    public BrowserAdmission(@Named(BROWSER_MEMORY_RESERVE) long memoryReserve,
+            @Named(MAX_LOAD_PER_CPU) double maxLoadPerCpu, Log log) {
+        this(memoryReserve, maxLoadPerCpu, new SystemProbe(), log);
+    }
+
+    BrowserAdmission(long memoryReserve, double maxLoadPerCpu,
+            SystemProbe probe, Log log) {
+        this.memoryReserve = memoryReserve;
+        this.maxLoadPerCpu = maxLoadPerCpu;
+        this.probe = probe;
+        this.log = log;
+    }
+
+    /**
+     * Wait until a new browser can be started. The returned slot must be
+     * released once the browser has exited.
+     */
+    public Slot acquire() throws InterruptedException {
+        boolean delayed = false;
+        while (true) {
+            Integer[] pids;
+            long admittedBefore;
+            synchronized (this) {
+                if (running == 0) {
+                    return admit();
+                }
+                pids = browserRss.keySet().toArray(new Integer[0]);
+                admittedBefore = admitted;
+            }
+            Map<Integer, Long> measured = measure(pids);
+            long available = memoryReserve > 0 ? probe.availableMemory()
+                    : SystemProbe.UNKNOWN;
+            boolean loaded = isLoaded();
+            synchronized (this) {
+                for (Map.Entry<Integer, Long> entry : measured.entrySet()) {
+                    // only browsers still running
+                    if (browserRss.containsKey(entry.getKey())) {
+                        browserRss.put(entry.getKey(), entry.getValue());
+                    }
+                }
+                // browsers admitted since the probe are not measured yet
+                long launches = admitted - admittedBefore + 1;
+                if (running == 0 || (!loaded && fits(available, launches))) {
+                    return admit();
+                }
+                if (!delayed) {
+                    log.info("Delaying browser launch, " + running
+                            + " browsers running and machine is busy");
+                    delayed = true;
+                }
+                wait(POLL_INTERVAL_MS);
+            }
+        }
+    }
+
+    private Slot admit() {
+        running++;
+        admitted++;
+        return new Slot();
+    }
+
+    private Map<Integer, Long> measure(Integer[] pids) {
+        Map<Integer, Long> measured = new HashMap<Integer, Long>();
+        if (memoryReserve <= 0) {
+            return measured;
+        }
+        for (Integer pid : pids) {
+            Usage usage = probe.processUsage(pid);
+            if (usage != null) {
+                measured.put(pid, usage.rss);
+            }
+        }
+        return measured;
+    }
+
+    private boolean isLoaded() {
+        if (maxLoadPerCpu <= 0) {
+            return false;
+        }
+        double load = probe.loadAverage();
+        return load >= 0 && load >= maxLoadPerCpu * probe.processors();
+    }
+
+    private boolean fits(long available, long launches) {
+        return available == SystemProbe.UNKNOWN
+                || available - launches * expectedRss() >= memoryReserve;
+    }
+
+    private long expectedRss() {
+        long expected = exitedRss;
+        for (Long rss : browserRss.values()) {
+            expected = Math.max(expected, rss);
+        }
+        return expected > 0 ? expected : DEFAULT_BROWSER_RSS;
+    }
+
+    /**
+     * A browser admitted by {@link BrowserAdmission#acquire()}.
+     */
+    public final class Slot {
+
+        private int pid = -1;
+        private boolean released;
+
+        private Slot() {
+        }
+
+        /**
+         * The browser process has been started, its memory can be measured.
+         */
+        public void started(Process process) {
+            started(ProcessSampler.pid(process));
+        }
+
+        void started(int processId) {
+            synchronized (BrowserAdmission.this) {
+                if (processId >= 0 && !released) {
+                    pid = processId;
+                    browserRss.put(pid, 0L);
+                }
+            }
+        }
+
+        public void release() {
+            synchronized (BrowserAdmission.this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+                Long rss = browserRss.remove(pid);
+                if (rss != null && rss > 0) {
+                    exitedRss = rss;
+                }
+                running--;
+                BrowserAdmission.this.notifyAll();
+            }
+        }
+    }
+}
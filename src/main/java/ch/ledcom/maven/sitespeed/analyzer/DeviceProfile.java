@@ -0,0 +1,79 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.analyzer;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * The device a page is analyzed as: its user agent and viewport.
+ *
+ * Configured in the POM as:
+ *
+ * <pre>
+ * &lt;profiles&gt;
+ *   &lt;profile&gt;
+ *     &lt;name&gt;mobile&lt;/name&gt;
+ *     &lt;userAgent&gt;Mozilla/5.0 (iPhone; ...)&lt;/userAgent&gt;
+ *     &lt;viewport&gt;320x480&lt;/viewport&gt;
+ *   &lt;/profile&gt;
+ * &lt;/profiles&gt;
+ * </pre>
+ *
+ * @author gehel
+ */
+public class DeviceProfile {
+
+    private String name;
+    private String userAgent;
+    private String viewport;
+
+    /** Used by Maven, which sets the fields. */
+    public DeviceProfile() {
+    }
+
+    public DeviceProfile(String name, String userAgent, String viewport) {
+        this.name = name;
+        this.userAgent = userAgent;
+        this.viewport = viewport;
+    }
+
+    /** The name of the profile, also the directory of its reports. */
+    public String getName() {
+        return name;
+    }
+
+    public String getUserAgent() {
+        return userAgent;
+    }
+
+    public String getViewport() {
+        return viewport;
+    }
+
+    /**
+     * @throws IllegalArgumentException
+     *             if the profile has no name, or a name that cannot be used
+     *             as a directory
+     */
+    public void validate() {
+        Preconditions.checkArgument(name != null && name.matches("[\\w.-]+"),
+                "Invalid profile name [" + name
+                        + "], use letters, digits, '.', '-' and '_'");
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + userAgent + ", " + viewport + ")";
+    }
+}
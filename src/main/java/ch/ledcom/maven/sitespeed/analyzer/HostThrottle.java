@@ -0,0 +1,313 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.analyzer;
+
+import static ch.ledcom.maven.sitespeed.Configuration.HOST_CONCURRENCY;
+import static ch.ledcom.maven.sitespeed.Configuration.HOST_RATE;
+
+import java.io.Closeable;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+/**
+ * Limits the analysis traffic sent to each host, so that concurrent PhantomJS
+ * instances do not skew each other's timings or trigger the rate limiting of
+ * the analyzed site.
+ *
+ * Each host has a token bucket, refilled at the configured rate, and a
+ * maximum number of concurrent analyses. Analyses that cannot start are
+ * queued per host and dispatched by a single background thread as soon as
+ * their host has capacity again, so a throttled host never blocks the
+ * analysis of other hosts. The number of queued analyses is bounded, which
+ * keeps the crawl from running arbitrarily far ahead of the analysis.
+ *
+ * @author gehel
+ */
+public class HostThrottle implements Closeable {
+
+    private static final int MAX_PENDING = 1000;
+    private static final long NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    /** Tokens per nanosecond, 0 for no rate limit. */
+    private final double rate;
+    private final int maxConcurrent;
+    private final double capacity;
+
+    private final Map<String, Host> hosts = new HashMap<String, Host>();
+    private int pendingCount;
+    private int runningCount;
+    private ScheduledExecutorService dispatcher;
+
+    /**
+     * @param perMinute
+     *            maximum number of analyses started per minute and per host,
+     *            0 for no limit
+     * @param maxConcurrent
+     *            maximum number of concurrent analyses per host, 0 for no
+     *            limit
+     */
+    @Inject
+    public HostThrottle(@Named(HOST_RATE) int perMinute,
+            @Named(HOST_CONCURRENCY) int maxConcurrent) {
+        this.rate = perMinute > 0 ? (double) perMinute / NANOS_PER_MINUTE : 0;
+        this.maxConcurrent = maxConcurrent;
+        // a host may burst up to its concurrency limit
+        this.capacity = Math.max(1, maxConcurrent);
+    }
+
+    public boolean isEnabled() {
+        return rate > 0 || maxConcurrent > 0;
+    }
+
+    /**
+     * Run an analysis of this page on the executor, as soon as its host has
+     * capacity. Blocks while too many analyses are already queued.
+     */
+    public <T> Future<T> submit(URI uri, Callable<T> analysis,
+            Executor executor) throws InterruptedException {
+        synchronized (this) {
+            while (isEnabled() && pendingCount >= MAX_PENDING) {
+                wait();
+            }
+        }
+        return resubmit(uri, analysis, executor);
+    }
+
+    /**
+     * Run another analysis of a page already being analyzed, as soon as its
+     * host has capacity. Never blocks, even when too many analyses are
+     * queued: this is called from analyzer threads, which must not wait for
+     * a queue only they can drain.
+     */
+    public <T> Future<T> resubmit(URI uri, Callable<T> analysis,
+            Executor executor) {
+        if (!isEnabled()) {
+            FutureTask<T> task = new FutureTask<T>(analysis);
+            executor.execute(task);
+            return task;
+        }
+        ThrottledTask<T> task;
+        synchronized (this) {
+            Host host = host(uri.getHost());
+            task = new ThrottledTask<T>(analysis, host, executor);
+            host.pending.add(task);
+            pendingCount++;
+        }
+        scheduleDispatch(0);
+        return task;
+    }
+
+    /**
+     * Wait until this page's host has capacity, for callers analyzing pages
+     * in their own thread. Every call must be followed by
+     * {@link #release(URI)}.
+     */
+    public void acquire(URI uri) throws InterruptedException {
+        if (!isEnabled()) {
+            return;
+        }
+        synchronized (this) {
+            Host host = host(uri.getHost());
+            long delay;
+            while ((delay = host.tryStart()) != 0) {
+                if (delay > 0) {
+                    TimeUnit.NANOSECONDS.timedWait(this, delay);
+                } else {
+                    wait();
+                }
+            }
+            runningCount++;
+        }
+    }
+
+    public void release(URI uri) {
+        if (!isEnabled()) {
+            return;
+        }
+        synchronized (this) {
+            release(host(uri.getHost()));
+        }
+        scheduleDispatch(0);
+    }
+
+    /**
+     * Wait until all submitted analyses have completed.
+     */
+    public synchronized void awaitIdle() throws InterruptedException {
+        while (pendingCount > 0 || runningCount > 0) {
+            wait();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (dispatcher != null) {
+            dispatcher.shutdownNow();
+            dispatcher = null;
+        }
+    }
+
+    private Host host(String name) {
+        Host host = hosts.get(name);
+        if (host == null) {
+            host = new Host();
+            hosts.put(name, host);
+        }
+        return host;
+    }
+
+    private void release(Host host) {
+        host.running--;
+        runningCount--;
+        notifyAll();
+    }
+
+    private synchronized void scheduleDispatch(long delayNanos) {
+        if (dispatcher == null) {
+            dispatcher = Executors
+                    .newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                            .setDaemon(true)
+                            .setNameFormat("sitespeed-throttle-%d").build());
+        }
+        dispatcher.schedule(new Runnable() {
+            @Override
+            public void run() {
+                dispatch();
+            }
+        }, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Start every queued analysis whose host has capacity. Only ever runs on
+     * the dispatcher thread, so executors that run rejected tasks in the
+     * calling thread do not lead to recursive dispatching.
+     */
+    private void dispatch() {
+        List<ThrottledTask<?>> ready = new ArrayList<ThrottledTask<?>>();
+        long nextDelay = Long.MAX_VALUE;
+        synchronized (this) {
+            for (Host host : hosts.values()) {
+                while (!host.pending.isEmpty()) {
+                    ThrottledTask<?> task = host.pending.peek();
+                    if (task.isCancelled()) {
+                        host.pending.remove();
+                        pendingCount--;
+                        continue;
+                    }
+                    long delay = host.tryStart();
+                    if (delay != 0) {
+                        if (delay > 0) {
+                            nextDelay = Math.min(nextDelay, delay);
+                        }
+                        break;
+                    }
+                    host.pending.remove();
+                    pendingCount--;
+                    runningCount++;
+                    task.started = true;
+                    ready.add(task);
+                }
+            }
+            notifyAll();
+        }
+        if (nextDelay != Long.MAX_VALUE) {
+            scheduleDispatch(nextDelay);
+        }
+        for (ThrottledTask<?> task : ready) {
+            try {
+                task.executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                // completing the task releases its host
+                task.reject(e);
+            }
+        }
+    }
+
+    private final class Host {
+        private final Queue<ThrottledTask<?>> pending = new ArrayDeque<ThrottledTask<?>>();
+        private int running;
+        private double tokens = capacity;
+        private long lastRefill = System.nanoTime();
+
+        /**
+         * Start an analysis if possible.
+         *
+         * @return 0 if started, the delay in nanoseconds until a token is
+         *         available, or -1 if the concurrency limit is reached
+         */
+        private long tryStart() {
+            if (maxConcurrent > 0 && running >= maxConcurrent) {
+                return -1;
+            }
+            if (rate > 0) {
+                long now = System.nanoTime();
+                tokens = Math.min(capacity, tokens + (now - lastRefill) * rate);
+                lastRefill = now;
+                if (tokens < 1) {
+                    return Math.max(1, (long) Math.ceil((1 - tokens) / rate));
+                }
+                tokens--;
+            }
+            running++;
+            return 0;
+        }
+    }
+
+    private final class ThrottledTask<T> extends FutureTask<T> {
+        private final Host host;
+        private final Executor executor;
+        private volatile boolean started;
+
+        private ThrottledTask(Callable<T> analysis, Host host,
+                Executor executor) {
+            super(analysis);
+            this.host = host;
+            this.executor = executor;
+        }
+
+        private void reject(RejectedExecutionException e) {
+            setException(e);
+        }
+
+        @Override
+        protected void done() {
+            if (!started) {
+                // cancelled while queued
+                scheduleDispatch(0);
+                return;
+            }
+            synchronized (HostThrottle.this) {
+                release(host);
+            }
+            scheduleDispatch(0);
+        }
+    }
+}
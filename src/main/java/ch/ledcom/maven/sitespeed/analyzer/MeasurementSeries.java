@@ -0,0 +1,303 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.analyzer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+import javax.annotation.Nullable;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Repeated analyses of a single page.
+ *
+ * The first {@link #MIN_RUNS} analyses run concurrently. Once they have
+ * completed, further analyses run one at a time, and the series stops as soon
+ * as the half width of the 95% confidence interval of the load time is within
+ * the requested precision, or when the maximum number of runs is reached.
+ * Running the extra analyses one at a time means that no analysis is wasted
+ * once the precision is reached.
+ *
+ * A failed run is replaced by another one, within the maximum number of runs.
+ * The series only completes once no run is in flight, so that a failure does
+ * not discard the runs still in progress, and gives up when every run has
+ * failed.
+ *
+ * The merged result is the run with the median load time, so that the report
+ * stays consistent with a single page load, with a <code>measurements</code>
+ * element giving the median and spread of the main metrics over all runs.
+ *
+ * This class is thread safe.
+ *
+ * @author gehel
+ */
+public class MeasurementSeries {
+
+    public static final int MIN_RUNS = 3;
+
+    static final String MEASUREMENTS = "measurements";
+    static final String RUNS = "runs";
+    static final String LOAD_TIME = "lt";
+    static final String SCORE = "o";
+    static final String REQUESTS = "r";
+    static final String WEIGHT = "w";
+    static final String TTFB = "ttfb";
+
+    /** Child elements of the result measured over all runs. */
+    private static final List<String> METRICS = Arrays.asList(LOAD_TIME,
+            SCORE, REQUESTS, WEIGHT);
+
+    /** Student's t quantiles (97.5%) for 1 to 30 degrees of freedom. */
+    private static final double[] T_975 = { 12.706, 4.303, 3.182, 2.776,
+            2.571, 2.447, 2.365, 2.306, 2.262, 2.228, 2.201, 2.179, 2.160,
+            2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086, 2.080, 2.074,
+            2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042 };
+    private static final double Z_975 = 1.960;
+
+    /** What to do after a run has completed. */
+    public enum Next {
+        /** The series is complete, see {@link MeasurementSeries#result()}. */
+        COMPLETE,
+        /** Start one more run. */
+        RUN_AGAIN,
+        /** Wait for runs still in progress. */
+        WAIT
+    }
+
+    private final int maxRuns;
+    private final double precision;
+    private final List<Document> runs = new ArrayList<Document>();
+    private int started;
+    private int failures;
+    private boolean complete;
+
+    MeasurementSeries(int maxRuns, double precision) {
+        Preconditions.checkArgument(maxRuns > 0, "maxRuns must be positive");
+        this.maxRuns = maxRuns;
+        this.precision = precision;
+    }
+
+    /**
+     * Number of runs to start right away.
+     */
+    public synchronized int initialRuns() {
+        int initial = Math.min(MIN_RUNS, maxRuns);
+        started += initial;
+        return initial;
+    }
+
+    /**
+     * Record the result of a run.
+     */
+    public synchronized Next add(Document run) {
+        if (complete) {
+            return Next.COMPLETE;
+        }
+        runs.add(run);
+        if (runs.size() >= maxRuns
+                || (runs.size() >= MIN_RUNS && isPrecise())) {
+            complete = true;
+            return Next.COMPLETE;
+        }
+        return next();
+    }
+
+    /**
+     * Record that a run has failed.
+     */
+    public synchronized Next failed() {
+        if (complete) {
+            return Next.COMPLETE;
+        }
+        failures++;
+        if (runs.isEmpty() && inFlight() <= 0) {
+            // every run has failed
+            complete = true;
+            return Next.COMPLETE;
+        }
+        return next();
+    }
+
+    /**
+     * Once no run is in flight, start another one, to replace a failed run or
+     * to improve the precision.
+     */
+    private Next next() {
+        if (inFlight() > 0) {
+            return Next.WAIT;
+        }
+        if (started < maxRuns) {
+            started++;
+            return Next.RUN_AGAIN;
+        }
+        complete = true;
+        return Next.COMPLETE;
+    }
+
+    /**
+     * Runs started and not completed yet. Negative when runs are added without
+     * being started through {@link #initialRuns()}, one at a time.
+     */
+    private int inFlight() {
+        return started - runs.size() - failures;
+    }
+
+    /**
+     * Stop the series with the runs completed so far.
+     */
+    public synchronized void stop() {
+        complete = true;
+    }
+
+    public synchronized int size() {
+        return runs.size();
+    }
+
+    /**
+     * The merged result, or <code>null</code> if no run has completed.
+     */
+    @Nullable
+    public synchronized Document result() {
+        if (runs.isEmpty()) {
+            return null;
+        }
+        if (maxRuns == 1) {
+            return runs.get(0);
+        }
+        List<Document> sorted = new ArrayList<Document>(runs);
+        Collections.sort(sorted, new Comparator<Document>() {
+            @Override
+            public int compare(Document d1, Document d2) {
+                return Double.compare(loadTime(d1), loadTime(d2));
+            }
+        });
+        Document median = sorted.get((sorted.size() - 1) / 2).clone();
+        Element root = median.getRootElement();
+        root.removeChild(MEASUREMENTS);
+        Element measurements = new Element(MEASUREMENTS);
+        measurements.setAttribute(RUNS, Integer.toString(runs.size()));
+        for (String metric : METRICS) {
+            addMetric(measurements, metric, childValues(metric));
+        }
+        addMetric(measurements, TTFB, ttfbValues());
+        root.addContent(measurements);
+        return median;
+    }
+
+    private boolean isPrecise() {
+        double[] values = childValues(LOAD_TIME);
+        if (values.length < runs.size()) {
+            // load time is not reported, nothing to converge on
+            return true;
+        }
+        int n = values.length;
+        double mean = mean(values);
+        if (mean <= 0) {
+            return true;
+        }
+        double t = n - 1 <= T_975.length ? T_975[n - 2] : Z_975;
+        double halfWidth = t * stdDev(values, mean) / Math.sqrt(n);
+        return halfWidth / mean <= precision;
+    }
+
+    private double[] childValues(String name) {
+        double[] values = new double[runs.size()];
+        int count = 0;
+        for (Document run : runs) {
+            double value = parse(run.getRootElement().getChildTextTrim(name));
+            if (!Double.isNaN(value)) {
+                values[count++] = value;
+            }
+        }
+        return Arrays.copyOf(values, count);
+    }
+
+    private double[] ttfbValues() {
+        double[] values = new double[runs.size()];
+        int count = 0;
+        for (Document run : runs) {
+            double value = parse(run.getRootElement().getAttributeValue(TTFB));
+            if (!Double.isNaN(value)) {
+                values[count++] = value;
+            }
+        }
+        return Arrays.copyOf(values, count);
+    }
+
+    private static void addMetric(Element measurements, String name,
+            double[] values) {
+        if (values.length == 0) {
+            return;
+        }
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        double median = sorted.length % 2 == 1 ? sorted[middle]
+                : (sorted[middle - 1] + sorted[middle]) / 2;
+        Element metric = new Element(name);
+        metric.setAttribute("median", format(median));
+        metric.setAttribute("min", format(sorted[0]));
+        metric.setAttribute("max", format(sorted[sorted.length - 1]));
+        metric.setAttribute("stddev", format(stdDev(values, mean(values))));
+        measurements.addContent(metric);
+    }
+
+    private static double loadTime(Document doc) {
+        double value = parse(doc.getRootElement().getChildTextTrim(LOAD_TIME));
+        return Double.isNaN(value) ? Double.MAX_VALUE : value;
+    }
+
+    private static double parse(@Nullable String value) {
+        if (value == null || value.length() == 0) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static double mean(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    private static double stdDev(double[] values, double mean) {
+        if (values.length < 2) {
+            return 0;
+        }
+        double sum = 0;
+        for (double value : values) {
+            sum += (value - mean) * (value - mean);
+        }
+        return Math.sqrt(sum / (values.length - 1));
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) ? Long.toString((long) value)
+                : String.format(Locale.ENGLISH, "%.3f", value);
+    }
+}
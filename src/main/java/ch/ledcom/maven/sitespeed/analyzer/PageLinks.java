@@ -0,0 +1,72 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.analyzer;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Extract the links of the rendered page from the result of an analysis.
+ *
+ * Links are only present in the result if the analyzer is configured to
+ * harvest them (see {@link SiteSpeedAnalyzer}).
+ *
+ * @author gehel
+ */
+public final class PageLinks {
+
+    private static final String LINKS = "links";
+    private static final String ITEM = "item";
+
+    private PageLinks() {
+    }
+
+    public static List<URI> extract(@Nullable Document doc) {
+        if (doc == null || !doc.hasRootElement()) {
+            return ImmutableList.of();
+        }
+        Element links = doc.getRootElement().getChild(LINKS);
+        if (links == null) {
+            return ImmutableList.of();
+        }
+        ImmutableList.Builder<URI> result = ImmutableList.builder();
+        for (Element item : links.getChildren(ITEM)) {
+            URI link = toURI(item.getTextTrim());
+            if (link != null) {
+                result.add(link);
+            }
+        }
+        return result.build();
+    }
+
+    @Nullable
+    private static URI toURI(String link) {
+        // fragments point to the same page, the rest of the link is kept as
+        // is, as decoding and encoding it again would change escapes like %2F
+        int fragment = link.indexOf('#');
+        try {
+            return new URI(fragment < 0 ? link : link.substring(0, fragment));
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+}
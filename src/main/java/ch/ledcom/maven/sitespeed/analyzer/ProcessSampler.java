@@ -0,0 +1,257 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.analyzer;
+
+import static ch.ledcom.maven.sitespeed.Configuration.PROFILE_INTERVAL;
+
+import java.io.Closeable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import org.jdom2.Element;
+
+import ch.ledcom.maven.sitespeed.analyzer.SystemProbe.Usage;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+/**
+ * Measures how expensive pages are for the client, by sampling the CPU time
+ * and resident memory of each browser process while it loads its page.
+ *
+ * A single background thread samples all live browsers, and only exists while
+ * at least one browser is watched. Each sample is a single read of
+ * <code>/proc/[pid]/stat</code>, so profiling is only available on systems
+ * with <code>/proc</code>; elsewhere profiles stay empty.
+ *
+ * @author gehel
+ */
+public class ProcessSampler implements Closeable {
+
+    private final long interval;
+    private final SystemProbe probe;
+
+    private final List<Profile> live = new ArrayList<Profile>();
+    private ScheduledExecutorService sampler;
+
+    /**
+     * @param interval
+     *            time between two samples, in milliseconds, 0 to disable
+     *            profiling
+     */
+    @Inject
+    public ProcessSampler(@Named(PROFILE_INTERVAL) long interval) {
+        this(interval, new SystemProbe());
+    }
+
+    ProcessSampler(long interval, SystemProbe probe) {
+        this.interval = interval;
+        this.probe = probe;
+    }
+
+    public boolean isEnabled() {
+        return interval > 0;
+    }
+
+    /**
+     * Start sampling a process, until {@link Profile#stop()} is called.
+     */
+    public Profile watch(Process process) {
+        Profile profile = new Profile(pid(process));
+        if (profile.pid < 0) {
+            return profile;
+        }
+        profile.sample();
+        synchronized (this) {
+            live.add(profile);
+            if (sampler == null) {
+                sampler = Executors
+                        .newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                                .setDaemon(true)
+                                .setNameFormat("sitespeed-sampler-%d").build());
+                sampler.scheduleAtFixedRate(new Runnable() {
+                    @Override
+                    public void run() {
+                        sampleAll();
+                    }
+                }, interval, interval, TimeUnit.MILLISECONDS);
+            }
+        }
+        return profile;
+    }
+
+    @Override
+    public synchronized void close() {
+        live.clear();
+        if (sampler != null) {
+            sampler.shutdownNow();
+            sampler = null;
+        }
+    }
+
+    private void sampleAll() {
+        Profile[] profiles;
+        synchronized (this) {
+            profiles = live.toArray(new Profile[live.size()]);
+        }
+        for (Profile profile : profiles) {
+            profile.sample();
+        }
+    }
+
+    private synchronized void unwatch(Profile profile) {
+        live.remove(profile);
+        if (live.isEmpty()) {
+            close();
+        }
+    }
+
+    /**
+     * Process id of a child process, read through reflection as there is no
+     * public API for it before Java 9.
+     *
+     * @return the process id, or -1 if it cannot be found
+     */
+    static int pid(Process process) {
+        try {
+            Method method = Process.class.getMethod("pid");
+            return ((Number) method.invoke(process)).intValue();
+        } catch (Exception e) {
+            // before Java 9
+        }
+        try {
+            Field field = process.getClass().getDeclaredField("pid");
+            field.setAccessible(true);
+            return field.getInt(process);
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Resource usage of one browser process.
+     */
+    public final class Profile {
+        private final int pid;
+
+        private int samples;
+        private long cpuTime;
+        private long peakRss;
+        private double peakCpu;
+        private long lastCpuTime;
+        private long lastSample;
+        private boolean stopped;
+
+        private Profile(int pid) {
+            this.pid = pid;
+        }
+
+        /**
+         * Take a last sample and stop sampling. The browser should have
+         * written its result but not been waited for yet, as its figures
+         * disappear once it has been reaped.
+         */
+        public void stop() {
+            synchronized (this) {
+                if (stopped) {
+                    return;
+                }
+            }
+            sample();
+            synchronized (this) {
+                stopped = true;
+            }
+            unwatch(this);
+        }
+
+        public synchronized int samples() {
+            return samples;
+        }
+
+        /**
+         * CPU time used by the browser, in milliseconds.
+         */
+        public synchronized long cpuTime() {
+            return cpuTime;
+        }
+
+        /**
+         * Highest CPU usage between two samples, in percent of one processor.
+         */
+        public synchronized double peakCpu() {
+            return peakCpu;
+        }
+
+        /**
+         * Highest resident memory of the browser, in bytes.
+         */
+        public synchronized long peakRss() {
+            return peakRss;
+        }
+
+        /**
+         * The profile as a result element, or <code>null</code> if the
+         * browser could not be sampled.
+         */
+        @Nullable
+        public synchronized Element toElement() {
+            if (samples == 0) {
+                return null;
+            }
+            Element profile = new Element("profile");
+            profile.setAttribute("samples", Integer.toString(samples));
+            profile.addContent(new Element("cpu").setText(Long
+                    .toString(cpuTime)));
+            profile.addContent(new Element("peakcpu").setText(Long
+                    .toString(Math.round(peakCpu))));
+            profile.addContent(new Element("rss").setText(Long
+                    .toString(peakRss)));
+            return profile;
+        }
+
+        private void sample() {
+            if (pid < 0) {
+                return;
+            }
+            Usage usage = probe.processUsage(pid);
+            long now = System.nanoTime();
+            synchronized (this) {
+                if (usage == null || stopped) {
+                    return;
+                }
+                if (samples > 0) {
+                    long elapsed = TimeUnit.NANOSECONDS.toMillis(now
+                            - lastSample);
+                    if (elapsed > 0) {
+                        peakCpu = Math.max(peakCpu, 100.0
+                                * (usage.cpuTime - lastCpuTime) / elapsed);
+                    }
+                }
+                samples++;
+                cpuTime = Math.max(cpuTime, usage.cpuTime);
+                peakRss = Math.max(peakRss, usage.rss);
+                lastCpuTime = usage.cpuTime;
+                lastSample = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.analyzer;
+
+import org.jdom2.Element;
+
+/**
+ * The browser profiles (see {@link ProcessSampler}) of the pages of a run,
+ * summed up: the CPU time used by all the browsers, and the highest CPU
+ * usage and resident memory of a single browser. Pages without a profile
+ * are ignored.
+ *
+ * Not thread safe.
+ *
+ * @author gehel
+ */
+public final class ProfileTotals {
+
+    private int pages;
+    private long cpuTime;
+    private long peakCpu;
+    private long peakRss;
+
+    /**
+     * @param results
+     *            the root element of a page result
+     */
+    public void add(Element results) {
+        Element profile = results.getChild("profile");
+        if (profile == null) {
+            return;
+        }
+        pages++;
+        cpuTime += value(profile, "cpu");
+        peakCpu = Math.max(peakCpu, value(profile, "peakcpu"));
+        peakRss = Math.max(peakRss, value(profile, "rss"));
+    }
+
+    /** Number of pages with a profile. */
+    public int pages() {
+        return pages;
+    }
+
+    /** CPU time used by all the browsers, in milliseconds. */
+    public long cpuTime() {
+        return cpuTime;
+    }
+
+    /** Highest CPU usage of a browser, in percent of a processor. */
+    public long peakCpu() {
+        return peakCpu;
+    }
+
+    /** Highest resident memory of a browser, in bytes. */
+    public long peakRss() {
+        return peakRss;
+    }
+
+    private static long value(Element profile, String name) {
+        String value = profile.getChildText(name);
+        try {
+            return value == null ? 0 : Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.analyzer;
+
+import static ch.ledcom.maven.sitespeed.Configuration.MEASUREMENTS;
+import static ch.ledcom.maven.sitespeed.Configuration.MEASUREMENT_PRECISION;
+
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+/**
+ * How many times each page is analyzed.
+ *
+ * Each page is analyzed up to <code>maxRuns</code> times, and measurements
+ * stop early once the load time is known precisely enough (see
+ * {@link MeasurementSeries}).
+ *
+ * @author gehel
+ */
+public class RepeatedMeasurements {
+
+    private final int maxRuns;
+    private final double precision;
+
+    /**
+     * @param maxRuns
+     *            maximum number of analyses of each page
+     * @param precision
+     *            target half width of the 95% confidence interval of the load
+     *            time, relative to its mean
+     */
+    @Inject
+    public RepeatedMeasurements(@Named(MEASUREMENTS) int maxRuns,
+            @Named(MEASUREMENT_PRECISION) double precision) {
+        this.maxRuns = Math.max(1, maxRuns);
+        this.precision = precision;
+    }
+
+    public MeasurementSeries newSeries() {
+        return new MeasurementSeries(maxRuns, precision);
+    }
+}
@@ -17,6 +17,7 @@ import static ch.ledcom.maven.sitespeed.Configuration.PHANTOM_JS;
 import static ch.ledcom.maven.sitespeed.Configuration.PROXY_HOST;
 import static ch.ledcom.maven.sitespeed.Configuration.PROXY_TYPE;
 import static ch.ledcom.maven.sitespeed.Configuration.RULESET;
+import static ch.ledcom.maven.sitespeed.Configuration.SINGLE_PASS;
 import static ch.ledcom.maven.sitespeed.Configuration.USER_AGENT;
 import static ch.ledcom.maven.sitespeed.Configuration.VIEWPORT;
 
@@ -35,10 +36,15 @@ import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.maven.plugin.logging.Log;
 import org.jdom2.Document;
+import org.jdom2.Element;
 import org.jdom2.JDOMException;
 import org.jdom2.input.SAXBuilder;
 import org.jdom2.input.sax.XMLReaderSAX2Factory;
 
+import ch.ledcom.maven.sitespeed.analyzer.ProcessSampler.Profile;
+import ch.ledcom.maven.sitespeed.har.HarRecorder;
+import ch.ledcom.maven.sitespeed.har.HarRecorder.Recording;
+import ch.ledcom.maven.sitespeed.rules.RuleDictionary;
 import ch.ledcom.maven.sitespeed.utils.XmlPrettyPrinter;
 
 import com.google.common.base.Preconditions;
@@ -52,6 +58,8 @@ import com.google.inject.name.Named;
 public class SiteSpeedAnalyzer {
 
     private static final String YSLOW = "yslow-3.1.4-sitespeed.js";
+    private static File extractedYSlow;
+
     private final Log log;
     private final File phantomJS;
     private final File yslow;
@@ -64,7 +72,11 @@ public class SiteSpeedAnalyzer {
     private final String userAgent;
     @Nullable
     private final String viewport;
-    private final ImmutableList<String> baseCommand;
+    private final boolean harvestLinks;
+    private final BrowserAdmission admission;
+    private final HarRecorder harRecorder;
+    private final ProcessSampler sampler;
+    private final ImmutableList<String> scriptArguments;
 
     // TODO: would be better to use a pool
     private final ThreadLocal<SAXBuilder> docBuilder = new ThreadLocal<SAXBuilder>() {
@@ -80,7 +92,10 @@ public class SiteSpeedAnalyzer {
             @Named(PROXY_TYPE) @Nullable String proxyType,
             @Named(RULESET) String ruleset,
             @Named(USER_AGENT) @Nullable String userAgent,
-            @Named(VIEWPORT) @Nullable String viewport) throws IOException {
+            @Named(VIEWPORT) @Nullable String viewport,
+            @Named(SINGLE_PASS) boolean harvestLinks,
+            BrowserAdmission admission, HarRecorder harRecorder,
+            ProcessSampler sampler) throws IOException {
         Preconditions.checkNotNull(phantomJS,
                 "Path to PhantomJS cannot be null");
         this.log = log;
@@ -91,15 +106,25 @@ public class SiteSpeedAnalyzer {
         this.ruleset = ruleset;
         this.userAgent = userAgent;
         this.viewport = viewport;
-        this.baseCommand = constructBaseCommand();
+        this.harvestLinks = harvestLinks;
+        this.admission = admission;
+        this.harRecorder = harRecorder;
+        this.sampler = sampler;
+        this.scriptArguments = constructScriptArguments();
     }
 
-    private File extractYSlow() throws IOException {
+    /**
+     * YSlow is extracted once per JVM, and reused by every run of a daemon.
+     */
+    private static synchronized File extractYSlow() throws IOException {
+        if (extractedYSlow != null && extractedYSlow.isFile()) {
+            return extractedYSlow;
+        }
         File yslow = File.createTempFile("yslow", ".js");
         Closer closer = Closer.create();
         try {
 
-            InputStream in = this.getClass().getClassLoader()
+            InputStream in = SiteSpeedAnalyzer.class.getClassLoader()
                     .getResourceAsStream(YSLOW);
             OutputStream out = new FileOutputStream(yslow);
             closer.register(in);
@@ -111,27 +136,42 @@ public class SiteSpeedAnalyzer {
             closer.close();
         }
         yslow.deleteOnExit();
+        extractedYSlow = yslow;
         return yslow;
     }
 
     public Document analyze(URL url) throws IOException, JDOMException,
             InterruptedException {
+        BrowserAdmission.Slot slot = admission.acquire();
         InputStream in = null;
+        Recording recording = null;
+        Profile profile = null;
         boolean threw = true;
         try {
             log.info("Starting analysis of [" + url.toExternalForm() + "]");
 
-            List<String> command = constructCommand(url);
+            if (harRecorder.isEnabled()) {
+                recording = harRecorder.start(url);
+            }
+            List<String> command = constructCommand(url, recording);
 
             logCommand(command);
 
             ProcessBuilder pb = new ProcessBuilder(command);
             pb.redirectErrorStream();
             Process p = pb.start();
+            slot.started(p);
+            if (sampler.isEnabled()) {
+                profile = sampler.watch(p);
+            }
             // FIXME: we need to filter the InputStream as it seems we can get
             // content outside of the XML document (see sitespeed.io)
             in = p.getInputStream();
             byte[] result = IOUtils.toByteArray(in);
+            if (profile != null) {
+                // before waitFor(), the figures are gone once reaped
+                profile.stop();
+            }
 
             log.info("Result of analysis:" + ArrayUtils.toString(result));
 
@@ -145,10 +185,31 @@ public class SiteSpeedAnalyzer {
                 throw new RuntimeException("PhantomJS returned with status ["
                         + status + "]");
             }
+            // kept once per ruleset instead of in every result
+            RuleDictionary.strip(doc.getRootElement());
+            if (recording != null && recording.path() != null) {
+                doc.getRootElement().addContent(
+                        new Element("har").setText(recording.path()));
+            }
+            Element usage = profile != null ? profile.toElement() : null;
+            if (usage != null) {
+                doc.getRootElement().addContent(usage);
+            }
             threw = false;
             return doc;
         } finally {
-            Closeables.close(in, threw);
+            if (profile != null) {
+                profile.stop();
+            }
+            try {
+                Closeables.close(in, threw);
+            } finally {
+                try {
+                    Closeables.close(recording, threw);
+                } finally {
+                    slot.release();
+                }
+            }
         }
     }
 
@@ -159,19 +220,15 @@ public class SiteSpeedAnalyzer {
         }
     }
 
-    private ImmutableList<String> constructBaseCommand() {
+    private ImmutableList<String> constructScriptArguments() {
         ImmutableList.Builder<String> builder = ImmutableList.builder();
-        builder.add(phantomJS.getAbsolutePath());
-        if (!Strings.isNullOrEmpty(proxyHost)) {
-            builder.add("--proxy=" + proxyHost);
-        }
-        if (!Strings.isNullOrEmpty(proxyType)) {
-            builder.add("--proxy-type=" + proxyType);
-        }
         builder.add(yslow.getAbsolutePath()) //
-                .add("-d") //
                 .add("-r").add(ruleset) //
                 .add("-f").add("xml");
+        if (harvestLinks) {
+            // links of the rendered page, see PageLinks
+            builder.add("-l");
+        }
         if (!Strings.isNullOrEmpty(userAgent)) {
             builder.add("-ua").add(userAgent);
         }
@@ -181,9 +238,27 @@ public class SiteSpeedAnalyzer {
         return builder.build();
     }
 
-    private ImmutableList<String> constructCommand(URL url) {
+    private ImmutableList<String> constructCommand(URL url,
+            @Nullable Recording recording) {
         ImmutableList.Builder<String> builder = ImmutableList.builder();
-        builder.addAll(baseCommand);
+        builder.add(phantomJS.getAbsolutePath());
+        if (recording != null) {
+            // the recording proxy goes through the configured proxy itself
+            builder.add("--proxy=" + recording.proxyAddress());
+            builder.add("--proxy-type=http");
+        } else {
+            if (!Strings.isNullOrEmpty(proxyHost)) {
+                builder.add("--proxy=" + proxyHost);
+            }
+            if (!Strings.isNullOrEmpty(proxyType)) {
+                builder.add("--proxy-type=" + proxyType);
+            }
+        }
+        builder.addAll(scriptArguments);
+        if (RuleDictionary.forRuleset(ruleset) == null) {
+            // only needed until the dictionary of the ruleset is known
+            builder.add("-d");
+        }
         builder.add(url.toExternalForm());
         return builder.build();
     }
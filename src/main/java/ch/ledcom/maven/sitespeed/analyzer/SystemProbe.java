@@ -0,0 +1,135 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.analyzer;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+
+import javax.annotation.Nullable;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Splitter;
+import com.google.common.io.Files;
+
+/**
+ * Resource usage of the machine and of the browsers started by this JVM.
+ *
+ * Memory figures come from <code>/proc</code> and are unknown on systems
+ * without it. All values are sampled on each call.
+ *
+ * @author gehel
+ */
+class SystemProbe {
+
+    static final long UNKNOWN = -1;
+
+    private static final File PROC = new File("/proc");
+    private static final long PAGE_SIZE = 4096;
+    /** USER_HZ, the unit of CPU times in <code>/proc</code>. */
+    private static final long CLOCK_TICKS_PER_SECOND = 100;
+    private static final Splitter WHITESPACE = Splitter.on(' ')
+            .omitEmptyStrings();
+
+    private final OperatingSystemMXBean os = ManagementFactory
+            .getOperatingSystemMXBean();
+
+    public int processors() {
+        return os.getAvailableProcessors();
+    }
+
+    /**
+     * System load average over the last minute, negative if unknown.
+     */
+    public double loadAverage() {
+        return os.getSystemLoadAverage();
+    }
+
+    /**
+     * Memory available to new processes without swapping, in bytes.
+     */
+    public long availableMemory() {
+        try {
+            for (String line : Files.readLines(new File(PROC, "meminfo"),
+                    Charsets.US_ASCII)) {
+                if (line.startsWith("MemAvailable:")) {
+                    // value is in kB
+                    return Long.parseLong(field(line, 1)) * 1024;
+                }
+            }
+        } catch (IOException e) {
+            // no /proc
+        } catch (NumberFormatException e) {
+            // unexpected format
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * CPU time and resident memory of a single process, read from one file so
+     * that sampling stays cheap.
+     *
+     * @return <code>null</code> if the process has exited or is unknown
+     */
+    @Nullable
+    public Usage processUsage(int processId) {
+        try {
+            String stat = statFields(new File(PROC,
+                    Integer.toString(processId)));
+            long ticks = Long.parseLong(field(stat, 11))
+                    + Long.parseLong(field(stat, 12));
+            return new Usage(ticks * 1000 / CLOCK_TICKS_PER_SECOND,
+                    Long.parseLong(field(stat, 21)) * PAGE_SIZE);
+        } catch (IOException e) {
+            // process has exited, or no /proc
+        } catch (NumberFormatException e) {
+            // unexpected format
+        }
+        return null;
+    }
+
+    /**
+     * Fields of <code>/proc/[pid]/stat</code>, starting with the state of the
+     * process.
+     */
+    private static String statFields(File process) throws IOException {
+        String stat = Files.toString(new File(process, "stat"),
+                Charsets.US_ASCII);
+        // the command name can contain spaces, fields start after it
+        return stat.substring(stat.lastIndexOf(')') + 1);
+    }
+
+    private static String field(String line, int index) {
+        int i = 0;
+        for (String field : WHITESPACE.split(line.trim())) {
+            if (i++ == index) {
+                return field;
+            }
+        }
+        return "";
+    }
+
+    static final class Usage {
+        /** User and system CPU time, in milliseconds. */
+        final long cpuTime;
+        /** Resident memory, in bytes. */
+        final long rss;
+
+        Usage(long cpuTime, long rss) {
+            this.cpuTime = cpuTime;
+            this.rss = rss;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.archive;
+
+/**
+ * What to do with the {@link ResponseArchive}.
+ *
+ * @author gehel
+ */
+public enum ArchiveMode {
+
+    /** Pages are analyzed against the live site. */
+    OFF,
+
+    /** Responses received during the analysis are stored in the archive. */
+    RECORD,
+
+    /**
+     * Responses are served from the archive, nothing goes to the network.
+     * Requests missing from the archive fail.
+     */
+    REPLAY
+
+}
@@ -0,0 +1,45 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.archive;
+
+/**
+ * A response from the {@link ResponseArchive}.
+ *
+ * @author gehel
+ */
+public final class ArchivedResponse {
+
+    private final String head;
+    private final byte[] body;
+
+    ArchivedResponse(String head, byte[] body) {
+        this.head = head;
+        this.body = body;
+    }
+
+    /**
+     * Status line and headers, each followed by CRLF, without the empty line
+     * ending the head.
+     */
+    public String head() {
+        return head;
+    }
+
+    /**
+     * The body, as sent by the server (possibly chunked).
+     */
+    public byte[] body() {
+        return body;
+    }
+}
@@ -0,0 +1,355 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.archive;
+
+import static ch.ledcom.maven.sitespeed.Configuration.ARCHIVE_FILE;
+import static ch.ledcom.maven.sitespeed.Configuration.ARCHIVE_MODE;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.zip.DataFormatException;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+import javax.annotation.Nullable;
+
+import org.apache.maven.plugin.logging.Log;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+/**
+ * Archive of HTTP responses, keyed by method and URL, so that a run can be
+ * replayed later with exactly the same inputs and without network.
+ *
+ * The archive is a single file: a sequence of records, each holding its key
+ * and the deflated head and body of a response, followed by an index of
+ * (key hash, record offset) pairs sorted by hash, and a footer locating the
+ * index. When recording, only the index is kept in memory, as an open
+ * addressing table of (key hash, record offset) pairs that also finds
+ * responses already recorded: 16 bytes per slot, with at least a quarter of
+ * the slots free, so between 21 and 43 bytes per response. When replaying, the file is memory-mapped and responses are
+ * found by binary search of the index, so nothing is loaded up front.
+ *
+ * Only the first response for a given key is recorded.
+ *
+ * @author gehel
+ */
+public class ResponseArchive implements Closeable {
+
+    private static final byte[] MAGIC = "SSARCH01".getBytes(Charsets.US_ASCII);
+    private static final int INDEX_ENTRY_SIZE = 16;
+    private static final int INITIAL_SLOTS = 1024;
+    private static final int FOOTER_SIZE = 8 + 4 + MAGIC.length;
+    private static final HashFunction HASH = Hashing.murmur3_128();
+
+    private final ArchiveMode mode;
+    private final File file;
+    private final Log log;
+
+    // recording
+    private DataOutputStream out;
+    private long position;
+    /** Open addressing table, an offset of 0 marks a free slot. */
+    private long[] hashes;
+    private long[] offsets;
+    private int count;
+
+    // replaying
+    private RandomAccessFile raf;
+    private MappedByteBuffer mapped;
+    private int indexOffset;
+
+    @Inject
+    public ResponseArchive(@Named(ARCHIVE_MODE) ArchiveMode mode,
+            @Named(ARCHIVE_FILE) File file, Log log) {
+        this.mode = mode;
+        this.file = file;
+        this.log = log;
+    }
+
+    public boolean isRecording() {
+        return mode == ArchiveMode.RECORD;
+    }
+
+    public boolean isReplaying() {
+        return mode == ArchiveMode.REPLAY;
+    }
+
+    public boolean isEnabled() {
+        return mode != ArchiveMode.OFF;
+    }
+
+    /**
+     * Start a new archive when recording, or map the existing one when
+     * replaying.
+     */
+    public synchronized void open() throws IOException {
+        if (isRecording()) {
+            File directory = file.getAbsoluteFile().getParentFile();
+            if (!directory.exists()) {
+                directory.mkdirs();
+            }
+            out = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(file)));
+            out.write(MAGIC);
+            position = MAGIC.length;
+            hashes = new long[INITIAL_SLOTS];
+            offsets = new long[INITIAL_SLOTS];
+            count = 0;
+        } else if (isReplaying()) {
+            map();
+        }
+    }
+
+    /**
+     * Store a response, unless one is already stored for this request.
+     *
+     * @param head
+     *            status line and headers, each followed by CRLF
+     */
+    public synchronized void record(String method, String url, String head,
+            byte[] body) throws IOException {
+        Preconditions.checkState(out != null, "Archive is not recording");
+        String key = key(method, url);
+        long hash = hash(key);
+        int slot = slot(hashes, offsets, hash);
+        if (offsets[slot] != 0) {
+            return;
+        }
+        byte[] keyBytes = key.getBytes(Charsets.UTF_8);
+        byte[] headBytes = head.getBytes(Charsets.ISO_8859_1);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        DeflaterOutputStream deflater = new DeflaterOutputStream(compressed);
+        deflater.write(headBytes);
+        deflater.write(body);
+        deflater.close();
+
+        hashes[slot] = hash;
+        offsets[slot] = position;
+        count++;
+        if (count * 4 > hashes.length * 3) {
+            grow();
+        }
+
+        out.writeInt(keyBytes.length);
+        out.write(keyBytes);
+        out.writeInt(headBytes.length);
+        out.writeInt(body.length);
+        out.writeInt(compressed.size());
+        compressed.writeTo(out);
+        position += 16 + keyBytes.length + compressed.size();
+    }
+
+    /**
+     * @return the archived response or <code>null</code> if this request was
+     *         not recorded
+     */
+    @Nullable
+    public ArchivedResponse lookup(String method, String url)
+            throws IOException {
+        ByteBuffer buffer;
+        synchronized (this) {
+            Preconditions.checkState(mapped != null,
+                    "Archive is not replaying");
+            buffer = mapped.duplicate();
+        }
+        String key = key(method, url);
+        long hash = hash(key);
+        int low = 0;
+        int high = (buffer.limit() - FOOTER_SIZE - indexOffset)
+                / INDEX_ENTRY_SIZE - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long candidate = buffer.getLong(indexOffset + middle
+                    * INDEX_ENTRY_SIZE);
+            if (candidate < hash) {
+                low = middle + 1;
+            } else if (candidate > hash) {
+                high = middle - 1;
+            } else {
+                long offset = buffer.getLong(indexOffset + middle
+                        * INDEX_ENTRY_SIZE + 8);
+                return read(buffer, (int) offset, key);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (out != null) {
+            try {
+                writeIndex();
+                log.info("Recorded " + count + " responses in ["
+                        + file.getAbsolutePath() + "]");
+            } finally {
+                out.close();
+                out = null;
+            }
+        }
+        if (raf != null) {
+            mapped = null;
+            raf.close();
+            raf = null;
+        }
+    }
+
+    /**
+     * @return the slot holding this hash, or the free slot where it belongs
+     */
+    private static int slot(long[] hashes, long[] offsets, long hash) {
+        // murmur3 hashes are evenly spread, their low bits are good enough
+        int mask = hashes.length - 1;
+        int slot = (int) hash & mask;
+        while (offsets[slot] != 0 && hashes[slot] != hash) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] newHashes = new long[hashes.length * 2];
+        long[] newOffsets = new long[offsets.length * 2];
+        for (int i = 0; i < hashes.length; i++) {
+            if (offsets[i] != 0) {
+                int slot = slot(newHashes, newOffsets, hashes[i]);
+                newHashes[slot] = hashes[i];
+                newOffsets[slot] = offsets[i];
+            }
+        }
+        hashes = newHashes;
+        offsets = newOffsets;
+    }
+
+    private void writeIndex() throws IOException {
+        // sort by hash, keeping the offsets along
+        long[][] entries = new long[count][];
+        int filled = 0;
+        for (int i = 0; i < hashes.length; i++) {
+            if (offsets[i] != 0) {
+                entries[filled++] = new long[] { hashes[i], offsets[i] };
+            }
+        }
+        Arrays.sort(entries, new Comparator<long[]>() {
+            @Override
+            public int compare(long[] e1, long[] e2) {
+                return e1[0] < e2[0] ? -1 : (e1[0] == e2[0] ? 0 : 1);
+            }
+        });
+        long indexStart = position;
+        for (long[] entry : entries) {
+            out.writeLong(entry[0]);
+            out.writeLong(entry[1]);
+        }
+        out.writeLong(indexStart);
+        out.writeInt(count);
+        out.write(MAGIC);
+    }
+
+    private void map() throws IOException {
+        if (!file.isFile()) {
+            throw new IOException("No archive to replay at ["
+                    + file.getAbsolutePath() + "]");
+        }
+        raf = new RandomAccessFile(file, "r");
+        long length = raf.length();
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Archive [" + file.getAbsolutePath()
+                    + "] is too large to be mapped");
+        }
+        mapped = raf.getChannel().map(MapMode.READ_ONLY, 0, length);
+        byte[] magic = new byte[MAGIC.length];
+        if (length < MAGIC.length + FOOTER_SIZE) {
+            throw new IOException("Archive [" + file.getAbsolutePath()
+                    + "] is incomplete");
+        }
+        ByteBuffer footer = mapped.duplicate();
+        footer.position((int) length - MAGIC.length);
+        footer.get(magic);
+        if (!Arrays.equals(MAGIC, magic)) {
+            throw new IOException("Archive [" + file.getAbsolutePath()
+                    + "] is incomplete, was the recording interrupted ?");
+        }
+        indexOffset = (int) mapped.getLong((int) length - FOOTER_SIZE);
+        log.info("Replaying " + mapped.getInt((int) length - FOOTER_SIZE + 8)
+                + " responses from [" + file.getAbsolutePath() + "]");
+    }
+
+    /**
+     * Read a record, checking that it is the one looked for, as different
+     * keys can have the same hash.
+     */
+    @Nullable
+    private ArchivedResponse read(ByteBuffer buffer, int offset, String key)
+            throws IOException {
+        buffer.position(offset);
+        byte[] keyBytes = new byte[buffer.getInt()];
+        buffer.get(keyBytes);
+        if (!key.equals(new String(keyBytes, Charsets.UTF_8))) {
+            return null;
+        }
+        byte[] head = new byte[buffer.getInt()];
+        byte[] body = new byte[buffer.getInt()];
+        byte[] compressed = new byte[buffer.getInt()];
+        buffer.get(compressed);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            inflate(inflater, head);
+            inflate(inflater, body);
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted response for [" + key + "]", e);
+        } finally {
+            inflater.end();
+        }
+        return new ArchivedResponse(new String(head, Charsets.ISO_8859_1),
+                body);
+    }
+
+    private static void inflate(Inflater inflater, byte[] target)
+            throws DataFormatException {
+        int done = 0;
+        while (done < target.length) {
+            int read = inflater.inflate(target, done, target.length - done);
+            if (read == 0 && (inflater.finished() || inflater.needsInput())) {
+                throw new DataFormatException("Truncated response");
+            }
+            done += read;
+        }
+    }
+
+    private static String key(String method, String url) {
+        return method.toUpperCase() + " " + url;
+    }
+
+    private static long hash(String key) {
+        return HASH.hashString(key, Charsets.UTF_8).asLong();
+    }
+}
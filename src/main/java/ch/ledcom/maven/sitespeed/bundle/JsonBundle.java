@@ -0,0 +1,255 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.bundle;
+
+import static ch.ledcom.maven.sitespeed.Configuration.OUTPUT_DIR;
+import static ch.ledcom.maven.sitespeed.Configuration.REPORT_FORMAT;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+
+import ch.ledcom.maven.sitespeed.analyzer.ProfileTotals;
+import ch.ledcom.maven.sitespeed.report.ReportFormat;
+import ch.ledcom.maven.sitespeed.rules.RuleDictionary;
+import ch.ledcom.maven.sitespeed.utils.JsonWriter;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Closeables;
+import com.google.common.io.Files;
+import com.google.common.io.Resources;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+/**
+ * Writes the results of a run as compressed JSON data files, shown by a
+ * single static viewer page, instead of one HTML report per page.
+ *
+ * Pages are appended to gzipped chunks of {@link #CHUNK_PAGES} pages as they
+ * are analyzed. When the bundle is closed, an index of all pages, with the
+ * values shown in the list of pages, and the rule dictionary, which is the
+ * same for all pages, are written once. The viewer only loads the index, and
+ * loads a chunk when one of its pages is shown.
+ *
+ * Compressed files are read with the DecompressionStream of the browser,
+ * which needs the viewer to be served over HTTP.
+ *
+ * @author gehel
+ */
+public class JsonBundle implements Closeable {
+
+    public static final String VIEWER = "viewer.html";
+    public static final String DATA_DIR = "data";
+    public static final int CHUNK_PAGES = 200;
+
+    private static final String INDEX = "index.json.gz";
+    private static final String RULES = "rules.json.gz";
+
+    private final File outputDir;
+    private final File dataDir;
+    private final boolean enabled;
+
+    private final List<IndexEntry> index = new ArrayList<IndexEntry>();
+    private RuleDictionary dictionary;
+    private final ProfileTotals profiles = new ProfileTotals();
+    private Writer chunk;
+    private int chunks;
+    private int chunkPages;
+
+    @Inject
+    public JsonBundle(@Named(OUTPUT_DIR) File outputDir,
+            @Named(REPORT_FORMAT) ReportFormat format) {
+        this.outputDir = outputDir;
+        this.dataDir = new File(outputDir, DATA_DIR);
+        this.enabled = format == ReportFormat.JSON;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Start a new bundle, replacing the data of a previous one. A bundle
+     * cannot be resumed, so resume is disabled with the JSON report format.
+     */
+    public synchronized void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        if (!dataDir.exists()) {
+            dataDir.mkdirs();
+        }
+        File[] previous = dataDir.listFiles();
+        if (previous != null) {
+            for (File file : previous) {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Add a page to the current chunk. Can be called concurrently: the page
+     * is serialized before taking the lock.
+     *
+     * @return the data file of the page, relative to the output directory
+     */
+    public String add(URI uri, Document doc) throws IOException {
+        Element root = doc.getRootElement();
+        StringWriter page = new StringWriter();
+        PageJson.write(uri, root, new JsonWriter(page));
+        synchronized (this) {
+            if (dictionary == null) {
+                dictionary = RuleDictionary.of(root);
+            }
+            if (chunk == null || chunkPages == CHUNK_PAGES) {
+                nextChunk();
+            }
+            if (chunkPages > 0) {
+                chunk.write(',');
+            }
+            chunk.write(page.toString());
+            index.add(new IndexEntry(uri, chunks - 1, chunkPages, root));
+            profiles.add(root);
+            chunkPages++;
+            return DATA_DIR + "/" + chunkName(chunks - 1);
+        }
+    }
+
+    /**
+     * Write the index, the rule dictionary and the viewer.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        closeChunk();
+        JsonWriter json = new JsonWriter(gzipWriter(new File(dataDir, INDEX)));
+        boolean threw = true;
+        try {
+            json.beginObject();
+            json.name("chunks").value(chunks);
+            if (profiles.pages() > 0) {
+                json.name("profile").beginObject();
+                json.name("pages").value(profiles.pages());
+                json.name("cpu").value(profiles.cpuTime());
+                json.name("peakCpu").value(profiles.peakCpu());
+                json.name("peakRss").value(profiles.peakRss());
+                json.endObject();
+            }
+            json.name("pages").beginArray();
+            for (IndexEntry entry : index) {
+                entry.write(json);
+            }
+            json.endArray();
+            json.endObject();
+            threw = false;
+        } finally {
+            Closeables.close(json, threw);
+        }
+        json = new JsonWriter(gzipWriter(new File(dataDir, RULES)));
+        threw = true;
+        try {
+            PageJson.writeRules(dictionary, json);
+            threw = false;
+        } finally {
+            Closeables.close(json, threw);
+        }
+        Resources.asByteSource(
+                JsonBundle.class.getResource("/report/" + VIEWER)).copyTo(
+                Files.asByteSink(new File(outputDir, VIEWER)));
+    }
+
+    private void nextChunk() throws IOException {
+        closeChunk();
+        chunk = gzipWriter(new File(dataDir, chunkName(chunks)));
+        chunk.write('[');
+        chunks++;
+        chunkPages = 0;
+    }
+
+    private void closeChunk() throws IOException {
+        if (chunk == null) {
+            return;
+        }
+        boolean threw = true;
+        try {
+            chunk.write(']');
+            threw = false;
+        } finally {
+            Closeables.close(chunk, threw);
+            chunk = null;
+        }
+    }
+
+    static String chunkName(int chunk) {
+        return String.format("pages-%04d.json.gz", chunk);
+    }
+
+    private static Writer gzipWriter(File file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(
+                new FileOutputStream(file)), Charsets.UTF_8));
+    }
+
+    /**
+     * What the list of pages shows, and where to find the page.
+     */
+    private static final class IndexEntry {
+        private final String url;
+        private final int chunk;
+        private final int position;
+        private final String score;
+        private final String loadTime;
+        private final String requests;
+        private final String weight;
+
+        private IndexEntry(URI uri, int chunk, int position, Element root) {
+            this.url = uri.toString();
+            this.chunk = chunk;
+            this.position = position;
+            this.score = root.getChildText("o");
+            this.loadTime = root.getChildText("lt");
+            this.requests = root.getChildText("r");
+            this.weight = root.getChildText("w");
+        }
+
+        private void write(JsonWriter json) throws IOException {
+            json.beginArray();
+            json.value(url).value(chunk).value(position);
+            json.value(toLong(score)).value(toLong(loadTime))
+                    .value(toLong(requests)).value(toLong(weight));
+            json.endArray();
+        }
+
+        private static long toLong(String value) {
+            try {
+                return value == null ? 0 : Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.bundle;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.jdom2.Attribute;
+import org.jdom2.Element;
+
+import ch.ledcom.maven.sitespeed.rules.RuleDictionary;
+import ch.ledcom.maven.sitespeed.rules.RuleDictionary.Rule;
+import ch.ledcom.maven.sitespeed.utils.JsonWriter;
+
+/**
+ * Writes the parts of a YSlow result shown by the viewer as JSON. The rule
+ * dictionary, which is the same for all pages, is left out (see
+ * {@link RuleDictionary}).
+ *
+ * @author gehel
+ */
+final class PageJson {
+
+    private PageJson() {
+    }
+
+    static void write(URI uri, Element root, JsonWriter json)
+            throws IOException {
+        json.beginObject();
+        json.name("url").value(uri.toString());
+        json.name("score").value(number(root.getChildText("o")));
+        json.name("lt").value(number(root.getChildText("lt")));
+        json.name("ttfb").value(number(root.getAttributeValue("ttfb")));
+        json.name("r").value(number(root.getChildText("r")));
+        json.name("r_c").value(number(root.getChildText("r_c")));
+        json.name("w").value(number(root.getChildText("w")));
+        json.name("w_c").value(number(root.getChildText("w_c")));
+        json.name("size").value(number(root.getAttributeValue("size")));
+        if (root.getChild("har") != null) {
+            json.name("har").value(root.getChildText("har"));
+        }
+        rules(root.getChild("g"), json);
+        stats(root.getChild("stats"), json);
+        components(root.getChild("comps"), json);
+        if (root.getChild("measurements") != null) {
+            json.name("measurements");
+            attributesAndChildren(root.getChild("measurements"), json);
+        }
+        if (root.getChild("profile") != null) {
+            json.name("profile");
+            attributesAndChildren(root.getChild("profile"), json);
+        }
+        json.endObject();
+    }
+
+    /**
+     * The rule dictionary of the results: name, description and weight of
+     * each rule, by rule id.
+     */
+    static void writeRules(@Nullable RuleDictionary dictionary,
+            JsonWriter json) throws IOException {
+        json.beginObject();
+        if (dictionary != null) {
+            for (Rule rule : dictionary.rules()) {
+                json.name(rule.getId()).beginObject();
+                for (Map.Entry<String, String> field : rule.getFields()
+                        .entrySet()) {
+                    json.name(field.getKey()).value(field.getValue());
+                }
+                json.endObject();
+            }
+        }
+        json.endObject();
+    }
+
+    private static void rules(@Nullable Element g, JsonWriter json)
+            throws IOException {
+        json.name("rules").beginObject();
+        if (g != null) {
+            for (Element rule : g.getChildren()) {
+                if (rule.getChild("score") == null) {
+                    continue;
+                }
+                json.name(rule.getName()).beginObject();
+                json.name("score").value(number(rule.getChildText("score")));
+                json.name("message").value(rule.getChildText("message"));
+                json.name("items").beginArray();
+                Element components = rule.getChild("components");
+                if (components != null) {
+                    for (Element item : components.getChildren("item")) {
+                        json.value(item.getValue());
+                    }
+                }
+                json.endArray();
+                json.endObject();
+            }
+        }
+        json.endObject();
+    }
+
+    private static void stats(@Nullable Element stats, JsonWriter json)
+            throws IOException {
+        json.name("stats").beginObject();
+        if (stats != null) {
+            for (Element type : stats.getChildren()) {
+                json.name(type.getName()).beginObject();
+                json.name("r").value(number(type.getChildText("r")));
+                json.name("w").value(number(type.getChildText("w")));
+                json.endObject();
+            }
+        }
+        json.endObject();
+    }
+
+    private static void components(@Nullable Element comps, JsonWriter json)
+            throws IOException {
+        json.name("comps").beginArray();
+        if (comps != null) {
+            for (Element comp : comps.getChildren()) {
+                json.beginObject();
+                json.name("type").value(comp.getChildText("type"));
+                json.name("url").value(comp.getChildText("url"));
+                json.name("size").value(number(comp.getChildText("size")));
+                if (comp.getChild("gzip") != null) {
+                    json.name("gzip").value(number(comp.getChildText("gzip")));
+                }
+                json.name("headers").beginObject();
+                Element headers = comp.getChild("headers");
+                Element response = headers == null ? null : headers
+                        .getChild("response");
+                if (response != null) {
+                    for (Element header : response.getChildren()) {
+                        json.name(header.getName()).value(header.getValue());
+                    }
+                }
+                json.endObject();
+                json.endObject();
+            }
+        }
+        json.endArray();
+    }
+
+    private static void attributesAndChildren(Element element, JsonWriter json)
+            throws IOException {
+        json.beginObject();
+        for (Attribute attribute : element.getAttributes()) {
+            json.name(attribute.getName()).value(
+                    number(attribute.getValue()));
+        }
+        for (Element child : element.getChildren()) {
+            json.name(child.getName());
+            if (child.getAttributes().isEmpty() && child.getChildren().isEmpty()) {
+                json.value(number(child.getValue()));
+            } else {
+                attributesAndChildren(child, json);
+            }
+        }
+        json.endObject();
+    }
+
+    /**
+     * @return NaN, written as <code>null</code>, if the value is missing or
+     *         not a number
+     */
+    private static double number(@Nullable String value) {
+        if (value == null) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.crawler;
+
+/**
+ * Order in which crawled pages are submitted for analysis.
+ *
+ * @author gehel
+ */
+public enum AnalysisOrder {
+
+    /** Pages are submitted as soon as they are discovered. */
+    CRAWL,
+
+    /**
+     * Pages with the most internal links pointing to them first. The whole
+     * site is crawled before the first page is submitted.
+     */
+    INBOUND_LINKS,
+
+    /**
+     * Pages with the highest internal PageRank first. The whole site is
+     * crawled before the first page is submitted.
+     */
+    PAGERANK
+
+}
@@ -0,0 +1,72 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.crawler;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+
+import com.google.common.io.Closer;
+
+/**
+ * URIs still to be crawled, plus the set of URIs already seen.
+ *
+ * Both structures spill to memory mapped files once they hold more than
+ * <code>memoryThreshold</code> entries.
+ *
+ * @author gehel
+ */
+public class CrawlFrontier implements Closeable {
+
+    private final DiskBackedURISet visited;
+    private final DiskBackedURIQueue queue;
+
+    public CrawlFrontier(int memoryThreshold) {
+        this.visited = new DiskBackedURISet(memoryThreshold);
+        this.queue = new DiskBackedURIQueue(memoryThreshold);
+    }
+
+    /**
+     * Add an URI to the frontier, unless it has already been seen.
+     *
+     * @return <code>true</code> if the URI was added
+     */
+    public boolean offer(URI uri, int depth) throws IOException {
+        if (!visited.add(uri)) {
+            return false;
+        }
+        queue.add(new FrontierEntry(uri, depth));
+        return true;
+    }
+
+    public FrontierEntry poll() throws IOException {
+        return queue.poll();
+    }
+
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    public int visitedCount() {
+        return visited.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        Closer closer = Closer.create();
+        closer.register(queue);
+        closer.register(visited);
+        closer.close();
+    }
+}
@@ -0,0 +1,188 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.crawler;
+
+import static ch.ledcom.maven.sitespeed.Configuration.CRAWL_CACHE_DIR;
+import static ch.ledcom.maven.sitespeed.Configuration.CRAWL_CACHE_TTL;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.Nullable;
+
+import com.google.common.io.Closeables;
+import com.google.common.io.Closer;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+/**
+ * Stores the list of URIs discovered by a crawl, so that later runs with the
+ * same crawl settings can skip the crawl.
+ *
+ * Snapshots are gzipped and front coded: each URI only stores the suffix that
+ * differs from the previous one. A snapshot is written to a temporary file and
+ * renamed once complete, so an interrupted crawl never leaves a truncated
+ * snapshot behind.
+ *
+ * @author gehel
+ */
+public class CrawlSnapshotStore {
+
+    private static final int MAGIC = 0x53534353;
+    private static final int VERSION = 1;
+    private static final short END = -1;
+    private static final String EXTENSION = ".crawl";
+
+    @Nullable
+    private final File directory;
+    private final long ttl;
+
+    /**
+     * @param directory
+     *            where to store snapshots
+     * @param ttl
+     *            how long a snapshot can be reused, in milliseconds. A value
+     *            of 0 or less disables snapshots.
+     */
+    @Inject
+    public CrawlSnapshotStore(
+            @Named(CRAWL_CACHE_DIR) @Nullable File directory,
+            @Named(CRAWL_CACHE_TTL) long ttl) {
+        this.directory = directory;
+        this.ttl = ttl;
+    }
+
+    public boolean isEnabled() {
+        return ttl > 0 && directory != null;
+    }
+
+    /**
+     * Is there a snapshot for this key younger than the TTL ?
+     */
+    public boolean isFresh(String key) {
+        if (!isEnabled()) {
+            return false;
+        }
+        File snapshot = snapshotFile(key);
+        return snapshot.isFile()
+                && System.currentTimeMillis() - snapshot.lastModified() < ttl;
+    }
+
+    /**
+     * Submit all URIs of a snapshot to the callback, in crawl order.
+     */
+    public void replay(String key, URICallback callback) throws IOException {
+        Closer closer = Closer.create();
+        try {
+            DataInputStream in = closer.register(new DataInputStream(
+                    new BufferedInputStream(new GZIPInputStream(
+                            new FileInputStream(snapshotFile(key))))));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Invalid crawl snapshot ["
+                        + snapshotFile(key) + "]");
+            }
+            String previous = "";
+            short shared;
+            while ((shared = in.readShort()) != END) {
+                String current = previous.substring(0, shared) + in.readUTF();
+                callback.submit(URI.create(current));
+                previous = current;
+            }
+        } catch (Throwable t) {
+            throw closer.rethrow(t);
+        } finally {
+            closer.close();
+        }
+    }
+
+    public Writer newWriter(String key) throws IOException {
+        return new Writer(key);
+    }
+
+    private File snapshotFile(String key) {
+        return new File(directory, key + EXTENSION);
+    }
+
+    /**
+     * Writes a new snapshot. The snapshot only becomes visible when
+     * {@link #commit()} is called.
+     */
+    public final class Writer {
+
+        private final File target;
+        private final File temp;
+        private final DataOutputStream out;
+        private String previous = "";
+
+        private Writer(String key) throws IOException {
+            if (!directory.exists()) {
+                directory.mkdirs();
+            }
+            target = snapshotFile(key);
+            temp = File.createTempFile(key, EXTENSION + ".tmp", directory);
+            out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(new FileOutputStream(temp))));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        }
+
+        public synchronized void add(URI uri) throws IOException {
+            String current = uri.toString();
+            int shared = sharedPrefix(previous, current);
+            out.writeShort(shared);
+            out.writeUTF(current.substring(shared));
+            previous = current;
+        }
+
+        public synchronized void commit() throws IOException {
+            out.writeShort(END);
+            out.close();
+            if (target.exists() && !target.delete()) {
+                throw new IOException("Could not replace crawl snapshot ["
+                        + target + "]");
+            }
+            if (!temp.renameTo(target)) {
+                throw new IOException("Could not create crawl snapshot ["
+                        + target + "]");
+            }
+        }
+
+        public synchronized void abort() throws IOException {
+            try {
+                Closeables.close(out, true);
+            } finally {
+                temp.delete();
+            }
+        }
+
+        private int sharedPrefix(String a, String b) {
+            int max = Math.min(Math.min(a.length(), b.length()),
+                    Short.MAX_VALUE);
+            int i = 0;
+            while (i < max && a.charAt(i) == b.charAt(i)) {
+                i++;
+            }
+            return i;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.crawler;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedList;
+
+import com.google.common.base.Charsets;
+
+/**
+ * FIFO queue of {@link FrontierEntry}.
+ *
+ * Entries are kept on the heap until <code>memoryThreshold</code> is reached.
+ * Further entries are appended to a memory mapped log file, split in fixed
+ * size segments. Once a segment has been read, it is reused for the next
+ * entries instead of mapping a new one, and all segments are reused as soon as
+ * the queue is drained. The file only grows to the largest number of segments
+ * pending at any time, and is deleted when the queue is closed; segments stay
+ * mapped until then.
+ *
+ * This class is not thread safe.
+ *
+ * @author gehel
+ */
+public class DiskBackedURIQueue implements Closeable {
+
+    private static final int SEGMENT_SIZE = 16 * 1024 * 1024;
+    private static final int HEADER_SIZE = 8;
+    private static final int END_OF_SEGMENT = -1;
+
+    private final int memoryThreshold;
+    private final Deque<FrontierEntry> inMemory = new ArrayDeque<FrontierEntry>();
+
+    private File file;
+    private FileChannel channel;
+    private final Deque<MappedByteBuffer> segments = new LinkedList<MappedByteBuffer>();
+    private final Deque<MappedByteBuffer> free = new LinkedList<MappedByteBuffer>();
+    private long mappedSize;
+    private ByteBuffer readSegment;
+    private int onDisk;
+
+    public DiskBackedURIQueue(int memoryThreshold) {
+        this.memoryThreshold = memoryThreshold;
+    }
+
+    public void add(FrontierEntry entry) throws IOException {
+        // once we started to spill, entries must go to disk to keep FIFO order
+        if (onDisk == 0 && inMemory.size() < memoryThreshold) {
+            inMemory.addLast(entry);
+            return;
+        }
+        append(entry);
+    }
+
+    /**
+     * Retrieves and removes the head of the queue.
+     *
+     * @return the head of the queue or <code>null</code> if the queue is empty
+     * @throws IOException
+     *             if the spill file cannot be read
+     */
+    public FrontierEntry poll() throws IOException {
+        if (!inMemory.isEmpty()) {
+            return inMemory.pollFirst();
+        }
+        if (onDisk == 0) {
+            return null;
+        }
+        return read();
+    }
+
+    public boolean isEmpty() {
+        return inMemory.isEmpty() && onDisk == 0;
+    }
+
+    public int size() {
+        return inMemory.size() + onDisk;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inMemory.clear();
+        segments.clear();
+        free.clear();
+        readSegment = null;
+        onDisk = 0;
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+        if (file != null) {
+            file.delete();
+            file = null;
+        }
+    }
+
+    private void append(FrontierEntry entry) throws IOException {
+        byte[] uri = entry.getUri().toString().getBytes(Charsets.UTF_8);
+        int recordSize = HEADER_SIZE + uri.length;
+        if (recordSize + 4 > SEGMENT_SIZE) {
+            throw new IllegalArgumentException("URI is too long to be queued ["
+                    + entry.getUri() + "]");
+        }
+        MappedByteBuffer segment = segments.peekLast();
+        if (segment == null || segment.remaining() < recordSize + 4) {
+            if (segment != null) {
+                segment.putInt(END_OF_SEGMENT);
+            }
+            segment = mapSegment();
+        }
+        segment.putInt(entry.getDepth());
+        segment.putInt(uri.length);
+        segment.put(uri);
+        onDisk++;
+    }
+
+    private FrontierEntry read() throws IOException {
+        if (readSegment == null) {
+            // records are only read once written, so the whole segment can be
+            // exposed to the reader
+            readSegment = segments.peekFirst().duplicate();
+            readSegment.clear();
+        }
+        int depth = readSegment.getInt();
+        if (depth == END_OF_SEGMENT) {
+            free.addLast(segments.pollFirst());
+            readSegment = null;
+            return read();
+        }
+        byte[] uri = new byte[readSegment.getInt()];
+        readSegment.get(uri);
+        onDisk--;
+        if (onDisk == 0) {
+            // everything written has been read, start again from the first
+            // segment instead of growing the file
+            free.addAll(segments);
+            segments.clear();
+            readSegment = null;
+        }
+        return new FrontierEntry(URI.create(new String(uri, Charsets.UTF_8)),
+                depth);
+    }
+
+    /**
+     * Size of the spill file, for tests.
+     */
+    long fileSize() {
+        return mappedSize;
+    }
+
+    private MappedByteBuffer mapSegment() throws IOException {
+        MappedByteBuffer recycled = free.pollFirst();
+        if (recycled != null) {
+            recycled.clear();
+            segments.addLast(recycled);
+            return recycled;
+        }
+        if (channel == null) {
+            file = File.createTempFile("sitespeed-frontier", ".bin");
+            file.deleteOnExit();
+            channel = new RandomAccessFile(file, "rw").getChannel();
+        }
+        MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE,
+                mappedSize, SEGMENT_SIZE);
+        mappedSize += SEGMENT_SIZE;
+        segments.addLast(segment);
+        return segment;
+    }
+}
@@ -0,0 +1,195 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.crawler;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+/**
+ * Set of already visited URIs.
+ *
+ * URIs are kept on the heap until <code>memoryThreshold</code> is reached.
+ * After that, the set switches to a memory mapped, open addressing hash table
+ * of 64 bits fingerprints, so that heap usage stays flat whatever the size of
+ * the crawl. Fingerprint collisions are possible but extremely unlikely (about
+ * 1 in 10^7 for a million URIs), a collision only means that a page is not
+ * analyzed.
+ *
+ * This class is not thread safe.
+ *
+ * @author gehel
+ */
+public class DiskBackedURISet implements Closeable {
+
+    private static final HashFunction HASH = Hashing.murmur3_128();
+    private static final int INITIAL_CAPACITY = 1 << 20;
+    private static final int MAX_CAPACITY = 1 << 28;
+    private static final long EMPTY = 0L;
+
+    private final int memoryThreshold;
+    private Set<String> inMemory = new HashSet<String>();
+
+    private File file;
+    private FileChannel channel;
+    private LongBuffer table;
+    private int capacity;
+    private int size;
+
+    public DiskBackedURISet(int memoryThreshold) {
+        this.memoryThreshold = memoryThreshold;
+    }
+
+    /**
+     * Add an URI to the set.
+     *
+     * @param uri
+     *            the URI to add
+     * @return <code>true</code> if the URI was not already in the set
+     * @throws IOException
+     *             if the spill file cannot be written
+     */
+    public boolean add(URI uri) throws IOException {
+        String key = uri.toString();
+        if (inMemory != null) {
+            if (!inMemory.add(key)) {
+                return false;
+            }
+            if (inMemory.size() > memoryThreshold) {
+                spill();
+            }
+            return true;
+        }
+        return addFingerprint(fingerprint(key));
+    }
+
+    public int size() {
+        if (inMemory != null) {
+            return inMemory.size();
+        }
+        return size;
+    }
+
+    public boolean isSpilled() {
+        return inMemory == null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inMemory = null;
+        releaseTable();
+    }
+
+    private void spill() throws IOException {
+        int initialCapacity = INITIAL_CAPACITY;
+        while (initialCapacity < inMemory.size() * 2) {
+            initialCapacity <<= 1;
+        }
+        mapTable(initialCapacity);
+        for (String key : inMemory) {
+            addFingerprint(fingerprint(key));
+        }
+        inMemory = null;
+    }
+
+    private boolean addFingerprint(long fingerprint) throws IOException {
+        if (!insert(table, capacity, fingerprint)) {
+            return false;
+        }
+        size++;
+        if (size > capacity / 2) {
+            grow();
+        }
+        return true;
+    }
+
+    private void grow() throws IOException {
+        if (capacity >= MAX_CAPACITY) {
+            throw new IllegalStateException(
+                    "Visited URI set cannot grow further than [" + MAX_CAPACITY
+                            + "] entries");
+        }
+        LongBuffer oldTable = table;
+        int oldCapacity = capacity;
+        File oldFile = file;
+        FileChannel oldChannel = channel;
+
+        mapTable(oldCapacity << 1);
+        for (int i = 0; i < oldCapacity; i++) {
+            long fingerprint = oldTable.get(i);
+            if (fingerprint != EMPTY) {
+                insert(table, capacity, fingerprint);
+            }
+        }
+        oldChannel.close();
+        oldFile.delete();
+    }
+
+    private void mapTable(int newCapacity) throws IOException {
+        file = File.createTempFile("sitespeed-visited", ".bin");
+        file.deleteOnExit();
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        channel = raf.getChannel();
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE,
+                0, (long) newCapacity * 8);
+        table = buffer.asLongBuffer();
+        capacity = newCapacity;
+    }
+
+    private void releaseTable() throws IOException {
+        table = null;
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+        if (file != null) {
+            file.delete();
+            file = null;
+        }
+    }
+
+    private static boolean insert(LongBuffer table, int capacity,
+            long fingerprint) {
+        int mask = capacity - 1;
+        int slot = (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+        while (true) {
+            long current = table.get(slot);
+            if (current == EMPTY) {
+                table.put(slot, fingerprint);
+                return true;
+            }
+            if (current == fingerprint) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private static long fingerprint(String key) {
+        long fingerprint = HASH.hashString(key, Charsets.UTF_8).asLong();
+        // 0 marks empty slots
+        return fingerprint == EMPTY ? 1L : fingerprint;
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.crawler;
+
+import java.net.URI;
+
+/**
+ * An URI waiting in the crawl frontier, with the depth at which it was found.
+ *
+ * @author gehel
+ */
+public final class FrontierEntry {
+
+    private final URI uri;
+    private final int depth;
+
+    public FrontierEntry(URI uri, int depth) {
+        this.uri = uri;
+        this.depth = depth;
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+}
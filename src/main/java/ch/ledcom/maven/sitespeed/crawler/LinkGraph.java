@@ -0,0 +1,293 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.crawler;
+
+import java.net.URI;
+import java.util.Arrays;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+/**
+ * Internal link graph of a site.
+ *
+ * Pages are identified by an int, assigned in discovery order. Edges are
+ * collected as pairs of ints and compacted into a CSR (compressed sparse row)
+ * adjacency on the first query, so that the graph costs a few bytes per page
+ * and 4 bytes per link, without any object per page or link.
+ *
+ * This class is not thread safe.
+ *
+ * @author gehel
+ */
+public class LinkGraph {
+
+    private static final HashFunction HASH = Hashing.murmur3_128();
+    private static final int INITIAL_SIZE = 1024;
+    private static final double DAMPING = 0.85;
+    private static final int PAGERANK_ITERATIONS = 20;
+
+    private final FingerprintIndex ids = new FingerprintIndex();
+
+    private byte[] uris = new byte[INITIAL_SIZE * 32];
+    private int urisSize;
+    private int[] uriOffsets = new int[INITIAL_SIZE + 1];
+    private int nodeCount;
+
+    private int[] edgeSources = new int[INITIAL_SIZE];
+    private int[] edgeTargets = new int[INITIAL_SIZE];
+    private int edgeCount;
+
+    /**
+     * CSR adjacency, built lazily: outbound links of node i are
+     * targets[offsets[i]] to targets[offsets[i + 1] - 1].
+     */
+    private int[] offsets;
+    private int[] targets;
+
+    /**
+     * Record a link between two pages. Links from a page to itself, including
+     * to one of its fragments, are ignored: they do not make a page more
+     * important, and a fragment is not a page of its own.
+     */
+    public void addLink(URI from, URI to) {
+        if (withoutFragment(from).equals(withoutFragment(to))) {
+            return;
+        }
+        int source = node(from);
+        int target = node(to);
+        if (edgeCount == edgeSources.length) {
+            edgeSources = Arrays.copyOf(edgeSources, edgeCount * 2);
+            edgeTargets = Arrays.copyOf(edgeTargets, edgeCount * 2);
+        }
+        edgeSources[edgeCount] = source;
+        edgeTargets[edgeCount] = target;
+        edgeCount++;
+        offsets = null;
+        targets = null;
+    }
+
+    /**
+     * Get the id of a page, adding it to the graph if needed.
+     */
+    public int node(URI uri) {
+        String key = uri.toString();
+        long fingerprint = HASH.hashString(key, Charsets.UTF_8).asLong();
+        int id = ids.get(fingerprint);
+        if (id >= 0) {
+            return id;
+        }
+        id = nodeCount++;
+        ids.put(fingerprint, id);
+        storeUri(id, key.getBytes(Charsets.UTF_8));
+        offsets = null;
+        targets = null;
+        return id;
+    }
+
+    public URI uri(int node) {
+        int start = uriOffsets[node];
+        return URI.create(new String(uris, start, uriOffsets[node + 1] - start,
+                Charsets.UTF_8));
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public int linkCount() {
+        return edgeCount;
+    }
+
+    public int[] inboundLinks() {
+        int[] inbound = new int[nodeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            inbound[edgeTargets[i]]++;
+        }
+        return inbound;
+    }
+
+    /**
+     * Internal PageRank, by power iteration. The rank of pages without
+     * outbound links is spread evenly over all pages.
+     */
+    public double[] pageRank() {
+        buildCsr();
+        int n = nodeCount;
+        double[] rank = new double[n];
+        double[] next = new double[n];
+        Arrays.fill(rank, 1.0 / n);
+        for (int iteration = 0; iteration < PAGERANK_ITERATIONS; iteration++) {
+            double dangling = 0;
+            Arrays.fill(next, 0);
+            for (int node = 0; node < n; node++) {
+                int outDegree = offsets[node + 1] - offsets[node];
+                if (outDegree == 0) {
+                    dangling += rank[node];
+                    continue;
+                }
+                double share = rank[node] / outDegree;
+                for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                    next[targets[i]] += share;
+                }
+            }
+            double base = (1 - DAMPING + DAMPING * dangling) / n;
+            for (int node = 0; node < n; node++) {
+                next[node] = base + DAMPING * next[node];
+            }
+            double[] swap = rank;
+            rank = next;
+            next = swap;
+        }
+        return rank;
+    }
+
+    /**
+     * Page ids, most important first. Pages of equal importance keep their
+     * discovery order.
+     */
+    public int[] order(AnalysisOrder order) {
+        float[] scores = new float[nodeCount];
+        switch (order) {
+        case INBOUND_LINKS:
+            int[] inbound = inboundLinks();
+            for (int i = 0; i < nodeCount; i++) {
+                scores[i] = inbound[i];
+            }
+            break;
+        case PAGERANK:
+            double[] rank = pageRank();
+            for (int i = 0; i < nodeCount; i++) {
+                scores[i] = (float) rank[i];
+            }
+            break;
+        default:
+            break;
+        }
+        return sortDescending(scores);
+    }
+
+    private int[] sortDescending(float[] scores) {
+        // scores are positive, so their bits sort like the floats themselves
+        long[] keys = new long[scores.length];
+        for (int i = 0; i < scores.length; i++) {
+            keys[i] = ((long) Float.floatToIntBits(scores[i]) << 32)
+                    | (Integer.MAX_VALUE - i);
+        }
+        Arrays.sort(keys);
+        int[] sorted = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            sorted[i] = Integer.MAX_VALUE
+                    - (int) keys[keys.length - 1 - i];
+        }
+        return sorted;
+    }
+
+    private static String withoutFragment(URI uri) {
+        String value = uri.toString();
+        int fragment = value.indexOf('#');
+        return fragment < 0 ? value : value.substring(0, fragment);
+    }
+
+    private void buildCsr() {
+        if (offsets != null) {
+            return;
+        }
+        offsets = new int[nodeCount + 1];
+        for (int i = 0; i < edgeCount; i++) {
+            offsets[edgeSources[i] + 1]++;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            offsets[node + 1] += offsets[node];
+        }
+        targets = new int[edgeCount];
+        int[] position = Arrays.copyOf(offsets, nodeCount);
+        for (int i = 0; i < edgeCount; i++) {
+            targets[position[edgeSources[i]]++] = edgeTargets[i];
+        }
+    }
+
+    private void storeUri(int id, byte[] uri) {
+        if (urisSize + uri.length > uris.length) {
+            uris = Arrays.copyOf(uris,
+                    Math.max(uris.length * 2, urisSize + uri.length));
+        }
+        if (id + 2 > uriOffsets.length) {
+            uriOffsets = Arrays.copyOf(uriOffsets, uriOffsets.length * 2);
+        }
+        System.arraycopy(uri, 0, uris, urisSize, uri.length);
+        uriOffsets[id] = urisSize;
+        urisSize += uri.length;
+        uriOffsets[id + 1] = urisSize;
+    }
+
+    /**
+     * Open addressing map from URI fingerprints to page ids.
+     */
+    private static final class FingerprintIndex {
+
+        private long[] keys = new long[INITIAL_SIZE * 2];
+        private int[] values = new int[INITIAL_SIZE * 2];
+        private int size;
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            int slot = slot(key, mask);
+            while (values[slot] != 0) {
+                if (keys[slot] == key) {
+                    return values[slot] - 1;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        void put(long key, int value) {
+            if (size * 2 >= keys.length) {
+                grow();
+            }
+            insert(keys, values, key, value + 1);
+            size++;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldValues.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != 0) {
+                    insert(keys, values, oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        // values are stored +1 so that 0 marks an empty slot
+        private static void insert(long[] keys, int[] values, long key,
+                int value) {
+            int mask = keys.length - 1;
+            int slot = slot(key, mask);
+            while (values[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+        }
+
+        private static int slot(long key, int mask) {
+            return (int) (key ^ (key >>> 32)) & mask;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.crawler;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+import com.google.inject.Inject;
+
+/**
+ * Lets several runs analyzing the same site, for example with different
+ * device profiles, share a single crawl.
+ *
+ * The first run to crawl the site does the actual crawl, and the URIs it
+ * discovers are recorded. The other runs replay them as soon as they are
+ * discovered, so that all runs analyze pages while the crawl goes on.
+ *
+ * Recorded URIs are kept on the heap, so by default a crawl is not shared and
+ * nothing is recorded.
+ *
+ * @author gehel
+ */
+public class SharedCrawl {
+
+    private final int runs;
+    private final List<URI> uris = new ArrayList<URI>();
+    private boolean started;
+    private boolean complete;
+
+    /** A crawl used by a single run. */
+    @Inject
+    public SharedCrawl() {
+        this(1);
+    }
+
+    /**
+     * @param runs
+     *            the number of runs sharing this crawl
+     */
+    public SharedCrawl(int runs) {
+        Preconditions.checkArgument(runs > 0, "runs must be positive");
+        this.runs = runs;
+    }
+
+    /**
+     * @return true for the run which has to crawl the site, the first one
+     */
+    synchronized boolean lead() {
+        if (runs > 1 && started) {
+            return false;
+        }
+        started = true;
+        return true;
+    }
+
+    /**
+     * Record the URIs submitted by the crawl of the leading run.
+     */
+    URICallback record(final URICallback target) {
+        if (runs == 1) {
+            return target;
+        }
+        return new URICallback() {
+            @Override
+            public void submit(URI uri) {
+                synchronized (SharedCrawl.this) {
+                    uris.add(uri);
+                    SharedCrawl.this.notifyAll();
+                }
+                target.submit(uri);
+            }
+        };
+    }
+
+    /**
+     * The crawl of the leading run is complete, whether it succeeded or not.
+     */
+    synchronized void complete() {
+        complete = true;
+        notifyAll();
+    }
+
+    /**
+     * Submit the URIs of the leading crawl, as they are discovered, until that
+     * crawl is complete.
+     */
+    void replay(URICallback target) throws InterruptedException {
+        int next = 0;
+        while (true) {
+            URI uri;
+            synchronized (this) {
+                while (next == uris.size() && !complete) {
+                    wait();
+                }
+                if (next == uris.size()) {
+                    return;
+                }
+                uri = uris.get(next++);
+            }
+            target.submit(uri);
+        }
+    }
+}
@@ -13,21 +13,39 @@
  */
 package ch.ledcom.maven.sitespeed.crawler;
 
+import static ch.ledcom.maven.sitespeed.Configuration.ANALYSIS_ORDER;
+import static ch.ledcom.maven.sitespeed.Configuration.CRAWL_CACHE_REFRESH;
+import static ch.ledcom.maven.sitespeed.Configuration.CRAWL_MEMORY_THRESHOLD;
 import static ch.ledcom.maven.sitespeed.Configuration.FOLLOW_PATH;
 import static ch.ledcom.maven.sitespeed.Configuration.LEVEL;
 import static ch.ledcom.maven.sitespeed.Configuration.NO_FOLLOW_PATH;
 import static ch.ledcom.maven.sitespeed.Configuration.REQUEST_HEADERS;
+import static ch.ledcom.maven.sitespeed.Configuration.SINGLE_PASS;
 import static ch.ledcom.maven.sitespeed.Configuration.START_URL;
 import static ch.ledcom.maven.sitespeed.Configuration.VERIFY_URL;
 
+import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.URI;
+import java.net.URISyntaxException;
 import java.net.URL;
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.annotation.Nullable;
 
+import com.google.common.base.Charsets;
+import com.google.common.base.Joiner;
+import com.google.common.base.Strings;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Closer;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
 import com.soulgalore.crawler.core.Crawler;
@@ -35,6 +53,30 @@ import com.soulgalore.crawler.core.CrawlerConfiguration;
 import com.soulgalore.crawler.core.CrawlerResult;
 import com.soulgalore.crawler.core.PageURL;
 
+/**
+ * Breadth first crawl of a site.
+ *
+ * The soulgalore {@link Crawler} is only used to extract the links of one page
+ * at a time, the crawl frontier and the set of visited URIs are managed by a
+ * {@link CrawlFrontier}, which spills to disk on large sites. URIs are
+ * submitted to the {@link URICallback} as soon as they are discovered, nothing
+ * is accumulated on the heap.
+ *
+ * When a {@link CrawlSnapshotStore} is enabled, the URIs discovered are stored
+ * in a snapshot keyed by the crawl settings, and later crawls with the same
+ * settings replay that snapshot instead of crawling the site again.
+ *
+ * In single pass mode, pages are not downloaded by the crawler at all. The
+ * links of each page are harvested by the analyzer from the rendered page and
+ * reported back through {@link #linksFound(URI, List)}, which also catches
+ * links added by JavaScript.
+ *
+ * With an {@link AnalysisOrder} other than {@link AnalysisOrder#CRAWL}, the
+ * internal link graph is recorded in a {@link LinkGraph} and pages are only
+ * submitted once the crawl is complete, most important first, so that a run
+ * cut short still covers the pages that matter. This does not apply to single
+ * pass crawls, where links are only known once a page has been analyzed.
+ */
 public class SiteSpeedCrawler {
 
     private final int level;
@@ -44,8 +86,22 @@ public class SiteSpeedCrawler {
     @Nullable
     private final String requestHeaders;
     private final URL startUrl;
+    private final int memoryThreshold;
+    private final CrawlSnapshotStore snapshots;
+    private final boolean refreshInBackground;
+    private final boolean singlePass;
+    private final AnalysisOrder analysisOrder;
+    private final SharedCrawl shared;
     private final Crawler crawler;
 
+    /** Guards the state of a single pass crawl. */
+    private final Object harvestLock = new Object();
+    private CrawlFrontier harvestFrontier;
+    private final Map<URI, Integer> inFlight = new HashMap<URI, Integer>();
+
+    private ExecutorService refreshService;
+    private Future<?> refresh;
+
     @Inject
     public SiteSpeedCrawler(
             Crawler crawler,
@@ -54,7 +110,13 @@ public class SiteSpeedCrawler {
             @Named(FOLLOW_PATH) String followPath,
             @Named(NO_FOLLOW_PATH) String noFollowPath,
             @Named(REQUEST_HEADERS) @Nullable String requestHeaders,
-            @Named(START_URL) URL startUrl) {
+            @Named(START_URL) URL startUrl,
+            @Named(CRAWL_MEMORY_THRESHOLD) int memoryThreshold,
+            CrawlSnapshotStore snapshots,
+            @Named(CRAWL_CACHE_REFRESH) boolean refreshInBackground,
+            @Named(SINGLE_PASS) boolean singlePass,
+            @Named(ANALYSIS_ORDER) AnalysisOrder analysisOrder,
+            SharedCrawl shared) {
         this.crawler = crawler;
         this.level = level;
         this.verifyUrl = verifyUrl;
@@ -62,32 +124,297 @@ public class SiteSpeedCrawler {
         this.noFollowPath = noFollowPath;
         this.requestHeaders = requestHeaders;
         this.startUrl = startUrl;
+        this.memoryThreshold = memoryThreshold;
+        this.snapshots = snapshots;
+        this.refreshInBackground = refreshInBackground;
+        this.singlePass = singlePass;
+        this.analysisOrder = analysisOrder;
+        this.shared = shared;
+    }
+
+    /**
+     * Crawl the site, or replay the crawl of another run when the crawl is
+     * shared (see {@link SharedCrawl}).
+     */
+    public void crawl(URICallback callback) throws IOException {
+        if (!shared.lead()) {
+            try {
+                shared.replay(callback);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+        try {
+            crawlOnce(shared.record(callback));
+        } finally {
+            shared.complete();
+        }
+    }
+
+    private void crawlOnce(URICallback callback) throws IOException {
+        String key = snapshotKey();
+        if (snapshots.isFresh(key)) {
+            snapshots.replay(key, callback);
+            // a refresh only uses the crawler, it would replace the links
+            // harvested from the rendered pages of a single pass crawl
+            if (refreshInBackground && !singlePass) {
+                refreshInBackground(key);
+            }
+            return;
+        }
+        if (!snapshots.isEnabled()) {
+            crawlSite(callback, singlePass);
+            return;
+        }
+        crawlAndRecord(key, callback, singlePass);
+    }
+
+    /**
+     * Report the links found on a page submitted by this crawler. In single
+     * pass mode, this must be called exactly once for each submitted page, even
+     * if its analysis failed, as the crawl waits for all submitted pages before
+     * completing. Outside of single pass mode, this does nothing.
+     *
+     * @param page
+     *            the page as submitted to the {@link URICallback}
+     * @param links
+     *            the links found on the rendered page
+     */
+    public void linksFound(URI page, List<URI> links) throws IOException {
+        synchronized (harvestLock) {
+            Integer depth = inFlight.remove(page);
+            if (depth == null) {
+                return;
+            }
+            try {
+                if (depth < level) {
+                    for (URI link : links) {
+                        if (isFollowed(link)) {
+                            harvestFrontier.offer(link, depth + 1);
+                        }
+                    }
+                }
+            } finally {
+                harvestLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Shutdown the crawler, waiting for a background refresh of the crawl
+     * snapshot if one is running. The refresh uses the crawler, so the run
+     * only completes once the whole site has been crawled again.
+     */
+    public void shutdown() throws IOException {
+        try {
+            if (refresh != null) {
+                refresh.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IOException("Could not refresh crawl snapshot",
+                    e.getCause());
+        } finally {
+            if (refreshService != null) {
+                refreshService.shutdown();
+            }
+            crawler.shutdown();
+        }
+    }
+
+    private synchronized void refreshInBackground(final String key) {
+        if (refreshService == null) {
+            refreshService = Executors
+                    .newSingleThreadExecutor(new ThreadFactoryBuilder()
+                            .setDaemon(true)
+                            .setNameFormat("sitespeed-crawl-refresh-%d")
+                            .build());
+        }
+        refresh = refreshService.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws IOException {
+                // nothing is analyzed during a refresh, so links can only come
+                // from the crawler
+                crawlAndRecord(key, new URICallback() {
+                    @Override
+                    public void submit(URI uri) {
+                    }
+                }, false);
+                return null;
+            }
+        });
+    }
+
+    private void crawlAndRecord(String key, final URICallback callback,
+            boolean harvested) throws IOException {
+        final CrawlSnapshotStore.Writer writer = snapshots.newWriter(key);
+        boolean threw = true;
+        try {
+            crawlSite(new URICallback() {
+                @Override
+                public void submit(URI uri) {
+                    try {
+                        writer.add(uri);
+                    } catch (IOException e) {
+                        throw new IllegalStateException(
+                                "Could not write crawl snapshot", e);
+                    }
+                    callback.submit(uri);
+                }
+            }, harvested);
+            writer.commit();
+            threw = false;
+        } finally {
+            if (threw) {
+                writer.abort();
+            }
+        }
+    }
+
+    private void crawlSite(final URICallback callback, boolean harvested)
+            throws IOException {
+        Closer closer = Closer.create();
+        try {
+            CrawlFrontier frontier = closer.register(new CrawlFrontier(
+                    memoryThreshold));
+            frontier.offer(toURI(startUrl), 0);
+            if (harvested) {
+                crawlWithAnalyzer(frontier, callback);
+            } else if (analysisOrder == AnalysisOrder.CRAWL) {
+                crawlWithCrawler(frontier, callback, null);
+            } else {
+                crawlByImportance(frontier, callback);
+            }
+        } catch (Throwable t) {
+            throw closer.rethrow(t);
+        } finally {
+            closer.close();
+        }
     }
 
-    public List<URI> crawl(final URICallback callback) {
-        List<URI> uris = new ArrayList<URI>();
-        final CrawlerResult result = crawler.getUrls(getConfiguration());
-        Set<PageURL> pageURLs = result.getUrls();
-        for (PageURL pageURL : pageURLs) {
-            uris.add(pageURL.getUri());
-            callback.submit(pageURL.getUri());
+    private void crawlWithCrawler(CrawlFrontier frontier,
+            URICallback callback, @Nullable LinkGraph graph)
+            throws IOException {
+        FrontierEntry entry;
+        while ((entry = frontier.poll()) != null) {
+            callback.submit(entry.getUri());
+            if (entry.getDepth() < level) {
+                final CrawlerResult result = crawler
+                        .getUrls(getConfiguration(entry.getUri()));
+                for (PageURL pageURL : result.getUrls()) {
+                    if (graph != null) {
+                        graph.addLink(entry.getUri(), pageURL.getUri());
+                    }
+                    frontier.offer(pageURL.getUri(), entry.getDepth() + 1);
+                }
+            }
         }
-        return uris;
     }
 
-    public void shutdown() {
-        crawler.shutdown();
+    private void crawlByImportance(CrawlFrontier frontier,
+            URICallback callback) throws IOException {
+        final LinkGraph graph = new LinkGraph();
+        crawlWithCrawler(frontier, new URICallback() {
+            @Override
+            public void submit(URI uri) {
+                graph.node(uri);
+            }
+        }, graph);
+        for (int node : graph.order(analysisOrder)) {
+            callback.submit(graph.uri(node));
+        }
     }
 
-    private CrawlerConfiguration getConfiguration() {
+    /**
+     * The frontier is fed by {@link #linksFound(URI, List)}, so an empty
+     * frontier only means the end of the crawl once no submitted page is
+     * still being analyzed.
+     */
+    private void crawlWithAnalyzer(CrawlFrontier frontier,
+            URICallback callback) throws IOException {
+        synchronized (harvestLock) {
+            harvestFrontier = frontier;
+        }
+        try {
+            while (true) {
+                FrontierEntry entry;
+                synchronized (harvestLock) {
+                    while ((entry = frontier.poll()) == null
+                            && !inFlight.isEmpty()) {
+                        harvestLock.wait();
+                    }
+                    if (entry == null) {
+                        return;
+                    }
+                    inFlight.put(entry.getUri(), entry.getDepth());
+                }
+                callback.submit(entry.getUri());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Crawl interrupted");
+        } finally {
+            synchronized (harvestLock) {
+                harvestFrontier = null;
+                inFlight.clear();
+            }
+        }
+    }
+
+    /**
+     * Same rules as the soulgalore crawler: only pages on the same host, on
+     * the followed path and not on the excluded path.
+     */
+    private boolean isFollowed(URI link) {
+        String scheme = link.getScheme();
+        if (!"http".equalsIgnoreCase(scheme)
+                && !"https".equalsIgnoreCase(scheme)) {
+            return false;
+        }
+        if (!startUrl.getHost().equalsIgnoreCase(link.getHost())) {
+            return false;
+        }
+        String path = Strings.nullToEmpty(link.getPath());
+        if (!Strings.isNullOrEmpty(followPath) && !path.startsWith(followPath)) {
+            return false;
+        }
+        return Strings.isNullOrEmpty(noFollowPath)
+                || !path.contains(noFollowPath);
+    }
+
+    private CrawlerConfiguration getConfiguration(URI page) {
         return CrawlerConfiguration.builder() //
-                .setMaxLevels(level) //
+                .setMaxLevels(1) //
                 .setVerifyUrls(verifyUrl) //
                 .setOnlyOnPath(followPath) //
                 .setNotOnPath(noFollowPath) //
                 .setRequestHeaders(requestHeaders) //
-                .setStartUrl(startUrl.toExternalForm()) //
+                .setStartUrl(page.toString()) //
                 .build();
     }
 
+    /**
+     * Snapshots are only valid for a given start URL and set of crawl
+     * settings. The analysis order is part of the key as snapshots are
+     * replayed in the order they were recorded, and single pass is part of it
+     * as its snapshots also hold the links found by the analyzer.
+     */
+    private String snapshotKey() {
+        String settings = Joiner.on('\n').useForNull("").join(
+                startUrl.toExternalForm(), level, verifyUrl, followPath,
+                noFollowPath, requestHeaders, analysisOrder, singlePass);
+        return Hashing.sha1().hashString(settings, Charsets.UTF_8).toString();
+    }
+
+    private static URI toURI(URL url) {
+        try {
+            return url.toURI();
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Invalid start URL ["
+                    + url.toExternalForm() + "]", e);
+        }
+    }
+
 }
@@ -0,0 +1,179 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.daemon;
+
+import static ch.ledcom.maven.sitespeed.daemon.DaemonProtocol.DEBUG;
+import static ch.ledcom.maven.sitespeed.daemon.DaemonProtocol.DONE;
+import static ch.ledcom.maven.sitespeed.daemon.DaemonProtocol.ERROR;
+import static ch.ledcom.maven.sitespeed.daemon.DaemonProtocol.FAILED;
+import static ch.ledcom.maven.sitespeed.daemon.DaemonProtocol.RUN;
+import static ch.ledcom.maven.sitespeed.daemon.DaemonProtocol.STOP;
+import static ch.ledcom.maven.sitespeed.daemon.DaemonProtocol.VERSION;
+import static ch.ledcom.maven.sitespeed.daemon.DaemonProtocol.WARN;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Properties;
+
+import javax.annotation.Nullable;
+
+import org.apache.maven.plugin.logging.Log;
+
+import com.google.common.io.Closeables;
+
+/**
+ * Sends a run of the sitespeed goal to the {@link DaemonServer}, and relays
+ * its log messages.
+ *
+ * @author gehel
+ */
+public final class DaemonClient {
+
+    private static final int CONNECT_TIMEOUT_MS = 1000;
+
+    private final int port;
+    private final String token;
+
+    private DaemonClient(int port, String token) {
+        this.port = port;
+        this.token = token;
+    }
+
+    /**
+     * The running daemon, if any. A daemon file left by a daemon that did not
+     * stop cleanly is ignored.
+     */
+    @Nullable
+    public static DaemonClient find(File daemonFile) {
+        if (!daemonFile.isFile()) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try {
+            InputStream in = new FileInputStream(daemonFile);
+            try {
+                properties.load(in);
+            } finally {
+                Closeables.close(in, true);
+            }
+            DaemonClient client = new DaemonClient(
+                    Integer.parseInt(properties.getProperty(DaemonServer.PORT)),
+                    properties.getProperty(DaemonServer.TOKEN));
+            client.connect().close();
+            return client;
+        } catch (IOException e) {
+            return null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Run the sitespeed goal in the daemon.
+     *
+     * @throws DaemonException
+     *             if the run failed in the daemon
+     */
+    public void run(Properties parameters, Log log) throws IOException,
+            DaemonException {
+        StringWriter serialized = new StringWriter();
+        parameters.store(serialized, null);
+        Socket socket = connect();
+        try {
+            DataOutputStream out = request(socket, RUN);
+            out.writeBoolean(log.isDebugEnabled());
+            DaemonProtocol.writeString(out, serialized.toString());
+            out.flush();
+            relay(socket, log);
+        } finally {
+            socket.close();
+        }
+    }
+
+    public void stop(Log log) throws IOException, DaemonException {
+        Socket socket = connect();
+        try {
+            request(socket, STOP).flush();
+            relay(socket, log);
+        } finally {
+            socket.close();
+        }
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket();
+        socket.connect(new InetSocketAddress(InetAddress.getByName(null),
+                port), CONNECT_TIMEOUT_MS);
+        return socket;
+    }
+
+    private DataOutputStream request(Socket socket, byte command)
+            throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                socket.getOutputStream()));
+        out.writeInt(VERSION);
+        DaemonProtocol.writeString(out, token);
+        out.writeByte(command);
+        return out;
+    }
+
+    private void relay(Socket socket, Log log) throws IOException,
+            DaemonException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                socket.getInputStream()));
+        while (true) {
+            byte type = in.readByte();
+            String message = DaemonProtocol.readString(in);
+            switch (type) {
+            case DONE:
+                return;
+            case FAILED:
+                throw new DaemonException(message);
+            case DEBUG:
+                log.debug(message);
+                break;
+            case WARN:
+                log.warn(message);
+                break;
+            case ERROR:
+                log.error(message);
+                break;
+            default:
+                log.info(message);
+                break;
+            }
+        }
+    }
+
+    /**
+     * A run failed in the daemon.
+     */
+    public static class DaemonException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        DaemonException(String message) {
+            super(message);
+        }
+    }
+}
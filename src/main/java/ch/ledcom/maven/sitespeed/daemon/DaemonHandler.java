@@ -0,0 +1,35 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.daemon;
+
+import java.util.Properties;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Runs the sitespeed goal in the daemon.
+ *
+ * @author gehel
+ */
+public interface DaemonHandler {
+
+    /**
+     * @param parameters
+     *            the parameters of the goal, see {@link MojoParameters}
+     * @param log
+     *            sends log messages back to the client
+     */
+    void run(Properties parameters, Log log) throws Exception;
+
+}
@@ -0,0 +1,73 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.daemon;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import com.google.common.base.Charsets;
+
+/**
+ * Messages exchanged between the {@link DaemonClient} and the
+ * {@link DaemonServer}.
+ *
+ * A client sends the protocol version, the token of the daemon, a command
+ * and, to run the sitespeed goal, whether debug logging is enabled and the
+ * parameters of the goal. The daemon answers with log messages, each a type
+ * and a string, followed by {@link #DONE} or {@link #FAILED}.
+ *
+ * @author gehel
+ */
+final class DaemonProtocol {
+
+    static final int VERSION = 1;
+
+    static final byte RUN = 'R';
+    static final byte STOP = 'S';
+
+    static final byte DEBUG = 'D';
+    static final byte INFO = 'I';
+    static final byte WARN = 'W';
+    static final byte ERROR = 'E';
+    static final byte DONE = 'O';
+    static final byte FAILED = 'F';
+
+    private DaemonProtocol() {
+    }
+
+    /**
+     * Strings are not limited to 64k as with writeUTF, as log messages can
+     * hold whole analysis results.
+     */
+    static void writeString(DataOutputStream out, String value)
+            throws IOException {
+        byte[] bytes = value.getBytes(Charsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, Charsets.UTF_8);
+    }
+
+    static void writeMessage(DataOutputStream out, byte type, String message)
+            throws IOException {
+        out.writeByte(type);
+        writeString(out, message);
+        out.flush();
+    }
+}
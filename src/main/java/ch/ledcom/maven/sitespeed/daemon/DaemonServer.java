@@ -0,0 +1,206 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.daemon;
+
+import static ch.ledcom.maven.sitespeed.daemon.DaemonProtocol.DONE;
+import static ch.ledcom.maven.sitespeed.daemon.DaemonProtocol.FAILED;
+import static ch.ledcom.maven.sitespeed.daemon.DaemonProtocol.RUN;
+import static ch.ledcom.maven.sitespeed.daemon.DaemonProtocol.STOP;
+import static ch.ledcom.maven.sitespeed.daemon.DaemonProtocol.VERSION;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.security.SecureRandom;
+import java.util.Properties;
+
+import org.apache.maven.plugin.logging.Log;
+
+import com.google.common.base.Throwables;
+import com.google.common.io.BaseEncoding;
+import com.google.common.io.Closeables;
+
+/**
+ * Runs the sitespeed goal for {@link DaemonClient}s, in a long-lived JVM.
+ *
+ * Everything that outlives a run stays warm between runs: loaded classes and
+ * compiled code, the extracted YSlow script, the Velocity engines and the
+ * crawl caches. The daemon only listens on the loopback interface, and
+ * writes its port and a random token to the daemon file, readable only by
+ * its owner. Clients must send the token, so that other users of the machine
+ * cannot use the daemon.
+ *
+ * Runs are executed one at a time, as each run already uses all the
+ * browsers it is configured for: other clients wait for their turn.
+ *
+ * @author gehel
+ */
+public class DaemonServer {
+
+    static final String PORT = "port";
+    static final String TOKEN = "token";
+
+    private final File daemonFile;
+    private final long idleTimeout;
+    private final DaemonHandler handler;
+    private final Log log;
+    private final String token;
+
+    private volatile boolean stopped;
+
+    /**
+     * @param idleTimeout
+     *            the daemon stops after this many milliseconds without
+     *            client, 0 to never stop
+     */
+    public DaemonServer(File daemonFile, long idleTimeout,
+            DaemonHandler handler, Log log) {
+        this.daemonFile = daemonFile;
+        this.idleTimeout = idleTimeout;
+        this.handler = handler;
+        this.log = log;
+        byte[] random = new byte[16];
+        new SecureRandom().nextBytes(random);
+        this.token = BaseEncoding.base16().lowerCase().encode(random);
+    }
+
+    /**
+     * Serve clients until stopped, idle for too long or interrupted.
+     */
+    public void serve() throws IOException {
+        ServerSocket server = new ServerSocket(0, 50,
+                InetAddress.getByName(null));
+        try {
+            server.setSoTimeout((int) Math.min(Integer.MAX_VALUE, idleTimeout));
+            writeDaemonFile(server.getLocalPort());
+            log.info("Sitespeed daemon listening on port ["
+                    + server.getLocalPort() + "]");
+            while (!stopped && !Thread.currentThread().isInterrupted()) {
+                Socket socket;
+                try {
+                    socket = server.accept();
+                } catch (SocketTimeoutException e) {
+                    log.info("No client for " + idleTimeout
+                            + " ms, stopping the daemon");
+                    break;
+                }
+                try {
+                    serve(socket);
+                } finally {
+                    socket.close();
+                }
+            }
+        } finally {
+            daemonFile.delete();
+            server.close();
+        }
+    }
+
+    private void serve(Socket socket) {
+        DataOutputStream out = null;
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    socket.getInputStream()));
+            out = new DataOutputStream(new BufferedOutputStream(
+                    socket.getOutputStream()));
+            int version;
+            try {
+                version = in.readInt();
+            } catch (EOFException e) {
+                // a client checking that the daemon is up
+                return;
+            }
+            String clientToken = DaemonProtocol.readString(in);
+            if (version != VERSION || !token.equals(clientToken)) {
+                DaemonProtocol.writeMessage(out, FAILED,
+                        "Invalid request, is the daemon running another "
+                                + "version of the plugin ?");
+                return;
+            }
+            byte command = in.readByte();
+            if (command == STOP) {
+                stopped = true;
+                log.info("Stopping the daemon");
+                DaemonProtocol.writeMessage(out, DONE, "");
+            } else if (command == RUN) {
+                boolean debug = in.readBoolean();
+                Properties parameters = new Properties();
+                parameters.load(new StringReader(DaemonProtocol
+                        .readString(in)));
+                run(parameters, debug, out);
+            }
+        } catch (IOException e) {
+            log.warn("Could not serve client", e);
+        }
+    }
+
+    private void run(Properties parameters, boolean debug,
+            DataOutputStream out) throws IOException {
+        log.info("Running sitespeed for [" + parameters.getProperty("url")
+                + "]");
+        long start = System.currentTimeMillis();
+        String failure = null;
+        try {
+            handler.run(parameters, new RemoteLog(out, debug));
+        } catch (Exception e) {
+            failure = e.getMessage() != null ? e.getMessage() : e.toString();
+            log.warn("Run failed", e);
+            failure += "\n" + Throwables.getStackTraceAsString(e);
+        }
+        log.info("Run completed in " + (System.currentTimeMillis() - start)
+                + " ms");
+        if (failure == null) {
+            DaemonProtocol.writeMessage(out, DONE, "");
+        } else {
+            DaemonProtocol.writeMessage(out, FAILED, failure);
+        }
+    }
+
+    private void writeDaemonFile(int port) throws IOException {
+        File directory = daemonFile.getAbsoluteFile().getParentFile();
+        if (!directory.exists()) {
+            directory.mkdirs();
+        }
+        Properties properties = new Properties();
+        properties.setProperty(PORT, Integer.toString(port));
+        properties.setProperty(TOKEN, token);
+        daemonFile.delete();
+        daemonFile.createNewFile();
+        // owner only, before the token is written
+        daemonFile.setReadable(false, false);
+        daemonFile.setReadable(true, true);
+        daemonFile.setWritable(false, false);
+        daemonFile.setWritable(true, true);
+        OutputStream out = new FileOutputStream(daemonFile);
+        boolean threw = true;
+        try {
+            properties.store(out, "Sitespeed daemon");
+            threw = false;
+        } finally {
+            Closeables.close(out, threw);
+        }
+        daemonFile.deleteOnExit();
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.daemon;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Copies the parameters of a Mojo, its instance fields, to and from
+ * {@link Properties}, so that a Mojo configured by Maven in the client can be
+ * configured the same way in the daemon.
+ *
+ * Only the types used by the parameters of this plugin are supported:
+ * primitives, strings, files, URLs and enums. Files are sent as absolute
+ * paths, as the daemon does not run in the directory of the project.
+ * Transient fields, which describe the build of the client rather than the
+ * configuration of the Mojo, are not copied.
+ *
+ * @author gehel
+ */
+public final class MojoParameters {
+
+    private MojoParameters() {
+    }
+
+    public static Properties write(Object mojo) {
+        Properties parameters = new Properties();
+        try {
+            for (Field field : fields(mojo.getClass())) {
+                Object value = field.get(mojo);
+                if (value == null) {
+                    continue;
+                }
+                String string;
+                if (value instanceof File) {
+                    string = ((File) value).getAbsolutePath();
+                } else if (value instanceof URL) {
+                    string = ((URL) value).toExternalForm();
+                } else if (value instanceof Enum) {
+                    string = ((Enum<?>) value).name();
+                } else {
+                    string = value.toString();
+                }
+                parameters.setProperty(field.getName(), string);
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+        return parameters;
+    }
+
+    /**
+     * @throws IllegalArgumentException
+     *             if a parameter does not exist or has an invalid value
+     */
+    public static void read(Properties parameters, Object mojo) {
+        for (String name : parameters.stringPropertyNames()) {
+            Field field = field(mojo.getClass(), name);
+            try {
+                field.set(mojo,
+                        convert(field.getType(), parameters.getProperty(name)));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            } catch (MalformedURLException e) {
+                throw new IllegalArgumentException("Invalid URL ["
+                        + parameters.getProperty(name) + "] for parameter ["
+                        + name + "]", e);
+            }
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Object convert(Class<?> type, String value)
+            throws MalformedURLException {
+        if (type == String.class) {
+            return value;
+        } else if (type == boolean.class) {
+            return Boolean.valueOf(value);
+        } else if (type == int.class) {
+            return Integer.valueOf(value);
+        } else if (type == long.class) {
+            return Long.valueOf(value);
+        } else if (type == double.class) {
+            return Double.valueOf(value);
+        } else if (type == File.class) {
+            return new File(value);
+        } else if (type == URL.class) {
+            return new URL(value);
+        } else if (type.isEnum()) {
+            return Enum.valueOf((Class<Enum>) type, value);
+        }
+        throw new IllegalArgumentException("Unsupported parameter type ["
+                + type.getName() + "]");
+    }
+
+    private static List<Field> fields(Class<?> type) {
+        List<Field> fields = new ArrayList<Field>();
+        for (Field field : type.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)
+                    || field.isSynthetic()) {
+                continue;
+            }
+            field.setAccessible(true);
+            fields.add(field);
+        }
+        return fields;
+    }
+
+    private static Field field(Class<?> type, String name) {
+        for (Field field : fields(type)) {
+            if (field.getName().equals(name)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown parameter [" + name
+                + "], is the daemon running another version of the plugin ?");
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.daemon;
+
+import static ch.ledcom.maven.sitespeed.daemon.DaemonProtocol.DEBUG;
+import static ch.ledcom.maven.sitespeed.daemon.DaemonProtocol.ERROR;
+import static ch.ledcom.maven.sitespeed.daemon.DaemonProtocol.INFO;
+import static ch.ledcom.maven.sitespeed.daemon.DaemonProtocol.WARN;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.apache.maven.plugin.logging.Log;
+
+import com.google.common.base.Throwables;
+
+/**
+ * Sends log messages of a run in the daemon to the client. If the client
+ * went away, messages are dropped and the run goes on.
+ *
+ * @author gehel
+ */
+class RemoteLog implements Log {
+
+    private final DataOutputStream out;
+    private final boolean debug;
+    private boolean disconnected;
+
+    RemoteLog(DataOutputStream out, boolean debug) {
+        this.out = out;
+        this.debug = debug;
+    }
+
+    private synchronized void send(byte type, CharSequence content,
+            Throwable error) {
+        if (disconnected) {
+            return;
+        }
+        StringBuilder message = new StringBuilder();
+        if (content != null) {
+            message.append(content);
+        }
+        if (error != null) {
+            if (message.length() > 0) {
+                message.append('\n');
+            }
+            message.append(Throwables.getStackTraceAsString(error));
+        }
+        try {
+            DaemonProtocol.writeMessage(out, type, message.toString());
+        } catch (IOException e) {
+            disconnected = true;
+        }
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+        return debug;
+    }
+
+    @Override
+    public void debug(CharSequence content) {
+        debug(content, null);
+    }
+
+    @Override
+    public void debug(CharSequence content, Throwable error) {
+        if (debug) {
+            send(DEBUG, content, error);
+        }
+    }
+
+    @Override
+    public void debug(Throwable error) {
+        debug(null, error);
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        return true;
+    }
+
+    @Override
+    public void info(CharSequence content) {
+        send(INFO, content, null);
+    }
+
+    @Override
+    public void info(CharSequence content, Throwable error) {
+        send(INFO, content, error);
+    }
+
+    @Override
+    public void info(Throwable error) {
+        send(INFO, null, error);
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        return true;
+    }
+
+    @Override
+    public void warn(CharSequence content) {
+        send(WARN, content, null);
+    }
+
+    @Override
+    public void warn(CharSequence content, Throwable error) {
+        send(WARN, content, error);
+    }
+
+    @Override
+    public void warn(Throwable error) {
+        send(WARN, null, error);
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        return true;
+    }
+
+    @Override
+    public void error(CharSequence content) {
+        send(ERROR, content, null);
+    }
+
+    @Override
+    public void error(CharSequence content, Throwable error) {
+        send(ERROR, content, error);
+    }
+
+    @Override
+    public void error(Throwable error) {
+        send(ERROR, null, error);
+    }
+}
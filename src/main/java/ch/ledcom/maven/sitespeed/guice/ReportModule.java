@@ -0,0 +1,122 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.guice;
+
+import java.io.File;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.maven.plugin.logging.Log;
+
+import ch.ledcom.maven.sitespeed.Configuration;
+import ch.ledcom.maven.sitespeed.SiteSpeedReportOrchestrator;
+import ch.ledcom.maven.sitespeed.bundle.JsonBundle;
+import ch.ledcom.maven.sitespeed.report.JavaPageRenderer;
+import ch.ledcom.maven.sitespeed.report.PageRenderer;
+import ch.ledcom.maven.sitespeed.report.Renderer;
+import ch.ledcom.maven.sitespeed.report.ReportFormat;
+import ch.ledcom.maven.sitespeed.report.SiteSpeedReporter;
+import ch.ledcom.maven.sitespeed.report.XMLVelocityMerger;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Provider;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+
+/**
+ * Configuration of the report goal, which only needs the reporting side of
+ * {@link SiteSpeedModule}.
+ */
+public class ReportModule extends AbstractModule {
+
+    private final String template;
+    private final Properties mergerProperties;
+    private final File outputDir;
+    private final int renderSlots;
+    private final int renderBuffer;
+    private final Renderer renderer;
+    private final ReportFormat reportFormat;
+    private final Log log;
+
+    public ReportModule(String template, Properties mergerProperties,
+            File outputDir, int renderSlots, int renderBuffer,
+            Renderer renderer, ReportFormat reportFormat, Log log) {
+        this.template = template;
+        this.mergerProperties = mergerProperties;
+        this.outputDir = outputDir;
+        this.renderSlots = renderSlots;
+        this.renderBuffer = renderBuffer;
+        this.renderer = renderer;
+        this.reportFormat = reportFormat;
+        this.log = log;
+    }
+
+    @Override
+    protected void configure() {
+        bind(SiteSpeedReportOrchestrator.class).in(Singleton.class);
+        bind(SiteSpeedReporter.class).in(Singleton.class);
+        bind(XMLVelocityMerger.class).in(Singleton.class);
+        bind(JavaPageRenderer.class).in(Singleton.class);
+        bind(JsonBundle.class).in(Singleton.class);
+    }
+
+    @Provides
+    @Named(Configuration.TEMPLATE)
+    public String getTemplate() {
+        return template;
+    }
+
+    @Provides
+    @Named(Configuration.MERGER_PROPERTIES)
+    public Properties getMergerProperties() {
+        return mergerProperties;
+    }
+
+    @Provides
+    @Named(Configuration.OUTPUT_DIR)
+    public File getOutputDir() {
+        return outputDir;
+    }
+
+    @Provides
+    @Named(Configuration.RENDER_BUFFER)
+    public int getRenderBuffer() {
+        return renderBuffer;
+    }
+
+    @Provides
+    @Named(Configuration.REPORT_FORMAT)
+    public ReportFormat getReportFormat() {
+        return reportFormat;
+    }
+
+    @Provides
+    @Singleton
+    public PageRenderer getPageRenderer(Provider<SiteSpeedReporter> velocity,
+            Provider<JavaPageRenderer> java) {
+        return renderer == Renderer.JAVA ? java.get() : velocity.get();
+    }
+
+    @Provides
+    @Named(Configuration.REPORT_SERVICE)
+    public ExecutorService getReportService() {
+        return SiteSpeedModule.fixedService(renderSlots, "sitespeed-report-%d");
+    }
+
+    @Provides
+    public Log getLog() {
+        return log;
+    }
+}
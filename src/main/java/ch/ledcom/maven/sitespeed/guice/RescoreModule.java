@@ -0,0 +1,85 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.guice;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.maven.plugin.logging.Log;
+
+import ch.ledcom.maven.sitespeed.Configuration;
+import ch.ledcom.maven.sitespeed.SiteSpeedRescoreOrchestrator;
+import ch.ledcom.maven.sitespeed.rules.RuleEngine;
+import ch.ledcom.maven.sitespeed.rules.Ruleset;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+
+/**
+ * Configuration of the rescore goal, which only reads the stored results.
+ */
+public class RescoreModule extends AbstractModule {
+
+    private final File outputDir;
+    private final List<Ruleset> rulesets;
+    private final int threads;
+    private final Log log;
+
+    public RescoreModule(File outputDir, List<Ruleset> rulesets, int threads,
+            Log log) {
+        this.outputDir = outputDir;
+        this.rulesets = ImmutableList.copyOf(rulesets);
+        this.threads = threads;
+        this.log = log;
+    }
+
+    @Override
+    protected void configure() {
+        bind(SiteSpeedRescoreOrchestrator.class).in(Singleton.class);
+        bind(RuleEngine.class).in(Singleton.class);
+    }
+
+    @Provides
+    @Named(Configuration.OUTPUT_DIR)
+    public File getOutputDir() {
+        return outputDir;
+    }
+
+    @Provides
+    @Named(Configuration.RULESETS)
+    public List<Ruleset> getRulesets() {
+        return rulesets;
+    }
+
+    @Provides
+    @Named(Configuration.RESCORE_BUFFER)
+    public int getRescoreBuffer() {
+        return threads * 2;
+    }
+
+    @Provides
+    @Named(Configuration.RESCORE_SERVICE)
+    public ExecutorService getRescoreService() {
+        return SiteSpeedModule.fixedService(threads, "sitespeed-rescore-%d");
+    }
+
+    @Provides
+    public Log getLog() {
+        return log;
+    }
+}
@@ -0,0 +1,248 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.guice;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import ch.ledcom.maven.sitespeed.Configuration;
+import ch.ledcom.maven.sitespeed.analyzer.BrowserAdmission;
+import ch.ledcom.maven.sitespeed.analyzer.HostThrottle;
+import ch.ledcom.maven.sitespeed.analyzer.ProcessSampler;
+import ch.ledcom.maven.sitespeed.crawler.SharedCrawl;
+
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ForwardingExecutorService;
+import com.google.inject.AbstractModule;
+import com.google.inject.name.Names;
+
+/**
+ * Overrides a {@link SiteSpeedModule} so that several runs, of a matrix of
+ * sites and device profiles or of the modules of a reactor, share one
+ * analyzer pool, the limits applied to it and one rendering pipeline (see
+ * {@link SharedResources}), instead of each run starting its own browsers and
+ * threads. The runs of the same site also share one crawl.
+ */
+public class SharedModule extends AbstractModule {
+
+    private final SharedResources resources;
+    private final SharedCrawl crawl;
+
+    /**
+     * @param crawl
+     *            the crawl of the site of this run
+     */
+    public SharedModule(SharedResources resources, SharedCrawl crawl) {
+        this.resources = resources;
+        this.crawl = crawl;
+    }
+
+    @Override
+    protected void configure() {
+        bindService(Configuration.ANALYZER_SERVICE, resources.analyzerService);
+        bindService(Configuration.REPORT_SERVICE, resources.reportService);
+        bindService(Configuration.WRITER_SERVICE, resources.writerService);
+        bind(HostThrottle.class).toInstance(
+                new SharedHostThrottle(resources.throttle));
+        bind(BrowserAdmission.class).toInstance(resources.admission);
+        bind(ProcessSampler.class).toInstance(
+                new SharedProcessSampler(resources.sampler));
+        bind(SharedCrawl.class).toInstance(crawl);
+    }
+
+    private void bindService(String name, ExecutorService service) {
+        bind(ExecutorService.class).annotatedWith(Names.named(name))
+                .toInstance(new SharedExecutorService(service));
+    }
+
+    /**
+     * Each run shuts its pools down once its pages are done, which must not
+     * stop the pools used by the other runs, nor wait for them.
+     */
+    private static final class SharedExecutorService extends
+            ForwardingExecutorService {
+        private final ExecutorService delegate;
+
+        private SharedExecutorService(ExecutorService delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        protected ExecutorService delegate() {
+            return delegate;
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+
+    /**
+     * Closing the sampler stops watching every browser, including the ones
+     * of the other runs. The shared sampler is closed with the other
+     * {@link SharedResources}.
+     */
+    private static final class SharedProcessSampler extends ProcessSampler {
+        private final ProcessSampler delegate;
+
+        private SharedProcessSampler(ProcessSampler delegate) {
+            super(0);
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return delegate.isEnabled();
+        }
+
+        @Override
+        public Profile watch(Process process) {
+            return delegate.watch(process);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Each run waits for its own analyses and closes the throttle once they
+     * are done, which must neither wait for the analyses of the other runs
+     * nor stop dispatching them. The shared throttle is closed with the
+     * other {@link SharedResources}.
+     */
+    private static final class SharedHostThrottle extends HostThrottle {
+        private static final int PRUNE_THRESHOLD = 256;
+
+        private final HostThrottle delegate;
+        private final Set<Future<?>> submitted = Sets
+                .newSetFromMap(new ConcurrentHashMap<Future<?>, Boolean>());
+        private int acquired;
+
+        private SharedHostThrottle(HostThrottle delegate) {
+            super(0, 0);
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return delegate.isEnabled();
+        }
+
+        @Override
+        public <T> Future<T> submit(URI uri, Callable<T> analysis,
+                Executor executor) throws InterruptedException {
+            Future<T> task = delegate.submit(uri, analysis, executor);
+            track(task);
+            return task;
+        }
+
+        @Override
+        public <T> Future<T> resubmit(URI uri, Callable<T> analysis,
+                Executor executor) {
+            Future<T> task = delegate.resubmit(uri, analysis, executor);
+            track(task);
+            return task;
+        }
+
+        @Override
+        public void acquire(URI uri) throws InterruptedException {
+            delegate.acquire(uri);
+            synchronized (this) {
+                acquired++;
+            }
+        }
+
+        @Override
+        public void release(URI uri) {
+            delegate.release(uri);
+            synchronized (this) {
+                acquired--;
+                notifyAll();
+            }
+        }
+
+        /**
+         * Wait until the analyses of this run have completed. Analyses
+         * submitted again while waiting are waited for too.
+         */
+        @Override
+        public void awaitIdle() throws InterruptedException {
+            synchronized (this) {
+                while (acquired > 0) {
+                    wait();
+                }
+            }
+            while (true) {
+                List<Future<?>> pending = new ArrayList<Future<?>>();
+                for (Future<?> task : submitted) {
+                    if (!task.isDone()) {
+                        pending.add(task);
+                    }
+                }
+                if (pending.isEmpty()) {
+                    submitted.clear();
+                    return;
+                }
+                for (Future<?> task : pending) {
+                    try {
+                        task.get();
+                    } catch (ExecutionException e) {
+                        // reported by the analysis itself
+                    } catch (CancellationException e) {
+                        // nothing left to wait for
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private void track(Future<?> task) {
+            if (submitted.size() >= PRUNE_THRESHOLD) {
+                Iterator<Future<?>> tasks = submitted.iterator();
+                while (tasks.hasNext()) {
+                    if (tasks.next().isDone()) {
+                        tasks.remove();
+                    }
+                }
+            }
+            submitted.add(task);
+        }
+    }
+}
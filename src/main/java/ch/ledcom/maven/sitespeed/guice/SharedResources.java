@@ -0,0 +1,76 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.guice;
+
+import java.io.Closeable;
+import java.util.concurrent.ExecutorService;
+
+import ch.ledcom.maven.sitespeed.Configuration;
+import ch.ledcom.maven.sitespeed.analyzer.BrowserAdmission;
+import ch.ledcom.maven.sitespeed.analyzer.HostThrottle;
+import ch.ledcom.maven.sitespeed.analyzer.ProcessSampler;
+
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.name.Names;
+
+/**
+ * The analyzer pool, the limits applied to it and the rendering pipeline,
+ * shared by several runs through a {@link SharedModule}. Runs only get views
+ * of these resources that they cannot shut down: the resources are only shut
+ * down by {@link #close()}, once all the runs using them are complete.
+ */
+public class SharedResources implements Closeable {
+
+    final ExecutorService analyzerService;
+    final ExecutorService reportService;
+    final ExecutorService writerService;
+    final HostThrottle throttle;
+    final BrowserAdmission admission;
+    final ProcessSampler sampler;
+
+    private SharedResources(Injector injector) {
+        this.analyzerService = service(injector,
+                Configuration.ANALYZER_SERVICE);
+        this.reportService = service(injector, Configuration.REPORT_SERVICE);
+        this.writerService = service(injector, Configuration.WRITER_SERVICE);
+        this.throttle = injector.getInstance(HostThrottle.class);
+        this.admission = injector.getInstance(BrowserAdmission.class);
+        this.sampler = injector.getInstance(ProcessSampler.class);
+    }
+
+    /**
+     * Create the resources configured by an injector.
+     */
+    public static SharedResources create(Injector injector) {
+        return new SharedResources(injector);
+    }
+
+    /**
+     * Shut the pools down, once all the runs using them are complete.
+     */
+    @Override
+    public void close() {
+        analyzerService.shutdown();
+        reportService.shutdown();
+        writerService.shutdown();
+        throttle.close();
+        sampler.close();
+    }
+
+    private static ExecutorService service(Injector injector, String name) {
+        return injector.getInstance(Key.get(ExecutorService.class,
+                Names.named(name)));
+    }
+}
@@ -16,27 +16,54 @@ package ch.ledcom.maven.sitespeed.guice;
 import java.io.File;
 import java.net.URL;
 import java.util.Properties;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Executors;
 
 import org.apache.maven.plugin.logging.Log;
 
 import ch.ledcom.maven.sitespeed.Configuration;
 import ch.ledcom.maven.sitespeed.SiteSpeedOrchestrator;
 import ch.ledcom.maven.sitespeed.SiteSpeedSingleThreadedOrchestrator;
+import ch.ledcom.maven.sitespeed.aggregate.RunSummary;
+import ch.ledcom.maven.sitespeed.analyzer.BrowserAdmission;
+import ch.ledcom.maven.sitespeed.analyzer.HostThrottle;
+import ch.ledcom.maven.sitespeed.analyzer.ProcessSampler;
+import ch.ledcom.maven.sitespeed.analyzer.RepeatedMeasurements;
 import ch.ledcom.maven.sitespeed.analyzer.SiteSpeedAnalyzer;
+import ch.ledcom.maven.sitespeed.archive.ArchiveMode;
+import ch.ledcom.maven.sitespeed.archive.ResponseArchive;
+import ch.ledcom.maven.sitespeed.bundle.JsonBundle;
+import ch.ledcom.maven.sitespeed.crawler.AnalysisOrder;
+import ch.ledcom.maven.sitespeed.crawler.CrawlSnapshotStore;
 import ch.ledcom.maven.sitespeed.crawler.SiteSpeedCrawler;
+import ch.ledcom.maven.sitespeed.history.HistoryStore;
+import ch.ledcom.maven.sitespeed.journal.RunJournal;
+import ch.ledcom.maven.sitespeed.pipeline.PipelineSettings;
+import ch.ledcom.maven.sitespeed.report.JavaPageRenderer;
+import ch.ledcom.maven.sitespeed.report.PageRenderer;
+import ch.ledcom.maven.sitespeed.report.Renderer;
+import ch.ledcom.maven.sitespeed.report.ReportFormat;
 import ch.ledcom.maven.sitespeed.report.SiteSpeedReporter;
 import ch.ledcom.maven.sitespeed.report.XMLVelocityMerger;
+import ch.ledcom.maven.sitespeed.schedule.DeadlineScheduler;
+import ch.ledcom.maven.sitespeed.sink.ExportFormat;
+import ch.ledcom.maven.sitespeed.sink.MetricsExporter;
+import ch.ledcom.maven.sitespeed.sink.ResultSinks;
+import ch.ledcom.maven.sitespeed.store.ResultStore;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.AbstractModule;
+import com.google.inject.Provider;
 import com.google.inject.Provides;
 import com.google.inject.Singleton;
 import com.google.inject.name.Named;
 
+/**
+ * Binds the configuration of a run, built with {@link #builder()}, and the
+ * components using it.
+ *
+ * @author gehel
+ */
 public class SiteSpeedModule extends AbstractModule {
 
     private final File phantomJS;
@@ -54,29 +81,86 @@ public class SiteSpeedModule extends AbstractModule {
     private final URL startUrl;
     private final Properties mergerProperties;
     private final File outputDir;
+    private final int crawlMemoryThreshold;
+    private final File crawlCacheDir;
+    private final long crawlCacheTtl;
+    private final boolean crawlCacheRefresh;
+    private final boolean singlePass;
+    private final AnalysisOrder analysisOrder;
+    private final boolean resume;
+    private final long maxDuration;
+    private final int hostRate;
+    private final int hostConcurrency;
+    private final int measurements;
+    private final double measurementPrecision;
+    private final long browserMemoryReserve;
+    private final double maxLoadPerCpu;
+    private final long profileInterval;
+    private final PipelineSettings pipeline;
+    private final boolean recordHar;
+    private final ArchiveMode archiveMode;
+    private final File archiveFile;
+    private final boolean storeResults;
+    private final Renderer renderer;
+    private final ReportFormat reportFormat;
+    private final ExportFormat exportFormat;
+    private final int sinkBuffer;
+    private final boolean recordHistory;
+    private final File historyDir;
+    private final boolean aggregate;
     private final Log log;
 
-    public SiteSpeedModule(File phantomJS, boolean verifyUrl, int level,
-            String followPath, String noFollowPath, String proxyHost,
-            String proxyType, String requestHeaders, String ruleset,
-            String template, String userAgent, String viewPort, URL startUrl,
-            Properties mergerProperties, File outputDir, Log log) {
-        this.phantomJS = phantomJS;
-        this.verifyUrl = verifyUrl;
-        this.level = level;
-        this.followPath = followPath;
-        this.noFollowPath = noFollowPath;
-        this.proxyHost = proxyHost;
-        this.proxyType = proxyType;
-        this.requestHeaders = requestHeaders;
-        this.ruleset = ruleset;
-        this.template = template;
-        this.userAgent = userAgent;
-        this.viewPort = viewPort;
-        this.startUrl = startUrl;
-        this.mergerProperties = mergerProperties;
-        this.outputDir = outputDir;
-        this.log = log;
+    private SiteSpeedModule(Builder builder) {
+        this.phantomJS = builder.phantomJS;
+        this.verifyUrl = builder.verifyUrl;
+        this.level = builder.level;
+        this.followPath = builder.followPath;
+        this.noFollowPath = builder.noFollowPath;
+        this.proxyHost = builder.proxyHost;
+        this.proxyType = builder.proxyType;
+        this.requestHeaders = builder.requestHeaders;
+        this.ruleset = builder.ruleset;
+        this.template = builder.template;
+        this.userAgent = builder.userAgent;
+        this.viewPort = builder.viewPort;
+        this.startUrl = builder.startUrl;
+        this.mergerProperties = builder.mergerProperties;
+        this.outputDir = builder.outputDir;
+        this.crawlMemoryThreshold = builder.crawlMemoryThreshold;
+        this.crawlCacheDir = builder.crawlCacheDir;
+        this.crawlCacheTtl = builder.crawlCacheTtl;
+        this.crawlCacheRefresh = builder.crawlCacheRefresh;
+        this.singlePass = builder.singlePass;
+        this.analysisOrder = builder.analysisOrder;
+        this.resume = builder.resume;
+        this.maxDuration = builder.maxDuration;
+        this.hostRate = builder.hostRate;
+        this.hostConcurrency = builder.hostConcurrency;
+        this.measurements = builder.measurements;
+        this.measurementPrecision = builder.measurementPrecision;
+        this.browserMemoryReserve = builder.browserMemoryReserve;
+        this.maxLoadPerCpu = builder.maxLoadPerCpu;
+        this.profileInterval = builder.profileInterval;
+        this.pipeline = new PipelineSettings(builder.browserSlots,
+                builder.renderSlots, builder.diskWriters,
+                builder.analysisBuffer, builder.renderBuffer,
+                builder.writeBuffer, builder.resultBufferBudget);
+        this.recordHar = builder.recordHar;
+        this.archiveMode = builder.archiveMode;
+        this.archiveFile = builder.archiveFile;
+        this.storeResults = builder.storeResults;
+        this.renderer = builder.renderer;
+        this.reportFormat = builder.reportFormat;
+        this.exportFormat = builder.exportFormat;
+        this.sinkBuffer = builder.sinkBuffer;
+        this.recordHistory = builder.recordHistory;
+        this.historyDir = builder.historyDir;
+        this.aggregate = builder.aggregate;
+        this.log = builder.log;
+    }
+
+    public static Builder builder() {
+        return new Builder();
     }
 
     @Override
@@ -84,9 +168,24 @@ public class SiteSpeedModule extends AbstractModule {
         bind(SiteSpeedOrchestrator.class).in(Singleton.class);
         bind(SiteSpeedSingleThreadedOrchestrator.class).in(Singleton.class);
         bind(SiteSpeedCrawler.class).in(Singleton.class);
+        bind(CrawlSnapshotStore.class).in(Singleton.class);
+        bind(RunJournal.class).in(Singleton.class);
+        bind(ResponseArchive.class).in(Singleton.class);
+        bind(ResultStore.class).in(Singleton.class);
+        bind(DeadlineScheduler.class).in(Singleton.class);
         bind(SiteSpeedAnalyzer.class).in(Singleton.class);
+        bind(HostThrottle.class).in(Singleton.class);
+        bind(BrowserAdmission.class).in(Singleton.class);
+        bind(ProcessSampler.class).in(Singleton.class);
+        bind(RepeatedMeasurements.class).in(Singleton.class);
         bind(SiteSpeedReporter.class).in(Singleton.class);
         bind(XMLVelocityMerger.class).in(Singleton.class);
+        bind(JavaPageRenderer.class).in(Singleton.class);
+        bind(JsonBundle.class).in(Singleton.class);
+        bind(MetricsExporter.class).in(Singleton.class);
+        bind(HistoryStore.class).in(Singleton.class);
+        bind(ResultSinks.class).in(Singleton.class);
+        bind(RunSummary.class).in(Singleton.class);
     }
 
     @Provides
@@ -179,22 +278,517 @@ public class SiteSpeedModule extends AbstractModule {
         return outputDir;
     }
 
+    @Provides
+    @Named(Configuration.CRAWL_MEMORY_THRESHOLD)
+    public int getCrawlMemoryThreshold() {
+        return crawlMemoryThreshold;
+    }
+
+    @Provides
+    @Named(Configuration.CRAWL_CACHE_DIR)
+    public File getCrawlCacheDir() {
+        return crawlCacheDir;
+    }
+
+    @Provides
+    @Named(Configuration.CRAWL_CACHE_TTL)
+    public long getCrawlCacheTtl() {
+        return crawlCacheTtl;
+    }
+
+    @Provides
+    @Named(Configuration.CRAWL_CACHE_REFRESH)
+    public boolean isCrawlCacheRefresh() {
+        return crawlCacheRefresh;
+    }
+
+    @Provides
+    @Named(Configuration.SINGLE_PASS)
+    public boolean isSinglePass() {
+        return singlePass;
+    }
+
+    @Provides
+    @Named(Configuration.ANALYSIS_ORDER)
+    public AnalysisOrder getAnalysisOrder() {
+        return analysisOrder;
+    }
+
+    @Provides
+    @Named(Configuration.RESUME)
+    public boolean isResume() {
+        return resume;
+    }
+
+    @Provides
+    @Named(Configuration.MAX_DURATION)
+    public long getMaxDuration() {
+        return maxDuration;
+    }
+
+    @Provides
+    @Named(Configuration.HOST_RATE)
+    public int getHostRate() {
+        return hostRate;
+    }
+
+    @Provides
+    @Named(Configuration.HOST_CONCURRENCY)
+    public int getHostConcurrency() {
+        return hostConcurrency;
+    }
+
+    @Provides
+    @Named(Configuration.MEASUREMENTS)
+    public int getMeasurements() {
+        return measurements;
+    }
+
+    @Provides
+    @Named(Configuration.MEASUREMENT_PRECISION)
+    public double getMeasurementPrecision() {
+        return measurementPrecision;
+    }
+
+    @Provides
+    @Named(Configuration.BROWSER_MEMORY_RESERVE)
+    public long getBrowserMemoryReserve() {
+        return browserMemoryReserve;
+    }
+
+    @Provides
+    @Named(Configuration.MAX_LOAD_PER_CPU)
+    public double getMaxLoadPerCpu() {
+        return maxLoadPerCpu;
+    }
+
+    @Provides
+    @Named(Configuration.PROFILE_INTERVAL)
+    public long getProfileInterval() {
+        return profileInterval;
+    }
+
     @Provides
     @Named(Configuration.ANALYZER_SERVICE)
     public ExecutorService getAnalyzerService() {
-        return new ThreadPoolExecutor(1, 2, 1, TimeUnit.MILLISECONDS,
-                new ArrayBlockingQueue<Runnable>(1), new CallerRunsPolicy());
+        return fixedService(pipeline.getBrowserSlots(),
+                "sitespeed-analyzer-%d");
     }
 
     @Provides
     @Named(Configuration.REPORT_SERVICE)
     public ExecutorService getReportService() {
-        return new ThreadPoolExecutor(1, 2, 1, TimeUnit.MILLISECONDS,
-                new ArrayBlockingQueue<Runnable>(1), new CallerRunsPolicy());
+        return fixedService(pipeline.getRenderSlots(), "sitespeed-report-%d");
+    }
+
+    @Provides
+    @Named(Configuration.WRITER_SERVICE)
+    public ExecutorService getWriterService() {
+        return fixedService(pipeline.getDiskWriters(), "sitespeed-writer-%d");
+    }
+
+    @Provides
+    public PipelineSettings getPipelineSettings() {
+        return pipeline;
+    }
+
+    @Provides
+    @Named(Configuration.RECORD_HAR)
+    public boolean getRecordHar() {
+        return recordHar;
+    }
+
+    @Provides
+    @Named(Configuration.ARCHIVE_MODE)
+    public ArchiveMode getArchiveMode() {
+        return archiveMode;
+    }
+
+    @Provides
+    @Named(Configuration.ARCHIVE_FILE)
+    public File getArchiveFile() {
+        return archiveFile;
+    }
+
+    @Provides
+    @Named(Configuration.STORE_RESULTS)
+    public boolean isStoreResults() {
+        return storeResults;
+    }
+
+    @Provides
+    @Named(Configuration.RENDERER)
+    public Renderer getRenderer() {
+        return renderer;
+    }
+
+    @Provides
+    @Named(Configuration.REPORT_FORMAT)
+    public ReportFormat getReportFormat() {
+        return reportFormat;
+    }
+
+    @Provides
+    @Named(Configuration.EXPORT_FORMAT)
+    public ExportFormat getExportFormat() {
+        return exportFormat;
+    }
+
+    @Provides
+    @Named(Configuration.SINK_BUFFER)
+    public int getSinkBuffer() {
+        return sinkBuffer;
+    }
+
+    @Provides
+    @Named(Configuration.RECORD_HISTORY)
+    public boolean isRecordHistory() {
+        return recordHistory;
+    }
+
+    @Provides
+    @Named(Configuration.HISTORY_DIR)
+    public File getHistoryDir() {
+        return historyDir;
+    }
+
+    @Provides
+    @Named(Configuration.AGGREGATE)
+    public boolean isAggregate() {
+        return aggregate;
+    }
+
+    /**
+     * Only the selected renderer is created, so that Velocity is not
+     * initialized when it is not used.
+     */
+    @Provides
+    @Singleton
+    public PageRenderer getPageRenderer(Provider<SiteSpeedReporter> velocity,
+            Provider<JavaPageRenderer> java) {
+        return renderer == Renderer.JAVA ? java.get() : velocity.get();
+    }
+
+    /**
+     * The queues of these services are bounded by the buffers of the pipeline
+     * stages feeding them, so tasks are never rejected nor run by the caller.
+     */
+    static ExecutorService fixedService(int threads, String nameFormat) {
+        return Executors.newFixedThreadPool(Math.max(1, threads),
+                new ThreadFactoryBuilder().setDaemon(true)
+                        .setNameFormat(nameFormat).build());
     }
 
     @Provides
     public Log getLog() {
         return log;
     }
+
+    /**
+     * Collects the configuration of a run. Values that are not set default to
+     * <code>null</code>, <code>false</code> or 0.
+     */
+    public static final class Builder {
+        private File phantomJS;
+        private boolean verifyUrl;
+        private int level;
+        private String followPath;
+        private String noFollowPath;
+        private String proxyHost;
+        private String proxyType;
+        private String requestHeaders;
+        private String ruleset;
+        private String template;
+        private String userAgent;
+        private String viewPort;
+        private URL startUrl;
+        private Properties mergerProperties;
+        private File outputDir;
+        private int crawlMemoryThreshold;
+        private File crawlCacheDir;
+        private long crawlCacheTtl;
+        private boolean crawlCacheRefresh;
+        private boolean singlePass;
+        private AnalysisOrder analysisOrder;
+        private boolean resume;
+        private long maxDuration;
+        private int hostRate;
+        private int hostConcurrency;
+        private int measurements;
+        private double measurementPrecision;
+        private long browserMemoryReserve;
+        private double maxLoadPerCpu;
+        private long profileInterval;
+        private int browserSlots;
+        private int renderSlots;
+        private int diskWriters;
+        private int analysisBuffer;
+        private int renderBuffer;
+        private int writeBuffer;
+        private long resultBufferBudget;
+        private boolean recordHar;
+        private ArchiveMode archiveMode;
+        private File archiveFile;
+        private boolean storeResults;
+        private Renderer renderer;
+        private ReportFormat reportFormat;
+        private ExportFormat exportFormat;
+        private int sinkBuffer;
+        private boolean recordHistory;
+        private File historyDir;
+        private boolean aggregate;
+        private Log log;
+
+        private Builder() {
+        }
+
+        public Builder setPhantomJS(File phantomJS) {
+            this.phantomJS = phantomJS;
+            return this;
+        }
+
+        public Builder setVerifyUrl(boolean verifyUrl) {
+            this.verifyUrl = verifyUrl;
+            return this;
+        }
+
+        public Builder setLevel(int level) {
+            this.level = level;
+            return this;
+        }
+
+        public Builder setFollowPath(String followPath) {
+            this.followPath = followPath;
+            return this;
+        }
+
+        public Builder setNoFollowPath(String noFollowPath) {
+            this.noFollowPath = noFollowPath;
+            return this;
+        }
+
+        public Builder setProxyHost(String proxyHost) {
+            this.proxyHost = proxyHost;
+            return this;
+        }
+
+        public Builder setProxyType(String proxyType) {
+            this.proxyType = proxyType;
+            return this;
+        }
+
+        public Builder setRequestHeaders(String requestHeaders) {
+            this.requestHeaders = requestHeaders;
+            return this;
+        }
+
+        public Builder setRuleset(String ruleset) {
+            this.ruleset = ruleset;
+            return this;
+        }
+
+        public Builder setTemplate(String template) {
+            this.template = template;
+            return this;
+        }
+
+        public Builder setUserAgent(String userAgent) {
+            this.userAgent = userAgent;
+            return this;
+        }
+
+        public Builder setViewPort(String viewPort) {
+            this.viewPort = viewPort;
+            return this;
+        }
+
+        public Builder setStartUrl(URL startUrl) {
+            this.startUrl = startUrl;
+            return this;
+        }
+
+        public Builder setMergerProperties(Properties mergerProperties) {
+            this.mergerProperties = mergerProperties;
+            return this;
+        }
+
+        public Builder setOutputDir(File outputDir) {
+            this.outputDir = outputDir;
+            return this;
+        }
+
+        public Builder setCrawlMemoryThreshold(int crawlMemoryThreshold) {
+            this.crawlMemoryThreshold = crawlMemoryThreshold;
+            return this;
+        }
+
+        public Builder setCrawlCacheDir(File crawlCacheDir) {
+            this.crawlCacheDir = crawlCacheDir;
+            return this;
+        }
+
+        public Builder setCrawlCacheTtl(long crawlCacheTtl) {
+            this.crawlCacheTtl = crawlCacheTtl;
+            return this;
+        }
+
+        public Builder setCrawlCacheRefresh(boolean crawlCacheRefresh) {
+            this.crawlCacheRefresh = crawlCacheRefresh;
+            return this;
+        }
+
+        public Builder setSinglePass(boolean singlePass) {
+            this.singlePass = singlePass;
+            return this;
+        }
+
+        public Builder setAnalysisOrder(AnalysisOrder analysisOrder) {
+            this.analysisOrder = analysisOrder;
+            return this;
+        }
+
+        public Builder setResume(boolean resume) {
+            this.resume = resume;
+            return this;
+        }
+
+        public Builder setMaxDuration(long maxDuration) {
+            this.maxDuration = maxDuration;
+            return this;
+        }
+
+        public Builder setHostRate(int hostRate) {
+            this.hostRate = hostRate;
+            return this;
+        }
+
+        public Builder setHostConcurrency(int hostConcurrency) {
+            this.hostConcurrency = hostConcurrency;
+            return this;
+        }
+
+        public Builder setMeasurements(int measurements) {
+            this.measurements = measurements;
+            return this;
+        }
+
+        public Builder setMeasurementPrecision(double measurementPrecision) {
+            this.measurementPrecision = measurementPrecision;
+            return this;
+        }
+
+        public Builder setBrowserMemoryReserve(long browserMemoryReserve) {
+            this.browserMemoryReserve = browserMemoryReserve;
+            return this;
+        }
+
+        public Builder setMaxLoadPerCpu(double maxLoadPerCpu) {
+            this.maxLoadPerCpu = maxLoadPerCpu;
+            return this;
+        }
+
+        public Builder setProfileInterval(long profileInterval) {
+            this.profileInterval = profileInterval;
+            return this;
+        }
+
+        public Builder setBrowserSlots(int browserSlots) {
+            this.browserSlots = browserSlots;
+            return this;
+        }
+
+        public Builder setRenderSlots(int renderSlots) {
+            this.renderSlots = renderSlots;
+            return this;
+        }
+
+        public Builder setDiskWriters(int diskWriters) {
+            this.diskWriters = diskWriters;
+            return this;
+        }
+
+        public Builder setAnalysisBuffer(int analysisBuffer) {
+            this.analysisBuffer = analysisBuffer;
+            return this;
+        }
+
+        public Builder setRenderBuffer(int renderBuffer) {
+            this.renderBuffer = renderBuffer;
+            return this;
+        }
+
+        public Builder setWriteBuffer(int writeBuffer) {
+            this.writeBuffer = writeBuffer;
+            return this;
+        }
+
+        public Builder setResultBufferBudget(long resultBufferBudget) {
+            this.resultBufferBudget = resultBufferBudget;
+            return this;
+        }
+
+        public Builder setRecordHar(boolean recordHar) {
+            this.recordHar = recordHar;
+            return this;
+        }
+
+        public Builder setArchiveMode(ArchiveMode archiveMode) {
+            this.archiveMode = archiveMode;
+            return this;
+        }
+
+        public Builder setArchiveFile(File archiveFile) {
+            this.archiveFile = archiveFile;
+            return this;
+        }
+
+        public Builder setStoreResults(boolean storeResults) {
+            this.storeResults = storeResults;
+            return this;
+        }
+
+        public Builder setRenderer(Renderer renderer) {
+            this.renderer = renderer;
+            return this;
+        }
+
+        public Builder setReportFormat(ReportFormat reportFormat) {
+            this.reportFormat = reportFormat;
+            return this;
+        }
+
+        public Builder setExportFormat(ExportFormat exportFormat) {
+            this.exportFormat = exportFormat;
+            return this;
+        }
+
+        public Builder setSinkBuffer(int sinkBuffer) {
+            this.sinkBuffer = sinkBuffer;
+            return this;
+        }
+
+        public Builder setRecordHistory(boolean recordHistory) {
+            this.recordHistory = recordHistory;
+            return this;
+        }
+
+        public Builder setHistoryDir(File historyDir) {
+            this.historyDir = historyDir;
+            return this;
+        }
+
+        public Builder setAggregate(boolean aggregate) {
+            this.aggregate = aggregate;
+            return this;
+        }
+
+        public Builder setLog(Log log) {
+            this.log = log;
+            return this;
+        }
+
+        public SiteSpeedModule build() {
+            return new SiteSpeedModule(this);
+        }
+    }
 }
@@ -0,0 +1,74 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.guice;
+
+import java.io.File;
+
+import org.apache.maven.plugin.logging.Log;
+
+import ch.ledcom.maven.sitespeed.Configuration;
+import ch.ledcom.maven.sitespeed.SiteSpeedTrendOrchestrator;
+import ch.ledcom.maven.sitespeed.report.TrendRenderer;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+
+/**
+ * Configuration of the trend goal, which only reads the history.
+ */
+public class TrendModule extends AbstractModule {
+
+    private final File historyDir;
+    private final int runs;
+    private final File outputDir;
+    private final Log log;
+
+    public TrendModule(File historyDir, int runs, File outputDir, Log log) {
+        this.historyDir = historyDir;
+        this.runs = runs;
+        this.outputDir = outputDir;
+        this.log = log;
+    }
+
+    @Override
+    protected void configure() {
+        bind(SiteSpeedTrendOrchestrator.class).in(Singleton.class);
+        bind(TrendRenderer.class).in(Singleton.class);
+    }
+
+    @Provides
+    @Named(Configuration.HISTORY_DIR)
+    public File getHistoryDir() {
+        return historyDir;
+    }
+
+    @Provides
+    @Named(Configuration.TREND_RUNS)
+    public int getRuns() {
+        return runs;
+    }
+
+    @Provides
+    @Named(Configuration.OUTPUT_DIR)
+    public File getOutputDir() {
+        return outputDir;
+    }
+
+    @Provides
+    public Log getLog() {
+        return log;
+    }
+}
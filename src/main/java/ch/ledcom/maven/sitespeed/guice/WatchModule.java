@@ -0,0 +1,61 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.guice;
+
+import java.io.File;
+import java.util.List;
+
+import ch.ledcom.maven.sitespeed.Configuration;
+import ch.ledcom.maven.sitespeed.SiteSpeedWatchOrchestrator;
+import ch.ledcom.maven.sitespeed.watch.PageVersions;
+import ch.ledcom.maven.sitespeed.watch.SourceWatcher;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+
+/**
+ * Configuration of the watch goal, installed next to a
+ * {@link SiteSpeedModule}.
+ */
+public class WatchModule extends AbstractModule {
+
+    private final List<File> watchDirs;
+    private final long watchInterval;
+
+    public WatchModule(List<File> watchDirs, long watchInterval) {
+        this.watchDirs = watchDirs;
+        this.watchInterval = watchInterval;
+    }
+
+    @Override
+    protected void configure() {
+        bind(SiteSpeedWatchOrchestrator.class).in(Singleton.class);
+        bind(PageVersions.class).in(Singleton.class);
+        bind(SourceWatcher.class).in(Singleton.class);
+    }
+
+    @Provides
+    @Named(Configuration.WATCH_DIRS)
+    public List<File> getWatchDirs() {
+        return watchDirs;
+    }
+
+    @Provides
+    @Named(Configuration.WATCH_INTERVAL)
+    public long getWatchInterval() {
+        return watchInterval;
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.har;
+
+import com.google.common.collect.LinkedListMultimap;
+import com.google.common.collect.ListMultimap;
+
+/**
+ * One request going through the {@link RecordingProxy}, as written to the
+ * HAR file. Timings are in milliseconds, -1 when not applicable.
+ *
+ * @author gehel
+ */
+final class HarEntry {
+
+    long started;
+    String comment;
+    String error;
+
+    String method;
+    String url;
+    String httpVersion = "HTTP/1.1";
+    final ListMultimap<String, String> requestHeaders = LinkedListMultimap
+            .create();
+    long requestHeadersSize = -1;
+    long requestBodySize = -1;
+
+    int status;
+    String statusText = "";
+    String responseHttpVersion = "HTTP/1.1";
+    final ListMultimap<String, String> responseHeaders = LinkedListMultimap
+            .create();
+    long responseHeadersSize = -1;
+    long responseBodySize = -1;
+
+    double dns = -1;
+    double connect = -1;
+    double send;
+    double wait;
+    double receive;
+
+    double time() {
+        return Math.max(0, dns) + Math.max(0, connect) + send + wait
+                + receive;
+    }
+}
@@ -0,0 +1,167 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.har;
+
+import static ch.ledcom.maven.sitespeed.Configuration.OUTPUT_DIR;
+import static ch.ledcom.maven.sitespeed.Configuration.PROXY_HOST;
+import static ch.ledcom.maven.sitespeed.Configuration.PROXY_TYPE;
+import static ch.ledcom.maven.sitespeed.Configuration.RECORD_HAR;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.URL;
+
+import javax.annotation.Nullable;
+
+import org.apache.maven.plugin.logging.Log;
+
+import ch.ledcom.maven.sitespeed.archive.ResponseArchive;
+
+import com.google.common.base.Strings;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+/**
+ * Points each analysis to a {@link RecordingProxy} dedicated to that
+ * analysis, when HAR files are recorded or when the {@link ResponseArchive}
+ * is enabled. The proxy configured for the analysis, if any, is used by the
+ * recording proxy instead.
+ *
+ * HAR files are written in the <code>har</code> directory of the output
+ * directory.
+ *
+ * @author gehel
+ */
+public class HarRecorder {
+
+    public static final String DIRECTORY = "har";
+
+    private static final int DEFAULT_PROXY_PORT = 8080;
+
+    private final boolean recordHar;
+    private final ResponseArchive archive;
+    private final File directory;
+    private final Proxy upstream;
+    private final Log log;
+
+    @Inject
+    public HarRecorder(@Named(RECORD_HAR) boolean recordHar,
+            ResponseArchive archive, @Named(OUTPUT_DIR) File outputDir,
+            @Named(PROXY_HOST) @Nullable String proxyHost,
+            @Named(PROXY_TYPE) @Nullable String proxyType, Log log) {
+        this.recordHar = recordHar;
+        this.archive = archive;
+        this.directory = new File(outputDir, DIRECTORY);
+        this.upstream = upstream(proxyHost, proxyType);
+        this.log = log;
+    }
+
+    public boolean isEnabled() {
+        return recordHar || archive.isEnabled();
+    }
+
+    /**
+     * Start recording the analysis of a page.
+     */
+    public Recording start(URL page) throws IOException {
+        HarWriter har = null;
+        String path = null;
+        if (recordHar) {
+            if (!directory.exists()) {
+                directory.mkdirs();
+            }
+            String prefix = page.getHost()
+                    + page.getPath().replace('/', '.') + "-";
+            File file = File.createTempFile(prefix, ".har", directory);
+            har = new HarWriter(file, page.toExternalForm(),
+                    System.currentTimeMillis());
+            path = DIRECTORY + "/" + file.getName();
+        }
+        RecordingProxy proxy = new RecordingProxy(har, archive, upstream, log);
+        try {
+            proxy.start();
+        } catch (IOException e) {
+            if (har != null) {
+                har.close();
+            }
+            throw e;
+        }
+        return new Recording(proxy, har, path);
+    }
+
+    /**
+     * PhantomJS proxy types are http, socks5 and none.
+     */
+    private static Proxy upstream(@Nullable String proxyHost,
+            @Nullable String proxyType) {
+        if (Strings.isNullOrEmpty(proxyHost) || "none".equals(proxyType)) {
+            return Proxy.NO_PROXY;
+        }
+        int colon = proxyHost.lastIndexOf(':');
+        String host = colon > 0 ? proxyHost.substring(0, colon) : proxyHost;
+        int port = colon > 0 ? Integer.parseInt(proxyHost
+                .substring(colon + 1)) : DEFAULT_PROXY_PORT;
+        return new Proxy("socks5".equals(proxyType) ? Proxy.Type.SOCKS
+                : Proxy.Type.HTTP, new InetSocketAddress(host, port));
+    }
+
+    public static final class Recording implements Closeable {
+        private final RecordingProxy proxy;
+        @Nullable
+        private final HarWriter har;
+        @Nullable
+        private final String path;
+
+        private Recording(RecordingProxy proxy, @Nullable HarWriter har,
+                @Nullable String path) {
+            this.proxy = proxy;
+            this.har = har;
+            this.path = path;
+        }
+
+        /**
+         * Address of the recording proxy, as <code>host:port</code>.
+         */
+        public String proxyAddress() {
+            return proxy.address();
+        }
+
+        /**
+         * Path of the HAR file, relative to the output directory.
+         *
+         * @return the path or <code>null</code> if no HAR file is recorded
+         */
+        @Nullable
+        public String path() {
+            return path;
+        }
+
+        /**
+         * Stop the proxy and complete the HAR file.
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                proxy.close();
+            } finally {
+                if (har != null) {
+                    har.close();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.har;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLDecoder;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Map;
+import java.util.TimeZone;
+
+import ch.ledcom.maven.sitespeed.utils.JsonWriter;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
+
+/**
+ * Writes a HAR 1.2 file for one page. Entries are streamed to the file as
+ * they are recorded, so the archive is never held in memory.
+ *
+ * @author gehel
+ */
+public class HarWriter implements Closeable {
+
+    static final String PAGE_ID = "page_1";
+
+    private final JsonWriter json;
+    private final SimpleDateFormat dates;
+
+    public HarWriter(File file, String pageUrl, long started)
+            throws IOException {
+        dates = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+        dates.setTimeZone(TimeZone.getTimeZone("UTC"));
+        json = new JsonWriter(new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(file), Charsets.UTF_8)));
+        String version = HarWriter.class.getPackage()
+                .getImplementationVersion();
+        json.beginObject().name("log").beginObject();
+        json.name("version").value("1.2");
+        json.name("creator").beginObject() //
+                .name("name").value("sitespeed-maven-plugin") //
+                .name("version").value(Strings.nullToEmpty(version)) //
+                .endObject();
+        json.name("pages").beginArray().beginObject() //
+                .name("startedDateTime")
+                .value(dates.format(new Date(started))) //
+                .name("id").value(PAGE_ID) //
+                .name("title").value(pageUrl) //
+                .name("pageTimings").beginObject() //
+                .name("onContentLoad").value(-1) //
+                .name("onLoad").value(-1) //
+                .endObject() //
+                .endObject().endArray();
+        json.name("entries").beginArray();
+    }
+
+    synchronized void write(HarEntry entry) throws IOException {
+        json.beginObject();
+        json.name("pageref").value(PAGE_ID);
+        json.name("startedDateTime").value(
+                dates.format(new Date(entry.started)));
+        json.name("time").value(entry.time());
+        if (entry.comment != null) {
+            json.name("comment").value(entry.comment);
+        }
+        if (entry.error != null) {
+            json.name("_error").value(entry.error);
+        }
+
+        json.name("request").beginObject();
+        json.name("method").value(entry.method);
+        json.name("url").value(entry.url);
+        json.name("httpVersion").value(entry.httpVersion);
+        json.name("cookies").beginArray().endArray();
+        writeHeaders(entry.requestHeaders.entries());
+        writeQueryString(entry.url);
+        json.name("headersSize").value(entry.requestHeadersSize);
+        json.name("bodySize").value(entry.requestBodySize);
+        json.endObject();
+
+        json.name("response").beginObject();
+        json.name("status").value(entry.status);
+        json.name("statusText").value(entry.statusText);
+        json.name("httpVersion").value(entry.responseHttpVersion);
+        json.name("cookies").beginArray().endArray();
+        writeHeaders(entry.responseHeaders.entries());
+        json.name("content").beginObject() //
+                .name("size").value(Math.max(0, entry.responseBodySize)) //
+                .name("mimeType").value(header(entry, "Content-Type")) //
+                .endObject();
+        json.name("redirectURL").value(header(entry, "Location"));
+        json.name("headersSize").value(entry.responseHeadersSize);
+        json.name("bodySize").value(entry.responseBodySize);
+        json.endObject();
+
+        json.name("cache").beginObject().endObject();
+        json.name("timings").beginObject() //
+                .name("blocked").value(-1) //
+                .name("dns").value(entry.dns) //
+                .name("connect").value(entry.connect) //
+                .name("send").value(entry.send) //
+                .name("wait").value(entry.wait) //
+                .name("receive").value(entry.receive) //
+                .name("ssl").value(-1) //
+                .endObject();
+        json.endObject();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        json.endArray().endObject().endObject();
+        json.close();
+    }
+
+    private void writeHeaders(Iterable<Map.Entry<String, String>> headers)
+            throws IOException {
+        json.name("headers").beginArray();
+        for (Map.Entry<String, String> header : headers) {
+            json.beginObject() //
+                    .name("name").value(header.getKey()) //
+                    .name("value").value(header.getValue()) //
+                    .endObject();
+        }
+        json.endArray();
+    }
+
+    private void writeQueryString(String url) throws IOException {
+        json.name("queryString").beginArray();
+        String query = null;
+        try {
+            query = new URI(url).getRawQuery();
+        } catch (URISyntaxException e) {
+            // no query string then
+        }
+        if (query != null) {
+            for (String parameter : Splitter.on('&').omitEmptyStrings()
+                    .split(query)) {
+                int equals = parameter.indexOf('=');
+                String name = equals < 0 ? parameter : parameter.substring(0,
+                        equals);
+                String value = equals < 0 ? "" : parameter
+                        .substring(equals + 1);
+                json.beginObject() //
+                        .name("name").value(decode(name)) //
+                        .name("value").value(decode(value)) //
+                        .endObject();
+            }
+        }
+        json.endArray();
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, Charsets.UTF_8.name());
+        } catch (IllegalArgumentException e) {
+            return value;
+        } catch (UnsupportedEncodingException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static String header(HarEntry entry, String name) {
+        for (Map.Entry<String, String> header : entry.responseHeaders
+                .entries()) {
+            if (header.getKey().equalsIgnoreCase(name)) {
+                return header.getValue();
+            }
+        }
+        return "";
+    }
+}
@@ -0,0 +1,718 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.har;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import org.apache.commons.io.output.TeeOutputStream;
+import org.apache.maven.plugin.logging.Log;
+
+import ch.ledcom.maven.sitespeed.archive.ArchivedResponse;
+import ch.ledcom.maven.sitespeed.archive.ResponseArchive;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.LinkedListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * HTTP proxy recording every request of a browser into a {@link HarWriter}.
+ *
+ * Each client connection carries a single request: the proxy asks both sides
+ * to close the connection after the response, so requests never wait for
+ * each other and each one can be timed on its own. HTTPS requests go through
+ * a CONNECT tunnel, of which only the connection time and the bytes sent
+ * each way are visible.
+ *
+ * Closing every connection disables keep-alive for the browser: each request
+ * pays for a new connection, and the page loads slower than it would without
+ * the proxy. Timings measured through this proxy must only be compared to
+ * other timings measured through it.
+ *
+ * The proxy listens on the loopback interface only and can itself go
+ * through an upstream HTTP or SOCKS proxy.
+ *
+ * Responses can also be stored in a {@link ResponseArchive} and later served
+ * from it, without reaching the sites at all. As TLS is not intercepted,
+ * HTTPS responses cannot be archived, and are refused when replaying.
+ *
+ * @author gehel
+ */
+public class RecordingProxy implements Closeable {
+
+    private static final int MAX_HEAD_SIZE = 64 * 1024;
+    private static final int BUFFER_SIZE = 8192;
+    private static final int SOCKET_TIMEOUT_MS = 60000;
+    private static final long CLOSE_TIMEOUT_S = 5;
+    private static final double NANOS_PER_MS = 1e6;
+
+    /** Headers concerning a single connection, never forwarded. */
+    private static final Set<String> HOP_BY_HOP = new HashSet<String>(
+            ImmutableList.of("connection", "keep-alive", "proxy-connection",
+                    "te", "trailer", "upgrade"));
+
+    @Nullable
+    private final HarWriter har;
+    private final ResponseArchive archive;
+    private final Proxy upstream;
+    private final Log log;
+    private final Set<Socket> openSockets = new HashSet<Socket>();
+
+    private ServerSocket server;
+    private ExecutorService connections;
+
+    /**
+     * @param har
+     *            where requests are recorded, <code>null</code> to not record
+     *            them
+     * @param archive
+     *            records responses or serves them instead of the sites
+     * @param upstream
+     *            proxy used to reach the sites, {@link Proxy#NO_PROXY} to
+     *            connect directly
+     */
+    public RecordingProxy(@Nullable HarWriter har, ResponseArchive archive,
+            Proxy upstream, Log log) {
+        this.har = har;
+        this.archive = archive;
+        this.upstream = upstream;
+        this.log = log;
+    }
+
+    public void start() throws IOException {
+        server = new ServerSocket(0, 50, InetAddress.getByName(null));
+        connections = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setDaemon(true).setNameFormat("sitespeed-proxy-%d").build());
+        connections.execute(new Runnable() {
+            @Override
+            public void run() {
+                accept();
+            }
+        });
+    }
+
+    /**
+     * Address of the proxy, as <code>host:port</code>.
+     */
+    public String address() {
+        return server.getInetAddress().getHostAddress() + ":"
+                + server.getLocalPort();
+    }
+
+    /**
+     * Stop accepting requests and wait a bit for the requests in progress,
+     * so that they are recorded.
+     */
+    @Override
+    public void close() throws IOException {
+        if (server == null) {
+            return;
+        }
+        server.close();
+        connections.shutdown();
+        try {
+            connections.awaitTermination(CLOSE_TIMEOUT_S, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (openSockets) {
+            for (Socket socket : openSockets) {
+                closeQuietly(socket);
+            }
+        }
+        connections.shutdownNow();
+    }
+
+    private void accept() {
+        while (true) {
+            final Socket client;
+            try {
+                client = server.accept();
+            } catch (IOException e) {
+                // server socket closed
+                return;
+            }
+            opened(client);
+            connections.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        handle(client);
+                    } finally {
+                        closed(client);
+                    }
+                }
+            });
+        }
+    }
+
+    private void handle(Socket client) {
+        HarEntry entry = new HarEntry();
+        entry.started = System.currentTimeMillis();
+        try {
+            client.setSoTimeout(SOCKET_TIMEOUT_MS);
+            InputStream in = new BufferedInputStream(client.getInputStream());
+            OutputStream out = client.getOutputStream();
+            Head request = Head.read(in);
+            if (request == null) {
+                return;
+            }
+            entry.method = request.first;
+            entry.httpVersion = request.third;
+            entry.requestHeaders.putAll(request.headers);
+            entry.requestHeadersSize = request.size;
+            if ("CONNECT".equalsIgnoreCase(request.first)) {
+                tunnel(request, client, in, out, entry);
+            } else {
+                forward(request, in, out, entry);
+            }
+        } catch (IOException e) {
+            log.debug("Proxied request failed", e);
+            if (entry.method != null && entry.error == null) {
+                entry.error = e.toString();
+                record(entry);
+            }
+        }
+    }
+
+    private void forward(Head request, InputStream clientIn,
+            OutputStream clientOut, HarEntry entry) throws IOException {
+        entry.url = request.second;
+        URI uri;
+        try {
+            uri = URI.create(request.second);
+        } catch (IllegalArgumentException e) {
+            uri = null;
+        }
+        if (uri == null || !"http".equalsIgnoreCase(uri.getScheme())
+                || uri.getHost() == null) {
+            reply(clientOut, 400, "Bad Request", entry);
+            return;
+        }
+        if (archive.isReplaying()) {
+            replay(request, clientIn, clientOut, entry);
+            return;
+        }
+        int port = uri.getPort() < 0 ? 80 : uri.getPort();
+        boolean viaHttpProxy = upstream.type() == Proxy.Type.HTTP;
+
+        Socket server = connect(uri.getHost(), port, entry, clientOut);
+        if (server == null) {
+            return;
+        }
+        try {
+            // send
+            long start = System.nanoTime();
+            OutputStream serverOut = server.getOutputStream();
+            StringBuilder head = new StringBuilder();
+            head.append(request.first).append(' ');
+            head.append(viaHttpProxy ? request.second : originForm(uri));
+            head.append(' ').append(request.third).append("\r\n");
+            appendHeaders(head, request.headers);
+            head.append("Connection: close\r\n\r\n");
+            serverOut.write(head.toString().getBytes(Charsets.ISO_8859_1));
+            String length = request.header("Content-Length");
+            entry.requestBodySize = length == null ? 0 : copy(clientIn,
+                    serverOut, parseLength(length));
+            serverOut.flush();
+            long sent = System.nanoTime();
+            entry.send = (sent - start) / NANOS_PER_MS;
+
+            // wait
+            InputStream serverIn = new BufferedInputStream(
+                    server.getInputStream());
+            Head response = Head.read(serverIn);
+            if (response == null) {
+                throw new IOException("No response from [" + uri.getHost()
+                        + "]");
+            }
+            long received = System.nanoTime();
+            entry.wait = (received - sent) / NANOS_PER_MS;
+            readResponse(response, entry);
+
+            // receive
+            StringBuilder responseHead = new StringBuilder();
+            responseHead.append(response.first).append(' ')
+                    .append(response.second).append(' ')
+                    .append(response.third).append("\r\n");
+            appendHeaders(responseHead, response.headers);
+            String archivedHead = responseHead.toString();
+            responseHead.append("Connection: close\r\n\r\n");
+            clientOut.write(responseHead.toString()
+                    .getBytes(Charsets.ISO_8859_1));
+            ByteArrayOutputStream body = archive.isRecording()
+                    ? new ByteArrayOutputStream() : null;
+            entry.responseBodySize = copy(serverIn, body == null ? clientOut
+                    : new TeeOutputStream(clientOut, body), bodyLength(
+                    request.first, entry.status, response));
+            clientOut.flush();
+            entry.receive = (System.nanoTime() - received) / NANOS_PER_MS;
+            if (body != null) {
+                archive.record(request.first, request.second, archivedHead,
+                        body.toByteArray());
+            }
+            record(entry);
+        } finally {
+            closed(server);
+        }
+    }
+
+    /**
+     * Serve a request from the archive.
+     */
+    private void replay(Head request, InputStream clientIn,
+            OutputStream clientOut, HarEntry entry) throws IOException {
+        long start = System.nanoTime();
+        String length = request.header("Content-Length");
+        entry.requestBodySize = length == null ? 0 : copy(clientIn,
+                ByteStreams.nullOutputStream(), parseLength(length));
+        ArchivedResponse archived = archive.lookup(request.first,
+                request.second);
+        if (archived == null) {
+            entry.error = "Not in archive";
+            reply(clientOut, 504, "Not In Archive", entry);
+            return;
+        }
+        Head response = Head.read(new ByteArrayInputStream((archived.head()
+                + "\r\n").getBytes(Charsets.ISO_8859_1)));
+        readResponse(response, entry);
+        long found = System.nanoTime();
+        entry.wait = (found - start) / NANOS_PER_MS;
+        clientOut.write((archived.head() + "Connection: close\r\n\r\n")
+                .getBytes(Charsets.ISO_8859_1));
+        clientOut.write(archived.body());
+        clientOut.flush();
+        entry.responseBodySize = archived.body().length;
+        entry.receive = (System.nanoTime() - found) / NANOS_PER_MS;
+        entry.comment = "Replayed from archive";
+        record(entry);
+    }
+
+    private void tunnel(Head request, Socket client, InputStream clientIn,
+            OutputStream clientOut, HarEntry entry) throws IOException {
+        int colon = request.second.lastIndexOf(':');
+        String host = colon > 0 ? request.second.substring(0, colon)
+                : request.second;
+        int port;
+        try {
+            port = colon > 0 ? Integer.parseInt(request.second
+                    .substring(colon + 1)) : 443;
+        } catch (NumberFormatException e) {
+            entry.url = request.second;
+            reply(clientOut, 400, "Bad Request", entry);
+            return;
+        }
+        entry.url = "https://" + host + (port == 443 ? "" : ":" + port) + "/";
+        entry.comment = "HTTPS tunnel, individual requests are not visible";
+        if (archive.isReplaying()) {
+            entry.error = "HTTPS cannot be replayed";
+            reply(clientOut, 502, "HTTPS Cannot Be Replayed", entry);
+            return;
+        }
+        Socket server = connect(host, port, entry, clientOut);
+        if (server == null) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            final InputStream serverIn = new BufferedInputStream(
+                    server.getInputStream());
+            final OutputStream serverOut = server.getOutputStream();
+            if (upstream.type() == Proxy.Type.HTTP) {
+                StringBuilder head = new StringBuilder();
+                head.append("CONNECT ").append(request.second)
+                        .append(" HTTP/1.1\r\n");
+                appendHeaders(head, request.headers);
+                head.append("\r\n");
+                serverOut.write(head.toString().getBytes(Charsets.ISO_8859_1));
+                serverOut.flush();
+                Head response = Head.read(serverIn);
+                if (response == null) {
+                    throw new IOException("No response from upstream proxy");
+                }
+                readResponse(response, entry);
+                if (entry.status != 200) {
+                    reply(clientOut, entry.status, entry.statusText, entry);
+                    return;
+                }
+            } else {
+                entry.status = 200;
+                entry.statusText = "Connection established";
+            }
+            clientOut.write(("HTTP/1.1 200 Connection established\r\n\r\n")
+                    .getBytes(Charsets.ISO_8859_1));
+            clientOut.flush();
+            entry.wait = (System.nanoTime() - start) / NANOS_PER_MS;
+
+            long started = System.nanoTime();
+            Relay upload = new Relay(clientIn, serverOut, server);
+            connections.execute(upload);
+            try {
+                entry.responseBodySize = copy(serverIn, clientOut, -1);
+            } finally {
+                // the tunnel ends with the server side, which also ends
+                // the upload
+                closeQuietly(client);
+            }
+            entry.requestBodySize = upload.await();
+            entry.receive = (System.nanoTime() - started) / NANOS_PER_MS;
+            record(entry);
+        } finally {
+            closed(server);
+        }
+    }
+
+    /**
+     * Open a connection to a site, directly or through the upstream proxy.
+     * Replies with an error to the client if the connection fails.
+     *
+     * @return the connection or <code>null</code> if it failed
+     */
+    private Socket connect(String host, int port, HarEntry entry,
+            OutputStream clientOut) throws IOException {
+        Socket socket = null;
+        try {
+            InetSocketAddress address;
+            if (upstream.type() == Proxy.Type.DIRECT) {
+                long start = System.nanoTime();
+                address = new InetSocketAddress(InetAddress.getByName(host),
+                        port);
+                entry.dns = (System.nanoTime() - start) / NANOS_PER_MS;
+                socket = new Socket();
+            } else if (upstream.type() == Proxy.Type.HTTP) {
+                address = (InetSocketAddress) upstream.address();
+                socket = new Socket();
+            } else {
+                // the SOCKS proxy resolves the host
+                address = InetSocketAddress.createUnresolved(host, port);
+                socket = new Socket(upstream);
+            }
+            opened(socket);
+            long start = System.nanoTime();
+            socket.connect(address, SOCKET_TIMEOUT_MS);
+            socket.setSoTimeout(SOCKET_TIMEOUT_MS);
+            entry.connect = (System.nanoTime() - start) / NANOS_PER_MS;
+            return socket;
+        } catch (IOException e) {
+            if (socket != null) {
+                closed(socket);
+            }
+            entry.error = e.toString();
+            reply(clientOut, 502, "Bad Gateway", entry);
+            return null;
+        }
+    }
+
+    private void readResponse(Head response, HarEntry entry) {
+        entry.responseHttpVersion = response.first;
+        try {
+            entry.status = Integer.parseInt(response.second);
+        } catch (NumberFormatException e) {
+            entry.status = 0;
+        }
+        entry.statusText = response.third;
+        entry.responseHeaders.putAll(response.headers);
+        entry.responseHeadersSize = response.size;
+    }
+
+    /**
+     * Answer the client directly, when the request could not be forwarded.
+     */
+    private void reply(OutputStream clientOut, int status, String reason,
+            HarEntry entry) throws IOException {
+        entry.status = 0;
+        entry.statusText = reason;
+        clientOut.write(("HTTP/1.1 " + status + " " + reason
+                + "\r\nContent-Length: 0\r\nConnection: close\r\n\r\n")
+                .getBytes(Charsets.ISO_8859_1));
+        clientOut.flush();
+        record(entry);
+    }
+
+    private void record(HarEntry entry) {
+        if (har == null) {
+            return;
+        }
+        try {
+            har.write(entry);
+        } catch (IOException e) {
+            log.warn("Could not record request to [" + entry.url + "]", e);
+        }
+    }
+
+    /**
+     * Length of the response body, -1 if it ends with the connection.
+     */
+    private static long bodyLength(String method, int status, Head response)
+            throws IOException {
+        if ("HEAD".equalsIgnoreCase(method) || status / 100 == 1
+                || status == 204 || status == 304) {
+            return 0;
+        }
+        String chunked = response.header("Transfer-Encoding");
+        String length = response.header("Content-Length");
+        if (chunked != null || length == null) {
+            // the server closes the connection after the response
+            return -1;
+        }
+        return parseLength(length);
+    }
+
+    private static long parseLength(String length) throws IOException {
+        try {
+            return Long.parseLong(length.trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid Content-Length [" + length + "]");
+        }
+    }
+
+    private static String originForm(URI uri) {
+        String path = uri.getRawPath();
+        if (path == null || path.isEmpty()) {
+            path = "/";
+        }
+        return uri.getRawQuery() == null ? path : path + "?"
+                + uri.getRawQuery();
+    }
+
+    private static void appendHeaders(StringBuilder head,
+            ListMultimap<String, String> headers) {
+        for (Map.Entry<String, String> header : headers.entries()) {
+            if (!HOP_BY_HOP.contains(header.getKey().toLowerCase())) {
+                head.append(header.getKey()).append(": ")
+                        .append(header.getValue()).append("\r\n");
+            }
+        }
+    }
+
+    /**
+     * Copy <code>limit</code> bytes, or until the end of the stream if
+     * <code>limit</code> is negative.
+     *
+     * @return the number of bytes copied
+     */
+    private static long copy(InputStream in, OutputStream out, long limit)
+            throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long copied = 0;
+        while (limit < 0 || copied < limit) {
+            int max = limit < 0 ? buffer.length : (int) Math.min(
+                    buffer.length, limit - copied);
+            int read = in.read(buffer, 0, max);
+            if (read < 0) {
+                break;
+            }
+            out.write(buffer, 0, read);
+            out.flush();
+            copied += read;
+        }
+        return copied;
+    }
+
+    private void opened(Socket socket) {
+        synchronized (openSockets) {
+            openSockets.add(socket);
+        }
+    }
+
+    private void closed(Socket socket) {
+        synchronized (openSockets) {
+            openSockets.remove(socket);
+        }
+        closeQuietly(socket);
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // nothing we can do
+        }
+    }
+
+    private static void shutdownOutput(Socket socket) {
+        try {
+            socket.shutdownOutput();
+        } catch (IOException e) {
+            // already closed
+        }
+    }
+
+    /**
+     * Copies the client side of a tunnel to the server.
+     */
+    private static final class Relay implements Runnable {
+        private final InputStream in;
+        private final OutputStream out;
+        private final Socket server;
+        private long copied;
+        private boolean done;
+
+        private Relay(InputStream in, OutputStream out, Socket server) {
+            this.in = in;
+            this.out = out;
+            this.server = server;
+        }
+
+        @Override
+        public void run() {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try {
+                int read;
+                while ((read = in.read(buffer)) >= 0) {
+                    out.write(buffer, 0, read);
+                    out.flush();
+                    synchronized (this) {
+                        copied += read;
+                    }
+                }
+            } catch (IOException e) {
+                // one side closed the tunnel
+            } finally {
+                shutdownOutput(server);
+                synchronized (this) {
+                    done = true;
+                    notifyAll();
+                }
+            }
+        }
+
+        /**
+         * @return the number of bytes sent by the client
+         */
+        private synchronized long await() throws InterruptedIOException {
+            try {
+                while (!done) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            return copied;
+        }
+    }
+
+    /**
+     * Start line and headers of an HTTP request or response.
+     */
+    private static final class Head {
+        private final String first;
+        private final String second;
+        private final String third;
+        private final ListMultimap<String, String> headers = LinkedListMultimap
+                .create();
+        private long size;
+
+        private Head(String first, String second, String third) {
+            this.first = first;
+            this.second = second;
+            this.third = third;
+        }
+
+        /**
+         * @return the head or <code>null</code> if the stream ended before
+         *         a start line
+         */
+        private static Head read(InputStream in) throws IOException {
+            Head head = null;
+            long size = 0;
+            while (true) {
+                String line = readLine(in, MAX_HEAD_SIZE - size);
+                if (line == null) {
+                    if (head == null) {
+                        return null;
+                    }
+                    throw new EOFException("Truncated HTTP head");
+                }
+                size += line.length() + 2;
+                if (head == null) {
+                    if (line.isEmpty()) {
+                        // tolerate empty lines before the start line
+                        continue;
+                    }
+                    List<String> parts = ImmutableList.copyOf(Splitter
+                            .on(' ').limit(3).split(line));
+                    head = new Head(parts.get(0), parts.size() > 1 ? parts
+                            .get(1) : "", parts.size() > 2 ? parts.get(2)
+                            : "");
+                } else if (line.isEmpty()) {
+                    head.size = size;
+                    return head;
+                } else {
+                    int colon = line.indexOf(':');
+                    if (colon > 0) {
+                        head.headers.put(line.substring(0, colon).trim(),
+                                line.substring(colon + 1).trim());
+                    }
+                }
+            }
+        }
+
+        private static String readLine(InputStream in, long max)
+                throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int c;
+            while ((c = in.read()) >= 0) {
+                if (c == '\n') {
+                    byte[] bytes = line.toByteArray();
+                    int length = bytes.length > 0
+                            && bytes[bytes.length - 1] == '\r' ? bytes.length - 1
+                            : bytes.length;
+                    return new String(bytes, 0, length, Charsets.ISO_8859_1);
+                }
+                line.write(c);
+                if (line.size() > max) {
+                    throw new IOException("HTTP head too large");
+                }
+            }
+            return null;
+        }
+
+        private String header(String name) {
+            for (Map.Entry<String, String> header : headers.entries()) {
+                if (header.getKey().equalsIgnoreCase(name)) {
+                    return header.getValue();
+                }
+            }
+            return null;
+        }
+    }
+}
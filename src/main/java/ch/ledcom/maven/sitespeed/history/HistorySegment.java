@@ -0,0 +1,195 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.history;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Closeables;
+
+/**
+ * The history of one run: a URL dictionary and one column of integers per
+ * {@link Metric}, the value of page <code>i</code> being the
+ * <code>i</code>-th value of each column.
+ *
+ * A segment is a single file: the magic, the URL dictionary (length and
+ * UTF-8 bytes of each URL), the columns one after the other, an index of
+ * (column name, offset) pairs and a footer locating the index. Segments are
+ * memory-mapped when read, so reading a column only touches the pages of
+ * the file holding that column.
+ *
+ * @author gehel
+ */
+public final class HistorySegment {
+
+    /** Value of a metric that was not measured. */
+    public static final int MISSING = Integer.MIN_VALUE;
+
+    private static final byte[] MAGIC = "SSHIST01".getBytes(Charsets.US_ASCII);
+    private static final int FOOTER_SIZE = 8 + 4 + 4 + 8 + MAGIC.length;
+
+    private final File file;
+    private final MappedByteBuffer mapped;
+    private final long timestamp;
+    private final int pages;
+    private final Map<String, Integer> columns;
+
+    private HistorySegment(File file, MappedByteBuffer mapped, long timestamp,
+            int pages, Map<String, Integer> columns) {
+        this.file = file;
+        this.mapped = mapped;
+        this.timestamp = timestamp;
+        this.pages = pages;
+        this.columns = columns;
+    }
+
+    /**
+     * Write a segment. Columns are written in the order of the map.
+     *
+     * @param columns
+     *            values of each column, only the first <code>pages</code>
+     *            values are written
+     */
+    static void write(File file, long timestamp, List<String> urls,
+            Map<String, int[]> columns) throws IOException {
+        int pages = urls.size();
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(file)));
+        boolean threw = true;
+        try {
+            out.write(MAGIC);
+            for (String url : urls) {
+                byte[] bytes = url.getBytes(Charsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            Map<String, Integer> offsets = new HashMap<String, Integer>();
+            for (Map.Entry<String, int[]> column : columns.entrySet()) {
+                offsets.put(column.getKey(), out.size());
+                int[] values = column.getValue();
+                for (int i = 0; i < pages; i++) {
+                    out.writeInt(values[i]);
+                }
+            }
+            long indexOffset = out.size();
+            for (String column : columns.keySet()) {
+                out.writeUTF(column);
+                out.writeLong(offsets.get(column));
+            }
+            out.writeLong(timestamp);
+            out.writeInt(pages);
+            out.writeInt(columns.size());
+            out.writeLong(indexOffset);
+            out.write(MAGIC);
+            threw = false;
+        } finally {
+            Closeables.close(out, threw);
+        }
+    }
+
+    public static HistorySegment open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        MappedByteBuffer mapped;
+        try {
+            long length = raf.length();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("History segment ["
+                        + file.getAbsolutePath() + "] is too large");
+            }
+            if (length < MAGIC.length + FOOTER_SIZE) {
+                throw new IOException("History segment ["
+                        + file.getAbsolutePath() + "] is incomplete");
+            }
+            mapped = raf.getChannel().map(MapMode.READ_ONLY, 0, length);
+        } finally {
+            raf.close();
+        }
+        int footer = mapped.capacity() - FOOTER_SIZE;
+        byte[] magic = new byte[MAGIC.length];
+        ByteBuffer buffer = mapped.duplicate();
+        buffer.position(footer + FOOTER_SIZE - MAGIC.length);
+        buffer.get(magic);
+        if (!Arrays.equals(MAGIC, magic)) {
+            throw new IOException("History segment [" + file.getAbsolutePath()
+                    + "] is incomplete");
+        }
+        long timestamp = mapped.getLong(footer);
+        int pages = mapped.getInt(footer + 8);
+        int count = mapped.getInt(footer + 12);
+        buffer.position((int) mapped.getLong(footer + 16));
+        Map<String, Integer> columns = new HashMap<String, Integer>();
+        for (int i = 0; i < count; i++) {
+            byte[] name = new byte[buffer.getShort() & 0xffff];
+            buffer.get(name);
+            columns.put(new String(name, Charsets.UTF_8),
+                    (int) buffer.getLong());
+        }
+        return new HistorySegment(file, mapped, timestamp, pages, columns);
+    }
+
+    public File file() {
+        return file;
+    }
+
+    /** Start of the run, in milliseconds since the epoch. */
+    public long timestamp() {
+        return timestamp;
+    }
+
+    public int pages() {
+        return pages;
+    }
+
+    public List<String> urls() {
+        List<String> urls = new ArrayList<String>(pages);
+        ByteBuffer buffer = mapped.duplicate();
+        buffer.position(MAGIC.length);
+        for (int i = 0; i < pages; i++) {
+            byte[] url = new byte[buffer.getInt()];
+            buffer.get(url);
+            urls.add(new String(url, Charsets.UTF_8));
+        }
+        return urls;
+    }
+
+    /**
+     * The values of a column. Columns added after this segment was written
+     * only hold {@link #MISSING} values.
+     */
+    public int[] column(Metric metric) {
+        int[] values = new int[pages];
+        Integer offset = columns.get(metric.name());
+        if (offset == null) {
+            Arrays.fill(values, MISSING);
+            return values;
+        }
+        ByteBuffer buffer = mapped.duplicate();
+        buffer.position(offset);
+        buffer.asIntBuffer().get(values);
+        return values;
+    }
+}
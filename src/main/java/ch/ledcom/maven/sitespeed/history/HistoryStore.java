@@ -0,0 +1,141 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.history;
+
+import static ch.ledcom.maven.sitespeed.Configuration.HISTORY_DIR;
+import static ch.ledcom.maven.sitespeed.Configuration.RECORD_HISTORY;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+
+import ch.ledcom.maven.sitespeed.sink.ResultSink;
+
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+/**
+ * Append-only history of the metrics of each page, across runs.
+ *
+ * Each run adds one {@link HistorySegment} to the history directory, which
+ * should live outside of the build directory to survive
+ * <code>mvn clean</code>. Segments of previous runs are never modified. The
+ * metrics of the run are kept in memory as primitive columns, a few bytes
+ * per page, and written when the run completes.
+ *
+ * @author gehel
+ */
+public class HistoryStore implements ResultSink {
+
+    private static final String PREFIX = "run-";
+    private static final String SUFFIX = ".seg";
+    private static final Metric[] METRICS = Metric.values();
+
+    private final boolean enabled;
+    private final File directory;
+
+    private long timestamp;
+    private List<String> urls;
+    private int[][] columns;
+
+    @Inject
+    public HistoryStore(@Named(RECORD_HISTORY) boolean enabled,
+            @Named(HISTORY_DIR) File directory) {
+        this.enabled = enabled;
+        this.directory = directory;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void open(File outputDir) {
+        timestamp = System.currentTimeMillis();
+        urls = new ArrayList<String>();
+        columns = new int[METRICS.length][1024];
+    }
+
+    @Override
+    public void accept(URI uri, Document result) {
+        int page = urls.size();
+        if (page == columns[0].length) {
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = Arrays.copyOf(columns[i], page * 2);
+            }
+        }
+        Element root = result.getRootElement();
+        for (int i = 0; i < METRICS.length; i++) {
+            columns[i][page] = METRICS[i].read(root);
+        }
+        urls.add(uri.toString());
+    }
+
+    /**
+     * Write the segment of this run. Runs without any page leave no segment.
+     */
+    @Override
+    public void close() throws IOException {
+        if (urls == null || urls.isEmpty()) {
+            return;
+        }
+        if (!directory.exists()) {
+            directory.mkdirs();
+        }
+        Map<String, int[]> named = new LinkedHashMap<String, int[]>();
+        for (int i = 0; i < METRICS.length; i++) {
+            named.put(METRICS[i].name(), columns[i]);
+        }
+        File segment;
+        // segments are never overwritten
+        while ((segment = new File(directory, String.format(PREFIX + "%013d"
+                + SUFFIX, timestamp))).exists()) {
+            timestamp++;
+        }
+        File tmp = new File(directory, segment.getName() + ".tmp");
+        HistorySegment.write(tmp, timestamp, urls, named);
+        if (!tmp.renameTo(segment)) {
+            throw new IOException("Could not move history segment ["
+                    + tmp.getAbsolutePath() + "]");
+        }
+        urls = null;
+        columns = null;
+    }
+
+    /**
+     * The segments of a history directory, oldest first.
+     */
+    public static List<File> segments(File directory) {
+        File[] files = directory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }
+        });
+        if (files == null) {
+            return new ArrayList<File>();
+        }
+        Arrays.sort(files);
+        return Arrays.asList(files);
+    }
+}
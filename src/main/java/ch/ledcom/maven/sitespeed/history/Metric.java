@@ -0,0 +1,64 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.history;
+
+import org.jdom2.Element;
+
+/**
+ * The page metrics kept in the history, each stored as its own column.
+ *
+ * @author gehel
+ */
+public enum Metric {
+
+    /** Overall score of the page. */
+    SCORE("o", false),
+
+    /** Load time, in milliseconds. */
+    LOAD_TIME("lt", false),
+
+    /** Number of requests. */
+    REQUESTS("r", false),
+
+    /** Page weight, in bytes. */
+    WEIGHT("w", false),
+
+    /** Time to first byte, in milliseconds. */
+    TTFB("ttfb", true);
+
+    private final String name;
+    private final boolean attribute;
+
+    private Metric(String name, boolean attribute) {
+        this.name = name;
+        this.attribute = attribute;
+    }
+
+    /**
+     * @return the value of this metric in an analysis result, or
+     *         {@link HistorySegment#MISSING}
+     */
+    public int read(Element results) {
+        String value = attribute ? results.getAttributeValue(name) : results
+                .getChildText(name);
+        if (value == null) {
+            return HistorySegment.MISSING;
+        }
+        try {
+            return (int) Math.round(Double.parseDouble(value.trim()));
+        } catch (NumberFormatException e) {
+            return HistorySegment.MISSING;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.history;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Metrics of the pages of a site over several runs, read from the history.
+ *
+ * Only the columns of {@link #METRICS} are read from each segment.
+ *
+ * @author gehel
+ */
+public final class Trend {
+
+    public static final Metric[] METRICS = { Metric.SCORE, Metric.LOAD_TIME,
+            Metric.REQUESTS, Metric.WEIGHT };
+
+    private final long[] timestamps;
+    private final int[] pages;
+    /** Sum and count of the values of each metric, by run. */
+    private final long[][] sums;
+    private final int[][] counts;
+    /** Values of each metric, by run, for each URL. */
+    private final Map<String, int[][]> urls = new LinkedHashMap<String, int[][]>();
+
+    private Trend(int runs) {
+        timestamps = new long[runs];
+        pages = new int[runs];
+        sums = new long[METRICS.length][runs];
+        counts = new int[METRICS.length][runs];
+    }
+
+    /**
+     * Read the trend of a list of segments, oldest first.
+     */
+    public static Trend read(List<HistorySegment> segments) {
+        Trend trend = new Trend(segments.size());
+        for (int run = 0; run < segments.size(); run++) {
+            trend.add(run, segments.get(run));
+        }
+        return trend;
+    }
+
+    private void add(int run, HistorySegment segment) {
+        timestamps[run] = segment.timestamp();
+        pages[run] = segment.pages();
+        List<String> names = segment.urls();
+        for (int m = 0; m < METRICS.length; m++) {
+            int[] values = segment.column(METRICS[m]);
+            for (int page = 0; page < values.length; page++) {
+                int value = values[page];
+                if (value == HistorySegment.MISSING) {
+                    continue;
+                }
+                sums[m][run] += value;
+                counts[m][run]++;
+                series(names.get(page))[m][run] = value;
+            }
+        }
+    }
+
+    private int[][] series(String url) {
+        int[][] series = urls.get(url);
+        if (series == null) {
+            series = new int[METRICS.length][timestamps.length];
+            for (int[] values : series) {
+                Arrays.fill(values, HistorySegment.MISSING);
+            }
+            urls.put(url, series);
+        }
+        return series;
+    }
+
+    public int runs() {
+        return timestamps.length;
+    }
+
+    public long timestamp(int run) {
+        return timestamps[run];
+    }
+
+    public int pages(int run) {
+        return pages[run];
+    }
+
+    /**
+     * Average of a metric over the pages of a run, or
+     * {@link HistorySegment#MISSING}.
+     */
+    public int average(Metric metric, int run) {
+        int m = index(metric);
+        return counts[m][run] == 0 ? HistorySegment.MISSING
+                : (int) (sums[m][run] / counts[m][run]);
+    }
+
+    public Set<String> urls() {
+        return urls.keySet();
+    }
+
+    /**
+     * Values of a metric for a URL, by run, {@link HistorySegment#MISSING}
+     * where the URL was not analyzed.
+     */
+    public int[] series(String url, Metric metric) {
+        return urls.get(url)[index(metric)];
+    }
+
+    private static int index(Metric metric) {
+        for (int m = 0; m < METRICS.length; m++) {
+            if (METRICS[m] == metric) {
+                return m;
+            }
+        }
+        throw new IllegalArgumentException("Metric [" + metric
+                + "] is not part of the trend");
+    }
+}
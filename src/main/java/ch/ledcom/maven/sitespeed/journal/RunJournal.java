@@ -0,0 +1,264 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.journal;
+
+import static ch.ledcom.maven.sitespeed.Configuration.OUTPUT_DIR;
+import static ch.ledcom.maven.sitespeed.Configuration.RESUME;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Closeables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+/**
+ * Write-ahead journal of the pages completed during a run.
+ *
+ * Each line records how long the analysis of a page took, where its report
+ * was written and its URI. Appends only go to a buffer, which is flushed and
+ * synced to disk in batches by a background thread, so journaling does not
+ * slow down the analysis. A crash loses at most the last
+ * {@link #SYNC_INTERVAL_MS} milliseconds of entries, which are simply analyzed
+ * again on resume.
+ *
+ * The journal of the previous run is also used to estimate how long each page
+ * takes to analyze.
+ *
+ * @author gehel
+ */
+public class RunJournal implements Closeable {
+
+    public static final String FILENAME = "sitespeed.journal";
+    public static final long SYNC_INTERVAL_MS = 1000;
+
+    private static final char SEPARATOR = '\t';
+    private static final Splitter SPLITTER = Splitter.on(SEPARATOR).limit(3);
+
+    private final File file;
+    private final boolean resume;
+
+    private Map<String, Long> previousDurations = ImmutableMap.of();
+    private Map<String, Long> completed = ImmutableMap.of();
+
+    private FileOutputStream stream;
+    private Writer out;
+    private boolean dirty;
+    private ScheduledExecutorService syncService;
+
+    @Inject
+    public RunJournal(@Named(OUTPUT_DIR) File outputDir,
+            @Named(RESUME) boolean resume) {
+        this.file = new File(outputDir, FILENAME);
+        this.resume = resume;
+    }
+
+    /**
+     * Load the journal of the previous run and start a new one. When resuming,
+     * the new journal continues the previous one.
+     */
+    public synchronized void open() throws IOException {
+        previousDurations = load();
+        completed = resume ? previousDurations : ImmutableMap
+                .<String, Long> of();
+        if (!file.getParentFile().exists()) {
+            file.getParentFile().mkdirs();
+        }
+        stream = new FileOutputStream(file, resume);
+        out = new BufferedWriter(new OutputStreamWriter(stream,
+                Charsets.UTF_8));
+        if (resume && endsWithTruncatedEntry()) {
+            out.write('\n');
+        }
+        syncService = Executors
+                .newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                        .setDaemon(true).setNameFormat("sitespeed-journal-%d")
+                        .build());
+        syncService.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    sync();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }, SYNC_INTERVAL_MS, SYNC_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Has this page been completed by the run being resumed ?
+     */
+    public boolean isCompleted(URI uri) {
+        return completed.containsKey(uri.toString());
+    }
+
+    /**
+     * How long the analysis of this page took during the previous run.
+     *
+     * @return the duration in milliseconds or <code>null</code> if unknown
+     */
+    @Nullable
+    public Long previousDuration(URI uri) {
+        return previousDurations.get(uri.toString());
+    }
+
+    public Map<String, Long> previousDurations() {
+        return previousDurations;
+    }
+
+    /**
+     * Record that a page has been analyzed and reported.
+     *
+     * @param uri
+     *            the page
+     * @param report
+     *            the report file, relative to the output directory
+     * @param durationMs
+     *            how long the analysis took
+     */
+    public synchronized void completed(URI uri, String report, long durationMs)
+            throws IOException {
+        out.write(Long.toString(durationMs));
+        out.write(SEPARATOR);
+        out.write(report);
+        out.write(SEPARATOR);
+        out.write(uri.toString());
+        out.write('\n');
+        dirty = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        ScheduledExecutorService service;
+        synchronized (this) {
+            service = syncService;
+            syncService = null;
+        }
+        if (service != null) {
+            // not interrupted, as interrupting a force closes the channel
+            service.shutdown();
+            try {
+                service.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            if (out != null) {
+                boolean threw = true;
+                try {
+                    sync();
+                    threw = false;
+                } finally {
+                    Closeables.close(out, threw);
+                    out = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Only the buffer is flushed under the lock, so that recording a page
+     * never waits for the disk. Only the sync thread forces the channel while
+     * the journal is open, and close forces it once the sync thread is done.
+     */
+    private void sync() throws IOException {
+        FileChannel channel;
+        synchronized (this) {
+            if (!dirty || out == null) {
+                return;
+            }
+            out.flush();
+            dirty = false;
+            channel = stream.getChannel();
+        }
+        channel.force(false);
+    }
+
+    private boolean endsWithTruncatedEntry() throws IOException {
+        if (file.length() == 0) {
+            return false;
+        }
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            raf.seek(file.length() - 1);
+            return raf.read() != '\n';
+        } finally {
+            raf.close();
+        }
+    }
+
+    private Map<String, Long> load() throws IOException {
+        Map<String, Long> durations = new HashMap<String, Long>();
+        if (!file.isFile()) {
+            return durations;
+        }
+        BufferedReader in = new BufferedReader(new InputStreamReader(
+                new FileInputStream(file), Charsets.UTF_8));
+        boolean threw = true;
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                parse(line, durations);
+            }
+            threw = false;
+        } finally {
+            Closeables.close(in, threw);
+        }
+        return durations;
+    }
+
+    /**
+     * The last line might have been truncated by a crash, so invalid lines
+     * are ignored.
+     */
+    private void parse(String line, Map<String, Long> durations) {
+        int fields = 0;
+        String[] values = new String[3];
+        for (String value : SPLITTER.split(line)) {
+            values[fields++] = value;
+        }
+        if (fields != 3) {
+            return;
+        }
+        try {
+            durations.put(values[2], Long.valueOf(values[0]));
+        } catch (NumberFormatException e) {
+            // truncated entry
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.pipeline;
+
+import java.io.IOException;
+
+/**
+ * Converts items to bytes and back, so that they can be moved off the heap.
+ *
+ * @author gehel
+ */
+public interface Codec<T> {
+
+    /**
+     * Approximate heap used by an item, in bytes.
+     */
+    long sizeOf(T item);
+
+    byte[] encode(T item) throws IOException;
+
+    T decode(byte[] bytes) throws IOException;
+}
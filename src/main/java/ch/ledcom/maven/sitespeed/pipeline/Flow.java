@@ -0,0 +1,47 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.pipeline;
+
+/**
+ * Publisher / subscriber interfaces with explicit demand, mirroring
+ * <code>java.util.concurrent.Flow</code> which is not available on the Java
+ * versions supported by this plugin.
+ *
+ * A publisher never sends more items than its subscriber has requested, so a
+ * slow subscriber slows down its publisher instead of letting items pile up.
+ *
+ * @author gehel
+ */
+public final class Flow {
+
+    private Flow() {
+    }
+
+    public interface Publisher<T> {
+        void subscribe(Subscriber<? super T> subscriber);
+    }
+
+    public interface Subscriber<T> {
+        void onSubscribe(Subscription subscription);
+
+        void onNext(T item);
+
+        void onComplete();
+    }
+
+    public interface Subscription {
+        /** Allow the publisher to send n more items. */
+        void request(long n);
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.pipeline;
+
+/**
+ * Sizing of the analysis pipeline: the threads of each stage and the buffers
+ * between stages.
+ *
+ * @author gehel
+ */
+public final class PipelineSettings {
+
+    private final int browserSlots;
+    private final int renderSlots;
+    private final int diskWriters;
+    private final int analysisBuffer;
+    private final int renderBuffer;
+    private final int writeBuffer;
+    private final long resultBufferBudget;
+
+    public PipelineSettings(int browserSlots, int renderSlots,
+            int diskWriters, int analysisBuffer, int renderBuffer,
+            int writeBuffer, long resultBufferBudget) {
+        this.browserSlots = browserSlots;
+        this.renderSlots = renderSlots;
+        this.diskWriters = diskWriters;
+        this.analysisBuffer = analysisBuffer;
+        this.renderBuffer = renderBuffer;
+        this.writeBuffer = writeBuffer;
+        this.resultBufferBudget = resultBufferBudget;
+    }
+
+    /** Number of pages analyzed concurrently, each in its own browser. */
+    public int getBrowserSlots() {
+        return browserSlots;
+    }
+
+    /** Number of reports rendered concurrently. */
+    public int getRenderSlots() {
+        return renderSlots;
+    }
+
+    /** Number of reports written concurrently. */
+    public int getDiskWriters() {
+        return diskWriters;
+    }
+
+    /** Number of pages waiting for a browser. */
+    public int getAnalysisBuffer() {
+        return analysisBuffer;
+    }
+
+    /** Number of analyzed pages waiting for a render slot. */
+    public int getRenderBuffer() {
+        return renderBuffer;
+    }
+
+    /** Number of rendered reports waiting to be written. */
+    public int getWriteBuffer() {
+        return writeBuffer;
+    }
+
+    /**
+     * Bytes of analyzed pages kept in memory before they are moved to disk.
+     */
+    public long getResultBufferBudget() {
+        return resultBufferBudget;
+    }
+}
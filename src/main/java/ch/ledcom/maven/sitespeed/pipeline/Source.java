@@ -0,0 +1,75 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.pipeline;
+
+import ch.ledcom.maven.sitespeed.pipeline.Flow.Publisher;
+import ch.ledcom.maven.sitespeed.pipeline.Flow.Subscriber;
+import ch.ledcom.maven.sitespeed.pipeline.Flow.Subscription;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Entry point of a pipeline: items are pushed by a producer thread, which
+ * blocks until the first stage has demand for them.
+ *
+ * @author gehel
+ */
+public class Source<T> implements Publisher<T> {
+
+    private Subscriber<? super T> subscriber;
+    private long demand;
+
+    @Override
+    public synchronized void subscribe(Subscriber<? super T> subscriber) {
+        Preconditions.checkState(this.subscriber == null,
+                "Source already has a subscriber");
+        this.subscriber = subscriber;
+        subscriber.onSubscribe(new Subscription() {
+            @Override
+            public void request(long n) {
+                synchronized (Source.this) {
+                    demand += n;
+                    Source.this.notifyAll();
+                }
+            }
+        });
+    }
+
+    /**
+     * Send an item, waiting for demand if needed.
+     */
+    public void publish(T item) throws InterruptedException {
+        Subscriber<? super T> target;
+        synchronized (this) {
+            Preconditions.checkState(subscriber != null,
+                    "Source has no subscriber");
+            while (demand == 0) {
+                wait();
+            }
+            demand--;
+            target = subscriber;
+        }
+        target.onNext(item);
+    }
+
+    public void complete() {
+        Subscriber<? super T> target;
+        synchronized (this) {
+            target = subscriber;
+        }
+        if (target != null) {
+            target.onComplete();
+        }
+    }
+}
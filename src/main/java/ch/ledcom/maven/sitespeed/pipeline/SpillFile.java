@@ -0,0 +1,148 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.pipeline;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * FIFO of byte records in a memory-mapped temporary file.
+ *
+ * The file is mapped in fixed size segments, added as the file grows.
+ * Records are length prefixed and may span segments. Once all records have
+ * been read, the file is reused from its start, so it only grows as large as
+ * the biggest backlog.
+ *
+ * @author gehel
+ */
+final class SpillFile implements Closeable {
+
+    static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    private final File file;
+    private final RandomAccessFile raf;
+    private final FileChannel channel;
+    private final int segmentSize;
+    private final List<MappedByteBuffer> segments = new ArrayList<MappedByteBuffer>();
+
+    private long writePosition;
+    private long readPosition;
+    private int count;
+
+    SpillFile(String prefix, int segmentSize) throws IOException {
+        Preconditions.checkArgument(segmentSize > 0,
+                "segment size must be positive");
+        this.segmentSize = segmentSize;
+        this.file = File.createTempFile(prefix, ".spill");
+        this.file.deleteOnExit();
+        this.raf = new RandomAccessFile(file, "rw");
+        this.channel = raf.getChannel();
+    }
+
+    public synchronized void append(byte[] record) throws IOException {
+        ensureCapacity(writePosition + 4 + record.length);
+        write(writePosition, ByteBuffer.allocate(4).putInt(record.length)
+                .array());
+        write(writePosition + 4, record);
+        writePosition += 4 + record.length;
+        count++;
+    }
+
+    /**
+     * Read the oldest record.
+     */
+    public synchronized byte[] next() {
+        Preconditions.checkState(count > 0, "Spill file is empty");
+        byte[] length = new byte[4];
+        read(readPosition, length);
+        byte[] record = new byte[ByteBuffer.wrap(length).getInt()];
+        read(readPosition + 4, record);
+        readPosition += 4 + record.length;
+        count--;
+        if (count == 0) {
+            readPosition = 0;
+            writePosition = 0;
+        }
+        return record;
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Size of the mapped file, in bytes.
+     */
+    public synchronized long mappedSize() {
+        return (long) segments.size() * segmentSize;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        segments.clear();
+        try {
+            channel.close();
+            raf.close();
+        } finally {
+            file.delete();
+        }
+    }
+
+    private void ensureCapacity(long capacity) throws IOException {
+        while (mappedSize() < capacity) {
+            segments.add(channel.map(MapMode.READ_WRITE, mappedSize(),
+                    segmentSize));
+        }
+    }
+
+    private void write(long position, byte[] bytes) {
+        int done = 0;
+        while (done < bytes.length) {
+            ByteBuffer segment = segment(position + done);
+            int length = Math.min(bytes.length - done, segment.remaining());
+            segment.put(bytes, done, length);
+            done += length;
+        }
+    }
+
+    private void read(long position, byte[] bytes) {
+        int done = 0;
+        while (done < bytes.length) {
+            ByteBuffer segment = segment(position + done);
+            int length = Math.min(bytes.length - done, segment.remaining());
+            segment.get(bytes, done, length);
+            done += length;
+        }
+    }
+
+    /**
+     * A view of the segment holding this position, starting at it.
+     */
+    private ByteBuffer segment(long position) {
+        ByteBuffer segment = segments.get((int) (position / segmentSize))
+                .duplicate();
+        segment.position((int) (position % segmentSize));
+        return segment;
+    }
+}
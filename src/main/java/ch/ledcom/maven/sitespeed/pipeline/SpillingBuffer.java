@@ -0,0 +1,262 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.pipeline;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.logging.Log;
+
+import ch.ledcom.maven.sitespeed.pipeline.Flow.Publisher;
+import ch.ledcom.maven.sitespeed.pipeline.Flow.Subscriber;
+import ch.ledcom.maven.sitespeed.pipeline.Flow.Subscription;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * An unbounded buffer between two stages, keeping at most
+ * <code>budget</code> bytes of items on the heap.
+ *
+ * Items are kept in memory while they fit in the budget. Once over budget,
+ * items are encoded into a memory-mapped {@link SpillFile} and decoded again
+ * when the next stage asks for them. Items always leave the buffer in the
+ * order they arrived: once an item has been spilled, the following ones are
+ * spilled too until the spill file has been read back.
+ *
+ * The buffer never pushes back on its publisher, so a slow stage after it
+ * does not slow down the stages before it.
+ *
+ * @author gehel
+ */
+public class SpillingBuffer<T> implements Subscriber<T>, Publisher<T>,
+        Closeable {
+
+    private final String name;
+    private final long budget;
+    private final Codec<T> codec;
+    private final Log log;
+    private final int segmentSize;
+
+    private final Queue<T> memory = new ArrayDeque<T>();
+    private final Queue<Long> sizes = new ArrayDeque<Long>();
+    private final CountDownLatch terminated = new CountDownLatch(1);
+
+    private Subscriber<? super T> downstream;
+    private long demand;
+    private long memoryBytes;
+    private int spilled;
+    private SpillFile spill;
+    private boolean upstreamComplete;
+    private boolean completed;
+
+    private boolean draining;
+    private boolean drainAgain;
+
+    /**
+     * @param budget
+     *            heap available to buffered items, in bytes
+     */
+    public SpillingBuffer(String name, long budget, Codec<T> codec, Log log) {
+        this(name, budget, codec, log, SpillFile.DEFAULT_SEGMENT_SIZE);
+    }
+
+    SpillingBuffer(String name, long budget, Codec<T> codec, Log log,
+            int segmentSize) {
+        this.name = name;
+        this.budget = budget;
+        this.codec = codec;
+        this.log = log;
+        this.segmentSize = segmentSize;
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    /**
+     * Items must not be sent concurrently, as required by {@link Flow}.
+     */
+    @Override
+    public void onNext(T item) {
+        long size = codec.sizeOf(item);
+        boolean toDisk;
+        synchronized (this) {
+            toDisk = spilled > 0 || memoryBytes + size > budget;
+            if (!toDisk) {
+                memory.add(item);
+                sizes.add(size);
+                memoryBytes += size;
+            }
+        }
+        if (toDisk) {
+            spill(item);
+        }
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        synchronized (this) {
+            upstreamComplete = true;
+        }
+        drain();
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        synchronized (this) {
+            Preconditions.checkState(downstream == null,
+                    "Buffer [" + name + "] already has a subscriber");
+            downstream = subscriber;
+        }
+        subscriber.onSubscribe(new Subscription() {
+            @Override
+            public void request(long n) {
+                synchronized (SpillingBuffer.this) {
+                    demand += n;
+                }
+                drain();
+            }
+        });
+    }
+
+    /**
+     * Number of items currently waiting on disk.
+     */
+    public synchronized int spilled() {
+        return spilled;
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit)
+            throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    /**
+     * Delete the spill file. Spilled items that were not read yet are lost.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (spill != null) {
+            spill.close();
+            spill = null;
+            spilled = 0;
+        }
+    }
+
+    private void spill(T item) {
+        try {
+            byte[] bytes = codec.encode(item);
+            synchronized (this) {
+                if (spill == null) {
+                    spill = new SpillFile("sitespeed-" + name + "-",
+                            segmentSize);
+                    log.info("Buffer [" + name
+                            + "] is over budget, spilling to disk");
+                }
+                spill.append(bytes);
+                spilled++;
+            }
+        } catch (IOException e) {
+            log.warn("Buffer [" + name + "] failed to spill item", e);
+        }
+    }
+
+    /**
+     * Emit items downstream as long as there is demand, and propagate
+     * completion. Only one thread drains at a time, see {@link Stage}.
+     */
+    private void drain() {
+        synchronized (this) {
+            if (draining) {
+                drainAgain = true;
+                return;
+            }
+            draining = true;
+        }
+        while (true) {
+            T item = null;
+            byte[] bytes = null;
+            Subscriber<? super T> target = null;
+            boolean complete = false;
+            synchronized (this) {
+                boolean canEmit = downstream == null || demand > 0;
+                if (canEmit && !memory.isEmpty()) {
+                    item = memory.remove();
+                    memoryBytes -= sizes.remove();
+                } else if (canEmit && spilled > 0) {
+                    bytes = spill.next();
+                    spilled--;
+                } else if (upstreamComplete && memory.isEmpty()
+                        && spilled == 0 && !completed) {
+                    completed = true;
+                    complete = true;
+                } else if (drainAgain) {
+                    drainAgain = false;
+                    continue;
+                } else {
+                    draining = false;
+                    return;
+                }
+                target = downstream;
+                if (target != null && !complete) {
+                    demand--;
+                }
+            }
+            if (bytes != null) {
+                item = decode(bytes);
+                if (item == null) {
+                    if (target != null) {
+                        synchronized (this) {
+                            demand++;
+                        }
+                    }
+                    continue;
+                }
+            }
+            if (complete) {
+                closeQuietly();
+                if (target != null) {
+                    target.onComplete();
+                }
+                terminated.countDown();
+            } else if (target != null) {
+                target.onNext(item);
+            }
+        }
+    }
+
+    private T decode(byte[] bytes) {
+        try {
+            return codec.decode(bytes);
+        } catch (IOException e) {
+            log.warn("Buffer [" + name + "] failed to read spilled item", e);
+            return null;
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            log.warn("Buffer [" + name + "] failed to delete its spill file",
+                    e);
+        }
+    }
+}
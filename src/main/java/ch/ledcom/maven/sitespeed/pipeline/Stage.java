@@ -0,0 +1,249 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.pipeline;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.logging.Log;
+
+import ch.ledcom.maven.sitespeed.pipeline.Flow.Publisher;
+import ch.ledcom.maven.sitespeed.pipeline.Flow.Subscriber;
+import ch.ledcom.maven.sitespeed.pipeline.Flow.Subscription;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * A step of a pipeline, transforming items asynchronously.
+ *
+ * A stage holds at most <code>capacity</code> items, whether they are
+ * waiting, being processed or waiting for demand from the next stage, and
+ * only requests more items from its publisher as items leave the stage. A
+ * slow stage therefore slows down the stages before it, all the way back to
+ * the {@link Source}, and memory stays bounded.
+ *
+ * Items are handed to the function as soon as they arrive: the function is
+ * expected to run them on an executor sized for the resource it uses. A
+ * <code>null</code> result or a failure drops the item. A stage without
+ * subscriber discards its results.
+ *
+ * A stage itself never waits: work is driven by arriving items, completed
+ * results and downstream demand, whichever thread they come from. The
+ * function is called by that thread, though, so a function that blocks
+ * blocks it. This is the case of the analysis stage of the
+ * {@link ch.ledcom.maven.sitespeed.SiteSpeedOrchestrator}, which waits while
+ * the {@link ch.ledcom.maven.sitespeed.analyzer.HostThrottle} queue is full:
+ * back-pressure then also comes from that queue, not only from demand.
+ *
+ * @author gehel
+ */
+public class Stage<I, O> implements Subscriber<I>, Publisher<O> {
+
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private final String name;
+    private final int capacity;
+    private final AsyncFunction<I, O> function;
+    private final Log log;
+
+    private final Queue<I> waiting = new ArrayDeque<I>();
+    private final Queue<O> ready = new ArrayDeque<O>();
+    private final CountDownLatch terminated = new CountDownLatch(1);
+
+    private Subscription upstream;
+    private Subscriber<? super O> downstream;
+    private long demand;
+    private int inProgress;
+    private int released;
+    private boolean upstreamComplete;
+    private boolean completed;
+
+    private boolean draining;
+    private boolean drainAgain;
+
+    public Stage(String name, int capacity, AsyncFunction<I, O> function,
+            Log log) {
+        Preconditions.checkArgument(capacity > 0, "capacity must be positive");
+        this.name = name;
+        this.capacity = capacity;
+        this.function = function;
+        this.log = log;
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+        synchronized (this) {
+            Preconditions.checkState(upstream == null,
+                    "Stage [" + name + "] is already subscribed");
+            upstream = subscription;
+        }
+        subscription.request(capacity);
+    }
+
+    @Override
+    public void onNext(I item) {
+        synchronized (this) {
+            waiting.add(item);
+        }
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        synchronized (this) {
+            upstreamComplete = true;
+        }
+        drain();
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super O> subscriber) {
+        synchronized (this) {
+            Preconditions.checkState(downstream == null,
+                    "Stage [" + name + "] already has a subscriber");
+            downstream = subscriber;
+        }
+        subscriber.onSubscribe(new Subscription() {
+            @Override
+            public void request(long n) {
+                synchronized (Stage.this) {
+                    demand += n;
+                }
+                drain();
+            }
+        });
+    }
+
+    /**
+     * Wait until all items have gone through this stage.
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit)
+            throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    /**
+     * Start waiting items, emit results downstream and propagate demand and
+     * completion. Only one thread drains at a time: a thread calling this
+     * while another one is draining makes the other one loop again, which
+     * also prevents recursion when functions complete synchronously.
+     */
+    private void drain() {
+        synchronized (this) {
+            if (draining) {
+                drainAgain = true;
+                return;
+            }
+            draining = true;
+        }
+        while (true) {
+            I toStart = null;
+            O toEmit = null;
+            Subscriber<? super O> target = null;
+            int toRequest = 0;
+            boolean complete = false;
+            synchronized (this) {
+                if (!waiting.isEmpty()) {
+                    toStart = waiting.remove();
+                    inProgress++;
+                } else if (!ready.isEmpty()
+                        && (downstream == null || demand > 0)) {
+                    toEmit = ready.remove();
+                    target = downstream;
+                    if (target != null) {
+                        demand--;
+                    }
+                    released++;
+                } else if (released > 0) {
+                    toRequest = released;
+                    released = 0;
+                } else if (upstreamComplete && inProgress == 0
+                        && ready.isEmpty() && !completed) {
+                    completed = true;
+                    complete = true;
+                    target = downstream;
+                } else if (drainAgain) {
+                    drainAgain = false;
+                    continue;
+                } else {
+                    draining = false;
+                    return;
+                }
+            }
+            if (toStart != null) {
+                start(toStart);
+            } else if (toEmit != null) {
+                if (target != null) {
+                    target.onNext(toEmit);
+                }
+            } else if (toRequest > 0) {
+                upstream.request(toRequest);
+            } else if (complete) {
+                if (target != null) {
+                    target.onComplete();
+                }
+                terminated.countDown();
+            }
+        }
+    }
+
+    private void start(I item) {
+        final ListenableFuture<O> result;
+        try {
+            result = function.apply(item);
+        } catch (Exception e) {
+            log.warn("Stage [" + name + "] failed to process item", e);
+            finished(null);
+            return;
+        }
+        result.addListener(new Runnable() {
+            @Override
+            public void run() {
+                O output = null;
+                try {
+                    output = result.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    log.warn("Stage [" + name + "] failed to process item",
+                            e.getCause());
+                }
+                finished(output);
+            }
+        }, DIRECT);
+    }
+
+    private void finished(O output) {
+        synchronized (this) {
+            inProgress--;
+            if (output == null) {
+                released++;
+            } else {
+                ready.add(output);
+            }
+        }
+        drain();
+    }
+}
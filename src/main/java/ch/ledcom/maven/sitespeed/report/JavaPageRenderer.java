@@ -0,0 +1,581 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.report;
+
+import static ch.ledcom.maven.sitespeed.Configuration.MERGER_PROPERTIES;
+import static ch.ledcom.maven.sitespeed.report.ReportMath.add;
+import static ch.ledcom.maven.sitespeed.report.ReportMath.div;
+import static ch.ledcom.maven.sitespeed.report.ReportMath.max;
+import static ch.ledcom.maven.sitespeed.report.ReportMath.mul;
+import static ch.ledcom.maven.sitespeed.report.ReportMath.roundTo;
+import static ch.ledcom.maven.sitespeed.report.ReportMath.sub;
+import static ch.ledcom.maven.sitespeed.report.ReportMath.toInteger;
+import static ch.ledcom.maven.sitespeed.report.ReportMath.toNumber;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.URLEncoder;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nullable;
+
+import org.jdom2.Attribute;
+import org.jdom2.Document;
+import org.jdom2.Element;
+
+import ch.ledcom.maven.sitespeed.rules.RuleDictionary;
+import ch.ledcom.maven.sitespeed.rules.RuleDictionary.Rule;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
+import com.google.common.io.Resources;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+/**
+ * Renders the same report as <code>page.vm</code>, in plain Java: no template
+ * is interpreted and the result is read without reflection, which makes
+ * rendering several times faster than through Velocity.
+ *
+ * The markup, and the values computed by the template, are the same. Only
+ * insignificant whitespace differs, and values missing from the result are
+ * left empty where Velocity would print the reference itself. As with the
+ * template, the header and footer come from <code>header.vm</code> and
+ * <code>footer.vm</code>: their static content is loaded once, with the
+ * merger properties they reference resolved.
+ *
+ * @author gehel
+ */
+public class JavaPageRenderer implements PageRenderer {
+
+    private static final String TEMPLATES = "/report/velocity/";
+
+    private static final Pattern TEMPLATE_COMMENT = Pattern.compile(
+            "#\\*.*?\\*#\\s*", Pattern.DOTALL);
+    private static final Pattern LINE_COMMENT = Pattern.compile(
+            "(?m)^[ \\t]*##.*\\n");
+    private static final Pattern REFERENCE = Pattern
+            .compile("\\$!?\\{?(\\w+)\\}?");
+    private static final Pattern MENU = Pattern
+            .compile("#if\\( \\$pageMenu == \"(\\w+)\" \\) class=\"active\" #end");
+
+    private final Properties properties;
+    private final String headerStart;
+    private final String headerEnd;
+    private final String footer;
+
+    @Inject
+    public JavaPageRenderer(@Named(MERGER_PROPERTIES) Properties properties)
+            throws IOException {
+        this.properties = properties;
+        String header = load("header.vm");
+        this.headerStart = header.substring(0,
+                header.indexOf("<title>") + "<title>".length());
+        this.headerEnd = header.substring(header.indexOf("</title>"));
+        this.footer = load("footer.vm");
+    }
+
+    @Override
+    public void report(Document doc, Writer out) throws IOException {
+        Element root = doc.getRootElement();
+        out.write(headerStart);
+        title(root, out);
+        out.write(headerEnd);
+        Page page = new Page(root);
+
+        out.write("<div class=\"row-fluid\">\n\t<div class=\"span12\">\n\n");
+        out.write("\t\t<h2 class=\"url\">\n\t\t\tPage\n\t\t\t<a href=\"");
+        out.write(text(root, "curl"));
+        out.write("\" target=\"_blank\">");
+        out.write(text(root, "curl"));
+        out.write("</a>\n\t\t\t(score: ");
+        out.write(text(root, "o"));
+        out.write(")\n\t\t</h2>\n\n");
+        navigation(root, out);
+        scores(root, out);
+        out.write("\t</div>\n</div>\n\n");
+        assets(root, out);
+        out.write("<h3 id=\"summary\">Page summary</h3>\n\n");
+        out.write("<div class=\"row-fluid\">\n");
+        requests(page, out);
+        sizes(page, out);
+        out.write("</div>\n\n<div class=\"row-fluid\">\n");
+        domains(out);
+        special(root, page, out);
+        out.write("</div>\n");
+        out.write(footer);
+        out.write("<script>\n\t$(function(){\n\t\t$(\"#assetsTable\").stupidtable();\n\t});\n</script>\n");
+        out.write("<script>\n\t$(function () {\n\t\t$('.container').tooltip({\n\t\t\tselector: \"a[rel=tooltip]\"\n\t\t})\n\t})\n</script>\n\n");
+        out.write("</body>\n</html>");
+    }
+
+    private void title(Element root, Writer out) throws IOException {
+        Attribute host = root.getAttribute("host");
+        if (host != null) {
+            out.write(host.getValue());
+            out.write(" - ");
+            out.write(property("pageTitle"));
+        } else {
+            out.write(property("pageTitle"));
+            out.write(" - ");
+            out.write(text(root, "u"));
+        }
+    }
+
+    private void navigation(Element root, Writer out) throws IOException {
+        out.write("\t\t<ul class=\"nav nav-tabs nav-stacked\">\n");
+        out.write("\t\t\t<li>\n\t\t\t\t<a href=\"#score\">Scores below 100</a>\n\t\t\t</li>\n");
+        out.write("\t\t\t<li>\n\t\t\t\t<a href=\"#assets\">Page assets</a>\n\t\t\t</li>\n");
+        out.write("\t\t\t<li>\n\t\t\t\t<a href=\"#summary\">Page summary</a>\n\t\t\t</li>\n");
+        if (root.getChild("har") != null) {
+            out.write("\t\t\t<li>\n\t\t\t\t<a href=\"");
+            out.write(text(root, "har"));
+            out.write("\" title=\"All requests of the page, as a HAR file."
+                    + " They went through a proxy closing every connection,"
+                    + " HTTPS requests only show as CONNECT tunnels: the timings"
+                    + " of this page are not comparable to runs without"
+                    + " recordHar\">Requests (HAR, no keep-alive)</a>\n\t\t\t</li>\n");
+        }
+        out.write("\t\t\t<li>\n\t\t\t\t<a href=\"http://www.webpagetest.org/?url=");
+        out.write(encode(text(root, "u")));
+        out.write("&runs=3\" target=\"_blank\" title=\"Test this page on http://webpagetest.org\">Test on webpagetest.org</a>\n\t\t\t</li>\n\n");
+        out.write("\t\t</ul>\n\n");
+    }
+
+    private void scores(Element root, Writer out) throws IOException {
+        out.write("\t\t<h3 id=\"score\">Scores below 100</h3>\n\n");
+        out.write("\t\t<table class=\"table table-condensed table-striped table-bordered\" >\n");
+        out.write("\t\t\t<thead>\n\t\t\t\t<tr>\n\t\t\t\t\t<th>Rule</th>\n\t\t\t\t\t<th>Score</th>\n\t\t\t\t\t<th>Message</th>\n\t\t\t\t\t<th>Extra</th>\n\t\t\t\t</tr>\n");
+        out.write("\t\t\t\t<tbody>\n");
+        RuleDictionary dictionary = RuleDictionary.of(root);
+        for (Element message : children(root.getChild("g"))) {
+            Element score = message.getChild("score");
+            if (score == null || "100".equals(score.getValue())) {
+                continue;
+            }
+            out.write("\t\t\t\t\t<tr>\n\t\t\t\t\t\t<td>\n\t\t\t\t\t\t\t");
+            Rule rule = dictionary == null ? null : dictionary.rule(message
+                    .getName());
+            out.write(rule == null ? "" : Strings.nullToEmpty(rule.getName()));
+            out.write("\n\t\t\t\t\t\t</td>\n\t\t\t\t\t\t<td>");
+            out.write(score.getValue());
+            out.write("</td>\n\t\t\t\t\t\t<td>");
+            out.write(text(message, "message"));
+            out.write("</td>\n\t\t\t\t\t\t<td class=\"nobreak-page\">\n\t\t\t\t\t\t\t<span class=\"hidden-phone\">\n");
+            Element components = message.getChild("components");
+            if (components != null) {
+                for (Element item : components.getChildren("item")) {
+                    out.write("\t\t\t\t\t\t\t\t<p>");
+                    out.write(item.getValue());
+                    out.write("</p>\n");
+                }
+            }
+            out.write("\t\t\t\t\t\t\t</span>\n\t\t\t\t\t\t</td>\n\t\t\t\t\t</tr>\n");
+        }
+        out.write("\t\t\t\t</tbody>\n\t\t\t</table>\n");
+    }
+
+    /**
+     * The template computes the age and cache time of assets with a
+     * <code>$header</code> tool, which is not configured: they always show as
+     * unknown.
+     */
+    private void assets(Element root, Writer out) throws IOException {
+        out.write("<div class=\"row-fluid\">\n\t<div class=\"span12\">\n\n");
+        out.write("\t\t<h3 id=\"assets\">Page assets</h3>\n");
+        out.write("\t\t<table class=\"table table-condensed table-striped table-bordered\" id=\"assetsTable\">\n");
+        out.write("\t\t\t<thead>\n\t\t\t\t<tr>\n");
+        out.write("\t\t\t\t\t<th data-sort=\"string\">url</th>\n");
+        out.write("\t\t\t\t\t<th data-sort=\"string\">type</th>\n");
+        out.write("\t\t\t\t\t<th data-sort=\"int\">time since last modification</th>\n");
+        out.write("\t\t\t\t\t<th data-sort=\"int\">cache time</th>\n");
+        out.write("\t\t\t\t\t<th data-sort=\"float\">size</th>\n");
+        out.write("\t\t\t\t</tr>\n\t\t\t</thead>\n\t\t\t<tbody>\n");
+        int count = 0;
+        for (Element asset : children(root.getChild("comps"))) {
+            count++;
+            String url = text(asset, "url");
+            boolean favicon = "favicon".equals(text(asset, "type"));
+            out.write("\t\t\t\t<tr>\n\n\t\t\t\t\t<td class=\"nobreak-page-url\">\n");
+            out.write("\t\t\t\t\t\t<div class=\"hidden-phone hidden-tablet\">\n");
+            out.write("\t\t\t\t\t\t\t<a href=\"#headers-" + count
+                    + "\" data-toggle=\"modal\"> <i class=\"icon-zoom-in\"></i>\n\t\t\t\t\t\t\t</a>\n\n");
+            out.write("\t\t\t\t\t\t\t<div class=\"modal hide fade\" id=\"headers-"
+                    + count + "\" aria-labelledby=\"headersModalLabel-"
+                    + count
+                    + "\" tabindex=\"-1\" role=\"dialog\" aria-hidden=\"true\">\n");
+            out.write("\t\t\t\t\t\t\t\t<div class=\"modal-header\">\n\t\t\t\t\t\t\t\t\t<h3 id=\"headersModalLabel-"
+                    + count + "\">Response headers</h3>\n\t\t\t\t\t\t\t\t</div>\n");
+            out.write("\t\t\t\t\t\t\t\t<div class=\"modal-body\">\n");
+            out.write("\t\t\t\t\t\t\t\t\t<table class=\"table-hover table-condensed table-striped table-bordered\">\n");
+            out.write("\t\t\t\t\t\t\t\t\t\t<thead>\n\t\t\t\t\t\t\t\t\t\t\t<tr>\n\t\t\t\t\t\t\t\t\t\t\t\t<th>Name</th>\n\t\t\t\t\t\t\t\t\t\t\t\t<th>Value</th>\n\t\t\t\t\t\t\t\t\t\t\t</tr>\n\t\t\t\t\t\t\t\t\t\t</thead>\n");
+            out.write("\t\t\t\t\t\t\t\t\t\t<tbody>\n");
+            for (Element header : children(child(asset, "headers", "response"))) {
+                out.write("\t\t\t\t\t\t\t\t\t\t\t<tr>\n\t\t\t\t\t\t\t\t\t\t\t\t<td>");
+                escapeHtml(header.getName(), out);
+                out.write("</td>\n\t\t\t\t\t\t\t\t\t\t\t\t<td>");
+                escapeHtml(header.getValue(), out);
+                out.write("</td>\n\t\t\t\t\t\t\t\t\t\t\t</tr>\n");
+            }
+            out.write("\t\t\t\t\t\t\t\t\t\t</tbody>\n\t\t\t\t\t\t\t\t\t</table>\n\n\t\t\t\t\t\t\t\t</div>\n");
+            out.write("\t\t\t\t\t\t\t\t<div class=\"modal-footer\">\n\t\t\t\t\t\t\t\t\t<button class=\"btn\" data-dismiss=\"modal\" aria-hidden=\"true\">Close</button>\n\t\t\t\t\t\t\t\t</div>\n");
+            out.write("\t\t\t\t\t\t\t</div>\n\n\t\t\t\t\t\t</div>\n\n\t\t\t\t\t</div>\n");
+            out.write("\t\t\t\t\t<a href=\"" + url + "\" title=\"" + url
+                    + "\" target=\"_blank\">" + url + "</a>\n\t\t\t\t</td>\n");
+            out.write("\t\t\t\t<td>");
+            out.write(text(asset, "type"));
+            out.write("</td>\n");
+            String sort = favicon ? "-1" : "0";
+            out.write("\t\t\t\t<td data-sort-value=\"" + sort + "\">\n\t\t\t\t\t"
+                    + (favicon ? "unknown" : "last modified not set")
+                    + "\n\t\t\t\t</td>\n");
+            out.write("\t\t\t\t<td data-sort-value=\"" + sort + "\">\n\t\t\t\t\t"
+                    + (favicon ? "unknown" : "0") + "\n\t\t\t\t</td>\n");
+            String size = format(roundTo(1, div(text(asset, "size"), 1000)));
+            out.write("\t\t\t\t<td data-sort-value=\"" + size + "\">" + size
+                    + " kb</td>\n\n\t\t\t</tr>\n");
+        }
+        out.write("\t\t</tbody>\n\t</table>\n\n</div>\n<!-- span 12 -->\n</div>\n<!-- row -->\n\n");
+    }
+
+    private void requests(Page page, Writer out) throws IOException {
+        out.write("\t<div class=\"span6\">\n\n\t\t<h4>Requests per Content-Type</h4>\n");
+        out.write("\t\t<table class=\"table table-condensed table-striped table-bordered\">\n\t\t\t<tbody>\n");
+        requestRow("javascript", page.nrOfJs, out);
+        requestRow("css", page.nrOfCss, out);
+        requestRow("images", page.nrOfImages, out);
+        requestRow("css images", page.nrOfCssImages, out);
+        requestRow("font", page.nrOfFonts, out);
+        requestRow("favicon", page.nrOfFavicons, out);
+        out.write(row("other", format(page.otherRequests)));
+        out.write(row("<strong>total</strong>", format(page.totalRequests)));
+        out.write("\t\t\t</tbody>\n\t\t</table>\n\t</div>\n\n");
+    }
+
+    private void requestRow(String type, Object requests, Writer out)
+            throws IOException {
+        if (toInteger(requests) > 0) {
+            out.write(row(type, requests.toString()));
+        }
+    }
+
+    private void sizes(Page page, Writer out) throws IOException {
+        out.write("\t<div class=\"span6\">\n\t\t<h4>Size per Content-Type</h4>\n");
+        out.write("\t\t<table class=\"table table-condensed table-striped table-bordered\">\n\t\t\t<tbody>\n");
+        out.write(row("doc", format(page.docWeightCurl) + " ("
+                + format(page.docWeight) + ") kb"));
+        sizeRow("js", page.jsWeight, " kb (gzip unknown)", out);
+        sizeRow("css", page.cssWeight, " kb (gzip unknown)", out);
+        sizeRow("images", page.imageWeight, " kb", out);
+        sizeRow("css images", page.cssImageWeight, " kb", out);
+        sizeRow("flash", page.flashWeight, " kb", out);
+        sizeRow("other", page.otherWeight, " kb", out);
+        out.write(row("<strong>total</strong>", format(page.totalWeight)
+                + " kb"));
+        out.write("\t\t\t</tbody>\n\t\t</table>\n\t</div>\n");
+    }
+
+    private void sizeRow(String type, @Nullable Number weight, String unit,
+            Writer out) throws IOException {
+        if (weight != null && weight.doubleValue() > 0) {
+            out.write(row(type, format(weight) + unit));
+        }
+    }
+
+    /**
+     * The template counts requests per domain in a <code>$map</code> tool,
+     * which is not configured: the table is always empty.
+     */
+    private void domains(Writer out) throws IOException {
+        out.write("\t<div class=\"span6\">\n\t\t<h4>Requests per Domain</h4>\n");
+        out.write("\t\t<table class=\"table table-condensed table-striped table-bordered\">\n");
+        out.write("\t\t\t<tbody>\n\t\t\t</tbody>\n\t\t</table>\n\t</div>\n");
+    }
+
+    private void special(Element root, Page page, Writer out)
+            throws IOException {
+        out.write("\t<div class=\"span6\">\n\n\t\t<h4>Special</h4>\n");
+        out.write("\t\t<table class=\"table table-condensed table-striped table-bordered\">\n\t\t\t<tbody>\n");
+        out.write(row("requests with primed cache", text(root, "r_c")));
+        out.write(row("content weight that are js files",
+                format(page.jsPercentage) + " %"));
+        out.write(row("content weight that are css files",
+                format(page.cssPercentage) + " %"));
+        String weightCached = text(root, "w_c");
+        if (toInteger(weightCached) > 0) {
+            out.write(row("page weight cached",
+                    format(roundTo(1, div(weightCached, 1000))) + " kb"));
+        } else {
+            out.write(row("page weight cached",
+                    "<a href=\"#\" title=\"Couldn't fetch the value\"> <i class=\"icon-question-sign\"></i>\n\t\t\t\t\t</a>"));
+        }
+        out.write(row("ttfb", attribute(root, "ttfb") + " s"));
+        StringBuilder loadTime = new StringBuilder();
+        loadTime.append(format(div(text(root, "lt"), 1000))).append(" s");
+        Element spread = child(root, "measurements", "lt");
+        if (spread != null) {
+            loadTime.append("\n\t\t\t\t\t(median of ")
+                    .append(root.getChild("measurements")
+                            .getAttributeValue("runs")).append(" runs,\n\t\t\t\t\t")
+                    .append(format(div(spread.getAttributeValue("min"), 1000)))
+                    .append(" - ")
+                    .append(format(div(spread.getAttributeValue("max"), 1000)))
+                    .append(" s)");
+        }
+        out.write(row("load time", loadTime.toString()));
+        Element profile = root.getChild("profile");
+        if (profile != null) {
+            out.write(row("client CPU time",
+                    format(div(profile.getChildText("cpu"), 1000))
+                            + " s (peak " + profile.getChildText("peakcpu")
+                            + " % of a processor)"));
+            out.write(row("client peak memory",
+                    format(roundTo(1, div(profile.getChildText("rss"),
+                            1048576))) + " MB"));
+        }
+        Element content = child(root, "g", "textcontent", "components");
+        out.write(row("content percentage of the page",
+                (content == null ? "" : content.getChildText("item")) + " %"));
+        // #prettyPrint of a null value from the missing $header tool
+        out.write(row("average time since last modification", ""));
+        out.write(row("average cache time", ""));
+        out.write(row("time spent in backend", format(page.backendPercentage)
+                + " %"));
+        out.write(row("time spent in frontend",
+                format(page.frontendPercentage) + " %"));
+        out.write("\t\t\t</tbody>\n\t\t</table>\n\t</div>\n");
+    }
+
+    private static String row(String name, String value) {
+        return "\t\t\t\t<tr>\n\t\t\t\t\t<td>" + name + "</td>\n\t\t\t\t\t<td>"
+                + value + "</td>\n\t\t\t\t</tr>\n";
+    }
+
+    private String property(String name) {
+        return properties.getProperty(name, "");
+    }
+
+    /**
+     * The static content of a template, with its comments removed and the
+     * merger properties it references resolved.
+     */
+    private String load(String template) throws IOException {
+        String content = Resources.toString(
+                JavaPageRenderer.class.getResource(TEMPLATES + template),
+                Charsets.UTF_8);
+        content = TEMPLATE_COMMENT.matcher(content).replaceAll("");
+        content = LINE_COMMENT.matcher(content).replaceAll("");
+        StringBuffer resolved = new StringBuffer();
+        Matcher menu = MENU.matcher(content);
+        while (menu.find()) {
+            menu.appendReplacement(resolved,
+                    menu.group(1).equals(property("pageMenu")) ? " class=\"active\" "
+                            : "");
+        }
+        menu.appendTail(resolved);
+        Matcher reference = REFERENCE.matcher(resolved.toString());
+        resolved = new StringBuffer();
+        while (reference.find()) {
+            reference.appendReplacement(resolved,
+                    Matcher.quoteReplacement(property(reference.group(1))));
+        }
+        reference.appendTail(resolved);
+        return resolved.toString();
+    }
+
+    @Nullable
+    private static Element child(@Nullable Element element, String... path) {
+        Element current = element;
+        for (String name : path) {
+            if (current == null) {
+                return null;
+            }
+            current = current.getChild(name);
+        }
+        return current;
+    }
+
+    private static List<Element> children(@Nullable Element element) {
+        return element == null ? Collections.<Element> emptyList() : element
+                .getChildren();
+    }
+
+    /**
+     * @return the value of this child, or an empty string if it is missing
+     */
+    private static String text(@Nullable Element element, String... path) {
+        Element child = child(element, path);
+        return child == null ? "" : child.getValue();
+    }
+
+    @Nullable
+    private static String value(@Nullable Element element, String... path) {
+        Element child = child(element, path);
+        return child == null ? null : child.getValue();
+    }
+
+    private static String attribute(Element element, String name) {
+        Attribute attribute = element.getAttribute(name);
+        return attribute == null ? "" : attribute.getValue();
+    }
+
+    private static String format(@Nullable Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, Charsets.UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Escapes markup and non ASCII characters, as the Velocity EscapeTool.
+     */
+    static void escapeHtml(String value, Writer out) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '&':
+                out.write("&amp;");
+                break;
+            case '<':
+                out.write("&lt;");
+                break;
+            case '>':
+                out.write("&gt;");
+                break;
+            case '"':
+                out.write("&quot;");
+                break;
+            default:
+                if (c > 0x7f) {
+                    out.write("&#" + (int) c + ";");
+                } else {
+                    out.write(c);
+                }
+            }
+        }
+    }
+
+    /**
+     * The values computed by <code>page.logic.vm</code>.
+     */
+    private static final class Page {
+        private final Object nrOfJs;
+        private final Object nrOfCss;
+        private final Object nrOfImages;
+        private final Object nrOfCssImages;
+        private final Object nrOfFonts;
+        private final Object nrOfFavicons;
+        private final Number otherRequests;
+        private final Number totalRequests;
+
+        private final Number jsWeight;
+        private final Number cssWeight;
+        private final Number docWeight;
+        private final Number imageWeight;
+        private final Number cssImageWeight;
+        private final Number flashWeight;
+        private final Number totalWeight;
+        private final Number otherWeight;
+        private final Number docWeightCurl;
+
+        private final Number cssPercentage;
+        private final Number jsPercentage;
+        private final Number backendPercentage;
+        private final Number frontendPercentage;
+
+        private Page(Element root) {
+            long jsWeightCounted = 0;
+            long totalWeightCounted = 0;
+            for (Element asset : children(root.getChild("comps"))) {
+                long size = toInteger(asset.getChildText("size"));
+                if ("js".equals(asset.getChildText("type"))) {
+                    jsWeightCounted += size;
+                }
+                totalWeightCounted += size;
+            }
+            Element stats = root.getChild("stats");
+
+            jsWeight = orZero(max(roundTo(1, div(jsWeightCounted, 1000)), 0));
+            cssWeight = orZero(max(weight(stats, "css"), 0));
+            docWeight = weight(stats, "doc");
+            imageWeight = orZero(weight(stats, "image"));
+            cssImageWeight = orZero(weight(stats, "cssimage"));
+            flashWeight = orZero(weight(stats, "flash"));
+            totalWeight = roundTo(1, div(totalWeightCounted, 1000));
+            docWeightCurl = roundTo(1, div(root.getAttributeValue("size"), 1000));
+
+            Number contentWeight = orZero(add(jsWeight, add(cssWeight,
+                    docWeight)));
+            Number requestWeight = add(add(add(add(jsWeight, cssWeight),
+                    imageWeight), cssImageWeight), docWeight);
+            otherWeight = roundTo(1, sub(totalWeight, requestWeight));
+
+            nrOfJs = requests(stats, "js");
+            nrOfCss = requests(stats, "css");
+            nrOfImages = requests(stats, "image");
+            nrOfCssImages = requests(stats, "cssimage");
+            nrOfFonts = requests(stats, "font");
+            nrOfFavicons = requests(stats, "favicon");
+            // the template never sets the number of flash requests
+            Number requests = add(add(add(add(add(add(nrOfJs, nrOfCss),
+                    nrOfCssImages), nrOfImages), nrOfFonts), nrOfFavicons), 0);
+            String total = value(root, "r");
+            otherRequests = sub(total, requests);
+            totalRequests = sub(total, 1);
+
+            cssPercentage = orZero(roundTo(1, mul(div(cssWeight, contentWeight),
+                    100)));
+            jsPercentage = orZero(roundTo(1, mul(div(jsWeight, contentWeight),
+                    100)));
+
+            Number ttfb = toDouble(root.getAttributeValue("ttfb"));
+            Number loadTime = div(toDouble(value(root, "lt")), 1000);
+            backendPercentage = roundTo(1, mul(div(ttfb, loadTime), 100));
+            frontendPercentage = roundTo(1, mul(div(sub(loadTime, ttfb),
+                    loadTime), 100));
+        }
+
+        @Nullable
+        private static Number weight(@Nullable Element stats, String type) {
+            return roundTo(1, div(value(stats, type, "w"), 1000));
+        }
+
+        private static Object requests(@Nullable Element stats, String type) {
+            String requests = value(stats, type, "r");
+            return requests == null ? Integer.valueOf(0) : requests;
+        }
+
+        /** <code>#if(!$value) #set($value=0) #end</code> */
+        private static Number orZero(@Nullable Number value) {
+            return value == null ? Integer.valueOf(0) : value;
+        }
+
+        @Nullable
+        private static Number toDouble(@Nullable String value) {
+            Number number = toNumber(value);
+            return number == null ? null : Double.valueOf(number
+                    .doubleValue());
+        }
+    }
+}
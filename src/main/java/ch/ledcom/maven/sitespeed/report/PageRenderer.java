@@ -0,0 +1,31 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.report;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import org.jdom2.Document;
+
+/**
+ * Renders the report of a page from its analysis result. Implementations can
+ * be called concurrently.
+ *
+ * @author gehel
+ */
+public interface PageRenderer {
+
+    void report(Document doc, Writer out) throws IOException;
+
+}
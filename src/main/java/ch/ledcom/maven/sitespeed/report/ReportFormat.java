@@ -0,0 +1,34 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.report;
+
+import ch.ledcom.maven.sitespeed.bundle.JsonBundle;
+
+/**
+ * What the reports are made of.
+ *
+ * @author gehel
+ */
+public enum ReportFormat {
+
+    /** One HTML page per analyzed page. */
+    HTML,
+
+    /**
+     * A {@link JsonBundle} of compressed data files, shown by a single
+     * viewer page. Much smaller and faster to write for large sites.
+     */
+    JSON
+
+}
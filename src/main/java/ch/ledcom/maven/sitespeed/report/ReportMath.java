@@ -0,0 +1,132 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.report;
+
+import javax.annotation.Nullable;
+
+/**
+ * The arithmetic of the Velocity MathTool used by the page template, so that
+ * {@link JavaPageRenderer} formats numbers the same way: results are integers
+ * when they are whole and none of the operands has a decimal point, doubles
+ * otherwise. Operations on missing or invalid values, and divisions by zero,
+ * give <code>null</code>.
+ *
+ * @author gehel
+ */
+final class ReportMath {
+
+    private ReportMath() {
+    }
+
+    @Nullable
+    static Number toNumber(@Nullable Object value) {
+        if (value == null || value instanceof Number) {
+            return (Number) value;
+        }
+        String text = value.toString().trim();
+        try {
+            if (hasDecimals(text)) {
+                return Double.valueOf(text);
+            }
+            return Long.valueOf(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Nullable
+    static Number add(@Nullable Object a, @Nullable Object b) {
+        Number x = toNumber(a);
+        Number y = toNumber(b);
+        return x == null || y == null ? null : matchType(
+                x.doubleValue() + y.doubleValue(), x, y);
+    }
+
+    @Nullable
+    static Number sub(@Nullable Object a, @Nullable Object b) {
+        Number x = toNumber(a);
+        Number y = toNumber(b);
+        return x == null || y == null ? null : matchType(
+                x.doubleValue() - y.doubleValue(), x, y);
+    }
+
+    @Nullable
+    static Number mul(@Nullable Object a, @Nullable Object b) {
+        Number x = toNumber(a);
+        Number y = toNumber(b);
+        return x == null || y == null ? null : matchType(
+                x.doubleValue() * y.doubleValue(), x, y);
+    }
+
+    @Nullable
+    static Number div(@Nullable Object a, @Nullable Object b) {
+        Number x = toNumber(a);
+        Number y = toNumber(b);
+        if (x == null || y == null || y.doubleValue() == 0) {
+            return null;
+        }
+        return matchType(x.doubleValue() / y.doubleValue(), x, y);
+    }
+
+    @Nullable
+    static Number max(@Nullable Object a, @Nullable Object b) {
+        Number x = toNumber(a);
+        Number y = toNumber(b);
+        return x == null || y == null ? null : matchType(
+                Math.max(x.doubleValue(), y.doubleValue()), x, y);
+    }
+
+    /**
+     * Always a double, rounded half to even.
+     */
+    @Nullable
+    static Double roundTo(int decimals, @Nullable Object value) {
+        Number number = toNumber(value);
+        if (number == null) {
+            return null;
+        }
+        double factor = Math.pow(10, decimals);
+        return Math.rint(number.doubleValue() * factor) / factor;
+    }
+
+    /**
+     * @return 0 for missing or invalid values
+     */
+    static int toInteger(@Nullable Object value) {
+        Number number = toNumber(value);
+        return number == null ? 0 : number.intValue();
+    }
+
+    private static Number matchType(double result, Number... operands) {
+        if (Math.rint(result) == result) {
+            boolean integral = true;
+            for (Number operand : operands) {
+                if (hasDecimals(operand.toString())) {
+                    integral = false;
+                }
+            }
+            if (integral) {
+                if (result > Integer.MAX_VALUE || result < Integer.MIN_VALUE) {
+                    return Long.valueOf((long) result);
+                }
+                return Integer.valueOf((int) result);
+            }
+        }
+        return Double.valueOf(result);
+    }
+
+    private static boolean hasDecimals(String number) {
+        return number.indexOf('.') >= 0 || number.indexOf('E') >= 0;
+    }
+}
@@ -23,7 +23,10 @@ import org.jdom2.Document;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
 
-public class SiteSpeedReporter {
+/**
+ * Renders page reports through the Velocity template.
+ */
+public class SiteSpeedReporter implements PageRenderer {
 
     private final XMLVelocityMerger merger;
     private final String template;
@@ -35,6 +38,7 @@ public class SiteSpeedReporter {
         this.template = template;
     }
 
+    @Override
     public void report(Document doc, Writer out) throws IOException {
         merger.merge(template, doc, out);
     }
@@ -0,0 +1,105 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.report;
+
+import static ch.ledcom.maven.sitespeed.history.HistorySegment.MISSING;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import ch.ledcom.maven.sitespeed.aggregate.ReactorSummary;
+import ch.ledcom.maven.sitespeed.history.Metric;
+
+/**
+ * Renders the summary of the runs of all the modules of a reactor as a single
+ * HTML page, linking to the reports of each run.
+ *
+ * @author gehel
+ */
+public class SummaryRenderer {
+
+    private static final long MB = 1024 * 1024;
+
+    public void render(List<ReactorSummary.Entry> entries, Writer out)
+            throws IOException {
+        int pages = 0;
+        long cpuTime = 0;
+        long peakRss = 0;
+        for (ReactorSummary.Entry entry : entries) {
+            pages += entry.pages();
+            cpuTime += entry.cpuTime();
+            peakRss = Math.max(peakRss, entry.peakRss());
+        }
+        out.write("<!DOCTYPE html>\n<html lang=\"en\">\n<head>\n"
+                + "  <meta charset=\"utf-8\">\n"
+                + "  <title>Sitespeed.io - Summary</title>\n"
+                + "  <meta name=\"robots\" content=\"noindex\" />\n"
+                + "  <link rel=\"stylesheet\" href=\"css/styles.css\">\n"
+                + "  <style type=\"text/css\">\n"
+                + "    th[data-sort] { cursor: pointer; color: #0095d2; }\n"
+                + "  </style>\n</head>\n<body>\n<div class=\"container\">\n");
+        out.write("<h1>Summary <small>" + entries.size() + " runs, " + pages
+                + " pages</small></h1>\n");
+        if (cpuTime > 0 || peakRss > 0) {
+            out.write("<p>Browser CPU time: " + cpuTime / 1000
+                    + " s, peak memory: " + peakRss / MB + " MB</p>\n");
+        }
+        out.write("<table class=\"table table-condensed table-striped\">\n"
+                + "<thead><tr><th data-sort=\"string\">Module</th>"
+                + "<th data-sort=\"string\">Run</th>"
+                + "<th data-sort=\"int\">Pages</th>"
+                + "<th data-sort=\"int\">Score</th>"
+                + "<th data-sort=\"int\">Load time (ms)</th>"
+                + "<th data-sort=\"int\">Requests</th>"
+                + "<th data-sort=\"int\">Weight (kb)</th>"
+                + "<th data-sort=\"int\">CPU time (s)</th>"
+                + "<th data-sort=\"int\">Peak CPU (%)</th>"
+                + "<th data-sort=\"int\">Peak memory (MB)</th></tr></thead>\n"
+                + "<tbody>\n");
+        for (ReactorSummary.Entry entry : entries) {
+            out.write("<tr><td>");
+            JavaPageRenderer.escapeHtml(entry.module(), out);
+            out.write("</td><td><a href=\"");
+            JavaPageRenderer.escapeHtml(entry.report().toURI().toString(),
+                    out);
+            out.write("\">");
+            JavaPageRenderer.escapeHtml(entry.run(), out);
+            out.write("</a></td>");
+            cell(entry.pages(), out);
+            cell(entry.average(Metric.SCORE), out);
+            cell(entry.average(Metric.LOAD_TIME), out);
+            cell(entry.average(Metric.REQUESTS), out);
+            int weight = entry.average(Metric.WEIGHT);
+            cell(weight == MISSING ? MISSING : weight / 1024, out);
+            boolean profiled = entry.profiledPages() > 0;
+            cell(profiled ? (int) (entry.cpuTime() / 1000) : MISSING, out);
+            cell(profiled ? (int) entry.peakCpu() : MISSING, out);
+            cell(profiled ? (int) (entry.peakRss() / MB) : MISSING, out);
+            out.write("</tr>\n");
+        }
+        out.write("</tbody>\n</table>\n</div>\n"
+                + "<script src=\"js/all.js\"></script>\n"
+                + "<script>$(function () { $('table').stupidtable(); });"
+                + "</script>\n</body>\n</html>\n");
+    }
+
+    private static void cell(int value, Writer out) throws IOException {
+        out.write("<td>");
+        if (value != MISSING) {
+            out.write(Integer.toString(value));
+        }
+        out.write("</td>");
+    }
+}
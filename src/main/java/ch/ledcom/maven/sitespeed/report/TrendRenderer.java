@@ -0,0 +1,181 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.report;
+
+import static ch.ledcom.maven.sitespeed.history.HistorySegment.MISSING;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+import ch.ledcom.maven.sitespeed.history.Metric;
+import ch.ledcom.maven.sitespeed.history.Trend;
+
+/**
+ * Renders a {@link Trend} as a single HTML page: the site averages of each
+ * run, then the score and weight of each URL across runs, URLs whose score
+ * dropped the most first.
+ *
+ * @author gehel
+ */
+public class TrendRenderer {
+
+    private static final int SPARKLINE_WIDTH = 120;
+    private static final int SPARKLINE_HEIGHT = 24;
+
+    public void render(Trend trend, Writer out) throws IOException {
+        out.write("<!DOCTYPE html>\n<html lang=\"en\">\n<head>\n"
+                + "  <meta charset=\"utf-8\">\n"
+                + "  <title>Sitespeed.io - Trend</title>\n"
+                + "  <meta name=\"robots\" content=\"noindex\" />\n"
+                + "  <link rel=\"stylesheet\" href=\"css/styles.css\">\n"
+                + "  <style type=\"text/css\">\n"
+                + "    th[data-sort] { cursor: pointer; color: #0095d2; }\n"
+                + "    .nobreak-page { word-wrap: break-word; max-width: 450px; }\n"
+                + "    polyline { fill: none; stroke: #0095d2; stroke-width: 1.5; }\n"
+                + "  </style>\n</head>\n<body>\n<div class=\"container\">\n");
+        out.write("<h1>Trend <small>" + trend.runs() + " runs, "
+                + trend.urls().size() + " pages</small></h1>\n");
+        site(trend, out);
+        pages(trend, out);
+        out.write("</div>\n<script src=\"js/all.js\"></script>\n"
+                + "<script>$(function () { $('table').stupidtable(); });"
+                + "</script>\n</body>\n</html>\n");
+    }
+
+    private void site(Trend trend, Writer out) throws IOException {
+        int[] scores = new int[trend.runs()];
+        for (int run = 0; run < scores.length; run++) {
+            scores[run] = trend.average(Metric.SCORE, run);
+        }
+        out.write("<h2>Site</h2>\n<p>Average score ");
+        sparkline(scores, 100, out);
+        out.write("</p>\n<table class=\"table table-condensed table-striped\">\n"
+                + "<thead><tr><th>Run</th><th>Pages</th><th>Score</th>"
+                + "<th>Load time (ms)</th><th>Requests</th>"
+                + "<th>Weight (kb)</th></tr></thead>\n<tbody>\n");
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+        for (int run = trend.runs() - 1; run >= 0; run--) {
+            out.write("<tr><td>");
+            out.write(format.format(new Date(trend.timestamp(run))));
+            out.write("</td>");
+            cell(trend.pages(run), out);
+            cell(trend.average(Metric.SCORE, run), out);
+            cell(trend.average(Metric.LOAD_TIME, run), out);
+            cell(trend.average(Metric.REQUESTS, run), out);
+            cell(kb(trend.average(Metric.WEIGHT, run)), out);
+            out.write("</tr>\n");
+        }
+        out.write("</tbody>\n</table>\n");
+    }
+
+    private void pages(final Trend trend, Writer out) throws IOException {
+        List<String> urls = new ArrayList<String>(trend.urls());
+        Collections.sort(urls, new Comparator<String>() {
+            @Override
+            public int compare(String url1, String url2) {
+                int delta1 = delta(trend.series(url1, Metric.SCORE));
+                int delta2 = delta(trend.series(url2, Metric.SCORE));
+                return delta1 < delta2 ? -1 : (delta1 == delta2 ? 0 : 1);
+            }
+        });
+        out.write("<h2>Pages</h2>\n"
+                + "<table class=\"table table-condensed table-striped\">\n"
+                + "<thead><tr><th data-sort=\"string\">URL</th>"
+                + "<th>Score</th><th data-sort=\"int\">Last score</th>"
+                + "<th data-sort=\"int\">Score change</th>"
+                + "<th data-sort=\"int\">Last load time (ms)</th>"
+                + "<th data-sort=\"int\">Last weight (kb)</th>"
+                + "<th data-sort=\"int\">Weight change (kb)</th>"
+                + "</tr></thead>\n<tbody>\n");
+        for (String url : urls) {
+            int[] scores = trend.series(url, Metric.SCORE);
+            int[] weights = trend.series(url, Metric.WEIGHT);
+            out.write("<tr><td class=\"nobreak-page\">");
+            JavaPageRenderer.escapeHtml(url, out);
+            out.write("</td><td>");
+            sparkline(scores, 100, out);
+            out.write("</td>");
+            cell(last(scores), out);
+            cell(delta(scores), out);
+            cell(last(trend.series(url, Metric.LOAD_TIME)), out);
+            cell(kb(last(weights)), out);
+            cell(delta(weights) / 1024, out);
+            out.write("</tr>\n");
+        }
+        out.write("</tbody>\n</table>\n");
+    }
+
+    /**
+     * Inline SVG line of the values, from 0 to <code>max</code>, skipping
+     * missing values.
+     */
+    private static void sparkline(int[] values, int max, Writer out)
+            throws IOException {
+        out.write("<svg width=\"" + SPARKLINE_WIDTH + "\" height=\""
+                + SPARKLINE_HEIGHT + "\"><polyline points=\"");
+        double step = values.length > 1 ? (double) (SPARKLINE_WIDTH - 2)
+                / (values.length - 1) : 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == MISSING) {
+                continue;
+            }
+            double y = SPARKLINE_HEIGHT - 1 - (double) Math.min(max, values[i])
+                    * (SPARKLINE_HEIGHT - 2) / max;
+            out.write(Math.round(1 + i * step) + "," + Math.round(y) + " ");
+        }
+        out.write("\"/></svg>");
+    }
+
+    private static void cell(int value, Writer out) throws IOException {
+        out.write("<td>");
+        if (value != MISSING) {
+            out.write(Integer.toString(value));
+        }
+        out.write("</td>");
+    }
+
+    private static int kb(int bytes) {
+        return bytes == MISSING ? MISSING : bytes / 1024;
+    }
+
+    private static int last(int[] values) {
+        for (int i = values.length - 1; i >= 0; i--) {
+            if (values[i] != MISSING) {
+                return values[i];
+            }
+        }
+        return MISSING;
+    }
+
+    /**
+     * Last value minus first value, 0 if the URL was only measured once.
+     */
+    private static int delta(int[] values) {
+        int first = MISSING;
+        for (int value : values) {
+            if (value != MISSING) {
+                first = value;
+                break;
+            }
+        }
+        int last = last(values);
+        return first == MISSING ? 0 : last - first;
+    }
+}
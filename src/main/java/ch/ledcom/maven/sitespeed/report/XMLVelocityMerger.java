@@ -23,12 +23,16 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.VelocityEngine;
 import org.jdom2.Document;
 
+import ch.ledcom.maven.sitespeed.rules.RuleDictionary;
+
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
 
@@ -39,16 +43,27 @@ public class XMLVelocityMerger {
      */
     public static final String CONTEXT_DOCUMENT = "document";
 
+    /**
+     * The rule dictionary of the document (see {@link RuleDictionary}), added
+     * to the context when known.
+     */
+    public static final String CONTEXT_DICTIONARY = "dictionary";
+
     public static final String CONTEXT_PROPERTY_OBJECT = "velocity.context.object";
 
+    /**
+     * Engines are shared by all the mergers of the JVM configured with the
+     * same properties, so that a daemon parses each template only once.
+     */
+    private static final ConcurrentMap<Properties, VelocityEngine> ENGINES = new ConcurrentHashMap<Properties, VelocityEngine>();
+
     protected final VelocityContext context = new VelocityContext();
 
     protected final VelocityEngine ve;
 
     @Inject
     public XMLVelocityMerger(@Named(MERGER_PROPERTIES) Properties properties) {
-        ve = new VelocityEngine(properties);
-        ve.init();
+        ve = engine(properties);
 
         Map<String, String> keyAndClasses = getClasses(properties);
         for (Entry<String, String> value : keyAndClasses.entrySet()) {
@@ -71,11 +86,35 @@ public class XMLVelocityMerger {
         }
     }
 
+    /**
+     * Can be called concurrently: the document is put in a context of its
+     * own, which inherits the shared tools.
+     */
     public void merge(String template, Document doc, Writer out)
             throws IOException {
-        context.put(CONTEXT_DOCUMENT, doc);
+        VelocityContext pageContext = new VelocityContext(context);
+        pageContext.put(CONTEXT_DOCUMENT, doc);
+        RuleDictionary dictionary = RuleDictionary.of(doc.getRootElement());
+        if (dictionary != null) {
+            pageContext.put(CONTEXT_DICTIONARY, dictionary);
+        }
         final Template fromTemplate = ve.getTemplate(template);
-        fromTemplate.merge(context, out);
+        fromTemplate.merge(pageContext, out);
+    }
+
+    private static VelocityEngine engine(Properties properties) {
+        VelocityEngine engine = ENGINES.get(properties);
+        if (engine == null) {
+            Properties key = new Properties();
+            key.putAll(properties);
+            engine = new VelocityEngine(key);
+            engine.init();
+            VelocityEngine previous = ENGINES.putIfAbsent(key, engine);
+            if (previous != null) {
+                engine = previous;
+            }
+        }
+        return engine;
     }
 
     private Map<String, String> getClasses(Properties properties) {
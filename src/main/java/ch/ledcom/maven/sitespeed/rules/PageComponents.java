@@ -0,0 +1,220 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.rules;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+import javax.annotation.Nullable;
+
+import org.jdom2.Element;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * The components of an analyzed page, as listed in the <code>comps</code>
+ * section of its YSlow result: everything the rules need that does not
+ * depend on the DOM or on the content of the components.
+ *
+ * @author gehel
+ */
+public final class PageComponents {
+
+    private final String url;
+    private final ImmutableList<Component> components;
+
+    private PageComponents(String url, ImmutableList<Component> components) {
+        this.url = url;
+        this.components = components;
+    }
+
+    /**
+     * @return <code>null</code> if the result does not list its components
+     */
+    @Nullable
+    public static PageComponents of(Element results) {
+        Element comps = results.getChild("comps");
+        if (comps == null) {
+            return null;
+        }
+        ImmutableList.Builder<Component> components = ImmutableList.builder();
+        for (Element comp : comps.getChildren()) {
+            components.add(new Component(comp));
+        }
+        return new PageComponents(decode(results.getChildText("u")),
+                components.build());
+    }
+
+    public String url() {
+        return url;
+    }
+
+    public List<Component> all() {
+        return components;
+    }
+
+    public List<Component> ofType(List<String> types) {
+        ImmutableList.Builder<Component> matching = ImmutableList.builder();
+        for (Component component : components) {
+            if (types.contains(component.type())) {
+                matching.add(component);
+            }
+        }
+        return matching.build();
+    }
+
+    static String hostname(String url) {
+        String[] parts = url.split("/");
+        return parts.length > 2 ? parts[2].split(":")[0] : "";
+    }
+
+    private static String decode(@Nullable String value) {
+        if (value == null) {
+            return "";
+        }
+        try {
+            return URLDecoder.decode(value, Charsets.UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        } catch (IllegalArgumentException e) {
+            // not encoded
+            return value;
+        }
+    }
+
+    public static final class Component {
+        private final String type;
+        private final String url;
+        private final long size;
+        private final boolean gzip;
+        private final Map<String, String> response;
+        private final Map<String, String> request;
+
+        private Component(Element comp) {
+            this.type = comp.getChildTextTrim("type");
+            this.url = decode(comp.getChildTextTrim("url"));
+            this.size = parseLong(comp.getChildTextTrim("size"));
+            this.gzip = comp.getChild("gzip") != null;
+            Element headers = comp.getChild("headers");
+            this.response = headers(headers == null ? null : headers
+                    .getChild("response"));
+            this.request = headers(headers == null ? null : headers
+                    .getChild("request"));
+        }
+
+        public String type() {
+            return type;
+        }
+
+        public String url() {
+            return url;
+        }
+
+        public long size() {
+            return size;
+        }
+
+        public boolean isCompressed() {
+            String encoding = header("content-encoding");
+            return gzip || "gzip".equals(encoding) || "deflate".equals(encoding);
+        }
+
+        /**
+         * A response header, by its lower case name.
+         */
+        @Nullable
+        public String header(String name) {
+            return response.get(name);
+        }
+
+        /**
+         * A request header, by its lower case name.
+         */
+        @Nullable
+        public String requestHeader(String name) {
+            return request.get(name);
+        }
+
+        /**
+         * How long the component can be cached, from its Expires header or
+         * else its max-age, as YSlow does.
+         *
+         * @return the time in seconds, or -1 if it cannot be cached
+         */
+        public long cacheTime() {
+            Date expires = parseDate(header("expires"));
+            Date date = parseDate(header("date"));
+            if (expires != null && date != null) {
+                return (expires.getTime() - date.getTime()) / 1000;
+            }
+            String cacheControl = header("cache-control");
+            if (cacheControl != null) {
+                int index = cacheControl.indexOf("max-age");
+                if (index >= 0) {
+                    long maxAge = parseLong(cacheControl.substring(index + 8)
+                            .split("[^0-9]")[0]);
+                    if (maxAge > 0) {
+                        return maxAge;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        private static Map<String, String> headers(@Nullable Element headers) {
+            if (headers == null) {
+                return ImmutableMap.of();
+            }
+            ImmutableMap.Builder<String, String> builder = ImmutableMap
+                    .builder();
+            for (Element header : headers.getChildren()) {
+                builder.put(header.getName().toLowerCase(Locale.ENGLISH),
+                        header.getTextTrim());
+            }
+            return builder.build();
+        }
+
+        private static long parseLong(@Nullable String value) {
+            try {
+                return value == null ? 0 : Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+
+        @Nullable
+        private static Date parseDate(@Nullable String value) {
+            if (value == null) {
+                return null;
+            }
+            SimpleDateFormat format = new SimpleDateFormat(
+                    "EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+            format.setTimeZone(TimeZone.getTimeZone("GMT"));
+            try {
+                return format.parse(value);
+            } catch (ParseException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.rules;
+
+/**
+ * A YSlow rule that can be evaluated from the components of a page alone.
+ *
+ * @author gehel
+ */
+public interface Rule {
+
+    String id();
+
+    /**
+     * @return the score of the page, between 0 and 100
+     */
+    int score(PageComponents page, RuleConfig config);
+}
@@ -0,0 +1,50 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.rules;
+
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * The parameters of a rule in a {@link Ruleset}, overriding the defaults of
+ * the rule.
+ *
+ * @author gehel
+ */
+public final class RuleConfig {
+
+    private static final Splitter SPLITTER = Splitter.on(',').trimResults()
+            .omitEmptyStrings();
+
+    private final Map<String, String> values;
+
+    public RuleConfig(Map<String, String> values) {
+        this.values = ImmutableMap.copyOf(values);
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = values.get(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    public List<String> getList(String key, List<String> defaultValue) {
+        String value = values.get(key);
+        return value == null ? defaultValue : ImmutableList.copyOf(SPLITTER
+                .split(value));
+    }
+}
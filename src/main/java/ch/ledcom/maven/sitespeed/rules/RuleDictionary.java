@@ -0,0 +1,233 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.rules;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nullable;
+
+import org.jdom2.Element;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * The rule dictionary of a ruleset: the name, description and weight of
+ * each of its rules, as given by YSlow.
+ *
+ * The dictionary is the same for every page analyzed with a ruleset, so it
+ * is taken out of the results and kept once per ruleset and per JVM. Results
+ * keep the id of their ruleset (<code>i</code>), which is enough to find
+ * their dictionary again. Rules are indexed in the order of the dictionary.
+ *
+ * Results still holding their own dictionary, as stored by older versions,
+ * are supported too.
+ *
+ * @author gehel
+ */
+public final class RuleDictionary {
+
+    public static final String ELEMENT = "dictionary";
+
+    private static final String RULESET = "i";
+    private static final String RULES = "rules";
+
+    private static final ConcurrentMap<String, RuleDictionary> DICTIONARIES = new ConcurrentHashMap<String, RuleDictionary>();
+
+    @Nullable
+    private final String ruleset;
+    private final Element element;
+    private final ImmutableList<Rule> rules;
+    private final ImmutableMap<String, Integer> index;
+
+    private RuleDictionary(@Nullable String ruleset, Element element) {
+        this.ruleset = ruleset;
+        this.element = element.clone();
+        ImmutableList.Builder<Rule> rules = ImmutableList.builder();
+        ImmutableMap.Builder<String, Integer> index = ImmutableMap.builder();
+        Element descriptions = element.getChild(RULES);
+        if (descriptions != null) {
+            int i = 0;
+            for (Element rule : descriptions.getChildren()) {
+                rules.add(new Rule(rule));
+                index.put(rule.getName(), i++);
+            }
+        }
+        this.rules = rules.build();
+        this.index = index.build();
+    }
+
+    /**
+     * The dictionary of a ruleset. The first dictionary seen for a ruleset is
+     * kept, and returned for all the following ones.
+     *
+     * @param ruleset
+     *            the id of the ruleset, the dictionary is not kept if unknown
+     * @param dictionary
+     *            the <code>dictionary</code> element of a YSlow result
+     */
+    public static RuleDictionary intern(@Nullable String ruleset,
+            Element dictionary) {
+        if (ruleset == null) {
+            return new RuleDictionary(null, dictionary);
+        }
+        RuleDictionary interned = DICTIONARIES.get(ruleset);
+        if (interned == null) {
+            interned = new RuleDictionary(ruleset, dictionary);
+            RuleDictionary previous = DICTIONARIES.putIfAbsent(ruleset,
+                    interned);
+            if (previous != null) {
+                interned = previous;
+            }
+        }
+        return interned;
+    }
+
+    /**
+     * @return the dictionary of this ruleset, or <code>null</code> if no
+     *         result of this ruleset has been seen yet
+     */
+    @Nullable
+    public static RuleDictionary forRuleset(String ruleset) {
+        return DICTIONARIES.get(ruleset);
+    }
+
+    /**
+     * The dictionary of a result, whether it still holds it or not.
+     *
+     * @param results
+     *            the root element of a YSlow result
+     * @return the dictionary, or <code>null</code> if unknown
+     */
+    @Nullable
+    public static RuleDictionary of(Element results) {
+        String ruleset = results.getChildText(RULESET);
+        Element dictionary = results.getChild(ELEMENT);
+        if (dictionary != null) {
+            return intern(ruleset, dictionary);
+        }
+        return ruleset == null ? null : DICTIONARIES.get(ruleset);
+    }
+
+    /**
+     * Take the dictionary out of a result. Results without the id of their
+     * ruleset keep their dictionary, which could not be found again.
+     *
+     * @return the dictionary of the result, or <code>null</code> if it has
+     *         none
+     */
+    @Nullable
+    public static RuleDictionary strip(Element results) {
+        Element dictionary = results.getChild(ELEMENT);
+        if (dictionary == null) {
+            return null;
+        }
+        RuleDictionary interned = intern(results.getChildText(RULESET),
+                dictionary);
+        if (interned.ruleset != null) {
+            dictionary.detach();
+        }
+        return interned;
+    }
+
+    @Nullable
+    public String ruleset() {
+        return ruleset;
+    }
+
+    /**
+     * A copy of the <code>dictionary</code> element this dictionary was read
+     * from.
+     */
+    public Element toElement() {
+        return element.clone();
+    }
+
+    public List<Rule> rules() {
+        return rules;
+    }
+
+    public int size() {
+        return rules.size();
+    }
+
+    /**
+     * @return the index of this rule, or -1 if it is not in the dictionary
+     */
+    public int indexOf(String id) {
+        Integer i = index.get(id);
+        return i == null ? -1 : i;
+    }
+
+    public Rule rule(int index) {
+        return rules.get(index);
+    }
+
+    /**
+     * @return the description of this rule, or <code>null</code> if it is not
+     *         in the dictionary
+     */
+    @Nullable
+    public Rule rule(String id) {
+        int i = indexOf(id);
+        return i < 0 ? null : rules.get(i);
+    }
+
+    /**
+     * The description of a rule. Getters are named for the templates.
+     */
+    public static final class Rule {
+        private final String id;
+        private final ImmutableMap<String, String> fields;
+
+        private Rule(Element rule) {
+            this.id = rule.getName();
+            Map<String, String> fields = new LinkedHashMap<String, String>();
+            for (Element field : rule.getChildren()) {
+                fields.put(field.getName(), field.getValue());
+            }
+            this.fields = ImmutableMap.copyOf(fields);
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        @Nullable
+        public String getName() {
+            return fields.get("name");
+        }
+
+        @Nullable
+        public String getInfo() {
+            return fields.get("info");
+        }
+
+        @Nullable
+        public String getWeight() {
+            return fields.get("weight");
+        }
+
+        /**
+         * All the fields of the rule, in the order of the dictionary.
+         */
+        public Map<String, String> getFields() {
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.rules;
+
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.annotation.Nullable;
+
+import org.jdom2.Element;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Scores stored results against a {@link Ruleset}, without running the
+ * analysis again.
+ *
+ * Rules implemented in Java are evaluated from the components of the page.
+ * The other rules need the DOM or the content of the components, which are
+ * not stored: their score is taken from the original YSlow result if it
+ * evaluated them, otherwise they are left out of the overall score. As in
+ * YSlow, the overall score is the average of the rule scores weighted by the
+ * ruleset.
+ *
+ * @author gehel
+ */
+public class RuleEngine {
+
+    public Scores score(Element results, Ruleset ruleset) {
+        PageComponents page = PageComponents.of(results);
+        Element stored = results.getChild("g");
+        ImmutableMap.Builder<String, Integer> scores = ImmutableMap.builder();
+        long weighted = 0;
+        long totalWeight = 0;
+        for (Entry<String, Integer> weight : ruleset.weights().entrySet()) {
+            String id = weight.getKey();
+            Rule rule = Rules.get(id);
+            Integer score;
+            if (rule != null && page != null) {
+                score = rule.score(page, ruleset.config(id));
+            } else {
+                score = storedScore(stored, id);
+            }
+            if (score == null) {
+                continue;
+            }
+            score = Math.max(0, Math.min(100, score));
+            scores.put(id, score);
+            weighted += (long) score * weight.getValue();
+            totalWeight += weight.getValue();
+        }
+        int overall = totalWeight > 0 ? Math.round((float) weighted
+                / totalWeight) : 0;
+        return new Scores(overall, scores.build());
+    }
+
+    @Nullable
+    private static Integer storedScore(@Nullable Element stored, String rule) {
+        Element element = stored == null ? null : stored.getChild(rule);
+        String value = element == null ? null : element.getChildTextTrim("score");
+        if (value == null || value.length() == 0) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public static final class Scores {
+        private final int overall;
+        private final Map<String, Integer> rules;
+
+        Scores(int overall, Map<String, Integer> rules) {
+            this.overall = overall;
+            this.rules = rules;
+        }
+
+        public int overall() {
+            return overall;
+        }
+
+        /**
+         * The score of each rule that could be evaluated, by rule id.
+         */
+        public Map<String, Integer> rules() {
+            return rules;
+        }
+    }
+}
@@ -0,0 +1,351 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.rules;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nullable;
+
+import ch.ledcom.maven.sitespeed.rules.PageComponents.Component;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Java implementations of the YSlow and sitespeed.io rules that only depend
+ * on the components of a page, with the same defaults as their JavaScript
+ * counterparts.
+ *
+ * @author gehel
+ */
+public final class Rules {
+
+    /** Analytics scripts that expiresmod does not penalize. */
+    private static final List<String> ANALYTICS = ImmutableList.of(
+            "https://secure.gaug.es/track.js",
+            "https://ssl.google-analytics.com/ga.js",
+            "http://www.google-analytics.com/ga.js");
+
+    private static final Map<String, Rule> RULES;
+
+    static {
+        ImmutableMap.Builder<String, Rule> rules = ImmutableMap.builder();
+        for (Rule rule : ImmutableList.of(new NumberOfRequests(),
+                new Compression(), new Expires("yexpires", true,
+                        ImmutableList.<String> of()), new Expires(
+                        "expiresmod", false, ANALYTICS), new ETags(),
+                new Duplicates(), new Redirects(), new DnsLookups(),
+                new CookieFree(), new TotalRequests(), new AvoidFonts(),
+                new InlineCssWhenFewRequests(),
+                new NoDnsLookupsWhenFewRequests())) {
+            rules.put(rule.id(), rule);
+        }
+        RULES = rules.build();
+    }
+
+    private Rules() {
+    }
+
+    /**
+     * @return <code>null</code> if this rule needs more than the components
+     *         of the page
+     */
+    @Nullable
+    public static Rule get(String id) {
+        return RULES.get(id);
+    }
+
+    private static List<String> list(String... values) {
+        return ImmutableList.copyOf(values);
+    }
+
+    /** The number of external scripts, stylesheets and CSS images. */
+    static final class NumberOfRequests implements Rule {
+        @Override
+        public String id() {
+            return "ynumreq";
+        }
+
+        @Override
+        public int score(PageComponents page, RuleConfig config) {
+            int score = 100;
+            score -= excess(page, "js", config.getInt("max_js", 3),
+                    config.getInt("points_js", 4));
+            score -= excess(page, "css", config.getInt("max_css", 2),
+                    config.getInt("points_css", 4));
+            score -= excess(page, "cssimage",
+                    config.getInt("max_cssimages", 6),
+                    config.getInt("points_cssimages", 3));
+            return score;
+        }
+
+        private static int excess(PageComponents page, String type, int max,
+                int points) {
+            int count = page.ofType(list(type)).size();
+            return count > max ? (count - max) * points : 0;
+        }
+    }
+
+    static final class Compression implements Rule {
+        @Override
+        public String id() {
+            return "ycompress";
+        }
+
+        @Override
+        public int score(PageComponents page, RuleConfig config) {
+            int minSize = config.getInt("min_filesize", 500);
+            int offenders = 0;
+            for (Component component : page.ofType(config.getList("types",
+                    list("doc", "iframe", "xhr", "js", "css")))) {
+                if (!component.isCompressed() && component.size() >= minSize) {
+                    offenders++;
+                }
+            }
+            return 100 - offenders * config.getInt("points", 11);
+        }
+    }
+
+    /** Components that expire too soon, with or without the favicon. */
+    static final class Expires implements Rule {
+        private final String id;
+        private final boolean favicon;
+        private final List<String> skip;
+
+        Expires(String id, boolean favicon, List<String> skip) {
+            this.id = id;
+            this.favicon = favicon;
+            this.skip = skip;
+        }
+
+        @Override
+        public String id() {
+            return id;
+        }
+
+        @Override
+        public int score(PageComponents page, RuleConfig config) {
+            List<String> types = favicon ? list("css", "js", "image",
+                    "cssimage", "flash", "favicon") : list("css", "js",
+                    "image", "cssimage", "flash");
+            long howFar = config.getInt("howfar", 172800);
+            List<String> skip = config.getList("skip", this.skip);
+            int offenders = 0;
+            for (Component component : page.ofType(config.getList("types",
+                    types))) {
+                if (component.cacheTime() <= howFar
+                        && !skip.contains(component.url())) {
+                    offenders++;
+                }
+            }
+            return 100 - offenders * config.getInt("points", 11);
+        }
+    }
+
+    /** ETags that contain a server specific inode or hash. */
+    static final class ETags implements Rule {
+        private static final Pattern APACHE = Pattern
+                .compile("^[0-9a-f]+-[0-9a-f]+-[0-9a-f]+$");
+        private static final Pattern IIS = Pattern
+                .compile("^[0-9a-f]+:[0-9a-f]+$");
+
+        @Override
+        public String id() {
+            return "yetags";
+        }
+
+        @Override
+        public int score(PageComponents page, RuleConfig config) {
+            int offenders = 0;
+            for (Component component : page.ofType(config.getList("types",
+                    list("flash", "js", "css", "cssimage", "image", "favicon")))) {
+                String etag = component.header("etag");
+                if (etag != null) {
+                    etag = etag.replace("\"", "");
+                    if (APACHE.matcher(etag).matches()
+                            || IIS.matcher(etag).matches()) {
+                        offenders++;
+                    }
+                }
+            }
+            return 100 - offenders * config.getInt("points", 11);
+        }
+    }
+
+    static final class Duplicates implements Rule {
+        @Override
+        public String id() {
+            return "ydupes";
+        }
+
+        @Override
+        public int score(PageComponents page, RuleConfig config) {
+            Map<String, Integer> counts = new HashMap<String, Integer>();
+            int duplicates = 0;
+            for (Component component : page.ofType(config.getList("types",
+                    list("js", "css")))) {
+                Integer count = counts.get(component.url());
+                if (count != null && count == 1) {
+                    duplicates++;
+                }
+                counts.put(component.url(), count == null ? 1 : count + 1);
+            }
+            return 100 - duplicates * config.getInt("points", 5);
+        }
+    }
+
+    static final class Redirects implements Rule {
+        @Override
+        public String id() {
+            return "yredirects";
+        }
+
+        @Override
+        public int score(PageComponents page, RuleConfig config) {
+            return 100 - page.ofType(list("redirect")).size()
+                    * config.getInt("points", 10);
+        }
+    }
+
+    static final class DnsLookups implements Rule {
+        @Override
+        public String id() {
+            return "ydns";
+        }
+
+        @Override
+        public int score(PageComponents page, RuleConfig config) {
+            int domains = domains(page.all()).size();
+            int max = config.getInt("max_domains", 4);
+            return domains > max ? 100 - (domains - max)
+                    * config.getInt("points", 5) : 100;
+        }
+    }
+
+    /** Static components sent with cookies. */
+    static final class CookieFree implements Rule {
+        @Override
+        public String id() {
+            return "ycookiefree";
+        }
+
+        @Override
+        public int score(PageComponents page, RuleConfig config) {
+            String host = PageComponents.hostname(page.url());
+            int offenders = 0;
+            for (Component component : page.ofType(config.getList("types",
+                    list("js", "css", "image", "cssimage", "flash", "favicon")))) {
+                if ("favicon".equals(component.type())
+                        && PageComponents.hostname(component.url())
+                                .equals(host)) {
+                    continue;
+                }
+                String cookie = component.requestHeader("cookie");
+                if (cookie != null && cookie.length() > 0) {
+                    offenders++;
+                }
+            }
+            return 100 - offenders * config.getInt("points", 5);
+        }
+    }
+
+    static final class TotalRequests implements Rule {
+        @Override
+        public String id() {
+            return "totalrequests";
+        }
+
+        @Override
+        public int score(PageComponents page, RuleConfig config) {
+            int requests = page.ofType(
+                    config.getList("types", list("js", "css", "image",
+                            "cssimage", "font", "flash", "favicon", "doc",
+                            "iframe"))).size();
+            return requests < 26 ? 100 : 100 + 26 - requests;
+        }
+    }
+
+    static final class AvoidFonts implements Rule {
+        @Override
+        public String id() {
+            return "avoidfont";
+        }
+
+        @Override
+        public int score(PageComponents page, RuleConfig config) {
+            return 100 - page.ofType(list("font")).size()
+                    * config.getInt("points", 10);
+        }
+    }
+
+    /** With few requests, stylesheets are better inlined. */
+    static final class InlineCssWhenFewRequests implements Rule {
+        @Override
+        public String id() {
+            return "inlinecsswhenfewrequest";
+        }
+
+        @Override
+        public int score(PageComponents page, RuleConfig config) {
+            int requests = page.ofType(
+                    list("css", "js", "image", "cssimage", "flash", "favicon"))
+                    .size();
+            int css = page.ofType(list("css")).size();
+            if (requests < config.getInt("limit", 15) && css > 0) {
+                return 100 - css * config.getInt("points", 20);
+            }
+            return 100;
+        }
+    }
+
+    /**
+     * With few requests, every component should come from the same host.
+     * Whether scripts are loaded asynchronously is not stored, so all of them
+     * are counted.
+     */
+    static final class NoDnsLookupsWhenFewRequests implements Rule {
+        @Override
+        public String id() {
+            return "nodnslookupswhenfewrequests";
+        }
+
+        @Override
+        public int score(PageComponents page, RuleConfig config) {
+            List<Component> components = page.ofType(config.getList("types",
+                    list("css", "image", "cssimage", "flash", "favicon", "js")));
+            if (components.size() < config.getInt("limit", 10)
+                    && domains(components).size() > 1) {
+                return 100 - components.size() * config.getInt("points", 20);
+            }
+            return 100;
+        }
+    }
+
+    /** Host names, excluding IP addresses that need no lookup. */
+    private static Set<String> domains(List<Component> components) {
+        Set<String> domains = new HashSet<String>();
+        for (Component component : components) {
+            String host = PageComponents.hostname(component.url());
+            if (host.length() > 0 && !host.matches("[0-9.]+")) {
+                domains.add(host);
+            }
+        }
+        return domains;
+    }
+}
@@ -0,0 +1,139 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.rules;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.io.Closeables;
+import com.google.common.io.Files;
+
+/**
+ * A set of weighted rules, as defined by YSlow, loaded from a properties
+ * file:
+ *
+ * <pre>
+ * name=YSlow(V2)
+ * ynumreq.weight=8
+ * ynumreq.max_js=3
+ * </pre>
+ *
+ * The rulesets shipped with YSlow and sitespeed.io are bundled with the
+ * plugin and can be referenced by id, other rulesets by the path of their
+ * file.
+ *
+ * @author gehel
+ */
+public final class Ruleset {
+
+    private static final String WEIGHT = "weight";
+
+    private final String id;
+    private final String name;
+    private final ImmutableSortedMap<String, Integer> weights;
+    private final ImmutableMap<String, RuleConfig> configs;
+
+    Ruleset(String id, String name, Map<String, Integer> weights,
+            Map<String, RuleConfig> configs) {
+        this.id = id;
+        this.name = name;
+        this.weights = ImmutableSortedMap.copyOf(weights);
+        this.configs = ImmutableMap.copyOf(configs);
+    }
+
+    /**
+     * @param idOrPath
+     *            the id of a bundled ruleset or the path of a ruleset file
+     */
+    public static Ruleset load(String idOrPath) throws IOException {
+        File file = new File(idOrPath);
+        if (file.isFile()) {
+            String id = Files.getNameWithoutExtension(file.getName());
+            return parse(id, new FileInputStream(file));
+        }
+        URL resource = Ruleset.class.getResource("/rulesets/" + idOrPath
+                + ".properties");
+        if (resource == null) {
+            throw new IllegalArgumentException("Unknown ruleset ["
+                    + idOrPath + "]");
+        }
+        return parse(idOrPath, resource.openStream());
+    }
+
+    private static Ruleset parse(String id, InputStream in)
+            throws IOException {
+        Properties properties = new Properties();
+        boolean threw = true;
+        try {
+            properties.load(in);
+            threw = false;
+        } finally {
+            Closeables.close(in, threw);
+        }
+        Map<String, Integer> weights = new HashMap<String, Integer>();
+        Map<String, Map<String, String>> params = new HashMap<String, Map<String, String>>();
+        for (String key : properties.stringPropertyNames()) {
+            int dot = key.indexOf('.');
+            if (dot < 0) {
+                continue;
+            }
+            String rule = key.substring(0, dot);
+            String param = key.substring(dot + 1);
+            String value = properties.getProperty(key).trim();
+            if (WEIGHT.equals(param)) {
+                weights.put(rule, Integer.valueOf(value));
+            } else {
+                if (!params.containsKey(rule)) {
+                    params.put(rule, new HashMap<String, String>());
+                }
+                params.get(rule).put(param, value);
+            }
+        }
+        Map<String, RuleConfig> configs = new HashMap<String, RuleConfig>();
+        for (String rule : weights.keySet()) {
+            Map<String, String> ruleParams = params.get(rule);
+            configs.put(rule, new RuleConfig(ruleParams != null ? ruleParams
+                    : ImmutableMap.<String, String> of()));
+        }
+        return new Ruleset(id, properties.getProperty("name", id), weights,
+                configs);
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * The weight of each rule, by rule id.
+     */
+    public Map<String, Integer> weights() {
+        return weights;
+    }
+
+    public RuleConfig config(String rule) {
+        return configs.get(rule);
+    }
+}
@@ -0,0 +1,185 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.schedule;
+
+import static ch.ledcom.maven.sitespeed.Configuration.ANALYSIS_ORDER;
+import static ch.ledcom.maven.sitespeed.Configuration.MAX_DURATION;
+import static ch.ledcom.maven.sitespeed.Configuration.SINGLE_PASS;
+
+import java.net.URI;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+import ch.ledcom.maven.sitespeed.crawler.AnalysisOrder;
+import ch.ledcom.maven.sitespeed.crawler.URICallback;
+import ch.ledcom.maven.sitespeed.journal.RunJournal;
+
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+/**
+ * Fits a run into a fixed time window.
+ *
+ * The cost of each page is estimated from the analysis times recorded in the
+ * {@link RunJournal} of the previous run, and a page is only started if its
+ * estimated cost still fits before the deadline.
+ *
+ * With the {@link AnalysisOrder#CRAWL} order, pages are also submitted longest
+ * first (LPT scheduling) within a window of {@link #WINDOW} pages, which keeps
+ * the analyzer pool busy until the end instead of leaving a few slow pages
+ * running alone. The window bounds the pages held on the heap, and pages
+ * flow to the analyzers while the site is still being crawled. With an
+ * importance order, the importance order wins: pages are submitted as they
+ * come, and only the deadline check applies.
+ *
+ * Without <code>maxDuration</code>, pages are submitted as they are crawled
+ * and always started.
+ *
+ * @author gehel
+ */
+public class DeadlineScheduler {
+
+    /** Estimated cost of a page when no previous run is known. */
+    private static final long DEFAULT_COST_MS = 30000;
+
+    /** Number of pages reordered longest first. */
+    static final int WINDOW = 256;
+
+    private final long maxDuration;
+    private final boolean singlePass;
+    private final AnalysisOrder analysisOrder;
+    private final RunJournal journal;
+
+    private volatile long deadline = Long.MAX_VALUE;
+    private volatile long defaultCost = DEFAULT_COST_MS;
+
+    /**
+     * @param maxDuration
+     *            maximum duration of a run in milliseconds, 0 for no limit
+     */
+    @Inject
+    public DeadlineScheduler(@Named(MAX_DURATION) long maxDuration,
+            @Named(SINGLE_PASS) boolean singlePass,
+            @Named(ANALYSIS_ORDER) AnalysisOrder analysisOrder,
+            RunJournal journal) {
+        this.maxDuration = maxDuration;
+        this.singlePass = singlePass;
+        this.analysisOrder = analysisOrder;
+        this.journal = journal;
+    }
+
+    public boolean isEnabled() {
+        return maxDuration > 0;
+    }
+
+    /**
+     * Start the clock. The journal must have been opened, so that the
+     * analysis times of the previous run are known.
+     */
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        deadline = System.currentTimeMillis() + maxDuration;
+        long total = 0;
+        for (Long duration : journal.previousDurations().values()) {
+            total += duration;
+        }
+        int count = journal.previousDurations().size();
+        defaultCost = count > 0 ? total / count : DEFAULT_COST_MS;
+    }
+
+    public long estimatedCost(URI uri) {
+        Long previous = journal.previousDuration(uri);
+        return previous != null ? previous : defaultCost;
+    }
+
+    /**
+     * Can the analysis of this page still complete before the deadline ?
+     */
+    public boolean canStart(URI uri) {
+        return !isEnabled()
+                || System.currentTimeMillis() + estimatedCost(uri) <= deadline;
+    }
+
+    /**
+     * Wrap a callback so that pages are submitted to it in scheduling order.
+     * With a deadline and the crawl order, up to {@link #WINDOW} pages are held
+     * back and the longest one is submitted whenever the window is full, the
+     * rest when {@link ScheduledCallback#drain()} is called. In single pass
+     * mode, the crawl needs pages to be analyzed to progress, so pages are
+     * never held back.
+     */
+    public ScheduledCallback schedule(URICallback target) {
+        return new ScheduledCallback(target, isEnabled() && !singlePass
+                && analysisOrder == AnalysisOrder.CRAWL);
+    }
+
+    public final class ScheduledCallback implements URICallback {
+
+        private final URICallback target;
+        private final boolean longestFirst;
+        private final PriorityQueue<Pending> pending = new PriorityQueue<Pending>(
+                WINDOW, new Comparator<Pending>() {
+                    @Override
+                    public int compare(Pending p1, Pending p2) {
+                        if (p1.cost != p2.cost) {
+                            return p1.cost < p2.cost ? 1 : -1;
+                        }
+                        return p1.sequence < p2.sequence ? -1 : 1;
+                    }
+                });
+        private long sequence;
+
+        private ScheduledCallback(URICallback target, boolean longestFirst) {
+            this.target = target;
+            this.longestFirst = longestFirst;
+        }
+
+        @Override
+        public void submit(URI uri) {
+            if (!longestFirst) {
+                target.submit(uri);
+                return;
+            }
+            pending.add(new Pending(uri, estimatedCost(uri), sequence++));
+            if (pending.size() > WINDOW) {
+                target.submit(pending.poll().uri);
+            }
+        }
+
+        /**
+         * Submit all held back pages, longest first. Pages of equal cost keep
+         * their crawl order.
+         */
+        public void drain() {
+            Pending page;
+            while ((page = pending.poll()) != null) {
+                target.submit(page.uri);
+            }
+        }
+    }
+
+    private static final class Pending {
+        private final URI uri;
+        private final long cost;
+        private final long sequence;
+
+        private Pending(URI uri, long cost, long sequence) {
+            this.uri = uri;
+            this.cost = cost;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.sink;
+
+/**
+ * Format of the file written by the {@link MetricsExporter}.
+ *
+ * @author gehel
+ */
+public enum ExportFormat {
+
+    /** Nothing is exported. */
+    NONE,
+
+    /**
+     * One JSON object per line, with the metrics of the page and the score of
+     * each rule.
+     */
+    JSONL,
+
+    /**
+     * One row per page. The rule columns are the rules of the first page
+     * exported.
+     */
+    CSV
+
+}
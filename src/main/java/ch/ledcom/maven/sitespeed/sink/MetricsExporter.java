@@ -0,0 +1,240 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.sink;
+
+import static ch.ledcom.maven.sitespeed.Configuration.EXPORT_FORMAT;
+import static ch.ledcom.maven.sitespeed.Configuration.RESUME;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+
+import ch.ledcom.maven.sitespeed.utils.JsonWriter;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Splitter;
+import com.google.common.io.Closeables;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+/**
+ * Exports the scores and metrics of each page as a single JSON-lines or CSV
+ * file, <code>sitespeed-metrics.jsonl</code> or
+ * <code>sitespeed-metrics.csv</code>, which dashboards can ingest without
+ * parsing the reports.
+ *
+ * Values are read directly from the result and written row by row, so
+ * memory does not depend on the number of pages. When resuming, rows are
+ * appended to the file of the previous run.
+ *
+ * @author gehel
+ */
+public class MetricsExporter implements ResultSink {
+
+    public static final String FILENAME = "sitespeed-metrics";
+
+    /** Column name and element of the result, for each metric. */
+    private static final String[][] METRICS = { { "score", "o" },
+            { "loadTime", "lt" }, { "requests", "r" },
+            { "cachedRequests", "r_c" }, { "weight", "w" },
+            { "cachedWeight", "w_c" } };
+
+    private static final String TTFB = "ttfb";
+    private static final char SEPARATOR = ',';
+    private static final Splitter SPLITTER = Splitter.on(SEPARATOR);
+
+    private final ExportFormat format;
+    private final boolean resume;
+
+    private Writer out;
+    /** Rule columns of the CSV file, <code>null</code> until known. */
+    private List<String> rules;
+
+    @Inject
+    public MetricsExporter(@Named(EXPORT_FORMAT) ExportFormat format,
+            @Named(RESUME) boolean resume) {
+        this.format = format;
+        this.resume = resume;
+    }
+
+    public boolean isEnabled() {
+        return format != ExportFormat.NONE;
+    }
+
+    @Override
+    public void open(File outputDir) throws IOException {
+        File file = new File(outputDir, FILENAME + "."
+                + format.name().toLowerCase());
+        boolean append = resume && file.length() > 0;
+        if (append && format == ExportFormat.CSV) {
+            rules = readRuleColumns(file);
+        }
+        out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(
+                file, append), Charsets.UTF_8));
+    }
+
+    @Override
+    public void accept(URI uri, Document result) throws IOException {
+        Element root = result.getRootElement();
+        if (format == ExportFormat.JSONL) {
+            writeJson(uri, root);
+        } else {
+            writeCsv(uri, root);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    private void writeJson(URI uri, Element root) throws IOException {
+        JsonWriter json = new JsonWriter(out);
+        json.beginObject();
+        json.name("url").value(uri.toString());
+        for (String[] metric : METRICS) {
+            json.name(metric[0]).value(number(root.getChildText(metric[1])));
+        }
+        json.name(TTFB).value(number(root.getAttributeValue(TTFB)));
+        json.name("rules").beginObject();
+        Element g = root.getChild("g");
+        if (g != null) {
+            for (Element rule : g.getChildren()) {
+                if (rule.getChild("score") != null) {
+                    json.name(rule.getName()).value(
+                            number(rule.getChildText("score")));
+                }
+            }
+        }
+        json.endObject();
+        json.endObject();
+        out.write('\n');
+    }
+
+    private void writeCsv(URI uri, Element root) throws IOException {
+        Element g = root.getChild("g");
+        if (rules == null) {
+            rules = new ArrayList<String>();
+            if (g != null) {
+                for (Element rule : g.getChildren()) {
+                    if (rule.getChild("score") != null) {
+                        rules.add(rule.getName());
+                    }
+                }
+            }
+            writeHeader();
+        }
+        out.write(escape(uri.toString()));
+        for (String[] metric : METRICS) {
+            out.write(SEPARATOR);
+            out.write(cell(root.getChildText(metric[1])));
+        }
+        out.write(SEPARATOR);
+        out.write(cell(root.getAttributeValue(TTFB)));
+        for (String rule : rules) {
+            out.write(SEPARATOR);
+            Element element = g == null ? null : g.getChild(rule);
+            out.write(cell(element == null ? null : element
+                    .getChildText("score")));
+        }
+        out.write('\n');
+    }
+
+    private void writeHeader() throws IOException {
+        out.write("url");
+        for (String[] metric : METRICS) {
+            out.write(SEPARATOR);
+            out.write(metric[0]);
+        }
+        out.write(SEPARATOR);
+        out.write(TTFB);
+        for (String rule : rules) {
+            out.write(SEPARATOR);
+            out.write(rule);
+        }
+        out.write('\n');
+    }
+
+    /**
+     * The rule columns of a CSV file written by a previous run.
+     */
+    private static List<String> readRuleColumns(File file) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(
+                new FileInputStream(file), Charsets.UTF_8));
+        boolean threw = true;
+        try {
+            List<String> columns = new ArrayList<String>();
+            String header = in.readLine();
+            if (header != null) {
+                for (String column : SPLITTER.split(header)) {
+                    columns.add(column);
+                }
+            }
+            threw = false;
+            // url, metrics and time to first byte come first
+            int fixed = METRICS.length + 2;
+            return new ArrayList<String>(columns.subList(
+                    Math.min(fixed, columns.size()), columns.size()));
+        } finally {
+            Closeables.close(in, threw);
+        }
+    }
+
+    /**
+     * Only numbers are exported, anything else is left empty.
+     */
+    private static String cell(@Nullable String value) {
+        double number = number(value);
+        if (Double.isNaN(number) || Double.isInfinite(number)) {
+            return "";
+        }
+        return value.trim();
+    }
+
+    private static String escape(String value) {
+        if (value.indexOf(SEPARATOR) < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static double number(@Nullable String value) {
+        if (value == null) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.sink;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+
+import org.jdom2.Document;
+
+/**
+ * Receives the result of each analyzed page, next to the reports.
+ *
+ * Each sink runs on its own thread, so a sink is never called concurrently
+ * and does not need to be thread safe. Sinks are fed through a bounded
+ * buffer: a slow sink slows down the run instead of accumulating results.
+ *
+ * Besides the built-in sinks, sinks are loaded with {@link java.util.ServiceLoader}
+ * from the dependencies of the plugin: implementations need a public no
+ * argument constructor and a
+ * <code>META-INF/services/ch.ledcom.maven.sitespeed.sink.ResultSink</code>
+ * entry.
+ *
+ * @author gehel
+ */
+public interface ResultSink extends Closeable {
+
+    /**
+     * Called once, before any result.
+     *
+     * @param outputDir
+     *            the output directory of the run
+     */
+    void open(File outputDir) throws IOException;
+
+    /**
+     * The result of a page. The document must not be modified.
+     */
+    void accept(URI uri, Document result) throws IOException;
+
+}
@@ -0,0 +1,206 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.sink;
+
+import static ch.ledcom.maven.sitespeed.Configuration.OUTPUT_DIR;
+import static ch.ledcom.maven.sitespeed.Configuration.SINK_BUFFER;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.logging.Log;
+import org.jdom2.Document;
+
+import ch.ledcom.maven.sitespeed.aggregate.RunSummary;
+import ch.ledcom.maven.sitespeed.history.HistoryStore;
+import ch.ledcom.maven.sitespeed.pipeline.Source;
+import ch.ledcom.maven.sitespeed.pipeline.Stage;
+
+import com.google.common.io.Closer;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+/**
+ * Fans the result of each page out to all {@link ResultSink}s.
+ *
+ * Each sink has its own {@link Stage}, holding at most <code>buffer</code>
+ * results, and its own thread. Sinks run concurrently with each other and
+ * with the rest of the run, and {@link #publish(URI, Document)} only waits
+ * when a sink has fallen <code>buffer</code> results behind.
+ *
+ * @author gehel
+ */
+public class ResultSinks implements Closeable {
+
+    private static final long TERMINATION_TIMEOUT_HOURS = 24;
+
+    private final List<ResultSink> sinks;
+    private final int buffer;
+    private final File outputDir;
+    private final Log log;
+
+    private final List<Channel> channels = new ArrayList<Channel>();
+
+    @Inject
+    public ResultSinks(MetricsExporter exporter, HistoryStore history,
+            RunSummary summary, @Named(SINK_BUFFER) int buffer,
+            @Named(OUTPUT_DIR) File outputDir, Log log) {
+        this(builtInAndLoaded(exporter, history, summary), buffer, outputDir,
+                log);
+    }
+
+    ResultSinks(List<ResultSink> sinks, int buffer, File outputDir, Log log) {
+        this.sinks = sinks;
+        this.buffer = Math.max(1, buffer);
+        this.outputDir = outputDir;
+        this.log = log;
+    }
+
+    private static List<ResultSink> builtInAndLoaded(
+            MetricsExporter exporter, HistoryStore history, RunSummary summary) {
+        List<ResultSink> sinks = new ArrayList<ResultSink>();
+        if (exporter.isEnabled()) {
+            sinks.add(exporter);
+        }
+        if (history.isEnabled()) {
+            sinks.add(history);
+        }
+        if (summary.isEnabled()) {
+            sinks.add(summary);
+        }
+        for (ResultSink sink : ServiceLoader.load(ResultSink.class,
+                ResultSink.class.getClassLoader())) {
+            sinks.add(sink);
+        }
+        return sinks;
+    }
+
+    public boolean isEnabled() {
+        return !sinks.isEmpty();
+    }
+
+    public synchronized void open() throws IOException {
+        for (ResultSink sink : sinks) {
+            log.info("Sending results to [" + sink.getClass().getName() + "]");
+            sink.open(outputDir);
+            channels.add(new Channel(sink));
+        }
+    }
+
+    /**
+     * Send a result to all sinks. Can be called concurrently. Waits while a
+     * sink is <code>buffer</code> results behind.
+     */
+    public void publish(URI uri, Document result) throws InterruptedException {
+        for (Channel channel : channels) {
+            channel.publish(new Result(uri, result));
+        }
+    }
+
+    /**
+     * Wait for all sinks to receive the results already published, then
+     * close them.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        Closer closer = Closer.create();
+        try {
+            for (Channel channel : channels) {
+                closer.register(channel.sink);
+                channel.complete();
+            }
+        } catch (Throwable t) {
+            throw closer.rethrow(t);
+        } finally {
+            channels.clear();
+            closer.close();
+        }
+    }
+
+    private final class Channel {
+        private final ResultSink sink;
+        private final Source<Result> source = new Source<Result>();
+        private final Stage<Result, Void> stage;
+        private final ListeningExecutorService executor;
+
+        private Channel(final ResultSink sink) {
+            this.sink = sink;
+            this.executor = MoreExecutors.listeningDecorator(Executors
+                    .newSingleThreadExecutor(new ThreadFactoryBuilder()
+                            .setDaemon(true).setNameFormat("sitespeed-sink-%d")
+                            .build()));
+            this.stage = new Stage<Result, Void>(sink.getClass()
+                    .getSimpleName(), buffer, new AsyncFunction<Result, Void>() {
+                @Override
+                public ListenableFuture<Void> apply(final Result result) {
+                    return executor.submit(new Callable<Void>() {
+                        @Override
+                        public Void call() throws IOException {
+                            sink.accept(result.uri, result.document);
+                            return null;
+                        }
+                    });
+                }
+            }, log);
+            source.subscribe(stage);
+        }
+
+        /**
+         * Items must not be sent concurrently to a stage, so publishers of a
+         * channel take turns.
+         */
+        private synchronized void publish(Result result)
+                throws InterruptedException {
+            source.publish(result);
+        }
+
+        private void complete() {
+            synchronized (this) {
+                source.complete();
+            }
+            try {
+                stage.awaitTermination(TERMINATION_TIMEOUT_HOURS,
+                        TimeUnit.HOURS);
+                executor.shutdown();
+                executor.awaitTermination(TERMINATION_TIMEOUT_HOURS,
+                        TimeUnit.HOURS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static final class Result {
+        private final URI uri;
+        private final Document document;
+
+        private Result(URI uri, Document document) {
+            this.uri = uri;
+            this.document = document;
+        }
+    }
+}
@@ -0,0 +1,339 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.store;
+
+import static ch.ledcom.maven.sitespeed.Configuration.OUTPUT_DIR;
+import static ch.ledcom.maven.sitespeed.Configuration.RESUME;
+import static ch.ledcom.maven.sitespeed.Configuration.STORE_RESULTS;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import javax.annotation.Nullable;
+
+import org.jdom2.Document;
+import org.jdom2.JDOMException;
+import org.jdom2.input.SAXBuilder;
+import org.jdom2.output.Format;
+import org.jdom2.output.XMLOutputter;
+
+import ch.ledcom.maven.sitespeed.rules.RuleDictionary;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Closeables;
+import com.google.common.io.Resources;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+/**
+ * Append-only store of the analysis result of each page, so that reports can
+ * be generated again without a browser or network (see the report goal).
+ *
+ * Each result is deflated separately, with a preset dictionary made of the
+ * elements, rule names and headers found in every YSlow result. Results are
+ * small, so deflate finds few repetitions within a single result, but most
+ * of their markup is found in the dictionary.
+ *
+ * The file starts with {@link #MAGIC}, then each record holds the URI of the
+ * page, the length of the XML result, and the compressed result. A crash
+ * truncates at most the last record, which is ignored when reading.
+ *
+ * Results do not hold the rule dictionary of their ruleset (see
+ * {@link RuleDictionary}), which is stored once, in a record of its own
+ * written before the first result of the ruleset. Its URI is the id of the
+ * ruleset in the {@link #RULES_SCHEME} scheme.
+ *
+ * @author gehel
+ */
+public class ResultStore implements Closeable {
+
+    public static final String FILENAME = "sitespeed.results";
+
+    private static final byte[] MAGIC = "SSRES001".getBytes(Charsets.US_ASCII);
+    private static final String DICTIONARY = "yslow-results.dict";
+    private static final String RULES_SCHEME = "rules";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File file;
+    private final boolean resume;
+    private final boolean enabled;
+    private final byte[] dictionary;
+    private final Set<String> storedRulesets = new HashSet<String>();
+
+    private DataOutputStream out;
+
+    @Inject
+    public ResultStore(@Named(OUTPUT_DIR) File outputDir,
+            @Named(RESUME) boolean resume,
+            @Named(STORE_RESULTS) boolean enabled) throws IOException {
+        this.file = new File(outputDir, FILENAME);
+        this.resume = resume;
+        this.enabled = enabled;
+        this.dictionary = dictionary();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Start a new store. When resuming, results are appended to the store of
+     * the previous run.
+     */
+    public synchronized void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        if (!file.getParentFile().exists()) {
+            file.getParentFile().mkdirs();
+        }
+        boolean append = resume && hasMagic(file);
+        out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(file, append), BUFFER_SIZE));
+        if (!append) {
+            out.write(MAGIC);
+        }
+        storedRulesets.clear();
+    }
+
+    /**
+     * Store the result of a page. Compression is done by the calling thread,
+     * only the write to the file is serialized.
+     */
+    public void store(URI uri, Document doc) throws IOException {
+        if (!enabled) {
+            return;
+        }
+        RuleDictionary rules = RuleDictionary.of(doc.getRootElement());
+        byte[] raw = xml(doc);
+        byte[] compressed = deflate(raw);
+        synchronized (this) {
+            if (out == null) {
+                throw new IllegalStateException("Result store is not open");
+            }
+            if (rules != null && rules.ruleset() != null
+                    && storedRulesets.add(rules.ruleset())) {
+                byte[] rawRules = xml(new Document(rules.toElement()));
+                write(RULES_SCHEME + ":" + rules.ruleset(), rawRules,
+                        deflate(rawRules));
+            }
+            write(uri.toString(), raw, compressed);
+        }
+    }
+
+    private void write(String uri, byte[] raw, byte[] compressed)
+            throws IOException {
+        out.writeUTF(uri);
+        out.writeInt(raw.length);
+        out.writeInt(compressed.length);
+        out.write(compressed);
+    }
+
+    private static byte[] xml(Document doc) throws IOException {
+        ByteArrayOutputStream xml = new ByteArrayOutputStream();
+        new XMLOutputter(Format.getRawFormat()).output(doc, xml);
+        return xml.toByteArray();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    /**
+     * Read the results stored in an output directory, in the order they were
+     * stored.
+     */
+    public static Reader read(File outputDir) throws IOException {
+        File file = new File(outputDir, FILENAME);
+        if (!hasMagic(file)) {
+            throw new IOException("No stored results in [" + file
+                    + "], run the sitespeed goal with storeResults first");
+        }
+        return new Reader(file, dictionary());
+    }
+
+    private byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setDictionary(dictionary);
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(
+                    raw.length / 4 + 64);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                compressed.write(buffer, 0, n);
+            }
+            return compressed.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static boolean hasMagic(File file) throws IOException {
+        if (!file.isFile() || file.length() < MAGIC.length) {
+            return false;
+        }
+        DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            return Arrays.equals(MAGIC, magic);
+        } finally {
+            in.close();
+        }
+    }
+
+    private static byte[] dictionary() throws IOException {
+        return Resources.toByteArray(Resources.getResource(DICTIONARY));
+    }
+
+    /**
+     * Sequential reader of a result store. Results are only decompressed and
+     * parsed by {@link StoredResult#document()}, so that this can be done in
+     * parallel by the callers.
+     */
+    public static final class Reader implements Closeable {
+        private final DataInputStream in;
+        private final byte[] dictionary;
+        private final File file;
+
+        private Reader(File file, byte[] dictionary) throws IOException {
+            this.file = file;
+            this.dictionary = dictionary;
+            this.in = new DataInputStream(new BufferedInputStream(
+                    new FileInputStream(file), BUFFER_SIZE));
+            boolean threw = true;
+            try {
+                in.readFully(new byte[MAGIC.length]);
+                threw = false;
+            } finally {
+                if (threw) {
+                    Closeables.close(in, true);
+                }
+            }
+        }
+
+        /**
+         * Rule dictionaries found on the way are kept, see
+         * {@link RuleDictionary#forRuleset(String)}.
+         *
+         * @return the next result, or <code>null</code> at the end of the
+         *         store
+         */
+        @Nullable
+        public StoredResult next() throws IOException {
+            try {
+                while (true) {
+                    URI uri = URI.create(in.readUTF());
+                    int length = in.readInt();
+                    byte[] compressed = new byte[in.readInt()];
+                    in.readFully(compressed);
+                    StoredResult result = new StoredResult(uri, length,
+                            compressed, dictionary);
+                    if (!RULES_SCHEME.equals(uri.getScheme())) {
+                        return result;
+                    }
+                    RuleDictionary.intern(uri.getSchemeSpecificPart(),
+                            result.document().getRootElement());
+                }
+            } catch (EOFException e) {
+                // end of the store, or last result truncated by a crash
+                return null;
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Corrupted result store [" + file + "]",
+                        e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    public static final class StoredResult {
+        private final URI uri;
+        private final int length;
+        private final byte[] compressed;
+        private final byte[] dictionary;
+
+        private StoredResult(URI uri, int length, byte[] compressed,
+                byte[] dictionary) {
+            this.uri = uri;
+            this.length = length;
+            this.compressed = compressed;
+            this.dictionary = dictionary;
+        }
+
+        public URI uri() {
+            return uri;
+        }
+
+        public Document document() throws IOException {
+            byte[] raw = new byte[length];
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(compressed);
+                int read = 0;
+                while (read < length) {
+                    int n = inflater.inflate(raw, read, length - read);
+                    if (n == 0 && inflater.needsDictionary()) {
+                        inflater.setDictionary(dictionary);
+                    } else if (n == 0) {
+                        break;
+                    }
+                    read += n;
+                }
+                if (read != length) {
+                    throw new IOException("Stored result of [" + uri
+                            + "] is truncated");
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Stored result of [" + uri
+                        + "] is corrupted", e);
+            } finally {
+                inflater.end();
+            }
+            try {
+                return new SAXBuilder().build(new ByteArrayInputStream(raw));
+            } catch (JDOMException e) {
+                throw new IOException("Could not parse stored result of ["
+                        + uri + "]", e);
+            }
+        }
+    }
+}
@@ -16,12 +16,34 @@ package ch.ledcom.maven.sitespeed.utils;
 import java.net.MalformedURLException;
 import java.net.URL;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
 /**
  * Class to manipulate hosts.
  * 
+ * The same assets are found on most pages of a site, so hosts are cached by
+ * URL instead of parsing the URL again for each page. A single instance is
+ * shared by all reports, and can be used concurrently.
  */
 public final class HostTool {
 
+    private static final int MAX_URLS = 10000;
+
+    private final LoadingCache<String, String> hosts = CacheBuilder
+            .newBuilder().maximumSize(MAX_URLS)
+            .build(new CacheLoader<String, String>() {
+                @Override
+                public String load(String url) {
+                    try {
+                        return (new URL(url)).getHost();
+                    } catch (MalformedURLException e) {
+                        return "";
+                    }
+                }
+            });
+
     public HostTool() {
     }
     
@@ -34,10 +56,6 @@ public final class HostTool {
      * @return the host
      */
     public final String getHost(String url) {
-        try {
-            return (new URL(url)).getHost();
-        } catch (MalformedURLException e) {
-            return "";
-        }
+        return url == null ? "" : hosts.getUnchecked(url);
     }
 }
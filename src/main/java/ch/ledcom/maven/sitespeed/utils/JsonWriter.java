@@ -0,0 +1,203 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.utils;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.BitSet;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Streaming JSON writer: values are written as soon as they are given, so
+ * arbitrarily large documents can be produced with constant memory.
+ *
+ * The writer only checks that names are given inside objects; producing a
+ * well formed document is up to the caller.
+ *
+ * @author gehel
+ */
+public class JsonWriter implements Closeable, Flushable {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Writer out;
+
+    /** For each open object or array: has it a value already ? */
+    private final BitSet hasValue = new BitSet();
+    /** For each open object or array: is it an object ? */
+    private final BitSet isObject = new BitSet();
+    private int depth;
+    private boolean afterName;
+
+    public JsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    public JsonWriter beginObject() throws IOException {
+        return open('{', true);
+    }
+
+    public JsonWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    public JsonWriter beginArray() throws IOException {
+        return open('[', false);
+    }
+
+    public JsonWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    public JsonWriter name(String name) throws IOException {
+        Preconditions.checkState(depth > 0 && isObject.get(depth - 1)
+                && !afterName, "Names are only allowed in objects");
+        separate();
+        string(name);
+        out.write(':');
+        afterName = true;
+        return this;
+    }
+
+    public JsonWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        beforeValue();
+        string(value);
+        return this;
+    }
+
+    public JsonWriter value(long value) throws IOException {
+        beforeValue();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    /**
+     * Non finite values are written as <code>null</code>, as JSON cannot
+     * represent them.
+     */
+    public JsonWriter value(double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return nullValue();
+        }
+        beforeValue();
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.write(Long.toString((long) value));
+        } else {
+            out.write(Double.toString(value));
+        }
+        return this;
+    }
+
+    public JsonWriter value(boolean value) throws IOException {
+        beforeValue();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    public JsonWriter nullValue() throws IOException {
+        beforeValue();
+        out.write("null");
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private JsonWriter open(char bracket, boolean object) throws IOException {
+        beforeValue();
+        out.write(bracket);
+        hasValue.clear(depth);
+        isObject.set(depth, object);
+        depth++;
+        return this;
+    }
+
+    private JsonWriter close(char bracket) throws IOException {
+        Preconditions.checkState(depth > 0 && !afterName,
+                "Nothing to close");
+        depth--;
+        out.write(bracket);
+        return this;
+    }
+
+    private void beforeValue() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        Preconditions.checkState(depth == 0 || !isObject.get(depth - 1),
+                "Values in objects need a name");
+        separate();
+    }
+
+    private void separate() throws IOException {
+        if (depth == 0) {
+            return;
+        }
+        if (hasValue.get(depth - 1)) {
+            out.write(',');
+        }
+        hasValue.set(depth - 1);
+    }
+
+    private void string(String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '"':
+                out.write("\\\"");
+                break;
+            case '\\':
+                out.write("\\\\");
+                break;
+            case '\n':
+                out.write("\\n");
+                break;
+            case '\r':
+                out.write("\\r");
+                break;
+            case '\t':
+                out.write("\\t");
+                break;
+            default:
+                // also escape line separators, which break JavaScript
+                if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                    out.write("\\u");
+                    out.write(HEX[c >> 12 & 0xf]);
+                    out.write(HEX[c >> 8 & 0xf]);
+                    out.write(HEX[c >> 4 & 0xf]);
+                    out.write(HEX[c & 0xf]);
+                } else {
+                    out.write(c);
+                }
+                break;
+            }
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.watch;
+
+/**
+ * Wakes up the watch loop when sources change.
+ *
+ * Saving a file, or a build tool regenerating a directory, raises a burst of
+ * change events. They are coalesced into a single wake up, which only
+ * happens once no new event has been seen for a quiet period, so that the
+ * pages are not analyzed while the sources are still being written.
+ *
+ * @author gehel
+ */
+public class ChangeSignal {
+
+    private final long quietPeriod;
+
+    private boolean signalled;
+    private long lastSignal;
+
+    /**
+     * @param quietPeriod
+     *            time without change, in milliseconds, before waking up
+     */
+    public ChangeSignal(long quietPeriod) {
+        this.quietPeriod = quietPeriod;
+    }
+
+    public synchronized void signal() {
+        signalled = true;
+        lastSignal = System.currentTimeMillis();
+        notifyAll();
+    }
+
+    /**
+     * Wait for a change, at most <code>timeout</code> milliseconds.
+     *
+     * @return true if a change was signalled
+     */
+    public synchronized boolean await(long timeout) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeout;
+        while (!signalled) {
+            long left = deadline - System.currentTimeMillis();
+            if (left <= 0) {
+                return false;
+            }
+            wait(left);
+        }
+        long quiet;
+        while ((quiet = lastSignal + quietPeriod - System.currentTimeMillis()) > 0) {
+            wait(quiet);
+        }
+        signalled = false;
+        return true;
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.watch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URLConnection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.maven.plugin.logging.Log;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closeables;
+import com.google.inject.Inject;
+
+/**
+ * Tells which pages changed since they were last seen.
+ *
+ * Pages are fetched with conditional requests, so a server that sends
+ * validators only answers <code>304 Not Modified</code> for pages that did not
+ * change. Development servers often send no validator, or a new one for every
+ * response, so the content of a page is also hashed, and a page only counts
+ * as changed if its content did.
+ *
+ * @author gehel
+ */
+public class PageVersions {
+
+    private static final int TIMEOUT_MS = 10000;
+
+    private final Log log;
+    private final Map<URI, Version> versions = new HashMap<URI, Version>();
+
+    @Inject
+    public PageVersions(Log log) {
+        this.log = log;
+    }
+
+    /**
+     * Fetch a page, and compare it to the version seen last time. A page seen
+     * for the first time has changed, a page that cannot be fetched has not.
+     */
+    public synchronized boolean changed(URI uri) {
+        Version previous = versions.get(uri);
+        HttpURLConnection connection = null;
+        try {
+            URLConnection urlConnection = uri.toURL().openConnection();
+            if (!(urlConnection instanceof HttpURLConnection)) {
+                return previous == null;
+            }
+            connection = (HttpURLConnection) urlConnection;
+            connection.setConnectTimeout(TIMEOUT_MS);
+            connection.setReadTimeout(TIMEOUT_MS);
+            connection.setUseCaches(false);
+            if (previous != null && previous.etag != null) {
+                connection.setRequestProperty("If-None-Match", previous.etag);
+            }
+            if (previous != null && previous.lastModified > 0) {
+                connection.setIfModifiedSince(previous.lastModified);
+            }
+            int status = connection.getResponseCode();
+            if (status == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                return false;
+            }
+            if (status != HttpURLConnection.HTTP_OK) {
+                log.debug("Could not check [" + uri + "], status [" + status
+                        + "]");
+                return false;
+            }
+            Version current = new Version(connection.getHeaderField("ETag"),
+                    connection.getLastModified(), hash(connection));
+            versions.put(uri, current);
+            return previous == null || !previous.hash.equals(current.hash);
+        } catch (IOException e) {
+            log.debug("Could not check [" + uri + "]: " + e.getMessage());
+            return false;
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+    }
+
+    private HashCode hash(URLConnection connection) throws IOException {
+        InputStream in = connection.getInputStream();
+        boolean threw = true;
+        try {
+            HashCode hash = Hashing.murmur3_128().hashBytes(
+                    ByteStreams.toByteArray(in));
+            threw = false;
+            return hash;
+        } finally {
+            Closeables.close(in, threw);
+        }
+    }
+
+    private static final class Version {
+        private final String etag;
+        private final long lastModified;
+        private final HashCode hash;
+
+        private Version(String etag, long lastModified, HashCode hash) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+    }
+}
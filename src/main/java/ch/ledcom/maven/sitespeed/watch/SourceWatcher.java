@@ -0,0 +1,111 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.watch;
+
+import static ch.ledcom.maven.sitespeed.Configuration.WATCH_DIRS;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.commons.io.monitor.FileAlterationListenerAdaptor;
+import org.apache.commons.io.monitor.FileAlterationMonitor;
+import org.apache.commons.io.monitor.FileAlterationObserver;
+import org.apache.maven.plugin.logging.Log;
+
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+/**
+ * Watches the web sources of the project, and signals any file created,
+ * changed or deleted.
+ *
+ * Directories are scanned by a background thread, which works on every
+ * platform and file system, including the network and container mounts on
+ * which native file events are not delivered.
+ *
+ * @author gehel
+ */
+public class SourceWatcher implements Closeable {
+
+    private static final long SCAN_INTERVAL_MS = 500;
+
+    private final List<File> directories;
+    private final Log log;
+
+    private FileAlterationMonitor monitor;
+
+    @Inject
+    public SourceWatcher(@Named(WATCH_DIRS) List<File> directories, Log log) {
+        this.directories = directories;
+        this.log = log;
+    }
+
+    public synchronized void start(final ChangeSignal signal)
+            throws IOException {
+        FileAlterationListenerAdaptor listener = new FileAlterationListenerAdaptor() {
+            @Override
+            public void onFileCreate(File file) {
+                changed(file, signal);
+            }
+
+            @Override
+            public void onFileChange(File file) {
+                changed(file, signal);
+            }
+
+            @Override
+            public void onFileDelete(File file) {
+                changed(file, signal);
+            }
+        };
+        monitor = new FileAlterationMonitor(SCAN_INTERVAL_MS);
+        for (File directory : directories) {
+            if (!directory.isDirectory()) {
+                log.warn("Cannot watch [" + directory + "], not a directory");
+                continue;
+            }
+            log.info("Watching sources in [" + directory + "]");
+            FileAlterationObserver observer = new FileAlterationObserver(
+                    directory);
+            observer.addListener(listener);
+            monitor.addObserver(observer);
+        }
+        try {
+            monitor.start();
+        } catch (Exception e) {
+            throw new IOException("Could not watch sources", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (monitor == null) {
+            return;
+        }
+        try {
+            monitor.stop();
+        } catch (Exception e) {
+            throw new IOException("Could not stop watching sources", e);
+        } finally {
+            monitor = null;
+        }
+    }
+
+    private void changed(File file, ChangeSignal signal) {
+        log.debug("Source changed [" + file + "]");
+        signal.signal();
+    }
+}
@@ -17,16 +17,62 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
+import ch.ledcom.maven.sitespeed.aggregate.ReactorSummaryTest;
+import ch.ledcom.maven.sitespeed.analyzer.BrowserAdmissionTest;
+import ch.ledcom.maven.sitespeed.analyzer.HostThrottleTest;
+import ch.ledcom.maven.sitespeed.analyzer.MeasurementSeriesTest;
+import ch.ledcom.maven.sitespeed.analyzer.PageLinksTest;
+import ch.ledcom.maven.sitespeed.analyzer.ProcessSamplerTest;
 import ch.ledcom.maven.sitespeed.analyzer.SiteSpeedAnalyzerTest;
+import ch.ledcom.maven.sitespeed.archive.ResponseArchiveTest;
+import ch.ledcom.maven.sitespeed.bundle.JsonBundleTest;
+import ch.ledcom.maven.sitespeed.crawler.CrawlFrontierTest;
+import ch.ledcom.maven.sitespeed.crawler.CrawlSnapshotStoreTest;
+import ch.ledcom.maven.sitespeed.crawler.DiskBackedURIQueueTest;
+import ch.ledcom.maven.sitespeed.crawler.LinkGraphTest;
+import ch.ledcom.maven.sitespeed.crawler.SharedCrawlTest;
 import ch.ledcom.maven.sitespeed.crawler.SiteSpeedCrawlerTest;
+import ch.ledcom.maven.sitespeed.daemon.DaemonTest;
 import ch.ledcom.maven.sitespeed.guice.SiteSpeedModuleTest;
+import ch.ledcom.maven.sitespeed.har.RecordingProxyTest;
+import ch.ledcom.maven.sitespeed.history.HistoryStoreTest;
+import ch.ledcom.maven.sitespeed.history.TrendTest;
+import ch.ledcom.maven.sitespeed.journal.RunJournalTest;
+import ch.ledcom.maven.sitespeed.pipeline.SpillingBufferTest;
+import ch.ledcom.maven.sitespeed.pipeline.StageTest;
+import ch.ledcom.maven.sitespeed.report.JavaPageRendererTest;
 import ch.ledcom.maven.sitespeed.report.SiteSpeedReporterTest;
 import ch.ledcom.maven.sitespeed.report.XMLVelocityMergerTest;
+import ch.ledcom.maven.sitespeed.rules.RuleDictionaryTest;
+import ch.ledcom.maven.sitespeed.rules.RuleEngineTest;
+import ch.ledcom.maven.sitespeed.schedule.DeadlineSchedulerTest;
+import ch.ledcom.maven.sitespeed.sink.MetricsExporterTest;
+import ch.ledcom.maven.sitespeed.sink.ResultSinksTest;
+import ch.ledcom.maven.sitespeed.store.ResultStoreTest;
+import ch.ledcom.maven.sitespeed.utils.JsonWriterTest;
+import ch.ledcom.maven.sitespeed.watch.ChangeSignalTest;
+import ch.ledcom.maven.sitespeed.watch.PageVersionsTest;
 
 @RunWith(Suite.class)
-@SuiteClasses({ SiteSpeedOrchestratorTest.class, SiteSpeedAnalyzerTest.class,
-        SiteSpeedCrawlerTest.class, SiteSpeedModuleTest.class,
+@SuiteClasses({ SiteSpeedOrchestratorTest.class, SiteSpeedMojoTest.class,
+        SiteSpeedAnalyzerTest.class,
+        PageLinksTest.class, ProcessSamplerTest.class, HostThrottleTest.class,
+        MeasurementSeriesTest.class, BrowserAdmissionTest.class,
+        SiteSpeedCrawlerTest.class,
+        CrawlFrontierTest.class, DiskBackedURIQueueTest.class,
+        CrawlSnapshotStoreTest.class,
+        SharedCrawlTest.class,
+        LinkGraphTest.class, RunJournalTest.class, DeadlineSchedulerTest.class,
+        SiteSpeedModuleTest.class, StageTest.class,
+        SpillingBufferTest.class, RecordingProxyTest.class, JsonWriterTest.class,
+        ResponseArchiveTest.class, ResultStoreTest.class, RuleEngineTest.class,
+        RuleDictionaryTest.class,
         SiteSpeedReporterTest.class, XMLVelocityMergerTest.class,
+        JavaPageRendererTest.class, JsonBundleTest.class,
+        ResultSinksTest.class, MetricsExporterTest.class,
+        HistoryStoreTest.class, TrendTest.class, DaemonTest.class,
+        PageVersionsTest.class, ChangeSignalTest.class,
+        ReactorSummaryTest.class,
         FullIntegrationTest.class })
 public class AllTests {
 }
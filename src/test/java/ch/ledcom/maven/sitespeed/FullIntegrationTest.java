@@ -26,8 +26,13 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import ch.ledcom.maven.sitespeed.archive.ArchiveMode;
+import ch.ledcom.maven.sitespeed.crawler.AnalysisOrder;
 import ch.ledcom.maven.sitespeed.guice.SiteSpeedModule;
 import ch.ledcom.maven.sitespeed.httpserver.HttpTestServer;
+import ch.ledcom.maven.sitespeed.report.Renderer;
+import ch.ledcom.maven.sitespeed.report.ReportFormat;
+import ch.ledcom.maven.sitespeed.sink.ExportFormat;
 import ch.ledcom.maven.sitespeed.utils.UrlUtils;
 
 import com.google.common.collect.ImmutableMap;
@@ -54,6 +59,41 @@ public class FullIntegrationTest {
     private static final String USER_AGENT = null;
     private static final String VIEW_PORT = null;
     private static final Properties MERGER_PROPERTIES = new Properties();
+    private static final int CRAWL_MEMORY_THRESHOLD = 1000;
+    private static final File CRAWL_CACHE_DIR = null;
+    private static final long CRAWL_CACHE_TTL = 0;
+    private static final boolean CRAWL_CACHE_REFRESH = false;
+    private static final boolean SINGLE_PASS = false;
+    private static final AnalysisOrder ANALYSIS_ORDER = AnalysisOrder.CRAWL;
+    private static final boolean RESUME = false;
+    private static final long MAX_DURATION = 0;
+    private static final int HOST_RATE = 0;
+    private static final int HOST_CONCURRENCY = 0;
+    private static final int MEASUREMENTS = 1;
+    private static final double MEASUREMENT_PRECISION = 0.05;
+    private static final long BROWSER_MEMORY_RESERVE = 0;
+    private static final double MAX_LOAD_PER_CPU = 0;
+    private static final long PROFILE_INTERVAL = 0;
+    private static final int BROWSER_SLOTS = 2;
+    private static final int RENDER_SLOTS = 2;
+    private static final int DISK_WRITERS = 1;
+    private static final int ANALYSIS_BUFFER = 10;
+    private static final int RENDER_BUFFER = 4;
+    private static final int WRITE_BUFFER = 4;
+    private static final long RESULT_BUFFER_BUDGET = 256L * 1024 * 1024;
+    private static final boolean RECORD_HAR = false;
+    private static final ArchiveMode ARCHIVE_MODE = ArchiveMode.OFF;
+    private static final File ARCHIVE_FILE = new File(
+            "target/sitespeed.archive");
+    private static final boolean STORE_RESULTS = false;
+    private static final Renderer RENDERER = Renderer.VELOCITY;
+    private static final ReportFormat REPORT_FORMAT = ReportFormat.HTML;
+    private static final ExportFormat EXPORT_FORMAT = ExportFormat.NONE;
+    private static final int SINK_BUFFER = 16;
+    private static final boolean RECORD_HISTORY = false;
+    private static final File HISTORY_DIR = new File(
+            "target/sitespeed-history");
+    private static final boolean AGGREGATE = false;
 
     private static final int HTTP_PORT = 9099;
     private static final String HTTP_PATH1 = "/test1.html";
@@ -87,23 +127,57 @@ public class FullIntegrationTest {
                 .getResourceAsStream("merger.properties"));
 
         Injector injector = Guice.createInjector( //
-                new SiteSpeedModule( //
-                        PHANTOM_JS, //
-                        VERIFY_URL, //
-                        LEVEL, //
-                        FOLLOW_PATH, //
-                        NO_FOLLOW_PATH, //
-                        PROXY_HOST, //
-                        PROXY_TYPE, //
-                        REQUEST_HEADERS, //
-                        RULESET, //
-                        TEMPLATE, //
-                        USER_AGENT, //
-                        VIEW_PORT, //
-                        HTTP_URL1, //
-                        MERGER_PROPERTIES, //
-                        outputDir, //
-                        new SystemStreamLog()), //
+                SiteSpeedModule.builder() //
+                        .setPhantomJS(PHANTOM_JS) //
+                        .setVerifyUrl(VERIFY_URL) //
+                        .setLevel(LEVEL) //
+                        .setFollowPath(FOLLOW_PATH) //
+                        .setNoFollowPath(NO_FOLLOW_PATH) //
+                        .setProxyHost(PROXY_HOST) //
+                        .setProxyType(PROXY_TYPE) //
+                        .setRequestHeaders(REQUEST_HEADERS) //
+                        .setRuleset(RULESET) //
+                        .setTemplate(TEMPLATE) //
+                        .setUserAgent(USER_AGENT) //
+                        .setViewPort(VIEW_PORT) //
+                        .setStartUrl(HTTP_URL1) //
+                        .setMergerProperties(MERGER_PROPERTIES) //
+                        .setOutputDir(outputDir) //
+                        .setCrawlMemoryThreshold(CRAWL_MEMORY_THRESHOLD) //
+                        .setCrawlCacheDir(CRAWL_CACHE_DIR) //
+                        .setCrawlCacheTtl(CRAWL_CACHE_TTL) //
+                        .setCrawlCacheRefresh(CRAWL_CACHE_REFRESH) //
+                        .setSinglePass(SINGLE_PASS) //
+                        .setAnalysisOrder(ANALYSIS_ORDER) //
+                        .setResume(RESUME) //
+                        .setMaxDuration(MAX_DURATION) //
+                        .setHostRate(HOST_RATE) //
+                        .setHostConcurrency(HOST_CONCURRENCY) //
+                        .setMeasurements(MEASUREMENTS) //
+                        .setMeasurementPrecision(MEASUREMENT_PRECISION) //
+                        .setBrowserMemoryReserve(BROWSER_MEMORY_RESERVE) //
+                        .setMaxLoadPerCpu(MAX_LOAD_PER_CPU) //
+                        .setProfileInterval(PROFILE_INTERVAL) //
+                        .setBrowserSlots(BROWSER_SLOTS) //
+                        .setRenderSlots(RENDER_SLOTS) //
+                        .setDiskWriters(DISK_WRITERS) //
+                        .setAnalysisBuffer(ANALYSIS_BUFFER) //
+                        .setRenderBuffer(RENDER_BUFFER) //
+                        .setWriteBuffer(WRITE_BUFFER) //
+                        .setResultBufferBudget(RESULT_BUFFER_BUDGET) //
+                        .setRecordHar(RECORD_HAR) //
+                        .setArchiveMode(ARCHIVE_MODE) //
+                        .setArchiveFile(ARCHIVE_FILE) //
+                        .setStoreResults(STORE_RESULTS) //
+                        .setRenderer(RENDERER) //
+                        .setReportFormat(REPORT_FORMAT) //
+                        .setExportFormat(EXPORT_FORMAT) //
+                        .setSinkBuffer(SINK_BUFFER) //
+                        .setRecordHistory(RECORD_HISTORY) //
+                        .setHistoryDir(HISTORY_DIR) //
+                        .setAggregate(AGGREGATE) //
+                        .setLog(new SystemStreamLog()) //
+                        .build(), //
                 new CrawlModule());
         orchestrator = injector.getInstance(SiteSpeedOrchestrator.class);
     }
@@ -0,0 +1,101 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.ledcom.maven.sitespeed.archive.ArchiveMode;
+import ch.ledcom.maven.sitespeed.archive.ArchivedResponse;
+import ch.ledcom.maven.sitespeed.archive.ResponseArchive;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+public class SiteSpeedMojoTest {
+
+    private static final String HEAD = "HTTP/1.1 200 OK\r\n";
+
+    private File directory;
+
+    @Before
+    public void createDirectory() {
+        directory = Files.createTempDir();
+    }
+
+    @Test
+    public void runDirectoriesAreNestedBySiteAndProfile() {
+        assertEquals(directory, SiteSpeedMojo.runDirectory(directory, null,
+                null));
+        assertEquals(new File(new File(directory, "site"), "phone"),
+                SiteSpeedMojo.runDirectory(directory, "site", "phone"));
+        assertEquals(new File(new File(directory, "phone"), "a.archive"),
+                SiteSpeedMojo.runFile(new File(directory, "a.archive"), null,
+                        "phone"));
+    }
+
+    @Test
+    public void eachRunRecordsItsOwnArchive() throws IOException {
+        File archiveFile = new File(directory, "sitespeed.archive");
+        ResponseArchive first = new ResponseArchive(ArchiveMode.RECORD,
+                SiteSpeedMojo.runFile(archiveFile, "site1", null),
+                new SystemStreamLog());
+        ResponseArchive second = new ResponseArchive(ArchiveMode.RECORD,
+                SiteSpeedMojo.runFile(archiveFile, "site2", null),
+                new SystemStreamLog());
+        // runs are recorded concurrently in pipeline mode
+        first.open();
+        second.open();
+        first.record("GET", "http://site1/", HEAD, bytes("site 1"));
+        second.record("GET", "http://site2/", HEAD, bytes("site 2"));
+        first.close();
+        second.close();
+
+        assertReplayed("site1", "http://site1/", "site 1", "http://site2/");
+        assertReplayed("site2", "http://site2/", "site 2", "http://site1/");
+    }
+
+    private void assertReplayed(String siteName, String url, String body,
+            String otherUrl) throws IOException {
+        ResponseArchive replay = new ResponseArchive(ArchiveMode.REPLAY,
+                SiteSpeedMojo.runFile(new File(directory, "sitespeed.archive"),
+                        siteName, null), new SystemStreamLog());
+        replay.open();
+        try {
+            ArchivedResponse response = replay.lookup("GET", url);
+            assertEquals(body, new String(response.body(), Charsets.UTF_8));
+            assertNull(replay.lookup("GET", otherUrl));
+        } finally {
+            replay.close();
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(Charsets.UTF_8);
+    }
+
+    @After
+    public void deleteDirectory() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+}
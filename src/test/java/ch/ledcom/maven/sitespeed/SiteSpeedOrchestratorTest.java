@@ -16,6 +16,7 @@ package ch.ledcom.maven.sitespeed;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -26,11 +27,8 @@ import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Executors;
 
 import org.apache.maven.plugin.logging.SystemStreamLog;
 import org.jdom2.Document;
@@ -42,10 +40,26 @@ import org.junit.Test;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import ch.ledcom.maven.sitespeed.aggregate.RunSummary;
+import ch.ledcom.maven.sitespeed.analyzer.HostThrottle;
+import ch.ledcom.maven.sitespeed.analyzer.RepeatedMeasurements;
 import ch.ledcom.maven.sitespeed.analyzer.SiteSpeedAnalyzer;
+import ch.ledcom.maven.sitespeed.archive.ArchiveMode;
+import ch.ledcom.maven.sitespeed.archive.ResponseArchive;
+import ch.ledcom.maven.sitespeed.bundle.JsonBundle;
+import ch.ledcom.maven.sitespeed.crawler.AnalysisOrder;
 import ch.ledcom.maven.sitespeed.crawler.SiteSpeedCrawler;
 import ch.ledcom.maven.sitespeed.crawler.URICallback;
+import ch.ledcom.maven.sitespeed.history.HistoryStore;
+import ch.ledcom.maven.sitespeed.journal.RunJournal;
+import ch.ledcom.maven.sitespeed.pipeline.PipelineSettings;
+import ch.ledcom.maven.sitespeed.report.ReportFormat;
 import ch.ledcom.maven.sitespeed.report.SiteSpeedReporter;
+import ch.ledcom.maven.sitespeed.schedule.DeadlineScheduler;
+import ch.ledcom.maven.sitespeed.sink.ExportFormat;
+import ch.ledcom.maven.sitespeed.sink.MetricsExporter;
+import ch.ledcom.maven.sitespeed.sink.ResultSinks;
+import ch.ledcom.maven.sitespeed.store.ResultStore;
 
 import com.google.common.io.Files;
 
@@ -71,6 +85,8 @@ public class SiteSpeedOrchestratorTest {
 
     private ExecutorService reportService;
 
+    private ExecutorService writerService;
+
     @Before
     public void setUp() throws IOException {
         crawler = mock(SiteSpeedCrawler.class);
@@ -79,8 +95,24 @@ public class SiteSpeedOrchestratorTest {
 
         analyzerService = createExecutorService();
         reportService = createExecutorService();
-        orchestrator = new SiteSpeedOrchestrator(crawler, analyzer, reporter,
-                analyzerService, reportService, getOutputDir(),
+        writerService = createExecutorService();
+        File outputDir = getOutputDir();
+        RunJournal journal = new RunJournal(outputDir, false);
+        orchestrator = new SiteSpeedOrchestrator(crawler, analyzer,
+                new HostThrottle(0, 0), new RepeatedMeasurements(1, 0),
+                reporter, new JsonBundle(outputDir, ReportFormat.HTML),
+                new ResultSinks(new MetricsExporter(ExportFormat.NONE, false),
+                        new HistoryStore(false, outputDir),
+                        new RunSummary(false), 16, outputDir,
+                        new SystemStreamLog()),
+                journal, new ResponseArchive(ArchiveMode.OFF,
+                        new File(outputDir, "archive"), new SystemStreamLog()),
+                new ResultStore(outputDir, false, true),
+                new DeadlineScheduler(0, false, AnalysisOrder.CRAWL,
+                        journal),
+                analyzerService, reportService, writerService,
+                new PipelineSettings(2, 2, 2, 10, 4, 4, 1024 * 1024),
+                outputDir,
                 new SystemStreamLog());
 
     }
@@ -90,7 +122,7 @@ public class SiteSpeedOrchestratorTest {
             throws MalformedURLException, IOException, JDOMException,
             InterruptedException {
 
-        when(crawler.crawl(any(URICallback.class))).then(submitTestUris());
+        doAnswer(submitTestUris()).when(crawler).crawl(any(URICallback.class));
 
         when(analyzer.analyze(uri1.toURL())).thenReturn(doc1);
         when(analyzer.analyze(uri2.toURL())).thenReturn(doc2);
@@ -138,11 +170,11 @@ public class SiteSpeedOrchestratorTest {
     public void shutdown() {
         analyzerService.shutdown();
         reportService.shutdown();
+        writerService.shutdown();
     }
 
     private ExecutorService createExecutorService() {
-        return new ThreadPoolExecutor(1, 2, 1, TimeUnit.MILLISECONDS,
-                new ArrayBlockingQueue<Runnable>(1), new CallerRunsPolicy());
+        return Executors.newFixedThreadPool(2);
     }
 
     private static URI safeURI(String uri) {
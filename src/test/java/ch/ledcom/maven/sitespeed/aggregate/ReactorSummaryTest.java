@@ -0,0 +1,144 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.aggregate;
+
+import static ch.ledcom.maven.sitespeed.history.HistorySegment.MISSING;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.ledcom.maven.sitespeed.history.Metric;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+public class ReactorSummaryTest {
+
+    private static final URI PAGE = URI.create("http://www.example.com/");
+
+    private File directory;
+
+    @Before
+    public void createDirectory() {
+        directory = Files.createTempDir();
+    }
+
+    @Test
+    public void runSummaryAveragesPresentMetrics() {
+        RunSummary summary = new RunSummary(true);
+        summary.accept(PAGE, result("80", "1000"));
+        summary.accept(PAGE, result("90", null));
+
+        assertEquals(2, summary.pages());
+        assertEquals(85, summary.average(Metric.SCORE));
+        assertEquals(1000, summary.average(Metric.LOAD_TIME));
+        assertEquals(MISSING, summary.average(Metric.REQUESTS));
+    }
+
+    @Test
+    public void summaryListsEveryRunOnce() throws IOException {
+        RunSummary first = new RunSummary(true);
+        first.accept(PAGE, result("80", "1000"));
+        RunSummary second = new RunSummary(true);
+        second.accept(PAGE, result("60", "2000"));
+
+        ReactorSummary.add(directory, 1, "module-a", "site", new File(
+                directory, "a.html"), first);
+        ReactorSummary.add(directory, 1, "module-b", "site", new File(
+                directory, "b.html"), first);
+        ReactorSummary.add(directory, 1, "module-a", "site", new File(
+                directory, "a.html"), second);
+
+        List<ReactorSummary.Entry> entries = ReactorSummary
+                .entries(directory);
+        assertEquals(2, entries.size());
+        assertEquals("module-a", entries.get(0).module());
+        assertEquals(60, entries.get(0).average(Metric.SCORE));
+        assertEquals("module-b", entries.get(1).module());
+        assertEquals(80, entries.get(1).average(Metric.SCORE));
+
+        String html = Files.toString(new File(directory,
+                ReactorSummary.FILENAME), Charsets.UTF_8);
+        assertTrue(html.contains("2 runs, 2 pages"));
+        assertTrue(html.contains("<td>module-b</td>"));
+        assertTrue(html.contains(new File(directory, "b.html").toURI()
+                .toString() + "\">site</a>"));
+        assertTrue(new File(directory, "js/all.js").isFile());
+    }
+
+    @Test
+    public void newBuildStartsNewSummary() throws IOException {
+        RunSummary summary = new RunSummary(true);
+        summary.accept(PAGE, result("80", "1000"));
+
+        ReactorSummary.add(directory, 1, "module-a", "site", directory,
+                summary);
+        ReactorSummary.add(directory, 2, "module-b", "site", directory,
+                summary);
+
+        List<ReactorSummary.Entry> entries = ReactorSummary
+                .entries(directory);
+        assertEquals(1, entries.size());
+        assertEquals("module-b", entries.get(0).module());
+        assertEquals(PAGE, summary.firstPage());
+    }
+
+    @Test
+    public void summaryShowsBrowserProfiles() throws IOException {
+        RunSummary summary = new RunSummary(true);
+        Document profiled = result("80", "1000");
+        Element profile = new Element("profile");
+        profile.addContent(new Element("cpu").setText("12500"));
+        profile.addContent(new Element("peakcpu").setText("150"));
+        profile.addContent(new Element("rss").setText("209715200"));
+        profiled.getRootElement().addContent(profile);
+        summary.accept(PAGE, profiled);
+        summary.accept(PAGE, result("90", null));
+
+        assertEquals(1, summary.profiledPages());
+        assertEquals(12500, summary.cpuTime());
+        ReactorSummary.add(directory, 1, "module-a", "site", directory,
+                summary);
+
+        String html = Files.toString(new File(directory,
+                ReactorSummary.FILENAME), Charsets.UTF_8);
+        assertTrue(html.contains("Browser CPU time: 12 s, peak memory: 200 MB"));
+        assertTrue(html.contains("<td>12</td><td>150</td><td>200</td></tr>"));
+    }
+
+    private static Document result(String score, String loadTime) {
+        Element results = new Element("results");
+        results.addContent(new Element("o").setText(score));
+        if (loadTime != null) {
+            results.addContent(new Element("lt").setText(loadTime));
+        }
+        return new Document(results);
+    }
+
+    @After
+    public void deleteDirectory() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+}
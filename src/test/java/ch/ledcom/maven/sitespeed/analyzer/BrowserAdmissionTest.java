@@ -0,0 +1,132 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.analyzer;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Test;
+
+public class BrowserAdmissionTest {
+
+    private static final long MB = 1024 * 1024;
+
+    @Test(timeout = 5000)
+    public void launchIsDelayedUntilMemoryIsReleased() throws Exception {
+        FakeProbe probe = new FakeProbe();
+        probe.available = 300 * MB;
+        probe.rss = 250 * MB;
+        final BrowserAdmission admission = new BrowserAdmission(100 * MB, 0,
+                probe, new SystemStreamLog());
+
+        // first browser is always admitted
+        BrowserAdmission.Slot first = admission.acquire();
+        first.started(1234);
+        CountDownLatch launched = launchInBackground(admission);
+        assertFalse("Second browser should wait for memory",
+                launched.await(200, TimeUnit.MILLISECONDS));
+
+        probe.available = 2000 * MB;
+        first.release();
+        assertTrue("Second browser should start once memory is available",
+                launched.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test(timeout = 5000)
+    public void browsersAreMeasuredOneByOne() throws Exception {
+        FakeProbe probe = new FakeProbe();
+        probe.available = 450 * MB;
+        probe.rss = 100 * MB;
+        final BrowserAdmission admission = new BrowserAdmission(100 * MB, 0,
+                probe, new SystemStreamLog());
+
+        admission.acquire().started(1);
+        admission.acquire().started(2);
+        // a third browser as large as the running ones would not fit
+        probe.available = 150 * MB;
+        CountDownLatch launched = launchInBackground(admission);
+        assertFalse("Third browser should wait for memory",
+                launched.await(200, TimeUnit.MILLISECONDS));
+        // the expected size follows the running browsers down
+        probe.rss = 50 * MB;
+        assertTrue("Third browser should start once browsers have shrunk",
+                launched.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test(timeout = 5000)
+    public void launchIsDelayedWhileLoadIsHigh() throws Exception {
+        FakeProbe probe = new FakeProbe();
+        probe.load = 8;
+        final BrowserAdmission admission = new BrowserAdmission(0, 2, probe,
+                new SystemStreamLog());
+
+        admission.acquire();
+        CountDownLatch launched = launchInBackground(admission);
+        assertFalse("Second browser should wait for load to drop",
+                launched.await(200, TimeUnit.MILLISECONDS));
+
+        probe.load = 1;
+        assertTrue("Second browser should start once load has dropped",
+                launched.await(2, TimeUnit.SECONDS));
+    }
+
+    private static CountDownLatch launchInBackground(
+            final BrowserAdmission admission) {
+        final CountDownLatch launched = new CountDownLatch(1);
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    admission.acquire();
+                    launched.countDown();
+                } catch (InterruptedException e) {
+                    // test is over
+                }
+            }
+        };
+        thread.setDaemon(true);
+        thread.start();
+        return launched;
+    }
+
+    private static final class FakeProbe extends SystemProbe {
+        private volatile long available = SystemProbe.UNKNOWN;
+        private volatile long rss;
+        private volatile double load = -1;
+
+        @Override
+        public int processors() {
+            return 2;
+        }
+
+        @Override
+        public double loadAverage() {
+            return load;
+        }
+
+        @Override
+        public long availableMemory() {
+            return available;
+        }
+
+        @Override
+        public Usage processUsage(int processId) {
+            return new Usage(0, rss);
+        }
+    }
+}
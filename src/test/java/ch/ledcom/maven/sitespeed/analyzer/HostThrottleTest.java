@@ -0,0 +1,169 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.analyzer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.URI;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HostThrottleTest {
+
+    private static final URI HOST1_PAGE1 = URI.create("http://host1.com/1");
+    private static final URI HOST1_PAGE2 = URI.create("http://host1.com/2");
+    private static final URI HOST2_PAGE1 = URI.create("http://host2.com/1");
+
+    private ExecutorService executor;
+
+    @Before
+    public void createExecutor() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @Test(timeout = 5000)
+    public void throttledHostDoesNotBlockOtherHosts() throws Exception {
+        HostThrottle throttle = new HostThrottle(0, 1);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final AtomicBoolean secondStarted = new AtomicBoolean();
+
+        Future<String> first = throttle.submit(HOST1_PAGE1,
+                new Callable<String>() {
+                    @Override
+                    public String call() throws Exception {
+                        blocked.await();
+                        return "first";
+                    }
+                }, executor);
+        Future<String> second = throttle.submit(HOST1_PAGE2,
+                new Callable<String>() {
+                    @Override
+                    public String call() {
+                        secondStarted.set(true);
+                        return "second";
+                    }
+                }, executor);
+        Future<String> other = throttle.submit(HOST2_PAGE1, result("other"),
+                executor);
+
+        assertEquals("other", other.get());
+        assertFalse("Second page of host1 should wait for the first one",
+                secondStarted.get());
+
+        blocked.countDown();
+        assertEquals("first", first.get());
+        assertEquals("second", second.get());
+        throttle.awaitIdle();
+        throttle.close();
+    }
+
+    @Test(timeout = 5000)
+    public void resubmitDoesNotWaitForFullQueue() throws Exception {
+        HostThrottle throttle = new HostThrottle(0, 1);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        throttle.submit(HOST1_PAGE1, new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                blocked.await();
+                return "first";
+            }
+        }, executor);
+        // wait for the first analysis to leave the queue
+        while (!throttle.submit(HOST2_PAGE1, result("other"), executor)
+                .isDone()) {
+            Thread.sleep(10);
+        }
+        for (int i = 0; i < 1000; i++) {
+            throttle.submit(HOST1_PAGE2, result("queued"), executor);
+        }
+
+        Future<String> again = throttle.resubmit(HOST1_PAGE1,
+                result("again"), executor);
+
+        blocked.countDown();
+        assertEquals("again", again.get());
+        throttle.awaitIdle();
+        throttle.close();
+    }
+
+    @Test(timeout = 5000)
+    public void analysesAreSpacedByRate() throws Exception {
+        // 1200 per minute: one analysis every 50ms
+        HostThrottle throttle = new HostThrottle(1200, 0);
+        long start = System.nanoTime();
+        Future<String> last = null;
+        for (int i = 0; i < 5; i++) {
+            last = throttle.submit(HOST1_PAGE1, result("page"), executor);
+        }
+        last.get();
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime()
+                - start);
+        // first analysis uses the initial token, 4 more need to wait
+        assertTrue("Analyses were not throttled: " + elapsed + "ms",
+                elapsed >= 190);
+        throttle.awaitIdle();
+        throttle.close();
+    }
+
+    @Test(timeout = 5000)
+    public void rejectedAnalysisReleasesItsHost() throws Exception {
+        HostThrottle throttle = new HostThrottle(0, 1);
+        ExecutorService stopped = Executors.newSingleThreadExecutor();
+        stopped.shutdown();
+
+        Future<String> rejected = throttle.submit(HOST1_PAGE1,
+                result("rejected"), stopped);
+        try {
+            rejected.get();
+            fail("Analysis should have been rejected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+        throttle.awaitIdle();
+
+        // the host can still be analyzed
+        assertEquals("next",
+                throttle.submit(HOST1_PAGE2, result("next"), executor).get());
+        throttle.awaitIdle();
+        throttle.close();
+    }
+
+    @After
+    public void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    private static Callable<String> result(final String result) {
+        return new Callable<String>() {
+            @Override
+            public String call() {
+                return result;
+            }
+        };
+    }
+}
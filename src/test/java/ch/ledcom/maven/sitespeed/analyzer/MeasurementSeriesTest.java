@@ -0,0 +1,106 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.analyzer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.junit.Test;
+
+import ch.ledcom.maven.sitespeed.analyzer.MeasurementSeries.Next;
+
+public class MeasurementSeriesTest {
+
+    private static final double PRECISION = 0.05;
+
+    @Test
+    public void singleRunIsReturnedAsIs() {
+        MeasurementSeries series = new MeasurementSeries(1, PRECISION);
+        Document run = run(1000);
+        assertEquals(1, series.initialRuns());
+        assertEquals(Next.COMPLETE, series.add(run));
+        assertSame(run, series.result());
+    }
+
+    @Test
+    public void stableLoadTimeStopsEarly() {
+        MeasurementSeries series = new MeasurementSeries(10, PRECISION);
+        assertEquals(MeasurementSeries.MIN_RUNS, series.initialRuns());
+        assertEquals(Next.WAIT, series.add(run(1000)));
+        assertEquals(Next.WAIT, series.add(run(1002)));
+        assertEquals(Next.COMPLETE, series.add(run(1001)));
+        assertEquals(3, series.size());
+    }
+
+    @Test
+    public void noisyLoadTimeRunsAgain() {
+        MeasurementSeries series = new MeasurementSeries(4, PRECISION);
+        series.initialRuns();
+        assertEquals(Next.WAIT, series.add(run(1000)));
+        assertEquals(Next.WAIT, series.add(run(3000)));
+        assertEquals(Next.RUN_AGAIN, series.add(run(2000)));
+        assertEquals(Next.COMPLETE, series.add(run(1500)));
+    }
+
+    @Test
+    public void failedFirstRunWaitsForTheOthers() {
+        MeasurementSeries series = new MeasurementSeries(5, PRECISION);
+        series.initialRuns();
+        assertEquals(Next.WAIT, series.failed());
+        assertEquals(Next.WAIT, series.add(run(1000)));
+        // the failed run is replaced
+        assertEquals(Next.RUN_AGAIN, series.add(run(1001)));
+        assertEquals(Next.COMPLETE, series.add(run(1002)));
+        assertEquals(3, series.size());
+    }
+
+    @Test
+    public void seriesGivesUpWhenEveryRunFails() {
+        MeasurementSeries series = new MeasurementSeries(5, PRECISION);
+        series.initialRuns();
+        assertEquals(Next.WAIT, series.failed());
+        assertEquals(Next.WAIT, series.failed());
+        assertEquals(Next.COMPLETE, series.failed());
+        assertNull(series.result());
+    }
+
+    @Test
+    public void resultIsMedianRunWithSpread() {
+        MeasurementSeries series = new MeasurementSeries(3, PRECISION);
+        series.initialRuns();
+        series.add(run(3000));
+        series.add(run(1000));
+        series.add(run(2000));
+
+        Element root = series.result().getRootElement();
+        assertEquals("2000", root.getChildText("lt"));
+        Element measurements = root.getChild("measurements");
+        assertEquals("3", measurements.getAttributeValue("runs"));
+        Element loadTime = measurements.getChild("lt");
+        assertEquals("2000", loadTime.getAttributeValue("median"));
+        assertEquals("1000", loadTime.getAttributeValue("min"));
+        assertEquals("3000", loadTime.getAttributeValue("max"));
+        assertEquals("1000", loadTime.getAttributeValue("stddev"));
+    }
+
+    private static Document run(long loadTime) {
+        Element root = new Element("results");
+        root.addContent(new Element("lt").setText(Long.toString(loadTime)));
+        root.addContent(new Element("o").setText("90"));
+        return new Document(root);
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.analyzer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+import java.util.List;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class PageLinksTest {
+
+    @Test
+    public void linksAreExtractedWithoutFragments() {
+        Element links = new Element("links");
+        links.addContent(new Element("item")
+                .setText("http://www.example.com/page1.html"));
+        links.addContent(new Element("item")
+                .setText("http://www.example.com/page2.html#top"));
+        links.addContent(new Element("item").setText("not a valid uri ^"));
+        Element results = new Element("results");
+        results.addContent(links);
+
+        List<URI> extracted = PageLinks.extract(new Document(results));
+
+        assertEquals(ImmutableList.of(
+                URI.create("http://www.example.com/page1.html"),
+                URI.create("http://www.example.com/page2.html")), extracted);
+    }
+
+    @Test
+    public void escapesAreKept() {
+        Element links = new Element("links");
+        links.addContent(new Element("item")
+                .setText("http://www.example.com/a%2Fb?q=%26#part"));
+        Element results = new Element("results");
+        results.addContent(links);
+
+        List<URI> extracted = PageLinks.extract(new Document(results));
+
+        assertEquals("http://www.example.com/a%2Fb?q=%26",
+                extracted.get(0).toString());
+    }
+
+    @Test
+    public void noLinksWhenNotHarvested() {
+        assertTrue(PageLinks.extract(new Document(new Element("results")))
+                .isEmpty());
+        assertTrue(PageLinks.extract(null).isEmpty());
+    }
+}
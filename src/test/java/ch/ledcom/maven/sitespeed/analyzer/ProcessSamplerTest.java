@@ -0,0 +1,105 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.analyzer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.jdom2.Element;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.ledcom.maven.sitespeed.analyzer.ProcessSampler.Profile;
+import ch.ledcom.maven.sitespeed.analyzer.SystemProbe.Usage;
+
+public class ProcessSamplerTest {
+
+    private static final long MB = 1024 * 1024;
+
+    private Process process;
+
+    @Before
+    public void startProcess() throws IOException {
+        process = new ProcessBuilder("sleep", "10").start();
+    }
+
+    @After
+    public void stopProcess() {
+        process.destroy();
+    }
+
+    @Test(timeout = 5000)
+    public void peakAndTotalAreRecorded() throws Exception {
+        FakeProbe probe = new FakeProbe();
+        probe.usage = new Usage(0, 50 * MB);
+        ProcessSampler sampler = new ProcessSampler(10, probe);
+
+        Profile profile = sampler.watch(process);
+        Thread.sleep(100);
+        probe.usage = new Usage(500, 120 * MB);
+        Thread.sleep(100);
+        probe.usage = new Usage(600, 80 * MB);
+        profile.stop();
+
+        assertTrue(profile.samples() > 2);
+        assertEquals(600, profile.cpuTime());
+        assertEquals(120 * MB, profile.peakRss());
+        assertTrue("Peak CPU should be over 100%", profile.peakCpu() > 100);
+        Element element = profile.toElement();
+        assertEquals("600", element.getChildText("cpu"));
+        assertEquals(Long.toString(120 * MB), element.getChildText("rss"));
+    }
+
+    @Test(timeout = 5000)
+    public void samplingStopsWithTheProfile() throws Exception {
+        FakeProbe probe = new FakeProbe();
+        probe.usage = new Usage(100, MB);
+        ProcessSampler sampler = new ProcessSampler(10, probe);
+
+        Profile profile = sampler.watch(process);
+        Thread.sleep(50);
+        profile.stop();
+        int samples = profile.samples();
+        probe.usage = new Usage(200, 2 * MB);
+        Thread.sleep(50);
+
+        assertEquals(samples, profile.samples());
+        assertEquals(100, profile.cpuTime());
+    }
+
+    @Test
+    public void unknownProcessHasNoProfile() {
+        FakeProbe probe = new FakeProbe();
+        ProcessSampler sampler = new ProcessSampler(10, probe);
+
+        Profile profile = sampler.watch(process);
+        profile.stop();
+
+        assertEquals(0, profile.samples());
+        assertNull(profile.toElement());
+    }
+
+    private static class FakeProbe extends SystemProbe {
+        private volatile Usage usage;
+
+        @Override
+        public Usage processUsage(int processId) {
+            return usage;
+        }
+    }
+}
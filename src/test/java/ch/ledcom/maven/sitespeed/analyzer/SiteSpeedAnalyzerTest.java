@@ -30,6 +30,9 @@ import org.junit.Ignore;
 import org.junit.Test;
 import org.xml.sax.SAXParseException;
 
+import ch.ledcom.maven.sitespeed.archive.ArchiveMode;
+import ch.ledcom.maven.sitespeed.archive.ResponseArchive;
+import ch.ledcom.maven.sitespeed.har.HarRecorder;
 import ch.ledcom.maven.sitespeed.httpserver.HttpTestServer;
 
 public class SiteSpeedAnalyzerTest {
@@ -53,12 +56,20 @@ public class SiteSpeedAnalyzerTest {
     private String viewport = "1280x800";
     private static final File phantomJS = new File(
             "/home/gehel/dev/sitespeed.io/phantomjs-1.8.1-linux-x86_64/bin/phantomjs");
+    private final BrowserAdmission admission = new BrowserAdmission(0, 0,
+            new SystemStreamLog());
+    private final HarRecorder harRecorder = new HarRecorder(false,
+            new ResponseArchive(ArchiveMode.OFF, new File("target"),
+                    new SystemStreamLog()), new File("target"), proxyHost,
+            proxyType, new SystemStreamLog());
+    private final ProcessSampler sampler = new ProcessSampler(100);
     private SiteSpeedAnalyzer analyzer;
 
     @Before
     public void setUp() throws IOException {
         analyzer = new SiteSpeedAnalyzer(new SystemStreamLog(), phantomJS,
-                proxyHost, proxyType, ruleset, userAgent, viewport);
+                proxyHost, proxyType, ruleset, userAgent, viewport, false,
+                admission, harRecorder, sampler);
         httpServer = new HttpTestServer(HTTP_PORT, HTTP_PATH, HTTP_CONTENT);
         httpServer.start();
     }
@@ -85,7 +96,8 @@ public class SiteSpeedAnalyzerTest {
     public void crashIfPhantomJSDoesNotExist() throws IOException,
             JDOMException, InterruptedException {
         analyzer = new SiteSpeedAnalyzer(new SystemStreamLog(), new File(""),
-                proxyHost, proxyType, ruleset, userAgent, viewport);
+                proxyHost, proxyType, ruleset, userAgent, viewport, false,
+                admission, harRecorder, sampler);
         analyzer.analyze(HTTP_URL);
     }
 
@@ -94,7 +106,8 @@ public class SiteSpeedAnalyzerTest {
     public void crashIfYSlowDoesNotExist() throws IOException, JDOMException,
             InterruptedException {
         analyzer = new SiteSpeedAnalyzer(new SystemStreamLog(), phantomJS,
-                proxyHost, proxyType, ruleset, userAgent, viewport);
+                proxyHost, proxyType, ruleset, userAgent, viewport, false,
+                admission, harRecorder, sampler);
         analyzer.analyze(HTTP_URL);
     }
 
@@ -0,0 +1,129 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.archive;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+
+public class ResponseArchiveTest {
+
+    private static final String HEAD = "HTTP/1.1 200 OK\r\nContent-Type: text/html\r\n";
+
+    private File file;
+
+    @Before
+    public void createFile() throws IOException {
+        file = File.createTempFile("responses", ".archive");
+    }
+
+    @After
+    public void deleteFile() {
+        file.delete();
+    }
+
+    @Test
+    public void recordedResponsesAreReplayed() throws IOException {
+        ResponseArchive recording = archive(ArchiveMode.RECORD);
+        recording.open();
+        for (int i = 0; i < 100; i++) {
+            recording.record("GET", "http://example.com/" + i, HEAD,
+                    ("page " + i).getBytes(Charsets.UTF_8));
+        }
+        recording.close();
+
+        ResponseArchive replay = archive(ArchiveMode.REPLAY);
+        replay.open();
+        try {
+            for (int i = 0; i < 100; i++) {
+                ArchivedResponse response = replay.lookup("get",
+                        "http://example.com/" + i);
+                assertEquals(HEAD, response.head());
+                assertEquals("page " + i, new String(response.body(),
+                        Charsets.UTF_8));
+            }
+            assertNull(replay.lookup("GET", "http://example.com/missing"));
+            assertNull(replay.lookup("POST", "http://example.com/1"));
+        } finally {
+            replay.close();
+        }
+    }
+
+    @Test
+    public void onlyTheFirstResponseIsKept() throws IOException {
+        ResponseArchive recording = archive(ArchiveMode.RECORD);
+        recording.open();
+        recording.record("GET", "http://example.com/", HEAD,
+                "first".getBytes(Charsets.UTF_8));
+        recording.record("GET", "http://example.com/", HEAD,
+                "second".getBytes(Charsets.UTF_8));
+        recording.close();
+
+        ResponseArchive replay = archive(ArchiveMode.REPLAY);
+        replay.open();
+        try {
+            assertEquals("first", new String(replay.lookup("GET",
+                    "http://example.com/").body(), Charsets.UTF_8));
+        } finally {
+            replay.close();
+        }
+    }
+
+    @Test
+    public void duplicatesAreFoundAfterTheIndexGrows() throws IOException {
+        ResponseArchive recording = archive(ArchiveMode.RECORD);
+        recording.open();
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < 5000; i++) {
+                recording.record("GET", "http://example.com/" + i, HEAD,
+                        (pass + "-" + i).getBytes(Charsets.UTF_8));
+            }
+        }
+        recording.close();
+
+        ResponseArchive replay = archive(ArchiveMode.REPLAY);
+        replay.open();
+        try {
+            for (int i = 0; i < 5000; i++) {
+                assertEquals("0-" + i, new String(replay.lookup("GET",
+                        "http://example.com/" + i).body(), Charsets.UTF_8));
+            }
+        } finally {
+            replay.close();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void incompleteArchivesAreRejected() throws IOException {
+        ResponseArchive recording = archive(ArchiveMode.RECORD);
+        recording.open();
+        recording.record("GET", "http://example.com/", HEAD, new byte[10]);
+        // not closed, the index is missing
+
+        archive(ArchiveMode.REPLAY).open();
+    }
+
+    private ResponseArchive archive(ArchiveMode mode) {
+        return new ResponseArchive(mode, file, new SystemStreamLog());
+    }
+}
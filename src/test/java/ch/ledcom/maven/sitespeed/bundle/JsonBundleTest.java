@@ -0,0 +1,164 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.bundle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URI;
+import java.util.zip.GZIPInputStream;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.ledcom.maven.sitespeed.report.ReportFormat;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.CharStreams;
+import com.google.common.io.Closeables;
+import com.google.common.io.Files;
+
+public class JsonBundleTest {
+
+    private File directory;
+
+    @Before
+    public void createDirectory() {
+        directory = Files.createTempDir();
+    }
+
+    @Test
+    public void pagesAreWrittenInChunks() throws IOException {
+        JsonBundle bundle = new JsonBundle(directory, ReportFormat.JSON);
+        bundle.open();
+        assertEquals("data/pages-0000.json.gz",
+                bundle.add(page(0), result(90)));
+        for (int i = 1; i <= JsonBundle.CHUNK_PAGES; i++) {
+            bundle.add(page(i), result(50));
+        }
+        bundle.close();
+
+        File data = new File(directory, JsonBundle.DATA_DIR);
+        String index = gunzip(new File(data, "index.json.gz"));
+        assertTrue(index.startsWith("{\"chunks\":2,"));
+        assertTrue(index.contains("[\"http://www.example.com/page0\",0,0,90,"));
+        assertTrue(index.contains("[\"http://www.example.com/page"
+                + JsonBundle.CHUNK_PAGES + "\",1,0,50,"));
+
+        String first = gunzip(new File(data, "pages-0000.json.gz"));
+        assertTrue(first.startsWith("[{\"url\":\"http://www.example.com/page0\""));
+        assertTrue(first.contains("\"ynumreq\":{\"score\":80"));
+        assertFalse(first.contains("Make fewer HTTP requests"));
+        String second = gunzip(new File(data, "pages-0001.json.gz"));
+        assertTrue(second.endsWith("}]"));
+
+        assertEquals("{\"ynumreq\":{\"name\":\"Make fewer HTTP requests\"}}",
+                gunzip(new File(data, "rules.json.gz")));
+        assertTrue(new File(directory, JsonBundle.VIEWER).isFile());
+    }
+
+    @Test
+    public void browserProfilesAreSummedUpInTheIndex() throws IOException {
+        JsonBundle bundle = new JsonBundle(directory, ReportFormat.JSON);
+        bundle.open();
+        bundle.add(page(0), profiled(result(90), "1500", "80", "104857600"));
+        bundle.add(page(1), profiled(result(70), "2500", "120", "52428800"));
+        bundle.add(page(2), result(50));
+        bundle.close();
+
+        String index = gunzip(new File(new File(directory,
+                JsonBundle.DATA_DIR), "index.json.gz"));
+        assertTrue(index.contains("\"profile\":{\"pages\":2,\"cpu\":4000,"
+                + "\"peakCpu\":120,\"peakRss\":104857600}"));
+    }
+
+    @Test
+    public void nothingIsWrittenForHtmlReports() throws IOException {
+        JsonBundle bundle = new JsonBundle(directory, ReportFormat.HTML);
+        bundle.open();
+        bundle.close();
+
+        assertFalse(bundle.isEnabled());
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    private static URI page(int i) {
+        return URI.create("http://www.example.com/page" + i);
+    }
+
+    private static Document result(int score) {
+        Element results = new Element("results");
+        results.addContent(new Element("o").setText(Integer.toString(score)));
+        results.addContent(new Element("lt").setText("1200"));
+        results.addContent(new Element("r").setText("12"));
+        results.addContent(new Element("w").setText("40960"));
+        Element rule = new Element("ynumreq");
+        rule.addContent(new Element("score").setText("80"));
+        rule.addContent(new Element("message").setText("Too many requests"));
+        results.addContent(new Element("g").addContent(rule));
+        Element description = new Element("ynumreq");
+        description.addContent(new Element("name")
+                .setText("Make fewer HTTP requests"));
+        results.addContent(new Element("dictionary").addContent(new Element(
+                "rules").addContent(description)));
+        return new Document(results);
+    }
+
+    private static Document profiled(Document result, String cpu,
+            String peakCpu, String rss) {
+        Element profile = new Element("profile").setAttribute("samples", "3");
+        profile.addContent(new Element("cpu").setText(cpu));
+        profile.addContent(new Element("peakcpu").setText(peakCpu));
+        profile.addContent(new Element("rss").setText(rss));
+        result.getRootElement().addContent(profile);
+        return result;
+    }
+
+    private static String gunzip(File file) throws IOException {
+        Reader in = new InputStreamReader(new GZIPInputStream(
+                new FileInputStream(file)), Charsets.UTF_8);
+        boolean threw = true;
+        try {
+            String content = CharStreams.toString(in);
+            threw = false;
+            return content;
+        } finally {
+            Closeables.close(in, threw);
+        }
+    }
+
+    @After
+    public void deleteDirectory() {
+        delete(directory);
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
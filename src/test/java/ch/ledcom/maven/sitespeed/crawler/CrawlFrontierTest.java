@@ -0,0 +1,89 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.crawler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CrawlFrontierTest {
+
+    private static final int MEMORY_THRESHOLD = 10;
+    private static final int URI_COUNT = 1000;
+
+    private CrawlFrontier frontier;
+
+    @Before
+    public void createFrontier() {
+        frontier = new CrawlFrontier(MEMORY_THRESHOLD);
+    }
+
+    @Test
+    public void entriesAreReturnedInOrderAfterSpilling() throws IOException {
+        for (int i = 0; i < URI_COUNT; i++) {
+            assertTrue(frontier.offer(uri(i), i % 3));
+        }
+        for (int i = 0; i < URI_COUNT; i++) {
+            FrontierEntry entry = frontier.poll();
+            assertEquals(uri(i), entry.getUri());
+            assertEquals(i % 3, entry.getDepth());
+        }
+        assertNull(frontier.poll());
+        assertTrue(frontier.isEmpty());
+    }
+
+    @Test
+    public void visitedUrisAreNotQueuedTwice() throws IOException {
+        for (int i = 0; i < URI_COUNT; i++) {
+            frontier.offer(uri(i), 0);
+        }
+        for (int i = 0; i < URI_COUNT; i++) {
+            assertFalse("URI should already be visited",
+                    frontier.offer(uri(i), 1));
+        }
+        assertEquals(URI_COUNT, frontier.visitedCount());
+    }
+
+    @Test
+    public void frontierCanBeRefilledAfterBeingDrained() throws IOException {
+        for (int i = 0; i < URI_COUNT; i++) {
+            frontier.offer(uri(i), 0);
+            if (i % 7 == 0) {
+                frontier.poll();
+            }
+        }
+        int remaining = 0;
+        while (frontier.poll() != null) {
+            remaining++;
+        }
+        assertEquals(URI_COUNT - (URI_COUNT + 6) / 7, remaining);
+    }
+
+    @After
+    public void closeFrontier() throws IOException {
+        frontier.close();
+    }
+
+    private static URI uri(int i) {
+        return URI.create("http://www.example.com/page" + i + ".html");
+    }
+}
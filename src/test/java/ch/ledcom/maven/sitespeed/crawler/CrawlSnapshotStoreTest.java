@@ -0,0 +1,98 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.crawler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+
+public class CrawlSnapshotStoreTest {
+
+    private static final String KEY = "test-key";
+    private static final long TTL = 60000;
+    private static final List<URI> URIS = ImmutableList.of(
+            URI.create("http://www.example.com/"),
+            URI.create("http://www.example.com/page1.html"),
+            URI.create("http://www.example.com/page2.html"),
+            URI.create("http://www.example.com/other/page.html"));
+
+    private File directory;
+    private CrawlSnapshotStore store;
+
+    @Before
+    public void createStore() {
+        directory = Files.createTempDir();
+        store = new CrawlSnapshotStore(directory, TTL);
+    }
+
+    @Test
+    public void snapshotIsReplayedInOrder() throws IOException {
+        writeSnapshot();
+        assertTrue("Snapshot should be fresh", store.isFresh(KEY));
+
+        final List<URI> replayed = new ArrayList<URI>();
+        store.replay(KEY, new URICallback() {
+            @Override
+            public void submit(URI uri) {
+                replayed.add(uri);
+            }
+        });
+        assertEquals(URIS, replayed);
+    }
+
+    @Test
+    public void abortedSnapshotIsNotVisible() throws IOException {
+        CrawlSnapshotStore.Writer writer = store.newWriter(KEY);
+        writer.add(URIS.get(0));
+        writer.abort();
+        assertFalse("Aborted snapshot should not be used", store.isFresh(KEY));
+    }
+
+    @Test
+    public void snapshotsAreDisabledWithoutTtl() throws IOException {
+        writeSnapshot();
+        store = new CrawlSnapshotStore(directory, 0);
+        assertFalse(store.isEnabled());
+        assertFalse(store.isFresh(KEY));
+    }
+
+    @After
+    public void deleteDirectory() {
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    private void writeSnapshot() throws IOException {
+        CrawlSnapshotStore.Writer writer = store.newWriter(KEY);
+        for (URI uri : URIS) {
+            writer.add(uri);
+        }
+        writer.commit();
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.crawler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.net.URI;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DiskBackedURIQueueTest {
+
+    private static final int URI_COUNT = 1000;
+
+    private DiskBackedURIQueue queue;
+
+    @Before
+    public void createQueue() {
+        queue = new DiskBackedURIQueue(0);
+    }
+
+    @Test
+    public void spillFileIsReusedOnceDrained() throws IOException {
+        long fileSize = -1;
+        for (int pass = 0; pass < 3; pass++) {
+            for (int i = 0; i < URI_COUNT; i++) {
+                queue.add(new FrontierEntry(uri(pass, i), pass));
+            }
+            if (fileSize < 0) {
+                fileSize = queue.fileSize();
+            }
+            for (int i = 0; i < URI_COUNT; i++) {
+                assertEquals(uri(pass, i), queue.poll().getUri());
+            }
+            assertNull(queue.poll());
+            assertEquals(fileSize, queue.fileSize());
+        }
+    }
+
+    @After
+    public void closeQueue() throws IOException {
+        queue.close();
+    }
+
+    private static URI uri(int pass, int i) {
+        return URI.create("http://www.example.com/" + pass + "/page" + i
+                + ".html");
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.crawler;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class LinkGraphTest {
+
+    private static final URI HOME = URI.create("http://www.example.com/");
+    private static final URI PAGE1 = URI.create("http://www.example.com/1");
+    private static final URI PAGE2 = URI.create("http://www.example.com/2");
+    private static final URI PAGE3 = URI.create("http://www.example.com/3");
+
+    private LinkGraph graph;
+
+    /**
+     * Home links to all pages, all pages link back to home, page 1 and 2 link
+     * to page 3.
+     */
+    @Before
+    public void createGraph() {
+        graph = new LinkGraph();
+        graph.addLink(HOME, PAGE1);
+        graph.addLink(HOME, PAGE2);
+        graph.addLink(HOME, PAGE3);
+        graph.addLink(PAGE1, HOME);
+        graph.addLink(PAGE1, PAGE3);
+        graph.addLink(PAGE2, HOME);
+        graph.addLink(PAGE2, PAGE3);
+        graph.addLink(PAGE3, HOME);
+        graph.addLink(PAGE3, PAGE3);
+    }
+
+    @Test
+    public void nodesAreNumberedInDiscoveryOrder() {
+        assertEquals(4, graph.nodeCount());
+        assertEquals(8, graph.linkCount());
+        assertEquals(0, graph.node(HOME));
+        assertEquals(3, graph.node(PAGE3));
+        assertEquals(PAGE2, graph.uri(2));
+    }
+
+    @Test
+    public void linksToTheSamePageAreIgnored() {
+        graph.addLink(PAGE1, PAGE1);
+        graph.addLink(PAGE1, URI.create(PAGE1 + "#top"));
+
+        assertEquals(4, graph.nodeCount());
+        assertEquals(8, graph.linkCount());
+    }
+
+    @Test
+    public void inboundLinksAreCounted() {
+        assertArrayEquals(new int[] { 3, 1, 1, 3 }, graph.inboundLinks());
+    }
+
+    @Test
+    public void orderByInboundLinksKeepsDiscoveryOrderForTies() {
+        assertArrayEquals(new int[] { 0, 3, 1, 2 },
+                graph.order(AnalysisOrder.INBOUND_LINKS));
+    }
+
+    @Test
+    public void pageRankSumsToOne() {
+        double[] rank = graph.pageRank();
+        double sum = 0;
+        for (double r : rank) {
+            sum += r;
+        }
+        assertEquals(1.0, sum, 0.0001);
+        assertTrue("Home should be the most important page",
+                rank[0] > rank[3]);
+        assertArrayEquals(new int[] { 0, 3, 1, 2 },
+                graph.order(AnalysisOrder.PAGERANK));
+    }
+}
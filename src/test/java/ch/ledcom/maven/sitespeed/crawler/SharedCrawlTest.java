@@ -0,0 +1,89 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.crawler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class SharedCrawlTest {
+
+    private static final URI PAGE1 = URI.create("http://localhost/1");
+    private static final URI PAGE2 = URI.create("http://localhost/2");
+
+    @Test
+    public void singleRunAlwaysCrawls() {
+        SharedCrawl crawl = new SharedCrawl();
+        URICallback callback = new Collector(null);
+
+        assertTrue(crawl.lead());
+        assertTrue(crawl.lead());
+        assertSame(callback, crawl.record(callback));
+    }
+
+    @Test(timeout = 5000)
+    public void otherRunsReplayTheCrawlAsItGoes() throws Exception {
+        final SharedCrawl crawl = new SharedCrawl(2);
+        assertTrue(crawl.lead());
+        assertFalse(crawl.lead());
+
+        final List<URI> crawled = new CopyOnWriteArrayList<URI>();
+        final List<URI> replayed = new CopyOnWriteArrayList<URI>();
+        Thread follower = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    crawl.replay(new Collector(replayed));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        follower.start();
+
+        URICallback recording = crawl.record(new Collector(crawled));
+        recording.submit(PAGE1);
+        while (replayed.isEmpty()) {
+            Thread.sleep(10);
+        }
+        recording.submit(PAGE2);
+        crawl.complete();
+        follower.join();
+
+        assertEquals(ImmutableList.of(PAGE1, PAGE2), crawled);
+        assertEquals(ImmutableList.of(PAGE1, PAGE2), replayed);
+    }
+
+    private static final class Collector implements URICallback {
+        private final List<URI> uris;
+
+        private Collector(List<URI> uris) {
+            this.uris = uris;
+        }
+
+        @Override
+        public void submit(URI uri) {
+            uris.add(uri);
+        }
+    }
+}
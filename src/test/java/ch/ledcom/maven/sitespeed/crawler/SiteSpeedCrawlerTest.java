@@ -13,16 +13,25 @@
  */
 package ch.ledcom.maven.sitespeed.crawler;
 
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
+import java.io.File;
 import java.io.IOException;
+import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.http.client.HttpClient;
 import org.junit.After;
 import org.junit.Before;
@@ -31,8 +40,12 @@ import org.junit.Test;
 import ch.ledcom.maven.sitespeed.httpserver.HttpTestServer;
 import ch.ledcom.maven.sitespeed.utils.UrlUtils;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
 import com.soulgalore.crawler.core.Crawler;
+import com.soulgalore.crawler.core.CrawlerConfiguration;
 import com.soulgalore.crawler.core.HTMLPageResponseFetcher;
 import com.soulgalore.crawler.core.Parser;
 import com.soulgalore.crawler.core.impl.AhrefParser;
@@ -73,11 +86,12 @@ public class SiteSpeedCrawlerTest {
         Parser parser = new AhrefParser();
         Crawler crawler = new DefaultCrawler(responseFetcher, service, parser);
         ssCrawler = new SiteSpeedCrawler(crawler, 2, true, "/", "", "",
-                HTTP_URL1);
+                HTTP_URL1, 1000, new CrawlSnapshotStore(null, 0), false, false,
+                AnalysisOrder.CRAWL, new SharedCrawl());
     }
 
     @Test
-    public void crawlTwoPages() throws URISyntaxException {
+    public void crawlTwoPages() throws URISyntaxException, IOException {
         URICallback callback = mock(URICallback.class);
         ssCrawler.crawl(callback);
 
@@ -85,6 +99,86 @@ public class SiteSpeedCrawlerTest {
         verify(callback).submit(HTTP_URL2.toURI());
     }
 
+    @Test
+    public void singlePassFollowsHarvestedLinks() throws URISyntaxException,
+            IOException {
+        Crawler crawler = mock(Crawler.class);
+        final SiteSpeedCrawler singlePassCrawler = new SiteSpeedCrawler(
+                crawler, 2, false, "/", "", "", HTTP_URL1, 1000,
+                new CrawlSnapshotStore(null, 0), false, true,
+                AnalysisOrder.CRAWL, new SharedCrawl());
+        final List<URI> submitted = new ArrayList<URI>();
+        singlePassCrawler.crawl(new URICallback() {
+            @Override
+            public void submit(URI uri) {
+                submitted.add(uri);
+                try {
+                    // every page links to page 2 and to another host
+                    singlePassCrawler.linksFound(uri, ImmutableList.of(
+                            HTTP_URL2.toURI(),
+                            URI.create("http://www.example.com/")));
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+
+        assertEquals(ImmutableList.of(HTTP_URL1.toURI(), HTTP_URL2.toURI()),
+                submitted);
+        verify(crawler, never()).getUrls(any(CrawlerConfiguration.class));
+    }
+
+    @Test
+    public void singlePassSnapshotIsNotReplayedByOtherCrawls()
+            throws URISyntaxException, IOException {
+        File cache = Files.createTempDir();
+        try {
+            CrawlSnapshotStore snapshots = new CrawlSnapshotStore(cache,
+                    TimeUnit.HOURS.toMillis(1));
+            // no links are harvested, the snapshot only holds the start page
+            final SiteSpeedCrawler singlePassCrawler = new SiteSpeedCrawler(
+                    newCrawler(), 2, false, "/", "", "", HTTP_URL1, 1000,
+                    snapshots, true, true, AnalysisOrder.CRAWL,
+                    new SharedCrawl());
+            singlePassCrawler.crawl(new URICallback() {
+                @Override
+                public void submit(URI uri) {
+                    try {
+                        singlePassCrawler.linksFound(uri,
+                                ImmutableList.<URI> of());
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            });
+            singlePassCrawler.shutdown();
+
+            SiteSpeedCrawler crawler = new SiteSpeedCrawler(newCrawler(), 2,
+                    false, "/", "", "", HTTP_URL1, 1000, snapshots, false,
+                    false, AnalysisOrder.CRAWL, new SharedCrawl());
+            final List<URI> submitted = new ArrayList<URI>();
+            crawler.crawl(new URICallback() {
+                @Override
+                public void submit(URI uri) {
+                    submitted.add(uri);
+                }
+            });
+            crawler.shutdown();
+
+            assertEquals(ImmutableSet.of(HTTP_URL1.toURI(), HTTP_URL2.toURI()),
+                    ImmutableSet.copyOf(submitted));
+        } finally {
+            FileUtils.deleteDirectory(cache);
+        }
+    }
+
+    private static Crawler newCrawler() {
+        HttpClient httpClient = new HttpClientProvider(5, 5000, 5000,
+                (String) null, "").get();
+        return new DefaultCrawler(new HttpClientResponseFetcher(httpClient),
+                Executors.newFixedThreadPool(2), new AhrefParser());
+    }
+
     @After
     public void shutdownHttpServer() {
         httpServer.stop();
@@ -0,0 +1,168 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.daemon;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.net.URL;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.ledcom.maven.sitespeed.daemon.DaemonClient.DaemonException;
+
+import com.google.common.io.Files;
+
+public class DaemonTest {
+
+    private File directory;
+    private File daemonFile;
+
+    @Before
+    public void createDirectory() {
+        directory = Files.createTempDir();
+        daemonFile = new File(directory, "daemon.properties");
+    }
+
+    @After
+    public void deleteDirectory() {
+        daemonFile.delete();
+        directory.delete();
+    }
+
+    @Test(timeout = 10000)
+    public void runsAreExecutedInTheDaemon() throws Exception {
+        final List<String> received = new CopyOnWriteArrayList<String>();
+        Thread server = start(new DaemonHandler() {
+            @Override
+            public void run(Properties parameters, Log log) {
+                received.add(parameters.getProperty("url"));
+                log.info("analyzing " + parameters.getProperty("url"));
+            }
+        });
+        DaemonClient client = DaemonClient.find(daemonFile);
+        assertNotNull(client);
+
+        RecordingLog log = new RecordingLog();
+        Properties parameters = new Properties();
+        parameters.setProperty("url", "http://localhost/");
+        client.run(parameters, log);
+        client.run(parameters, log);
+
+        assertEquals(2, received.size());
+        assertEquals("http://localhost/", received.get(0));
+        assertEquals("analyzing http://localhost/", log.messages.get(0));
+
+        client.stop(log);
+        server.join();
+        assertFalse(daemonFile.exists());
+    }
+
+    @Test(timeout = 10000)
+    public void failuresAreReportedToTheClient() throws Exception {
+        Thread server = start(new DaemonHandler() {
+            @Override
+            public void run(Properties parameters, Log log) {
+                throw new IllegalStateException("broken");
+            }
+        });
+        DaemonClient client = DaemonClient.find(daemonFile);
+        try {
+            client.run(new Properties(), new RecordingLog());
+            fail("the failure should be reported");
+        } catch (DaemonException e) {
+            assertTrue(e.getMessage().startsWith("broken"));
+        }
+        client.stop(new RecordingLog());
+        server.join();
+    }
+
+    @Test
+    public void staleDaemonFileIsIgnored() throws Exception {
+        Files.write("port=1\ntoken=abc\n".getBytes("ISO-8859-1"), daemonFile);
+        assertNull(DaemonClient.find(daemonFile));
+        assertNull(DaemonClient.find(new File(directory, "missing")));
+    }
+
+    @Test
+    public void parametersAreCopied() throws Exception {
+        Parameters source = new Parameters();
+        source.name = "test";
+        source.depth = 3;
+        source.enabled = true;
+        source.file = new File("relative");
+        source.url = new URL("http://localhost/");
+        source.unit = TimeUnit.SECONDS;
+
+        Parameters copy = new Parameters();
+        MojoParameters.read(MojoParameters.write(source), copy);
+
+        assertEquals("test", copy.name);
+        assertEquals(3, copy.depth);
+        assertTrue(copy.enabled);
+        assertEquals(new File("relative").getAbsoluteFile(), copy.file);
+        assertEquals("http://localhost/", copy.url.toExternalForm());
+        assertEquals(TimeUnit.SECONDS, copy.unit);
+    }
+
+    private Thread start(final DaemonHandler handler) throws Exception {
+        Thread server = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    new DaemonServer(daemonFile, 5000, handler,
+                            new SystemStreamLog()).serve();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        };
+        server.start();
+        while (DaemonClient.find(daemonFile) == null) {
+            Thread.sleep(10);
+        }
+        return server;
+    }
+
+    private static class Parameters {
+        private String name;
+        private int depth;
+        private boolean enabled;
+        private File file;
+        private URL url;
+        private TimeUnit unit;
+    }
+
+    private static class RecordingLog extends SystemStreamLog {
+        private final List<String> messages = new CopyOnWriteArrayList<String>();
+
+        @Override
+        public void info(CharSequence content) {
+            messages.add(content.toString());
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.har;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.Socket;
+import java.net.URL;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.ledcom.maven.sitespeed.archive.ArchiveMode;
+import ch.ledcom.maven.sitespeed.archive.ResponseArchive;
+import ch.ledcom.maven.sitespeed.httpserver.HttpTestServer;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+
+public class RecordingProxyTest {
+
+    private static final int HTTP_PORT = 9874;
+    private static final String HTTP_PATH = "/page";
+    private static final String HTTP_CONTENT = "<html><body>recorded</body></html>";
+
+    private HttpTestServer httpServer;
+    private File harFile;
+    private HarWriter har;
+    private RecordingProxy proxy;
+
+    @Before
+    public void startProxy() throws IOException {
+        httpServer = new HttpTestServer(HTTP_PORT, HTTP_PATH, HTTP_CONTENT);
+        httpServer.start();
+        harFile = File.createTempFile("recording", ".har");
+        har = new HarWriter(harFile, "http://localhost/",
+                System.currentTimeMillis());
+        proxy = new RecordingProxy(har, new ResponseArchive(ArchiveMode.OFF,
+                harFile, new SystemStreamLog()), Proxy.NO_PROXY,
+                new SystemStreamLog());
+        proxy.start();
+    }
+
+    @After
+    public void stopServer() {
+        httpServer.stop();
+        harFile.delete();
+    }
+
+    @Test(timeout = 10000)
+    public void requestsAreForwardedAndRecorded() throws IOException {
+        HttpURLConnection connection = open(new URL("http://localhost:"
+                + HTTP_PORT + HTTP_PATH + "?q=a%20b"));
+
+        assertEquals(200, connection.getResponseCode());
+        assertEquals(HTTP_CONTENT, read(connection));
+
+        String recorded = stopRecording();
+        assertTrue(recorded, recorded.startsWith("{\"log\":{\"version\":\"1.2\""));
+        assertTrue(recorded, recorded.contains("\"url\":\"http://localhost:"
+                + HTTP_PORT + HTTP_PATH + "?q=a%20b\""));
+        assertTrue(recorded, recorded.contains("\"status\":200"));
+        assertTrue(recorded, recorded
+                .contains("\"queryString\":[{\"name\":\"q\",\"value\":\"a b\"}]"));
+        assertTrue(recorded, recorded.contains("\"bodySize\":"
+                + HTTP_CONTENT.length()));
+        assertTrue(recorded, recorded.endsWith("]}}"));
+    }
+
+    @Test(timeout = 10000)
+    public void unreachableSitesAreRecordedAsFailures() throws IOException {
+        HttpURLConnection connection = open(new URL("http://localhost:1/"));
+
+        assertEquals(502, connection.getResponseCode());
+
+        String recorded = stopRecording();
+        assertTrue(recorded, recorded.contains("\"status\":0"));
+        assertTrue(recorded, recorded.contains("\"_error\":"));
+    }
+
+    @Test(timeout = 10000)
+    public void tunnelsAreRecorded() throws IOException {
+        String[] address = proxy.address().split(":");
+        Socket socket = new Socket(address[0], Integer.parseInt(address[1]));
+        try {
+            OutputStream out = socket.getOutputStream();
+            out.write(("CONNECT localhost:" + HTTP_PORT
+                    + " HTTP/1.1\r\n\r\n").getBytes(Charsets.ISO_8859_1));
+            // plain HTTP through the tunnel, as HTTPS cannot be tested here
+            out.write(("GET " + HTTP_PATH
+                    + " HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n")
+                    .getBytes(Charsets.ISO_8859_1));
+            out.flush();
+            String response = new String(ByteStreams.toByteArray(socket
+                    .getInputStream()), Charsets.ISO_8859_1);
+            assertTrue(response, response
+                    .startsWith("HTTP/1.1 200 Connection established"));
+            assertTrue(response, response.endsWith(HTTP_CONTENT));
+        } finally {
+            socket.close();
+        }
+
+        String recorded = stopRecording();
+        assertTrue(recorded, recorded.contains("\"method\":\"CONNECT\""));
+        assertTrue(recorded, recorded.contains("\"url\":\"https://localhost:"
+                + HTTP_PORT + "/\""));
+    }
+
+    @Test(timeout = 10000)
+    public void recordedResponsesAreReplayedWithoutNetwork()
+            throws IOException {
+        proxy.close();
+        File archiveFile = File.createTempFile("responses", ".archive");
+        try {
+            ResponseArchive archive = new ResponseArchive(ArchiveMode.RECORD,
+                    archiveFile, new SystemStreamLog());
+            archive.open();
+            proxy = new RecordingProxy(null, archive, Proxy.NO_PROXY,
+                    new SystemStreamLog());
+            proxy.start();
+            URL url = new URL("http://localhost:" + HTTP_PORT + HTTP_PATH);
+            assertEquals(HTTP_CONTENT, read(open(url)));
+            proxy.close();
+            archive.close();
+            httpServer.stop();
+
+            archive = new ResponseArchive(ArchiveMode.REPLAY, archiveFile,
+                    new SystemStreamLog());
+            archive.open();
+            proxy = new RecordingProxy(har, archive, Proxy.NO_PROXY,
+                    new SystemStreamLog());
+            proxy.start();
+            assertEquals(HTTP_CONTENT, read(open(url)));
+            assertEquals(504, open(new URL("http://localhost:" + HTTP_PORT
+                    + "/missing")).getResponseCode());
+            String recorded = stopRecording();
+            archive.close();
+            assertTrue(recorded, recorded.contains("Replayed from archive"));
+        } finally {
+            archiveFile.delete();
+        }
+    }
+
+    private HttpURLConnection open(URL url) throws IOException {
+        String[] address = proxy.address().split(":");
+        return (HttpURLConnection) url.openConnection(new Proxy(
+                Proxy.Type.HTTP, new InetSocketAddress(address[0], Integer
+                        .parseInt(address[1]))));
+    }
+
+    private String stopRecording() throws IOException {
+        proxy.close();
+        har.close();
+        return Files.toString(harFile, Charsets.UTF_8);
+    }
+
+    private static String read(HttpURLConnection connection)
+            throws IOException {
+        InputStream in = connection.getInputStream();
+        try {
+            return new String(ByteStreams.toByteArray(in), Charsets.UTF_8);
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.history;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Files;
+
+public class HistoryStoreTest {
+
+    private File directory;
+
+    @Before
+    public void createDirectory() {
+        directory = Files.createTempDir();
+    }
+
+    @Test
+    public void eachRunAddsASegment() throws IOException {
+        record(result(90, 1200), result(70, 3000));
+        record(result(80, 1000));
+
+        List<File> segments = HistoryStore.segments(directory);
+        assertEquals(2, segments.size());
+
+        HistorySegment first = HistorySegment.open(segments.get(0));
+        assertEquals(2, first.pages());
+        assertEquals(ImmutableList.of("http://www.example.com/page0",
+                "http://www.example.com/page1"), first.urls());
+        assertArrayEquals(new int[] { 90, 70 }, first.column(Metric.SCORE));
+        assertArrayEquals(new int[] { 1200, 3000 },
+                first.column(Metric.LOAD_TIME));
+        assertArrayEquals(new int[] { HistorySegment.MISSING,
+                HistorySegment.MISSING }, first.column(Metric.TTFB));
+        assertTrue(first.timestamp() <= HistorySegment.open(segments.get(1))
+                .timestamp());
+    }
+
+    @Test
+    public void columnsMissingFromOlderSegments() throws IOException {
+        File file = new File(directory, "run-0000000000001.seg");
+        Map<String, int[]> columns = ImmutableMap.of("SCORE", new int[] { 42 });
+        HistorySegment.write(file, 1, ImmutableList.of("http://a/"), columns);
+
+        HistorySegment segment = HistorySegment.open(file);
+        assertEquals(1, segment.timestamp());
+        assertArrayEquals(new int[] { 42 }, segment.column(Metric.SCORE));
+        assertArrayEquals(new int[] { HistorySegment.MISSING },
+                segment.column(Metric.WEIGHT));
+    }
+
+    @Test(expected = IOException.class)
+    public void incompleteSegmentIsRejected() throws IOException {
+        File file = new File(directory, "run-0000000000001.seg");
+        Files.write(new byte[64], file);
+        HistorySegment.open(file);
+    }
+
+    private void record(Document... results) throws IOException {
+        HistoryStore store = new HistoryStore(true, directory);
+        store.open(directory);
+        for (int i = 0; i < results.length; i++) {
+            store.accept(URI.create("http://www.example.com/page" + i),
+                    results[i]);
+        }
+        store.close();
+    }
+
+    static Document result(int score, int loadTime) {
+        Element results = new Element("results");
+        results.addContent(new Element("o").setText(Integer.toString(score)));
+        results.addContent(new Element("lt").setText(Integer
+                .toString(loadTime)));
+        results.addContent(new Element("r").setText("10"));
+        results.addContent(new Element("w").setText("10240"));
+        return new Document(results);
+    }
+
+    @After
+    public void deleteDirectory() {
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.history;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.ledcom.maven.sitespeed.report.TrendRenderer;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Files;
+
+public class TrendTest {
+
+    private static final String PAGE1 = "http://www.example.com/";
+    private static final String PAGE2 = "http://www.example.com/<new>";
+
+    private File directory;
+
+    @Before
+    public void createDirectory() {
+        directory = Files.createTempDir();
+    }
+
+    @Test
+    public void urlsAreFollowedAcrossRuns() throws IOException {
+        Trend trend = Trend.read(ImmutableList.of(
+                segment(1, ImmutableList.of(PAGE1), new int[] { 90 }),
+                segment(2, ImmutableList.of(PAGE2, PAGE1),
+                        new int[] { 60, 80 })));
+
+        assertEquals(2, trend.runs());
+        assertEquals(2, trend.timestamp(1));
+        assertEquals(2, trend.pages(1));
+        assertEquals(90, trend.average(Metric.SCORE, 0));
+        assertEquals(70, trend.average(Metric.SCORE, 1));
+        assertArrayEquals(new int[] { 90, 80 },
+                trend.series(PAGE1, Metric.SCORE));
+        assertArrayEquals(new int[] { HistorySegment.MISSING, 60 },
+                trend.series(PAGE2, Metric.SCORE));
+        assertEquals(HistorySegment.MISSING,
+                trend.average(Metric.WEIGHT, 0));
+
+        StringWriter html = new StringWriter();
+        new TrendRenderer().render(trend, html);
+        assertTrue(html.toString().contains("http://www.example.com/&lt;new&gt;"));
+        assertTrue(html.toString().indexOf(PAGE1 + "<") < html.toString()
+                .indexOf("&lt;new&gt;"));
+    }
+
+    private HistorySegment segment(long timestamp, List<String> urls,
+            int[] scores) throws IOException {
+        File file = new File(directory, "run-" + timestamp + ".seg");
+        HistorySegment.write(file, timestamp, urls,
+                ImmutableMap.of(Metric.SCORE.name(), scores));
+        return HistorySegment.open(file);
+    }
+
+    @After
+    public void deleteDirectory() {
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+}
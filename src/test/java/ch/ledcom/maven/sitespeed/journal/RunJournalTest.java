@@ -0,0 +1,129 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.journal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+public class RunJournalTest {
+
+    private static final URI PAGE1 = URI.create("http://www.example.com/");
+    private static final URI PAGE2 = URI.create("http://www.example.com/page");
+
+    private File directory;
+
+    @Before
+    public void createDirectory() {
+        directory = Files.createTempDir();
+    }
+
+    @Test
+    public void resumedRunSkipsCompletedPages() throws IOException {
+        RunJournal journal = new RunJournal(directory, false);
+        journal.open();
+        journal.completed(PAGE1, "page1.html", 1200);
+        journal.close();
+
+        journal = new RunJournal(directory, true);
+        journal.open();
+        try {
+            assertTrue(journal.isCompleted(PAGE1));
+            assertFalse(journal.isCompleted(PAGE2));
+            assertEquals(Long.valueOf(1200), journal.previousDuration(PAGE1));
+        } finally {
+            journal.close();
+        }
+    }
+
+    @Test
+    public void newRunOnlyKeepsDurations() throws IOException {
+        RunJournal journal = new RunJournal(directory, false);
+        journal.open();
+        journal.completed(PAGE1, "page1.html", 1200);
+        journal.close();
+
+        journal = new RunJournal(directory, false);
+        journal.open();
+        try {
+            assertFalse(journal.isCompleted(PAGE1));
+            assertEquals(Long.valueOf(1200), journal.previousDuration(PAGE1));
+            assertNull(journal.previousDuration(PAGE2));
+        } finally {
+            journal.close();
+        }
+    }
+
+    @Test
+    public void truncatedEntryIsIgnored() throws IOException {
+        Files.write("1200\tpage1.html\t" + PAGE1 + "\n1500\tpage",
+                new File(directory, RunJournal.FILENAME), Charsets.UTF_8);
+
+        RunJournal journal = new RunJournal(directory, true);
+        journal.open();
+        journal.completed(PAGE2, "page2.html", 800);
+        journal.close();
+
+        journal = new RunJournal(directory, true);
+        journal.open();
+        try {
+            assertTrue(journal.isCompleted(PAGE1));
+            assertTrue(journal.isCompleted(PAGE2));
+            assertEquals(2, journal.previousDurations().size());
+        } finally {
+            journal.close();
+        }
+    }
+
+    @Test
+    public void entriesAreSyncedWhileTheRunGoesOn() throws IOException,
+            InterruptedException {
+        RunJournal journal = new RunJournal(directory, false);
+        journal.open();
+        try {
+            journal.completed(PAGE1, "page1.html", 1200);
+            File file = new File(directory, RunJournal.FILENAME);
+            long deadline = System.currentTimeMillis() + 10
+                    * RunJournal.SYNC_INTERVAL_MS;
+            while (file.length() == 0
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals("1200\tpage1.html\t" + PAGE1 + "\n",
+                    Files.toString(file, Charsets.UTF_8));
+        } finally {
+            journal.close();
+        }
+    }
+
+    @After
+    public void deleteDirectory() {
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+}
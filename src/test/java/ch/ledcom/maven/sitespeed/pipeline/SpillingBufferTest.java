@@ -0,0 +1,138 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.pipeline;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Test;
+
+import ch.ledcom.maven.sitespeed.pipeline.Flow.Subscriber;
+import ch.ledcom.maven.sitespeed.pipeline.Flow.Subscription;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+
+public class SpillingBufferTest {
+
+    private static final Codec<String> STRINGS = new Codec<String>() {
+        @Override
+        public long sizeOf(String item) {
+            return item.length();
+        }
+
+        @Override
+        public byte[] encode(String item) {
+            return item.getBytes(Charsets.UTF_8);
+        }
+
+        @Override
+        public String decode(byte[] bytes) {
+            return new String(bytes, Charsets.UTF_8);
+        }
+    };
+
+    @Test(timeout = 5000)
+    public void itemsOverBudgetAreSpilledAndKeepTheirOrder()
+            throws Exception {
+        // segments smaller than items, so that records span segments
+        SpillingBuffer<String> buffer = new SpillingBuffer<String>("test",
+                10, STRINGS, new SystemStreamLog(), 4);
+        Source<String> source = new Source<String>();
+        Collector collector = new Collector();
+        source.subscribe(buffer);
+        buffer.subscribe(collector);
+
+        source.publish("aaaa");
+        source.publish("bbbb");
+        source.publish("cccccc");
+        source.publish("dd");
+        source.complete();
+
+        assertEquals(2, buffer.spilled());
+        collector.request(1);
+        assertEquals(ImmutableList.of("aaaa"), collector.items);
+        collector.request(10);
+        assertTrue(buffer.awaitTermination(1, TimeUnit.SECONDS));
+        assertEquals(ImmutableList.of("aaaa", "bbbb", "cccccc", "dd"),
+                collector.items);
+        assertTrue(collector.completed);
+        assertEquals(0, buffer.spilled());
+    }
+
+    @Test(timeout = 5000)
+    public void spillFileIsReusedOnceRead() throws IOException {
+        SpillFile spill = new SpillFile("test-", 8);
+        try {
+            spill.append(STRINGS.encode("first"));
+            assertEquals("first", STRINGS.decode(spill.next()));
+            spill.append(STRINGS.encode("second"));
+            assertEquals("second", STRINGS.decode(spill.next()));
+            assertEquals(16, spill.mappedSize());
+        } finally {
+            spill.close();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void itemsWithinBudgetStayInMemory() throws Exception {
+        SpillingBuffer<String> buffer = new SpillingBuffer<String>("test",
+                100, STRINGS, new SystemStreamLog());
+        Source<String> source = new Source<String>();
+        Collector collector = new Collector();
+        source.subscribe(buffer);
+        buffer.subscribe(collector);
+
+        for (int i = 0; i < 10; i++) {
+            source.publish("item" + i);
+        }
+        source.complete();
+
+        assertEquals(0, buffer.spilled());
+        collector.request(10);
+        assertTrue(buffer.awaitTermination(1, TimeUnit.SECONDS));
+        assertEquals(10, collector.items.size());
+    }
+
+    private static final class Collector implements Subscriber<String> {
+        private final List<String> items = new CopyOnWriteArrayList<String>();
+        private volatile Subscription subscription;
+        private volatile boolean completed;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(String item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+
+        private void request(long n) {
+            subscription.request(n);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.pipeline;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+public class StageTest {
+
+    @Test(timeout = 5000)
+    public void itemsGoThroughAllStages() throws Exception {
+        Source<Integer> source = new Source<Integer>();
+        Stage<Integer, Integer> doubling = new Stage<Integer, Integer>(
+                "doubling", 2, new AsyncFunction<Integer, Integer>() {
+                    @Override
+                    public ListenableFuture<Integer> apply(Integer input) {
+                        return Futures.immediateFuture(input * 2);
+                    }
+                }, new SystemStreamLog());
+        final List<Integer> collected = new CopyOnWriteArrayList<Integer>();
+        Stage<Integer, Void> collecting = collect(collected, 1);
+        source.subscribe(doubling);
+        doubling.subscribe(collecting);
+
+        for (int i = 1; i <= 5; i++) {
+            source.publish(i);
+        }
+        source.complete();
+
+        assertTrue(collecting.awaitTermination(1, TimeUnit.SECONDS));
+        assertEquals(ImmutableSet.of(2, 4, 6, 8, 10),
+                ImmutableSet.copyOf(collected));
+    }
+
+    @Test(timeout = 5000)
+    public void publishingWaitsWhileStageIsFull() throws Exception {
+        final Source<Integer> source = new Source<Integer>();
+        final List<SettableFuture<Integer>> running = new CopyOnWriteArrayList<SettableFuture<Integer>>();
+        Stage<Integer, Integer> slow = new Stage<Integer, Integer>("slow", 2,
+                new AsyncFunction<Integer, Integer>() {
+                    @Override
+                    public ListenableFuture<Integer> apply(Integer input) {
+                        SettableFuture<Integer> result = SettableFuture
+                                .create();
+                        running.add(result);
+                        return result;
+                    }
+                }, new SystemStreamLog());
+        source.subscribe(slow);
+
+        final AtomicInteger published = new AtomicInteger();
+        Thread publisher = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < 3; i++) {
+                        source.publish(i);
+                        published.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        publisher.start();
+        Thread.sleep(200);
+
+        assertEquals(2, published.get());
+        assertEquals(2, running.size());
+
+        running.get(0).set(0);
+        publisher.join();
+
+        assertEquals(3, published.get());
+        assertEquals(3, running.size());
+    }
+
+    @Test(timeout = 5000)
+    public void failedItemsAreDropped() throws Exception {
+        Source<Integer> source = new Source<Integer>();
+        Stage<Integer, Integer> failing = new Stage<Integer, Integer>(
+                "failing", 2, new AsyncFunction<Integer, Integer>() {
+                    @Override
+                    public ListenableFuture<Integer> apply(Integer input) {
+                        if (input % 2 == 0) {
+                            throw new IllegalArgumentException("even");
+                        }
+                        if (input == 3) {
+                            return Futures.immediateFuture(null);
+                        }
+                        return Futures.immediateFuture(input);
+                    }
+                }, new SystemStreamLog());
+        final List<Integer> collected = new CopyOnWriteArrayList<Integer>();
+        Stage<Integer, Void> collecting = collect(collected, 2);
+        source.subscribe(failing);
+        failing.subscribe(collecting);
+
+        for (int i = 1; i <= 6; i++) {
+            source.publish(i);
+        }
+        source.complete();
+
+        assertTrue(collecting.awaitTermination(1, TimeUnit.SECONDS));
+        Set<Integer> expected = ImmutableSet.of(1, 5);
+        assertEquals(expected, ImmutableSet.copyOf(collected));
+    }
+
+    @Test(timeout = 5000)
+    public void stageWithoutItemsTerminatesOnCompletion() throws Exception {
+        Source<Integer> source = new Source<Integer>();
+        Stage<Integer, Void> collecting = collect(
+                new CopyOnWriteArrayList<Integer>(), 1);
+        source.subscribe(collecting);
+
+        assertFalse(collecting.awaitTermination(10, TimeUnit.MILLISECONDS));
+        source.complete();
+        assertTrue(collecting.awaitTermination(1, TimeUnit.SECONDS));
+    }
+
+    private static Stage<Integer, Void> collect(final List<Integer> collected,
+            int capacity) {
+        return new Stage<Integer, Void>("collecting", capacity,
+                new AsyncFunction<Integer, Void>() {
+                    @Override
+                    public ListenableFuture<Void> apply(Integer input) {
+                        collected.add(input);
+                        return Futures.immediateFuture(null);
+                    }
+                }, new SystemStreamLog());
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.report;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Properties;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JavaPageRendererTest {
+
+    private JavaPageRenderer renderer;
+
+    @Before
+    public void setUp() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("pageTitle", "Sitespeed");
+        properties.setProperty("pathToIncludes", "../");
+        renderer = new JavaPageRenderer(properties);
+    }
+
+    @Test
+    public void headerAndFooterComeFromTemplates() throws IOException {
+        String html = render(page());
+
+        assertTrue(html.startsWith("<!DOCTYPE html>"));
+        assertTrue(html.contains("<title>Sitespeed - http%3A%2F%2Fexample.com%2F</title>"));
+        assertTrue(html.contains("href=\"../css/styles.css\""));
+        assertTrue(html.contains("<script src=\"../js/all.js\"></script>"));
+        assertFalse(html.contains("##"));
+        assertFalse(html.contains("#if"));
+        assertTrue(html.endsWith("</html>"));
+    }
+
+    @Test
+    public void onlyScoresBelow100AreListed() throws IOException {
+        String html = render(page());
+
+        assertTrue(html.contains("Make fewer HTTP requests"));
+        assertTrue(html.contains("<td>70</td>"));
+        assertTrue(html.contains("<p>http://example.com/a.js</p>"));
+        assertFalse(html.contains("Use a CDN"));
+    }
+
+    @Test
+    public void valuesAreFormattedAsByTheTemplate() throws IOException {
+        String html = render(page());
+
+        // sizes are rounded to a tenth of a kilobyte
+        assertTrue(html.contains("<td data-sort-value=\"1.5\">1.5 kb</td>"));
+        assertTrue(html.contains("<td>2.5 (2.0) kb</td>"));
+        // whole divisions of integers stay integers
+        assertTrue(html.contains("<td>2 s</td>"));
+        assertTrue(html.contains("<td>5.0 %</td>"));
+        assertTrue(html.contains("<td>&lt;b&gt;caf&#233;</td>"));
+    }
+
+    @Test
+    public void reportMathMatchesVelocityTools() {
+        assertEquals(Integer.valueOf(2), ReportMath.div("2000", 1000));
+        assertEquals(Double.valueOf(2.345), ReportMath.div("2345", 1000));
+        assertEquals(Double.valueOf(2.0), ReportMath.roundTo(1, 2));
+        assertEquals(Double.valueOf(1.0), ReportMath.add("0.5", "0.5"));
+        assertEquals(null, ReportMath.div(1, 0));
+    }
+
+    private String render(Document doc) throws IOException {
+        StringWriter out = new StringWriter();
+        renderer.report(doc, out);
+        return out.toString();
+    }
+
+    private static Document page() {
+        Element root = new Element("results");
+        root.setAttribute("size", "2500");
+        root.setAttribute("ttfb", "0.1");
+        root.addContent(new Element("u").setText("http%3A%2F%2Fexample.com%2F"));
+        root.addContent(new Element("curl").setText("http://example.com/"));
+        root.addContent(new Element("o").setText("85"));
+        root.addContent(new Element("r").setText("3"));
+        root.addContent(new Element("lt").setText("2000"));
+
+        Element g = new Element("g");
+        g.addContent(score("ynumreq", "70", "http://example.com/a.js"));
+        g.addContent(score("ycdn", "100", null));
+        root.addContent(g);
+
+        Element rules = new Element("rules");
+        rules.addContent(new Element("ynumreq").addContent(new Element("name")
+                .setText("Make fewer HTTP requests")));
+        rules.addContent(new Element("ycdn").addContent(new Element("name")
+                .setText("Use a CDN")));
+        root.addContent(new Element("dictionary").addContent(rules));
+
+        Element stats = new Element("stats");
+        stats.addContent(new Element("doc").addContent(new Element("w")
+                .setText("2000")));
+        root.addContent(stats);
+
+        Element comps = new Element("comps");
+        Element comp = new Element("comp");
+        comp.addContent(new Element("type").setText("js"));
+        comp.addContent(new Element("url").setText("http://example.com/a.js"));
+        comp.addContent(new Element("size").setText("1500"));
+        Element response = new Element("response");
+        response.addContent(new Element("X-Test").setText("<b>caf\u00e9"));
+        comp.addContent(new Element("headers").addContent(response));
+        comps.addContent(comp);
+        root.addContent(comps);
+        return new Document(root);
+    }
+
+    private static Element score(String rule, String score, String item) {
+        Element message = new Element(rule);
+        message.addContent(new Element("score").setText(score));
+        message.addContent(new Element("message").setText(rule + " message"));
+        Element components = new Element("components");
+        if (item != null) {
+            components.addContent(new Element("item").setText(item));
+        }
+        message.addContent(components);
+        return message;
+    }
+}
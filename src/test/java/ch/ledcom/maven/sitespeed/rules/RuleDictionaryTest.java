@@ -0,0 +1,83 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.rules;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.jdom2.Element;
+import org.junit.Test;
+
+public class RuleDictionaryTest {
+
+    @Test
+    public void dictionaryIsTakenOutOfResults() {
+        Element results = results("strip-test", "Make fewer HTTP requests");
+
+        RuleDictionary dictionary = RuleDictionary.strip(results);
+
+        assertNull(results.getChild(RuleDictionary.ELEMENT));
+        assertSame(dictionary, RuleDictionary.of(results));
+        assertSame(dictionary, RuleDictionary.forRuleset("strip-test"));
+        assertEquals(2, dictionary.size());
+        assertEquals(1, dictionary.indexOf("ycdn"));
+        assertEquals(-1, dictionary.indexOf("yunknown"));
+        assertEquals("Use a CDN", dictionary.rule(1).getName());
+        assertEquals("Make fewer HTTP requests", dictionary.rule("ynumreq")
+                .getName());
+        assertEquals("8", dictionary.rule("ynumreq").getWeight());
+        assertNull(dictionary.rule("yunknown"));
+    }
+
+    @Test
+    public void firstDictionaryOfARulesetIsKept() {
+        RuleDictionary first = RuleDictionary.strip(results("intern-test",
+                "first"));
+        RuleDictionary second = RuleDictionary.strip(results("intern-test",
+                "second"));
+
+        assertSame(first, second);
+        assertEquals("first", second.rule("ynumreq").getName());
+    }
+
+    @Test
+    public void resultsWithoutRulesetKeepTheirDictionary() {
+        Element results = results(null, "Make fewer HTTP requests");
+
+        RuleDictionary.strip(results);
+
+        assertNotNull(results.getChild(RuleDictionary.ELEMENT));
+        RuleDictionary dictionary = RuleDictionary.of(results);
+        assertNull(dictionary.ruleset());
+        assertEquals(0, dictionary.indexOf("ynumreq"));
+    }
+
+    private static Element results(String ruleset, String name) {
+        Element results = new Element("results");
+        if (ruleset != null) {
+            results.addContent(new Element("i").setText(ruleset));
+        }
+        Element rules = new Element("rules");
+        rules.addContent(new Element("ynumreq").addContent(
+                new Element("name").setText(name)).addContent(
+                new Element("weight").setText("8")));
+        rules.addContent(new Element("ycdn").addContent(new Element("name")
+                .setText("Use a CDN")));
+        results.addContent(new Element(RuleDictionary.ELEMENT)
+                .addContent(rules));
+        return results;
+    }
+}
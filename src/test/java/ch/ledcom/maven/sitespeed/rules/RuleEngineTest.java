@@ -0,0 +1,132 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.rules;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.jdom2.Element;
+import org.junit.Test;
+
+import ch.ledcom.maven.sitespeed.rules.RuleEngine.Scores;
+
+public class RuleEngineTest {
+
+    private final RuleEngine engine = new RuleEngine();
+
+    @Test
+    public void componentRulesAreEvaluatedFromComponents() throws IOException {
+        Element results = results();
+        for (int i = 0; i < 3; i++) {
+            results.getChild("comps").addContent(
+                    comp("js", "http://www.example.com/" + i + ".js", 1000,
+                            false));
+        }
+
+        Scores scores = engine.score(results, Ruleset.load("yblog"));
+
+        assertEquals(100, (int) scores.rules().get("ynumreq"));
+        // the page and the 3 scripts are not compressed
+        assertEquals(56, (int) scores.rules().get("ycompress"));
+    }
+
+    @Test
+    public void rulesetParametersOverrideDefaults() throws IOException {
+        Element results = results();
+        for (int i = 0; i < 3; i++) {
+            results.getChild("comps").addContent(
+                    comp("js", "http://www.example.com/" + i + ".js", 100,
+                            true));
+        }
+
+        assertEquals(100, (int) engine.score(results, Ruleset.load("ydefault"))
+                .rules().get("ynumreq"));
+        // sitespeed.io allows only 2 scripts
+        assertEquals(96,
+                (int) engine.score(results, Ruleset.load("sitespeed.io-1.6"))
+                        .rules().get("ynumreq"));
+    }
+
+    @Test
+    public void otherRulesReuseStoredScores() throws IOException {
+        Element results = results();
+        Element minify = new Element("yminify");
+        minify.addContent(new Element("score").setText("40"));
+        results.getChild("g").addContent(minify);
+
+        Scores scores = engine.score(results, Ruleset.load("yblog"));
+
+        assertEquals(40, (int) scores.rules().get("yminify"));
+        assertFalse(scores.rules().containsKey("ymindom"));
+        assertTrue(scores.overall() < 100);
+    }
+
+    @Test
+    public void overallScoreIsWeightedAverage() throws IOException {
+        Element results = results();
+        results.getChild("comps").getChild("comp")
+                .addContent(new Element("gzip").setText("500"));
+        Element minify = new Element("yminify");
+        minify.addContent(new Element("score").setText("0"));
+        results.getChild("g").addContent(minify);
+
+        Scores scores = engine.score(results, Ruleset.load("yslow1"));
+
+        // only yminify, weighing 4, is below 100
+        int total = 0;
+        for (String rule : scores.rules().keySet()) {
+            total += Ruleset.load("yslow1").weights().get(rule);
+        }
+        assertEquals(Math.round(100f * (total - 4) / total), scores.overall());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownRulesetIsRejected() throws IOException {
+        Ruleset.load("unknown");
+    }
+
+    private static Element results() {
+        Element results = new Element("results");
+        results.addContent(new Element("u")
+                .setText("http%3A%2F%2Fwww.example.com%2F"));
+        results.addContent(new Element("g"));
+        Element comps = new Element("comps");
+        comps.addContent(comp("doc", "http://www.example.com/", 1000, false));
+        results.addContent(comps);
+        return results;
+    }
+
+    private static Element comp(String type, String url, int size,
+            boolean gzip) {
+        Element comp = new Element("comp");
+        comp.addContent(new Element("type").setText(type));
+        comp.addContent(new Element("url").setText(url));
+        comp.addContent(new Element("size").setText(Integer.toString(size)));
+        if (gzip) {
+            comp.addContent(new Element("gzip").setText(Integer
+                    .toString(size / 2)));
+        }
+        Element headers = new Element("headers");
+        Element response = new Element("response");
+        response.addContent(new Element("Cache-Control")
+                .setText("max-age=31536000"));
+        headers.addContent(response);
+        headers.addContent(new Element("request"));
+        comp.addContent(headers);
+        return comp;
+    }
+}
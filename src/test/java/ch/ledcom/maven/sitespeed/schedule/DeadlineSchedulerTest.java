@@ -0,0 +1,144 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.schedule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import ch.ledcom.maven.sitespeed.crawler.AnalysisOrder;
+import ch.ledcom.maven.sitespeed.crawler.URICallback;
+import ch.ledcom.maven.sitespeed.journal.RunJournal;
+import ch.ledcom.maven.sitespeed.schedule.DeadlineScheduler.ScheduledCallback;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+public class DeadlineSchedulerTest {
+
+    private static final long HOUR = 3600000;
+
+    private static final URI FAST = URI.create("http://www.example.com/fast");
+    private static final URI SLOW = URI.create("http://www.example.com/slow");
+    private static final URI NEW = URI.create("http://www.example.com/new");
+
+    /** The durations of a previous run, without reading a journal file. */
+    private final RunJournal journal = new RunJournal(null, false) {
+        private final Map<String, Long> durations = ImmutableMap.of(
+                FAST.toString(), 1000L, SLOW.toString(), 5000L);
+
+        @Override
+        public Long previousDuration(URI uri) {
+            return durations.get(uri.toString());
+        }
+
+        @Override
+        public Map<String, Long> previousDurations() {
+            return durations;
+        }
+    };
+
+    @Test
+    public void longestPagesAreSubmittedFirst() {
+        DeadlineScheduler scheduler = new DeadlineScheduler(HOUR, false,
+                AnalysisOrder.CRAWL, journal);
+        scheduler.start();
+        final List<URI> submitted = new ArrayList<URI>();
+        ScheduledCallback callback = scheduler.schedule(new URICallback() {
+            @Override
+            public void submit(URI uri) {
+                submitted.add(uri);
+            }
+        });
+        callback.submit(FAST);
+        callback.submit(NEW);
+        callback.submit(SLOW);
+        assertTrue("Pages should be held until drained", submitted.isEmpty());
+
+        callback.drain();
+        // unknown pages are estimated at the mean of known pages
+        assertEquals(ImmutableList.of(SLOW, NEW, FAST), submitted);
+    }
+
+    @Test
+    public void onlyAWindowOfPagesIsHeldBack() {
+        DeadlineScheduler scheduler = new DeadlineScheduler(HOUR, false,
+                AnalysisOrder.CRAWL, journal);
+        scheduler.start();
+        final List<URI> submitted = new ArrayList<URI>();
+        ScheduledCallback callback = scheduler.schedule(new URICallback() {
+            @Override
+            public void submit(URI uri) {
+                submitted.add(uri);
+            }
+        });
+        callback.submit(SLOW);
+        for (int i = 0; i < DeadlineScheduler.WINDOW; i++) {
+            callback.submit(URI.create("http://www.example.com/" + i));
+        }
+        assertEquals(ImmutableList.of(SLOW), submitted);
+
+        callback.drain();
+        assertEquals(DeadlineScheduler.WINDOW + 1, submitted.size());
+    }
+
+    @Test
+    public void importanceOrderIsKept() {
+        DeadlineScheduler scheduler = new DeadlineScheduler(HOUR, false,
+                AnalysisOrder.PAGERANK, journal);
+        scheduler.start();
+        final List<URI> submitted = new ArrayList<URI>();
+        ScheduledCallback callback = scheduler.schedule(new URICallback() {
+            @Override
+            public void submit(URI uri) {
+                submitted.add(uri);
+            }
+        });
+        callback.submit(FAST);
+        callback.submit(SLOW);
+        assertEquals(ImmutableList.of(FAST, SLOW), submitted);
+    }
+
+    @Test
+    public void pagesThatDoNotFitAreNotStarted() {
+        DeadlineScheduler scheduler = new DeadlineScheduler(2000, false,
+                AnalysisOrder.CRAWL, journal);
+        scheduler.start();
+        assertTrue(scheduler.canStart(FAST));
+        assertFalse(scheduler.canStart(SLOW));
+    }
+
+    @Test
+    public void pagesAreNotHeldWithoutDeadline() {
+        DeadlineScheduler scheduler = new DeadlineScheduler(0, false,
+                AnalysisOrder.CRAWL, journal);
+        scheduler.start();
+        final List<URI> submitted = new ArrayList<URI>();
+        scheduler.schedule(new URICallback() {
+            @Override
+            public void submit(URI uri) {
+                submitted.add(uri);
+            }
+        }).submit(SLOW);
+        assertEquals(ImmutableList.of(SLOW), submitted);
+        assertTrue(scheduler.canStart(SLOW));
+    }
+}
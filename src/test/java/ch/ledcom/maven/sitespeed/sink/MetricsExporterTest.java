@@ -0,0 +1,121 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.sink;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+public class MetricsExporterTest {
+
+    private static final URI PAGE1 = URI.create("http://www.example.com/");
+    private static final URI PAGE2 = URI
+            .create("http://www.example.com/a,b");
+
+    private File directory;
+
+    @Before
+    public void createDirectory() {
+        directory = Files.createTempDir();
+    }
+
+    @Test
+    public void jsonLinesHaveMetricsAndRuleScores() throws IOException {
+        export(ExportFormat.JSONL, false, PAGE1);
+
+        assertEquals("{\"url\":\"http://www.example.com/\",\"score\":85,"
+                + "\"loadTime\":1200,\"requests\":12,\"cachedRequests\":null,"
+                + "\"weight\":40960,\"cachedWeight\":null,\"ttfb\":150,"
+                + "\"rules\":{\"ynumreq\":80,\"yexpires\":90}}\n",
+                read("sitespeed-metrics.jsonl"));
+    }
+
+    @Test
+    public void csvHasOneRowPerPage() throws IOException {
+        export(ExportFormat.CSV, false, PAGE1, PAGE2);
+
+        assertEquals("url,score,loadTime,requests,cachedRequests,weight,"
+                + "cachedWeight,ttfb,ynumreq,yexpires\n"
+                + "http://www.example.com/,85,1200,12,,40960,,150,80,90\n"
+                + "\"http://www.example.com/a,b\",85,1200,12,,40960,,150,80,90\n",
+                read("sitespeed-metrics.csv"));
+    }
+
+    @Test
+    public void resumedCsvKeepsColumns() throws IOException {
+        Files.write("url,score,loadTime,requests,cachedRequests,weight,"
+                + "cachedWeight,ttfb,yexpires\n",
+                new File(directory, "sitespeed-metrics.csv"), Charsets.UTF_8);
+
+        export(ExportFormat.CSV, true, PAGE1);
+
+        assertEquals("url,score,loadTime,requests,cachedRequests,weight,"
+                + "cachedWeight,ttfb,yexpires\n"
+                + "http://www.example.com/,85,1200,12,,40960,,150,90\n",
+                read("sitespeed-metrics.csv"));
+    }
+
+    private void export(ExportFormat format, boolean resume, URI... pages)
+            throws IOException {
+        MetricsExporter exporter = new MetricsExporter(format, resume);
+        exporter.open(directory);
+        try {
+            for (URI page : pages) {
+                exporter.accept(page, result());
+            }
+        } finally {
+            exporter.close();
+        }
+    }
+
+    private String read(String file) throws IOException {
+        return Files.toString(new File(directory, file), Charsets.UTF_8);
+    }
+
+    private static Document result() {
+        Element results = new Element("results");
+        results.setAttribute("ttfb", "150");
+        results.addContent(new Element("o").setText("85"));
+        results.addContent(new Element("lt").setText("1200"));
+        results.addContent(new Element("r").setText("12"));
+        results.addContent(new Element("w").setText("40960"));
+        Element g = new Element("g");
+        g.addContent(new Element("ynumreq").addContent(new Element("score")
+                .setText("80")));
+        g.addContent(new Element("yexpires").addContent(new Element("score")
+                .setText("90")));
+        g.addContent(new Element("notscored"));
+        results.addContent(g);
+        return new Document(results);
+    }
+
+    @After
+    public void deleteDirectory() {
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.sink;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class ResultSinksTest {
+
+    private static final Document RESULT = new Document(new Element(
+            "results"));
+
+    @Test(timeout = 5000)
+    public void allSinksReceiveAllResults() throws Exception {
+        RecordingSink first = new RecordingSink();
+        RecordingSink second = new RecordingSink();
+        ResultSinks sinks = new ResultSinks(
+                ImmutableList.<ResultSink> of(first, second), 2, new File(
+                        "target"), new SystemStreamLog());
+        sinks.open();
+        for (int i = 0; i < 10; i++) {
+            sinks.publish(page(i), RESULT);
+        }
+        sinks.close();
+
+        assertEquals(10, first.received.size());
+        assertEquals(10, second.received.size());
+        assertEquals(page(9), second.received.get(9));
+        assertTrue(first.closed);
+        assertTrue(second.closed);
+    }
+
+    @Test(timeout = 5000)
+    public void publishingWaitsForSlowSink() throws Exception {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        RecordingSink slow = new RecordingSink() {
+            @Override
+            public void accept(URI uri, Document result) throws IOException {
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.accept(uri, result);
+            }
+        };
+        final ResultSinks sinks = new ResultSinks(
+                ImmutableList.<ResultSink> of(slow), 2, new File("target"),
+                new SystemStreamLog());
+        sinks.open();
+
+        final AtomicInteger published = new AtomicInteger();
+        Thread publisher = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < 3; i++) {
+                        sinks.publish(page(i), RESULT);
+                        published.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        publisher.start();
+        Thread.sleep(200);
+
+        assertEquals(2, published.get());
+
+        blocked.countDown();
+        publisher.join();
+        sinks.close();
+
+        assertEquals(3, slow.received.size());
+    }
+
+    @Test(timeout = 5000)
+    public void failingSinkDoesNotStopOthers() throws Exception {
+        RecordingSink failing = new RecordingSink() {
+            @Override
+            public void accept(URI uri, Document result) throws IOException {
+                throw new IOException("disk full");
+            }
+        };
+        RecordingSink working = new RecordingSink();
+        ResultSinks sinks = new ResultSinks(ImmutableList.<ResultSink> of(
+                failing, working), 2, new File("target"),
+                new SystemStreamLog());
+        sinks.open();
+        sinks.publish(page(0), RESULT);
+        sinks.publish(page(1), RESULT);
+        sinks.close();
+
+        assertEquals(2, working.received.size());
+        assertTrue(failing.closed);
+    }
+
+    private static URI page(int i) {
+        return URI.create("http://www.example.com/page" + i);
+    }
+
+    private static class RecordingSink implements ResultSink {
+        private final List<URI> received = new CopyOnWriteArrayList<URI>();
+        private volatile boolean closed;
+
+        @Override
+        public void open(File outputDir) {
+        }
+
+        @Override
+        public void accept(URI uri, Document result) throws IOException {
+            received.add(uri);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URI;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.ledcom.maven.sitespeed.rules.RuleDictionary;
+import ch.ledcom.maven.sitespeed.store.ResultStore.Reader;
+import ch.ledcom.maven.sitespeed.store.ResultStore.StoredResult;
+
+import com.google.common.io.Files;
+
+public class ResultStoreTest {
+
+    private static final URI PAGE1 = URI.create("http://www.example.com/");
+    private static final URI PAGE2 = URI.create("http://www.example.com/page");
+
+    private File directory;
+
+    @Before
+    public void createDirectory() {
+        directory = Files.createTempDir();
+    }
+
+    @After
+    public void deleteDirectory() {
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void resultsAreReadInOrder() throws IOException {
+        ResultStore store = new ResultStore(directory, false, true);
+        store.open();
+        store.store(PAGE1, result(PAGE1, 75));
+        store.store(PAGE2, result(PAGE2, 92));
+        store.close();
+
+        Reader reader = ResultStore.read(directory);
+        try {
+            StoredResult first = reader.next();
+            assertEquals(PAGE1, first.uri());
+            assertEquals("75", first.document().getRootElement()
+                    .getChildText("o"));
+            StoredResult second = reader.next();
+            assertEquals(PAGE2, second.uri());
+            assertEquals(PAGE2.toString(), second.document().getRootElement()
+                    .getChildText("u"));
+            assertNull(reader.next());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void resumedRunAppendsResults() throws IOException {
+        ResultStore store = new ResultStore(directory, false, true);
+        store.open();
+        store.store(PAGE1, result(PAGE1, 75));
+        store.close();
+        store = new ResultStore(directory, true, true);
+        store.open();
+        store.store(PAGE2, result(PAGE2, 92));
+        store.close();
+
+        Reader reader = ResultStore.read(directory);
+        try {
+            assertEquals(PAGE1, reader.next().uri());
+            assertEquals(PAGE2, reader.next().uri());
+            assertNull(reader.next());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void truncatedResultIsIgnored() throws IOException {
+        ResultStore store = new ResultStore(directory, false, true);
+        store.open();
+        store.store(PAGE1, result(PAGE1, 75));
+        store.store(PAGE2, result(PAGE2, 92));
+        store.close();
+        File file = new File(directory, ResultStore.FILENAME);
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(file.length() - 10);
+        } finally {
+            raf.close();
+        }
+
+        Reader reader = ResultStore.read(directory);
+        try {
+            assertEquals(PAGE1, reader.next().uri());
+            assertNull(reader.next());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void dictionaryMakesResultsSmaller() throws IOException {
+        ResultStore store = new ResultStore(directory, false, true);
+        store.open();
+        store.store(PAGE1, result(PAGE1, 75));
+        store.close();
+
+        File file = new File(directory, ResultStore.FILENAME);
+        assertTrue("Result should mostly be found in the dictionary, was "
+                + file.length() + " bytes", file.length() < 200);
+    }
+
+    @Test
+    public void ruleDictionaryIsStoredOnce() throws IOException {
+        Element dictionary = new Element(RuleDictionary.ELEMENT)
+                .addContent(new Element("rules").addContent(new Element(
+                        "ynumreq").addContent(new Element("name")
+                        .setText("Make fewer HTTP requests"))));
+        ResultStore store = new ResultStore(directory, false, true);
+        store.open();
+        for (URI page : new URI[] { PAGE1, PAGE2 }) {
+            Document result = result(page, 75);
+            result.getRootElement().addContent(
+                    new Element("i").setText("store-test"));
+            result.getRootElement().addContent(dictionary.clone());
+            RuleDictionary.strip(result.getRootElement());
+            store.store(page, result);
+        }
+        store.close();
+
+        Reader reader = ResultStore.read(directory);
+        try {
+            Element first = reader.next().document().getRootElement();
+            assertNull(first.getChild(RuleDictionary.ELEMENT));
+            assertEquals("Make fewer HTTP requests", RuleDictionary.of(first)
+                    .rule("ynumreq").getName());
+            assertEquals(PAGE2, reader.next().uri());
+            assertNull(reader.next());
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static Document result(URI uri, int score) {
+        Element results = new Element("results");
+        results.addContent(new Element("u").setText(uri.toString()));
+        results.addContent(new Element("o").setText(Integer.toString(score)));
+        Element rules = new Element("g");
+        for (String rule : new String[] { "ynumreq", "ycdn", "yemptysrc",
+                "yexpires", "ycompress", "ycsstop", "yjsbottom" }) {
+            rules.addContent(new Element(rule).addContent(
+                    new Element("score").setText("100")).addContent(
+                    new Element("message")).addContent(
+                    new Element("components")));
+        }
+        results.addContent(rules);
+        return new Document(results);
+    }
+}
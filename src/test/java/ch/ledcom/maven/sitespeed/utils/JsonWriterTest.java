@@ -0,0 +1,49 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+public class JsonWriterTest {
+
+    @Test
+    public void nestedValuesAreSeparated() throws IOException {
+        StringWriter out = new StringWriter();
+        new JsonWriter(out).beginObject() //
+                .name("a").value(1) //
+                .name("b").beginArray().value(true).nullValue()
+                .beginObject().endObject().endArray() //
+                .name("c").value(1.5) //
+                .endObject();
+        assertEquals("{\"a\":1,\"b\":[true,null,{}],\"c\":1.5}",
+                out.toString());
+    }
+
+    @Test
+    public void stringsAreEscaped() throws IOException {
+        StringWriter out = new StringWriter();
+        new JsonWriter(out).value("\"quoted\"\\\n\u0001\u2028");
+        assertEquals("\"\\\"quoted\\\"\\\\\\n\\u0001\\u2028\"", out.toString());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void valuesInObjectsNeedANameFirst() throws IOException {
+        new JsonWriter(new StringWriter()).beginObject().value(1);
+    }
+}
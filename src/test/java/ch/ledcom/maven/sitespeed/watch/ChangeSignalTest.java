@@ -0,0 +1,54 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.watch;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ChangeSignalTest {
+
+    @Test(timeout = 5000)
+    public void awaitTimesOutWithoutChange() throws Exception {
+        ChangeSignal signal = new ChangeSignal(10);
+        assertFalse(signal.await(20));
+    }
+
+    @Test(timeout = 5000)
+    public void burstsOfChangesAreCoalesced() throws Exception {
+        final ChangeSignal signal = new ChangeSignal(100);
+        Thread changes = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < 5; i++) {
+                        signal.signal();
+                        Thread.sleep(20);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        long start = System.currentTimeMillis();
+        changes.start();
+
+        assertTrue(signal.await(1000));
+        // woken up once, after the last change and the quiet period
+        assertTrue(System.currentTimeMillis() - start >= 180);
+        changes.join();
+        assertFalse(signal.await(50));
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package ch.ledcom.maven.sitespeed.watch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+// com.sun classes are restricted, but for a unit test, we dont care
+@SuppressWarnings("restriction")
+public class PageVersionsTest {
+
+    private HttpServer server;
+    private volatile String content = "first";
+    private volatile boolean sendEtag;
+    private final AtomicInteger notModified = new AtomicInteger();
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange t) throws IOException {
+                String etag = "\"" + content.hashCode() + "\"";
+                if (sendEtag) {
+                    if (etag.equals(t.getRequestHeaders().getFirst(
+                            "If-None-Match"))) {
+                        notModified.incrementAndGet();
+                        t.sendResponseHeaders(304, -1);
+                        t.close();
+                        return;
+                    }
+                    t.getResponseHeaders().set("ETag", etag);
+                }
+                byte[] body = content.getBytes(Charsets.UTF_8);
+                t.sendResponseHeaders(200, body.length);
+                OutputStream out = t.getResponseBody();
+                out.write(body);
+                out.close();
+            }
+        });
+        server.setExecutor((Executor) null);
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void pagesChangeWhenTheirContentChanges() {
+        PageVersions versions = new PageVersions(new SystemStreamLog());
+        URI page = page();
+
+        assertTrue(versions.changed(page));
+        assertFalse(versions.changed(page));
+        content = "second";
+        assertTrue(versions.changed(page));
+        assertFalse(versions.changed(page));
+    }
+
+    @Test
+    public void validatorsAreSent() {
+        sendEtag = true;
+        PageVersions versions = new PageVersions(new SystemStreamLog());
+        URI page = page();
+
+        assertTrue(versions.changed(page));
+        assertFalse(versions.changed(page));
+        assertEquals(1, notModified.get());
+        content = "second";
+        assertTrue(versions.changed(page));
+    }
+
+    @Test
+    public void unreachablePagesHaveNotChanged() {
+        PageVersions versions = new PageVersions(new SystemStreamLog());
+        server.stop(0);
+
+        assertFalse(versions.changed(page()));
+    }
+
+    private URI page() {
+        return URI.create("http://localhost:" + server.getAddress().getPort()
+                + "/index.html");
+    }
+}